@@ -1,21 +1,48 @@
 package com.todo;
 
+import com.todo.api.TaskApiServer;
+import com.todo.controller.Workspaces;
+import com.todo.transfer.TransferCommand;
 import com.todo.views.TaskManagerUI;
 import javafx.application.Application;
 import javafx.stage.Stage;
 
+import java.nio.file.Paths;
+
 public class App extends Application {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        // "serve [port]" runs the task engine headless behind the local HTTP API
+        if (args.length > 0 && args[0].equals("serve")) {
+            serve(args.length > 1 ? Integer.parseInt(args[1]) : 7070);
+            return;
+        }
+        // "import|export <kind> <file>" runs a bulk transfer against the store and exits
+        if (TransferCommand.handles(args)) {
+            System.exit(TransferCommand.run(args));
+        }
         launch(args);
     }
 
+    private static void serve(int port) throws Exception {
+        // Each workspace is loaded on first request and saved and unloaded when idle
+        Workspaces workspaces = new Workspaces(Paths.get("medialab"));
+        TaskApiServer server = new TaskApiServer(workspaces, port);
+        server.start();
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.stop();
+            workspaces.close();
+        }));
+        Thread.currentThread().join();
+    }
+
     public String getGreeting() {
         return "Hello, Task Manager!";
     }
 
     @Override
     public void start(Stage primaryStage) {
-        new TaskManagerUI().start(primaryStage); // Delegate to TaskManagerUI
+        // "--workspace=<name>" opens another workspace than the default one
+        String workspace = getParameters().getNamed().getOrDefault("workspace", Workspaces.DEFAULT);
+        new TaskManagerUI(workspace).start(primaryStage); // Delegate to TaskManagerUI
     }
 }
-
@@ -0,0 +1,560 @@
+package com.todo.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.todo.controller.CascadeResult;
+import com.todo.controller.TaskAnalytics;
+import com.todo.controller.TaskBatch;
+import com.todo.controller.TaskManager;
+import com.todo.controller.Workspace;
+import com.todo.controller.Workspaces;
+import com.todo.models.Task;
+import com.todo.models.TaskCategory;
+import com.todo.models.TaskPriority;
+import com.todo.models.TaskReminder;
+import com.todo.models.TaskStatus;
+
+/**
+ * Local HTTP/JSON front end for a {@link TaskManager}, or for many of them as
+ * {@link Workspaces}: a request then names its workspace with the
+ * {@code workspace} query parameter or the {@code X-Workspace} header (the
+ * default workspace otherwise), which is loaded on first use.
+ * <p>
+ * The server binds to the loopback interface only and handles every request on
+ * its own virtual thread. {@code TaskManager} itself is not thread-safe, so all
+ * calls into it go through its workspace's read/write lock: reads run
+ * concurrently, mutations run one at a time. List endpoints are paged ({@code offset}/{@code limit}) and
+ * the selected page is streamed to the client with a {@link JsonGenerator}, so a
+ * large store never has to be rendered into one in-memory document.
+ * </p>
+ *
+ * <pre>
+ * GET    /api/tasks?offset=&amp;limit=                     paged task list
+ * GET    /api/tasks/search?title=&amp;category=&amp;priority=  paged search results
+ * GET    /api/tasks/{title}                            single task
+ * POST   /api/tasks                                    add a task (Task JSON)
+ * PUT    /api/tasks/{title}                            update fields and/or status
+ * DELETE /api/tasks/{title}                            remove a task and its reminders
+ * GET    /api/reminders?offset=&amp;limit=                 paged reminder list
+ * POST   /api/reminders                                {"taskTitle","type","customDate","customTime","minutesBefore"}
+ * GET    /api/categories                               names
+ * GET    /api/priorities                               [{"name","rank"}], higher rank more important
+ * POST   /api/categories, /api/priorities              {"name"}; a priority may give a "rank"
+ * DELETE /api/categories/{name}, /api/priorities/{name}  {"tasks","reminders"} removed or reassigned
+ * GET    /api/summary                                  the counters of the summary pane
+ * GET    /api/analytics?weeks=                         per category and priority, overdue aging, weekly load
+ * POST   /api/undo, /api/redo                          reverse or repeat the latest change; 409 if there is none
+ * GET    /api/workspaces                               [{"name","open"}], the workspaces on disk or loaded
+ * </pre>
+ */
+public class TaskApiServer {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_ANALYTICS_WEEKS = 104;
+
+    // One of the two: a single store, or named workspaces picked per request
+    private final Workspace single;
+    private final Workspaces workspaces;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final int requestedPort;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public TaskApiServer(TaskManager taskManager, int port) {
+        this.single = new Workspace(Workspaces.DEFAULT, taskManager);
+        this.workspaces = null;
+        this.requestedPort = port;
+    }
+
+    // Serves the workspace named by each request, opening it on first use
+    public TaskApiServer(Workspaces workspaces, int port) {
+        this.single = null;
+        this.workspaces = workspaces;
+        this.requestedPort = port;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), requestedPort), 0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/tasks", this::handleTasks);
+        server.createContext("/api/reminders", this::handleReminders);
+        server.createContext("/api/categories", this::handleCategories);
+        server.createContext("/api/priorities", this::handlePriorities);
+        server.createContext("/api/summary", this::handleSummary);
+        server.createContext("/api/analytics", this::handleAnalytics);
+        server.createContext("/api/undo", this::handleHistory);
+        server.createContext("/api/redo", this::handleHistory);
+        server.createContext("/api/workspaces", this::handleWorkspaces);
+        server.start();
+        System.out.println("Task API listening on http://localhost:" + getPort() + "/api");
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdown();
+            server = null;
+        }
+    }
+
+    /**
+     * Runs commands while holding the store's read lock, so background jobs such as
+     * {@link com.todo.controller.AutosaveService} see it between mutations. Only for
+     * a server of one store: each of several workspaces runs its own jobs.
+     */
+    public Executor readLockedExecutor() {
+        return single().readLockedExecutor();
+    }
+
+    /** Runs commands while holding the store's write lock, for background jobs that change it. */
+    public Executor writeLockedExecutor() {
+        return single().writeLockedExecutor();
+    }
+
+    private Workspace single() {
+        if (single == null) {
+            throw new IllegalStateException("Each workspace runs its own background jobs.");
+        }
+        return single;
+    }
+
+    // The bound port; differs from the requested one when the server was started on port 0
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // -----------------------------------------------------
+    // Handlers
+    // -----------------------------------------------------
+    private void handleTasks(HttpExchange exchange) throws IOException {
+        dispatch(exchange, workspace -> {
+            TaskManager taskManager = workspace.getTaskManager();
+            String method = exchange.getRequestMethod();
+            String key = pathKey(exchange, "/api/tasks");
+            Map<String, String> query = queryParams(exchange);
+
+            if (key == null) {
+                if (method.equals("GET") && query.containsKey("sort")) {
+                    // Sorted pages come from the store's ordered indexes, not from sorting every task
+                    int offset = offsetParam(query);
+                    int limit = limitParam(query);
+                    List<Task> page = new ArrayList<>();
+                    int total = workspace.read(() -> {
+                        page.addAll(taskManager.getTaskPage(query.get("sort"), offset, limit));
+                        return taskManager.getTasks().size();
+                    });
+                    writePage(exchange, offset, limit, total, page);
+                } else if (method.equals("GET")) {
+                    List<Task> all = workspace.read(() -> taskManager.snapshot().tasks());
+                    streamPage(exchange, all, query);
+                } else if (method.equals("POST")) {
+                    Task task = mapper.readValue(exchange.getRequestBody(), Task.class);
+                    if (task.getStatus() == null) {
+                        task.setStatus(TaskStatus.OPEN);
+                    }
+                    workspace.write(() -> taskManager.addTask(task));
+                    sendJson(exchange, 201, task);
+                } else {
+                    sendError(exchange, 405, "Method not allowed: " + method);
+                }
+            } else if (key.equals("search") && method.equals("GET")) {
+                List<Task> results = workspace.read(() -> taskManager.searchTasks(
+                        query.get("title"), query.get("category"), query.get("priority")));
+                streamPage(exchange, results, query);
+            } else if (key.equals("query") && method.equals("GET")) {
+                String text = query.getOrDefault("q", "");
+                if (query.containsKey("explain")) {
+                    sendJson(exchange, 200, Map.of("plan", workspace.read(() -> taskManager.explainQuery(text))));
+                } else {
+                    streamPage(exchange, workspace.read(() -> taskManager.query(text)), query);
+                }
+            } else {
+                switch (method) {
+                    case "GET" -> {
+                        Task task = workspace.read(() -> taskManager.getTaskByTitle(key));
+                        if (task == null) {
+                            sendError(exchange, 404, "Task does not exist: " + key);
+                        } else {
+                            sendJson(exchange, 200, task);
+                        }
+                    }
+                    case "PUT" -> {
+                        JsonNode body = mapper.readTree(exchange.getRequestBody());
+                        Task updated = workspace.write(() -> updateTask(taskManager, key, body));
+                        sendJson(exchange, 200, updated);
+                    }
+                    case "DELETE" -> {
+                        workspace.write(() -> taskManager.removeTask(requireTask(taskManager, key)));
+                        sendEmpty(exchange, 204);
+                    }
+                    default -> sendError(exchange, 405, "Method not allowed: " + method);
+                }
+            }
+        });
+    }
+
+    // Parses the whole body first, then applies it as one change: all of it or nothing. Saved by the
+    // workspace autosave, like every other request
+    private static Task updateTask(TaskManager taskManager, String title, JsonNode body) {
+        Task task = requireTask(taskManager, title);
+        String deadline = text(body, "deadline");
+        LocalDate newDeadline = deadline != null ? LocalDate.parse(deadline) : null;
+        String status = text(body, "status");
+        TaskStatus newStatus = status != null ? TaskStatus.valueOf(status) : null;
+        TaskBatch batch = taskManager.batch().withoutPersist().updateTask(task,
+                text(body, "title"),
+                text(body, "description"),
+                text(body, "category"),
+                text(body, "priority"),
+                newDeadline);
+        if (newStatus != null) {
+            batch.updateTaskStatus(task, newStatus);
+        }
+        batch.commit();
+        return task;
+    }
+
+    private void handleReminders(HttpExchange exchange) throws IOException {
+        dispatch(exchange, workspace -> {
+            TaskManager taskManager = workspace.getTaskManager();
+            String method = exchange.getRequestMethod();
+            if (method.equals("GET")) {
+                List<TaskReminder> all = workspace.read(() -> taskManager.snapshot().reminders());
+                streamPage(exchange, all, queryParams(exchange));
+            } else if (method.equals("POST")) {
+                JsonNode body = mapper.readTree(exchange.getRequestBody());
+                String taskTitle = text(body, "taskTitle");
+                TaskReminder.ReminderType type = TaskReminder.ReminderType.valueOf(text(body, "type"));
+                String customDate = text(body, "customDate");
+                String customTime = text(body, "customTime");
+                Integer minutesBefore = body.hasNonNull("minutesBefore") ? body.get("minutesBefore").asInt() : null;
+                workspace.write(() -> taskManager.addReminder(taskTitle, type,
+                        customDate != null ? LocalDate.parse(customDate) : null,
+                        customTime != null ? LocalTime.parse(customTime) : null, minutesBefore));
+                sendEmpty(exchange, 201);
+            } else {
+                sendError(exchange, 405, "Method not allowed: " + method);
+            }
+        });
+    }
+
+    private void handleCategories(HttpExchange exchange) throws IOException {
+        dispatch(exchange, workspace -> {
+            TaskManager taskManager = workspace.getTaskManager();
+            String method = exchange.getRequestMethod();
+            String key = pathKey(exchange, "/api/categories");
+            if (key == null && method.equals("GET")) {
+                sendJson(exchange, 200, workspace.read(() -> taskManager.getCategories().stream().map(TaskCategory::getName).toList()));
+            } else if (key == null && method.equals("POST")) {
+                String name = text(mapper.readTree(exchange.getRequestBody()), "name");
+                workspace.write(() -> taskManager.addCategory(name));
+                sendEmpty(exchange, 201);
+            } else if (key != null && method.equals("DELETE")) {
+                CascadeResult result = workspace.write(() -> {
+                    TaskCategory category = taskManager.getCategories().stream()
+                            .filter(c -> c.getName().equalsIgnoreCase(key)).findFirst()
+                            .orElseThrow(() -> new NotFoundException("Category does not exist: " + key));
+                    return taskManager.removeCategory(category);
+                });
+                sendJson(exchange, 200, result);
+            } else {
+                sendError(exchange, 405, "Method not allowed: " + method);
+            }
+        });
+    }
+
+    private void handlePriorities(HttpExchange exchange) throws IOException {
+        dispatch(exchange, workspace -> {
+            TaskManager taskManager = workspace.getTaskManager();
+            String method = exchange.getRequestMethod();
+            String key = pathKey(exchange, "/api/priorities");
+            if (key == null && method.equals("GET")) {
+                sendJson(exchange, 200, workspace.read(() -> taskManager.getPriorities().stream()
+                        .map(p -> new TaskPriority(p.getName(), p.getRank())).toList()));
+            } else if (key == null && method.equals("POST")) {
+                JsonNode body = mapper.readTree(exchange.getRequestBody());
+                String name = text(body, "name");
+                JsonNode rank = body == null ? null : body.get("rank");
+                if (rank == null || rank.isNull()) {
+                    workspace.write(() -> taskManager.addPriority(name));
+                } else if (rank.isIntegralNumber() && rank.canConvertToInt()) {
+                    workspace.write(() -> taskManager.addPriority(name, rank.intValue()));
+                } else {
+                    throw new IllegalArgumentException("Invalid priority rank: " + rank);
+                }
+                sendEmpty(exchange, 201);
+            } else if (key != null && method.equals("DELETE")) {
+                CascadeResult result = workspace.write(() -> {
+                    TaskPriority priority = taskManager.getPriorities().stream()
+                            .filter(p -> p.getName().equalsIgnoreCase(key)).findFirst()
+                            .orElseThrow(() -> new NotFoundException("Priority does not exist: " + key));
+                    return taskManager.removePriority(priority);
+                });
+                sendJson(exchange, 200, result);
+            } else {
+                sendError(exchange, 405, "Method not allowed: " + method);
+            }
+        });
+    }
+
+    private void handleSummary(HttpExchange exchange) throws IOException {
+        dispatch(exchange, workspace -> {
+            TaskManager taskManager = workspace.getTaskManager();
+            Map<String, Integer> summary = workspace.read(() -> {
+                Map<String, Integer> counts = new HashMap<>();
+                counts.put("total", taskManager.getTasks().size());
+                counts.put("completed", taskManager.countTasksWithStatus(TaskStatus.COMPLETED));
+                counts.put("delayed", taskManager.countTasksWithStatus(TaskStatus.DELAYED));
+                counts.put("dueInSevenDays", taskManager.countTasksDueWithin(7));
+                return counts;
+            });
+            sendJson(exchange, 200, summary);
+        });
+    }
+
+    private void handleAnalytics(HttpExchange exchange) throws IOException {
+        dispatch(exchange, workspace -> {
+            TaskManager taskManager = workspace.getTaskManager();
+            int weeks = Math.min(MAX_ANALYTICS_WEEKS, intParam(queryParams(exchange), "weeks", 8));
+            Map<String, Object> analytics = workspace.read(() -> {
+                TaskAnalytics stats = taskManager.getAnalytics();
+                LocalDate today = LocalDate.now();
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("categories", stats.getCategoryStats());
+                result.put("priorities", stats.getPriorityStats());
+                result.put("overdueAging", stats.getOverdueAging(today));
+                result.put("weeklyLoad", stats.getWeeklyLoad(today, weeks));
+                return result;
+            });
+            sendJson(exchange, 200, analytics);
+        });
+    }
+
+    private void handleHistory(HttpExchange exchange) throws IOException {
+        dispatch(exchange, workspace -> {
+            TaskManager taskManager = workspace.getTaskManager();
+            if (!exchange.getRequestMethod().equals("POST")) {
+                sendError(exchange, 405, "Method not allowed: " + exchange.getRequestMethod());
+                return;
+            }
+            boolean undo = exchange.getRequestURI().getPath().startsWith("/api/undo");
+            workspace.write(() -> {
+                boolean applied = undo ? taskManager.getHistory().undo() : taskManager.getHistory().redo();
+                if (!applied) {
+                    throw new IllegalStateException(undo ? "Nothing to undo." : "Nothing to redo.");
+                }
+            });
+            sendEmpty(exchange, 204);
+        });
+    }
+
+    private void handleWorkspaces(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                sendError(exchange, 405, "Method not allowed: " + exchange.getRequestMethod());
+                return;
+            }
+            List<Map<String, Object>> list = new ArrayList<>();
+            if (workspaces == null) {
+                list.add(Map.of("name", single.getName(), "open", true));
+            } else {
+                for (String name : workspaces.names()) {
+                    list.add(Map.of("name", name, "open", workspaces.isOpen(name)));
+                }
+            }
+            sendJson(exchange, 200, list);
+        }
+    }
+
+    private static Task requireTask(TaskManager taskManager, String title) {
+        Task task = taskManager.getTaskByTitle(title);
+        if (task == null) {
+            throw new NotFoundException("Task does not exist: " + title);
+        }
+        return task;
+    }
+
+    // -----------------------------------------------------
+    // Response helpers
+    // -----------------------------------------------------
+
+    /**
+     * Streams the requested window of {@code source}, a store snapshot or a result
+     * list of its own, so no lock is held while the page is written.
+     */
+    private <T> void streamPage(HttpExchange exchange, List<T> source, Map<String, String> query) throws IOException {
+        int offset = offsetParam(query);
+        int limit = limitParam(query);
+        int total = source.size();
+        int from = Math.min(offset, total);
+        int to = Math.min(from + limit, total);
+        writePage(exchange, offset, limit, total, source.subList(from, to));
+    }
+
+    private void writePage(HttpExchange exchange, int offset, int limit, int total, List<?> page) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, 0); // chunked
+        try (OutputStream out = exchange.getResponseBody();
+                JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeNumberField("offset", offset);
+            gen.writeNumberField("limit", limit);
+            gen.writeNumberField("total", total);
+            gen.writeArrayFieldStart("items");
+            for (Object item : page) {
+                mapper.writeValue(gen, item);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+    }
+
+    private void sendJson(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = mapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private void sendEmpty(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    private void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        sendJson(exchange, status, Map.of("error", message == null ? "" : message));
+    }
+
+    /**
+     * Runs the handler against the request's workspace, held open until it returns,
+     * and maps the exceptions TaskManager throws onto HTTP status codes. Closing the
+     * exchange closes the request body too.
+     */
+    private void dispatch(HttpExchange exchange, Handler handler) throws IOException {
+        try {
+            if (workspaces == null) {
+                handler.handle(single);
+            } else {
+                Workspace workspace = workspaces.acquire(workspaceName(exchange));
+                try {
+                    handler.handle(workspace);
+                } finally {
+                    workspaces.release(workspace);
+                }
+            }
+        } catch (NotFoundException e) {
+            sendError(exchange, 404, e.getMessage());
+        } catch (IllegalStateException e) {
+            sendError(exchange, 409, e.getMessage());
+        } catch (IllegalArgumentException | IOException | java.time.DateTimeException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            sendError(exchange, 500, e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    // -----------------------------------------------------
+    // Request parsing
+    // -----------------------------------------------------
+
+    // Returns the decoded path segment after the context path, or null for the collection itself
+    private static String pathKey(HttpExchange exchange, String contextPath) {
+        String path = exchange.getRequestURI().getRawPath();
+        if (path.length() <= contextPath.length() + 1) {
+            return null;
+        }
+        return URLDecoder.decode(path.substring(contextPath.length() + 1), StandardCharsets.UTF_8);
+    }
+
+    // The "workspace" query parameter, else the X-Workspace header, else the default workspace
+    private static String workspaceName(HttpExchange exchange) {
+        String name = queryParams(exchange).get("workspace");
+        if (name == null) {
+            name = exchange.getRequestHeaders().getFirst("X-Workspace");
+        }
+        return name == null ? Workspaces.DEFAULT : name;
+    }
+
+    private static Map<String, String> queryParams(HttpExchange exchange) {
+        Map<String, String> params = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return params;
+        }
+        for (String pair : raw.split("&")) {
+            int eq = pair.indexOf('=');
+            String name = eq < 0 ? pair : pair.substring(0, eq);
+            String value = eq < 0 ? "" : pair.substring(eq + 1);
+            params.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return params;
+    }
+
+    private static int offsetParam(Map<String, String> query) {
+        return Math.max(0, intParam(query, "offset", 0));
+    }
+
+    private static int limitParam(Map<String, String> query) {
+        return Math.min(MAX_PAGE_SIZE, Math.max(1, intParam(query, "limit", DEFAULT_PAGE_SIZE)));
+    }
+
+    private static int intParam(Map<String, String> query, String name, int fallback) {
+        String value = query.get(name);
+        if (value == null || value.isEmpty()) {
+            return fallback;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number for '" + name + "': " + value);
+        }
+    }
+
+    private static String text(JsonNode node, String field) {
+        JsonNode value = node == null ? null : node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(Workspace workspace) throws IOException;
+    }
+
+    private static class NotFoundException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        NotFoundException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package com.todo.controller;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import com.todo.persistence.StoreConflictException;
+
+/**
+ * Saves a {@link TaskManager} in the background after it changes.
+ * <p>
+ * Every change only bumps a counter; a single worker thread writes a snapshot once
+ * the store has been quiet for {@code quietPeriod}, or at the latest {@code maxDelay}
+ * after the oldest unsaved change, so a burst of edits becomes one write and a clean
+ * store is never written. The lists are copied on the model thread (see the
+ * {@code modelThread} executor, e.g. {@code Platform::runLater} for the UI) and
+ * serialized on the worker.
+ * </p>
+ * <p>
+ * At most one save is in flight. Changes made while it runs are folded into the
+ * next one, which starts as soon as the disk is free if the window has already
+ * passed, so a slow disk lowers the save rate instead of queueing snapshots or
+ * blocking edits. Failed saves are retried with backoff, capped at {@code maxDelay}.
+ * A save refused because another instance saved the store first merges that save
+ * on the model thread (which must then be allowed to change the store) and retries.
+ * </p>
+ */
+public class AutosaveService {
+	public static final Duration DEFAULT_QUIET_PERIOD = Duration.ofSeconds(2);
+	public static final Duration DEFAULT_MAX_DELAY = Duration.ofSeconds(10);
+	private static final long MIN_RETRY_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+	private final TaskManager taskManager;
+	private final Executor modelThread;
+	private final long quietNanos;
+	private final long maxDelayNanos;
+	private final ScheduledExecutorService worker;
+	private final TaskChangeListener listener = events -> markDirty();
+
+	// guarded by this
+	private long changeVersion;
+	private long savedVersion;
+	private long firstUnsavedAt;
+	private long lastChangeAt;
+	private ScheduledFuture<?> scheduled;
+	private CompletableFuture<?> pendingCapture;
+	private boolean saving;
+	private int failures;
+	private long saveCount;
+	private boolean stopped;
+
+	public AutosaveService(TaskManager taskManager, Executor modelThread) {
+		this(taskManager, modelThread, DEFAULT_QUIET_PERIOD, DEFAULT_MAX_DELAY);
+	}
+
+	public AutosaveService(TaskManager taskManager, Executor modelThread, Duration quietPeriod, Duration maxDelay) {
+		if (quietPeriod.isNegative() || maxDelay.compareTo(quietPeriod) < 0) {
+			throw new IllegalArgumentException("Max delay must not be shorter than the quiet period.");
+		}
+		this.taskManager = taskManager;
+		this.modelThread = modelThread;
+		this.quietNanos = quietPeriod.toNanos();
+		this.maxDelayNanos = maxDelay.toNanos();
+		this.worker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "autosave");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public void start() {
+		taskManager.subscribe(listener);
+	}
+
+	/**
+	 * Stops autosaving and waits for a save in progress to finish. Must be called on
+	 * the model thread; the caller is expected to do the final save itself.
+	 *
+	 * @return whether there are changes that no save has covered
+	 */
+	public boolean stop() {
+		taskManager.unsubscribe(listener);
+		synchronized (this) {
+			stopped = true;
+			if (scheduled != null) {
+				scheduled.cancel(false);
+			}
+			if (pendingCapture != null) {
+				// the capture would need the model thread, which is the one stopping us
+				pendingCapture.cancel(false);
+			}
+		}
+		worker.shutdown();
+		try {
+			worker.awaitTermination(30, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		return isDirty();
+	}
+
+	/**
+	 * Saves now if anything changed and waits for it. Useful for callers that
+	 * produce changes faster than the disk absorbs them (e.g. bulk jobs). Must not
+	 * be called on the model thread.
+	 */
+	public void flush() throws IOException {
+		try {
+			worker.submit(() -> {
+				saveIfDirty();
+				return null;
+			}).get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while waiting for the autosave", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Autosave failed: " + e.getCause().getMessage(), e.getCause());
+		}
+		if (isDirty()) {
+			throw new IOException("Autosave did not complete, see the log for details");
+		}
+	}
+
+	public synchronized boolean isDirty() {
+		return changeVersion != savedVersion;
+	}
+
+	public synchronized long getSaveCount() {
+		return saveCount;
+	}
+
+	// -----------------------------------------------------
+	// Scheduling
+	// -----------------------------------------------------
+
+	// Change listener: runs on the mutating thread, so it only records the change
+	private synchronized void markDirty() {
+		long now = System.nanoTime();
+		changeVersion++;
+		if (firstUnsavedAt == 0) {
+			firstUnsavedAt = now;
+		}
+		lastChangeAt = now;
+		if (scheduled == null && !saving && !stopped) {
+			schedule(quietNanos);
+		}
+	}
+
+	// Caller holds the monitor
+	private void schedule(long delayNanos) {
+		scheduled = worker.schedule(this::tick, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+	}
+
+	private void tick() {
+		synchronized (this) {
+			scheduled = null;
+			if (stopped || !isDirty()) {
+				return;
+			}
+			// Not yet quiet and still inside the window: wake up again instead of rescheduling on every change
+			long now = System.nanoTime();
+			long due = Math.min(lastChangeAt + quietNanos, firstUnsavedAt + maxDelayNanos);
+			if (now < due) {
+				schedule(due - now);
+				return;
+			}
+		}
+		saveIfDirty();
+	}
+
+	// Runs on the model thread; the retry then builds on the merged save
+	private void mergeExternalChanges() {
+		synchronized (this) {
+			if (stopped) {
+				return;
+			}
+		}
+		try {
+			taskManager.mergeExternalChanges();
+		} catch (IOException | RuntimeException e) {
+			System.out.println("Could not merge the store saved elsewhere: " + e.getMessage());
+		}
+	}
+
+	// A snapshot of the lists together with the change version it covers
+	private record Captured(TaskManager.Snapshot snapshot, long version, long takenAt) {
+	}
+
+	// Runs on the worker thread only
+	private void saveIfDirty() {
+		synchronized (this) {
+			if (!isDirty() || stopped) {
+				return;
+			}
+			saving = true;
+		}
+		long started = System.nanoTime();
+		try {
+			// Version and snapshot are taken together on the model thread, so they describe the same state.
+			// Not submitted under the monitor: the executor may block on a lock held by a mutating thread.
+			CompletableFuture<Captured> capture = CompletableFuture.supplyAsync(() -> {
+				synchronized (this) {
+					return new Captured(taskManager.captureSnapshot(), changeVersion, System.nanoTime());
+				}
+			}, modelThread);
+			synchronized (this) {
+				pendingCapture = capture;
+				if (stopped) {
+					capture.cancel(false);
+				}
+			}
+
+			Captured captured = capture.get();
+			long generation = taskManager.saveSnapshot(captured.snapshot());
+			long elapsed = System.nanoTime() - started;
+			synchronized (this) {
+				savedVersion = Math.max(savedVersion, captured.version());
+				// Anything changed since the copy is at most as old as the copy
+				firstUnsavedAt = isDirty() ? captured.takenAt() : 0;
+				failures = 0;
+				saveCount++;
+			}
+			if (elapsed > maxDelayNanos) {
+				System.out.println("Autosave of generation " + generation + " took "
+						+ TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms, longer than the autosave window.");
+			}
+		} catch (CancellationException e) {
+			// stopped while waiting for the model thread
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException | IOException | RuntimeException e) {
+			Throwable cause = e instanceof ExecutionException ? e.getCause() : e;
+			synchronized (this) {
+				failures++;
+			}
+			System.out.println("Autosave failed (attempt " + failures + "): " + cause.getMessage());
+			if (cause instanceof StoreConflictException) {
+				modelThread.execute(this::mergeExternalChanges);
+			}
+		} finally {
+			synchronized (this) {
+				saving = false;
+				pendingCapture = null;
+				if (isDirty() && !stopped && scheduled == null) {
+					if (failures > 0) {
+						long base = Math.max(quietNanos, MIN_RETRY_NANOS);
+						schedule(Math.min(Math.max(maxDelayNanos, base), base << Math.min(failures, 16)));
+					} else {
+						long due = Math.min(lastChangeAt + quietNanos, firstUnsavedAt + maxDelayNanos);
+						schedule(due - System.nanoTime());
+					}
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,8 @@
+package com.todo.controller;
+
+/**
+ * What deleting a category or priority did to the rest of the store:
+ * the tasks removed or reassigned, and the reminders removed with them.
+ */
+public record CascadeResult(int tasks, int reminders) {
+}
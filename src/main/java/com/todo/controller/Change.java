@@ -0,0 +1,57 @@
+package com.todo.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.todo.models.Task;
+
+// The events of one change and the steps that reverse it, collected while the change is made
+final class Change {
+	final List<TaskEvent> events = new ArrayList<>();
+	// In the order of the change; undone last to first
+	final List<Edit> undo = new ArrayList<>();
+
+	void add(TaskEvent event, Edit inverse) {
+		events.add(event);
+		undo.add(inverse);
+	}
+
+	// An update event and its inverse for the fields of the task at `index` that differ from `before`, if any
+	void update(int index, Task task, TaskState before) {
+		Set<TaskEvent.Field> fields = before.changes(task);
+		if (!fields.isEmpty()) {
+			add(new TaskEvent.TaskUpdated(task, fields), Edit.restoring(index, before, fields));
+		}
+	}
+
+	/**
+	 * Removes the matching elements of {@code list} in one pass, recording an event
+	 * and the step that puts it back for each.
+	 *
+	 * @return the number removed
+	 */
+	<T> int removeIf(List<T> list, Predicate<? super T> filter, Function<T, TaskEvent> event,
+			BiFunction<Integer, T, Edit> inverse) {
+		List<Edit> inverses = new ArrayList<>();
+		int kept = 0;
+		for (int i = 0; i < list.size(); i++) {
+			T element = list.get(i);
+			if (filter.test(element)) {
+				events.add(event.apply(element));
+				inverses.add(inverse.apply(i, element));
+			} else {
+				list.set(kept++, element);
+			}
+		}
+		list.subList(kept, list.size()).clear();
+		// As if removed from the back: undoing puts them back front to back, each at its old position
+		for (int i = inverses.size() - 1; i >= 0; i--) {
+			undo.add(inverses.get(i));
+		}
+		return inverses.size();
+	}
+}
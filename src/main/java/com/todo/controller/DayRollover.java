@@ -0,0 +1,82 @@
+package com.todo.controller;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+/**
+ * Moves overdue tasks to DELAYED when a new day starts while the application runs.
+ * <p>
+ * One timer thread sleeps until the next local midnight and then runs
+ * {@link TaskManager#rollOverTo} on the model thread, which only touches the tasks
+ * whose deadline has just passed. Like {@link ReminderScheduler}, the timer wakes at
+ * least every {@link #MAX_SLEEP} to re-read the wall clock, so a suspended machine
+ * or a clock change delays the rollover by at most that much.
+ * </p>
+ * <p>
+ * The store announces the moved tasks through its change listeners (autosave,
+ * reminders). {@code onRollover} is then called on the model thread with the number
+ * of tasks moved, even when it is zero, since date-based counters change anyway.
+ * </p>
+ */
+public class DayRollover {
+	static final Duration MAX_SLEEP = Duration.ofMinutes(10);
+
+	private final TaskManager taskManager;
+	private final Executor modelThread;
+	private final IntConsumer onRollover;
+	private final Clock clock;
+	private final ScheduledThreadPoolExecutor timer;
+
+	// only used on the timer thread once started
+	private LocalDate today;
+
+	public DayRollover(TaskManager taskManager, Executor modelThread, IntConsumer onRollover) {
+		this(taskManager, modelThread, onRollover, Clock.systemDefaultZone());
+	}
+
+	DayRollover(TaskManager taskManager, Executor modelThread, IntConsumer onRollover, Clock clock) {
+		this.taskManager = taskManager;
+		this.modelThread = modelThread;
+		this.onRollover = onRollover;
+		this.clock = clock;
+		this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "day-rollover");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	public void start() {
+		today = LocalDate.now(clock);
+		schedule();
+	}
+
+	public void stop() {
+		timer.shutdownNow();
+	}
+
+	private void schedule() {
+		if (timer.isShutdown()) {
+			return;
+		}
+		long now = clock.millis();
+		long midnight = today.plusDays(1).atStartOfDay(clock.getZone()).toInstant().toEpochMilli();
+		long delay = Math.min(midnight - now, MAX_SLEEP.toMillis());
+		timer.schedule(this::check, Math.max(0, delay), TimeUnit.MILLISECONDS);
+	}
+
+	private void check() {
+		LocalDate date = LocalDate.now(clock);
+		// A clock set back does not undo a rollover; the day is simply waited for again
+		if (date.isAfter(today)) {
+			today = date;
+			modelThread.execute(() -> onRollover.accept(taskManager.rollOverTo(date)));
+		}
+		schedule();
+	}
+}
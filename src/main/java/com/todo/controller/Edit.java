@@ -0,0 +1,363 @@
+package com.todo.controller;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Set;
+
+import com.todo.models.Recurrence;
+import com.todo.models.Task;
+import com.todo.models.TaskCategory;
+import com.todo.models.TaskPriority;
+import com.todo.models.TaskReminder;
+import com.todo.models.TaskStatus;
+
+/**
+ * One step of reversing a change, as kept by the {@link UndoHistory}.
+ * <p>
+ * Steps address tasks, reminders, categories and priorities by their position in
+ * the store's lists. A step is only applied to the store as its change left it:
+ * the steps of an entry run last to first, and entries are undone newest first,
+ * so the positions still hold. Applying a step returns the step that reverses it,
+ * which is how an undone change is redone.
+ * </p>
+ */
+sealed interface Edit {
+	// Rough heap size of a step, for the history's memory cap
+	int STEP_BYTES = 32;
+
+	Edit apply(TaskManager manager, List<TaskEvent> events);
+
+	default int weight() {
+		return STEP_BYTES;
+	}
+
+	void write(DataOutput out) throws IOException;
+
+	record InsertTask(int index, Task task) implements Edit {
+		public Edit apply(TaskManager manager, List<TaskEvent> events) {
+			manager.getTasks().add(index, task);
+			events.add(new TaskEvent.TaskAdded(task));
+			return new DeleteTask(index);
+		}
+
+		public int weight() {
+			return 4 * STEP_BYTES + textBytes(task.getDescriptionHandle());
+		}
+
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(0);
+			out.writeInt(index);
+			writeState(out, TaskState.of(task).withDescriptionText());
+		}
+	}
+
+	record DeleteTask(int index) implements Edit {
+		public Edit apply(TaskManager manager, List<TaskEvent> events) {
+			Task task = manager.getTasks().remove(index);
+			TaskManager.pinDescription(task);
+			events.add(new TaskEvent.TaskRemoved(task));
+			return new InsertTask(index, task);
+		}
+
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(1);
+			out.writeInt(index);
+		}
+	}
+
+	// Puts back every field of the task; the state's description is text unless the change kept it
+	record RestoreTask(int index, TaskState state) implements Edit {
+		public Edit apply(TaskManager manager, List<TaskEvent> events) {
+			Task task = manager.getTasks().get(index);
+			TaskState current = TaskState.of(task);
+			state.restore(task);
+			Set<TaskEvent.Field> fields = current.changes(task);
+			if (!fields.isEmpty()) {
+				events.add(new TaskEvent.TaskUpdated(task, fields));
+			}
+			return restoring(index, current, fields);
+		}
+
+		public int weight() {
+			return 2 * STEP_BYTES + textBytes(state.description());
+		}
+
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(2);
+			out.writeInt(index);
+			writeState(out, state);
+		}
+	}
+
+	// The task is found again by its title, as at the time of the change, when read back from the spill file
+	record InsertReminder(int index, TaskReminder reminder, String taskTitle) implements Edit {
+		static InsertReminder of(int index, TaskReminder reminder) {
+			return new InsertReminder(index, reminder, reminder.getTask().getTitle());
+		}
+
+		public Edit apply(TaskManager manager, List<TaskEvent> events) {
+			if (reminder.getTask() == null) {
+				Task task = manager.getTaskByTitle(taskTitle);
+				if (task == null) {
+					throw new IllegalStateException("Task of reminder not found: " + taskTitle);
+				}
+				reminder.setTask(task);
+			}
+			manager.getReminders().add(index, reminder);
+			events.add(new TaskEvent.ReminderAdded(reminder));
+			return new DeleteReminder(index);
+		}
+
+		public int weight() {
+			return 2 * STEP_BYTES;
+		}
+
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(3);
+			out.writeInt(index);
+			writeString(out, taskTitle);
+			writeReminder(out, RestoreReminder.of(index, reminder));
+		}
+	}
+
+	record DeleteReminder(int index) implements Edit {
+		public Edit apply(TaskManager manager, List<TaskEvent> events) {
+			TaskReminder reminder = manager.getReminders().remove(index);
+			events.add(new TaskEvent.ReminderRemoved(reminder));
+			return InsertReminder.of(index, reminder);
+		}
+
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(4);
+			out.writeInt(index);
+		}
+	}
+
+	record RestoreReminder(int index, TaskReminder.ReminderType type, LocalDate customDate, LocalTime customTime,
+			Integer minutesBefore) implements Edit {
+		static RestoreReminder of(int index, TaskReminder reminder) {
+			return new RestoreReminder(index, reminder.getType(), reminder.getCustomReminderDate(),
+					reminder.getCustomReminderTime(), reminder.getMinutesBefore());
+		}
+
+		public Edit apply(TaskManager manager, List<TaskEvent> events) {
+			TaskReminder reminder = manager.getReminders().get(index);
+			RestoreReminder current = of(index, reminder);
+			reminder.setType(type);
+			reminder.setCustomReminderDate(customDate);
+			reminder.setCustomReminderTime(customTime);
+			reminder.setMinutesBefore(minutesBefore);
+			events.add(new TaskEvent.ReminderUpdated(reminder));
+			return current;
+		}
+
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(5);
+			out.writeInt(index);
+			writeReminder(out, this);
+		}
+	}
+
+	record InsertCategory(int index, TaskCategory category) implements Edit {
+		public Edit apply(TaskManager manager, List<TaskEvent> events) {
+			manager.getCategories().add(index, category);
+			events.add(new TaskEvent.CategoryAdded(category.getName()));
+			return new DeleteCategory(index);
+		}
+
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(6);
+			out.writeInt(index);
+			writeString(out, category.getName());
+		}
+	}
+
+	record DeleteCategory(int index) implements Edit {
+		public Edit apply(TaskManager manager, List<TaskEvent> events) {
+			TaskCategory category = manager.getCategories().remove(index);
+			events.add(new TaskEvent.CategoryRemoved(category.getName()));
+			return new InsertCategory(index, category);
+		}
+
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(7);
+			out.writeInt(index);
+		}
+	}
+
+	record RenameCategory(int index, String name) implements Edit {
+		public Edit apply(TaskManager manager, List<TaskEvent> events) {
+			TaskCategory category = manager.getCategories().get(index);
+			String oldName = category.getName();
+			category.setName(name);
+			events.add(new TaskEvent.CategoryRenamed(oldName, name));
+			return new RenameCategory(index, oldName);
+		}
+
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(8);
+			out.writeInt(index);
+			writeString(out, name);
+		}
+	}
+
+	record InsertPriority(int index, TaskPriority priority) implements Edit {
+		public Edit apply(TaskManager manager, List<TaskEvent> events) {
+			manager.getPriorities().add(index, priority);
+			events.add(new TaskEvent.PriorityAdded(priority.getName(), priority.getRank()));
+			return new DeletePriority(index);
+		}
+
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(9);
+			out.writeInt(index);
+			writeString(out, priority.getName());
+			out.writeInt(priority.getRank());
+		}
+	}
+
+	record DeletePriority(int index) implements Edit {
+		public Edit apply(TaskManager manager, List<TaskEvent> events) {
+			TaskPriority priority = manager.getPriorities().remove(index);
+			events.add(new TaskEvent.PriorityRemoved(priority.getName()));
+			return new InsertPriority(index, priority);
+		}
+
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(10);
+			out.writeInt(index);
+		}
+	}
+
+	// Covers both renaming and re-ranking
+	record RestorePriority(int index, String name, int rank) implements Edit {
+		public Edit apply(TaskManager manager, List<TaskEvent> events) {
+			TaskPriority priority = manager.getPriorities().get(index);
+			Edit inverse = new RestorePriority(index, priority.getName(), priority.getRank());
+			if (!priority.getName().equals(name)) {
+				events.add(new TaskEvent.PriorityRenamed(priority.getName(), name));
+				priority.setName(name);
+			}
+			if (priority.getRank() != rank) {
+				priority.setRank(rank);
+				events.add(new TaskEvent.PriorityRanked(name, rank));
+			}
+			return inverse;
+		}
+
+		public void write(DataOutput out) throws IOException {
+			out.writeByte(11);
+			out.writeInt(index);
+			writeString(out, name);
+			out.writeInt(rank);
+		}
+	}
+
+	// The step that puts back `before` after the fields in `changed` moved away from it
+	static Edit restoring(int index, TaskState before, Set<TaskEvent.Field> changed) {
+		return new RestoreTask(index, changed.contains(TaskEvent.Field.DESCRIPTION) ? before.withDescriptionText() : before);
+	}
+
+	static Edit read(DataInput in) throws IOException {
+		int kind = in.readByte();
+		int index = in.readInt();
+		return switch (kind) {
+			case 0 -> {
+				TaskState state = readState(in);
+				Task task = new Task();
+				state.restore(task);
+				yield new InsertTask(index, task);
+			}
+			case 1 -> new DeleteTask(index);
+			case 2 -> new RestoreTask(index, readState(in));
+			case 3 -> {
+				String taskTitle = readString(in);
+				RestoreReminder settings = readReminder(in, index);
+				yield new InsertReminder(index, new TaskReminder(null, settings.type(), settings.customDate(),
+						settings.customTime(), settings.minutesBefore()), taskTitle);
+			}
+			case 4 -> new DeleteReminder(index);
+			case 5 -> readReminder(in, index);
+			case 6 -> new InsertCategory(index, new TaskCategory(readString(in)));
+			case 7 -> new DeleteCategory(index);
+			case 8 -> new RenameCategory(index, readString(in));
+			case 9 -> new InsertPriority(index, new TaskPriority(readString(in), in.readInt()));
+			case 10 -> new DeletePriority(index);
+			case 11 -> new RestorePriority(index, readString(in), in.readInt());
+			default -> throw new IOException("Unknown undo step: " + kind);
+		};
+	}
+
+	private static int textBytes(Object description) {
+		return description instanceof String text ? 2 * text.length() : 0;
+	}
+
+	// A description the store still holds is written as absent: restoring leaves it alone
+	private static void writeState(DataOutput out, TaskState state) throws IOException {
+		writeString(out, state.title());
+		writeString(out, state.description() instanceof String text ? text : null);
+		writeString(out, state.category());
+		writeString(out, state.priority());
+		out.writeLong(state.deadline() == null ? Long.MIN_VALUE : state.deadline().toEpochDay());
+		out.writeByte(state.status() == null ? -1 : state.status().ordinal());
+		writeString(out, state.recurrence() == null ? null : state.recurrence().toRule());
+	}
+
+	private static TaskState readState(DataInput in) throws IOException {
+		String title = readString(in);
+		String description = readString(in);
+		String category = readString(in);
+		String priority = readString(in);
+		long deadline = in.readLong();
+		int status = in.readByte();
+		String recurrence = readString(in);
+		return new TaskState(title, description, category, priority,
+				deadline == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(deadline),
+				status < 0 ? null : TaskStatus.values()[status],
+				recurrence == null ? null : Recurrence.parse(recurrence));
+	}
+
+	private static void writeReminder(DataOutput out, RestoreReminder settings) throws IOException {
+		writeString(out, settings.type() == null ? null : settings.type().name());
+		out.writeLong(settings.customDate() == null ? Long.MIN_VALUE : settings.customDate().toEpochDay());
+		out.writeInt(settings.customTime() == null ? -1 : settings.customTime().toSecondOfDay());
+		out.writeInt(settings.minutesBefore() == null ? Integer.MIN_VALUE : settings.minutesBefore());
+	}
+
+	private static RestoreReminder readReminder(DataInput in, int index) throws IOException {
+		String type = readString(in);
+		long date = in.readLong();
+		int time = in.readInt();
+		int minutes = in.readInt();
+		return new RestoreReminder(index, type == null ? null : TaskReminder.ReminderType.valueOf(type),
+				date == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(date),
+				time < 0 ? null : LocalTime.ofSecondOfDay(time),
+				minutes == Integer.MIN_VALUE ? null : minutes);
+	}
+
+	// writeUTF is limited to 64 KB, which a description may exceed
+	private static void writeString(DataOutput out, String value) throws IOException {
+		if (value == null) {
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInput in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
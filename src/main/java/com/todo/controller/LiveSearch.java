@@ -0,0 +1,184 @@
+package com.todo.controller;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.todo.models.Task;
+
+/**
+ * Runs task searches while the user types, off the model thread.
+ * <p>
+ * Each {@link #search} call replaces the previous query. The scan starts once the
+ * query has been unchanged for {@code debounce}, on a single worker thread, over a
+ * copy of the task list taken on the model thread (reused until the store changes).
+ * A scan gives up as soon as a newer query arrives, and results are delivered to
+ * {@code onResults} on the model thread only if no newer query was made meanwhile.
+ * </p>
+ * <p>
+ * The results of the last {@link #CACHE_SIZE} queries are kept until the store
+ * changes. A repeated query is answered from that cache, and a query that narrows
+ * a cached one (a longer title, or a category or priority added) only scans the
+ * cached results instead of every task. The matching rules are those of
+ * {@link TaskManager#searchTasks}.
+ * </p>
+ */
+public class LiveSearch {
+	public static final Duration DEFAULT_DEBOUNCE = Duration.ofMillis(150);
+	static final int CACHE_SIZE = 16;
+	// How many tasks are scanned between checks for a newer query
+	private static final int CANCEL_CHECK_INTERVAL = 4096;
+
+	private final TaskManager taskManager;
+	private final Executor modelThread;
+	private final Consumer<List<Task>> onResults;
+	private final long debounceNanos;
+	private final ScheduledThreadPoolExecutor worker;
+
+	// latest query; a scan for an older one stops
+	private volatile long generation;
+	// guarded by this
+	private ScheduledFuture<?> pending;
+	private long cacheVersion;
+	private final Map<Query, List<Task>> cache = new LinkedHashMap<>(CACHE_SIZE, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Query, List<Task>> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	/** A normalized query; blank fields match everything. */
+	record Query(String title, String category, String priority) {
+		static Query of(String title, String category, String priority) {
+			return new Query(normalize(title), normalize(category), normalize(priority));
+		}
+
+		private static String normalize(String value) {
+			return value == null || value.isEmpty() ? null : value.toLowerCase(Locale.ROOT);
+		}
+
+		// Whether every task matching this query also matches {@code broader}
+		boolean narrows(Query broader) {
+			return (broader.title == null || (title != null && title.contains(broader.title)))
+					&& (broader.category == null || broader.category.equals(category))
+					&& (broader.priority == null || broader.priority.equals(priority));
+		}
+
+		boolean matches(Task task) {
+			return (title == null || containsIgnoreCase(task.getTitle(), title))
+					&& (category == null || task.getCategory().equalsIgnoreCase(category))
+					&& (priority == null || task.getPriority().equalsIgnoreCase(priority));
+		}
+
+		// Like toLowerCase().contains(), without a lowercase copy of every title
+		private static boolean containsIgnoreCase(String text, String lowerPart) {
+			int last = text.length() - lowerPart.length();
+			for (int i = 0; i <= last; i++) {
+				if (text.regionMatches(true, i, lowerPart, 0, lowerPart.length())) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	public LiveSearch(TaskManager taskManager, Executor modelThread, Consumer<List<Task>> onResults) {
+		this(taskManager, modelThread, onResults, DEFAULT_DEBOUNCE);
+	}
+
+	public LiveSearch(TaskManager taskManager, Executor modelThread, Consumer<List<Task>> onResults, Duration debounce) {
+		this.taskManager = taskManager;
+		this.modelThread = modelThread;
+		this.onResults = onResults;
+		this.debounceNanos = debounce.toNanos();
+		this.worker = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "search");
+			thread.setDaemon(true);
+			return thread;
+		});
+		worker.setRemoveOnCancelPolicy(true);
+	}
+
+	/** Queues a search for the given fields, replacing any earlier one. Must be called on the model thread. */
+	public void search(String title, String category, String priority) {
+		long version = taskManager.getChangeVersion();
+		// The scan reads this version on the worker while the store keeps changing
+		List<Task> tasks = taskManager.snapshot().tasks();
+		Query query = Query.of(title, category, priority);
+		long current = ++generation;
+		synchronized (this) {
+			if (pending != null) {
+				pending.cancel(false);
+			}
+			if (!worker.isShutdown()) {
+				pending = worker.schedule(() -> run(current, query, tasks, version), debounceNanos, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+	public void stop() {
+		generation++;
+		worker.shutdownNow();
+	}
+
+	private void run(long current, Query query, List<Task> tasks, long version) {
+		if (current != generation) {
+			return;
+		}
+		List<Task> base = tasks;
+		List<Task> cached;
+		synchronized (this) {
+			if (cacheVersion != version) {
+				cache.clear();
+				cacheVersion = version;
+			}
+			cached = cache.get(query);
+			if (cached == null) {
+				// Narrow down the smallest cached result this query refines
+				for (Map.Entry<Query, List<Task>> entry : cache.entrySet()) {
+					if (query.narrows(entry.getKey()) && entry.getValue().size() < base.size()) {
+						base = entry.getValue();
+					}
+				}
+			}
+		}
+		List<Task> results = cached != null ? cached : scan(current, query, base);
+		if (results == null) {
+			return; // a newer query took over
+		}
+		if (cached == null) {
+			synchronized (this) {
+				if (cacheVersion == version) {
+					cache.put(query, results);
+				}
+			}
+		}
+		modelThread.execute(() -> {
+			if (current == generation) {
+				onResults.accept(results);
+			}
+		});
+	}
+
+	private List<Task> scan(long current, Query query, List<Task> base) {
+		List<Task> results = new ArrayList<>();
+		for (int i = 0; i < base.size(); i++) {
+			if (i % CANCEL_CHECK_INTERVAL == 0 && current != generation) {
+				return null;
+			}
+			Task task = base.get(i);
+			if (query.matches(task)) {
+				results.add(task);
+			}
+		}
+		return List.copyOf(results);
+	}
+}
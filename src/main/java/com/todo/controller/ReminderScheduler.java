@@ -0,0 +1,285 @@
+package com.todo.controller;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.todo.models.Task;
+import com.todo.models.TaskReminder;
+
+/**
+ * Fires the reminders of a {@link TaskManager} at their time.
+ * <p>
+ * Pending reminders sit in a tree ordered by fire time, plus an identity map from
+ * reminder to entry, so adding, moving or dropping one is O(log n). One timer
+ * thread sleeps until the earliest entry is due and hands everything due by then
+ * to {@code onDue} on the model thread; nothing is polled. The timer wakes at
+ * least every {@link #MAX_SLEEP} to re-read the wall clock, which a suspended
+ * machine or a clock change can move under a long sleep.
+ * </p>
+ * <p>
+ * Each announced change is applied to the pending set as it comes: an added,
+ * changed or removed reminder, or a task whose deadline, status or recurrence
+ * changed, re-queues only the reminders concerned, found through a map from task
+ * to reminders. Only {@link #start()} walks all reminders. Each reminder fires
+ * once for a given time; reminders whose time passed earlier today still fire
+ * when the scheduler starts, older ones do not.
+ * A reminder of a recurring task is queued for its next occurrence only, and
+ * re-queued for the following one after it fires.
+ * </p>
+ */
+public class ReminderScheduler {
+	static final Duration MAX_SLEEP = Duration.ofMinutes(10);
+
+	private final TaskManager taskManager;
+	private final Executor modelThread;
+	private final Consumer<List<TaskReminder>> onDue;
+	private final Clock clock;
+	private final ScheduledThreadPoolExecutor timer;
+	private final TaskChangeListener listener = this::apply;
+
+	// guarded by this
+	private final TreeSet<Entry> queue = new TreeSet<>();
+	private final Map<TaskReminder, Entry> pending = new IdentityHashMap<>();
+	private final Map<TaskReminder, LocalDateTime> fired = new IdentityHashMap<>();
+	// Every reminder in the store by its task, pending or not
+	private final Map<Task, List<TaskReminder>> byTask = new IdentityHashMap<>();
+	private long sequence;
+	private ScheduledFuture<?> wakeUp;
+	private long wakeUpAt;
+
+	private record Entry(long at, long sequence, TaskReminder reminder, LocalDateTime time, boolean snoozed)
+			implements Comparable<Entry> {
+		public int compareTo(Entry other) {
+			int order = Long.compare(at, other.at);
+			return order != 0 ? order : Long.compare(sequence, other.sequence);
+		}
+	}
+
+	public ReminderScheduler(TaskManager taskManager, Executor modelThread, Consumer<List<TaskReminder>> onDue) {
+		this(taskManager, modelThread, onDue, Clock.systemDefaultZone());
+	}
+
+	ReminderScheduler(TaskManager taskManager, Executor modelThread, Consumer<List<TaskReminder>> onDue, Clock clock) {
+		this.taskManager = taskManager;
+		this.modelThread = modelThread;
+		this.onDue = onDue;
+		this.clock = clock;
+		this.timer = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "reminders");
+			thread.setDaemon(true);
+			return thread;
+		});
+		timer.setRemoveOnCancelPolicy(true);
+	}
+
+	// Must be called on the model thread
+	public void start() {
+		taskManager.subscribe(listener);
+		resync();
+	}
+
+	public void stop() {
+		taskManager.unsubscribe(listener);
+		timer.shutdownNow();
+	}
+
+	// Whether the task change can move the fire time of its reminders
+	private static boolean movesReminders(TaskEvent.TaskUpdated event) {
+		return event.fields().contains(TaskEvent.Field.DEADLINE) || event.fields().contains(TaskEvent.Field.STATUS)
+				|| event.fields().contains(TaskEvent.Field.RECURRENCE);
+	}
+
+	// Change listener: runs on the model thread, in the order the events happened
+	private synchronized void apply(List<TaskEvent> events) {
+		LocalDateTime startOfToday = startOfToday();
+		boolean changed = false;
+		for (TaskEvent event : events) {
+			switch (event) {
+				case TaskEvent.ReminderAdded e -> {
+					byTask.computeIfAbsent(e.reminder().getTask(), t -> new ArrayList<>()).add(e.reminder());
+					schedule(e.reminder(), startOfToday);
+					changed = true;
+				}
+				case TaskEvent.ReminderUpdated e -> {
+					schedule(e.reminder(), startOfToday);
+					changed = true;
+				}
+				case TaskEvent.ReminderRemoved e -> {
+					List<TaskReminder> ofTask = byTask.get(e.reminder().getTask());
+					if (ofTask != null) {
+						ofTask.removeIf(r -> r == e.reminder());
+						if (ofTask.isEmpty()) {
+							byTask.remove(e.reminder().getTask());
+						}
+					}
+					drop(e.reminder());
+					changed = true;
+				}
+				case TaskEvent.TaskRemoved e -> {
+					// Its reminders are removed first; this only catches any left behind
+					List<TaskReminder> ofTask = byTask.remove(e.task());
+					if (ofTask != null) {
+						ofTask.forEach(this::drop);
+						changed = true;
+					}
+				}
+				case TaskEvent.TaskUpdated e when movesReminders(e) -> {
+					for (TaskReminder reminder : byTask.getOrDefault(e.task(), List.of())) {
+						schedule(reminder, startOfToday);
+						changed = true;
+					}
+				}
+				default -> {
+				}
+			}
+		}
+		if (changed) {
+			rearm();
+		}
+	}
+
+	/** Fires the reminder again after {@code delay}, unless it is removed meanwhile. */
+	public synchronized void snooze(TaskReminder reminder, Duration delay) {
+		Entry old = pending.remove(reminder);
+		if (old != null) {
+			queue.remove(old);
+		}
+		LocalDateTime time = old != null ? old.time() : fired.get(reminder);
+		add(new Entry(clock.millis() + delay.toMillis(), sequence++, reminder, time, true));
+		rearm();
+	}
+
+	public synchronized int getPendingCount() {
+		return pending.size();
+	}
+
+	// When the reminder is queued to fire; null if it is not
+	synchronized LocalDateTime getQueuedTime(TaskReminder reminder) {
+		Entry entry = pending.get(reminder);
+		return entry == null ? null : entry.time();
+	}
+
+	// Queues every reminder of the store; runs on the model thread when starting
+	private synchronized void resync() {
+		LocalDateTime startOfToday = startOfToday();
+		queue.clear();
+		pending.clear();
+		byTask.clear();
+		for (TaskReminder reminder : taskManager.getReminders()) {
+			byTask.computeIfAbsent(reminder.getTask(), t -> new ArrayList<>()).add(reminder);
+			schedule(reminder, startOfToday);
+		}
+		rearm();
+	}
+
+	// (Re)queues one reminder at its next time, O(log n); a snoozed one keeps its snooze
+	private void schedule(TaskReminder reminder, LocalDateTime startOfToday) {
+		Entry entry = pending.get(reminder);
+		if (entry != null && entry.snoozed()) {
+			return;
+		}
+		// Once fired, only a later time counts: the next occurrence of a series, or a new deadline
+		LocalDateTime last = fired.get(reminder);
+		LocalDateTime time = reminder.nextReminderTime(
+				last != null && !last.isBefore(startOfToday) ? last.plusNanos(1) : startOfToday);
+		if (entry != null && (time == null || !entry.time().equals(time))) {
+			queue.remove(pending.remove(reminder));
+			entry = null;
+		}
+		if (time != null && entry == null) {
+			add(new Entry(epochMilli(time), sequence++, reminder, time, false));
+		}
+	}
+
+	private void drop(TaskReminder reminder) {
+		Entry entry = pending.remove(reminder);
+		if (entry != null) {
+			queue.remove(entry);
+		}
+		fired.remove(reminder);
+	}
+
+	private LocalDateTime startOfToday() {
+		return LocalDateTime.now(clock).toLocalDate().atStartOfDay();
+	}
+
+	// Queues the next occurrence of the fired reminders of recurring tasks still in the store
+	private synchronized void requeueSeries(List<TaskReminder> due) {
+		LocalDateTime startOfToday = startOfToday();
+		boolean changed = false;
+		for (TaskReminder reminder : due) {
+			List<TaskReminder> ofTask = byTask.get(reminder.getTask());
+			if (reminder.getTask().isRecurring() && ofTask != null && ofTask.stream().anyMatch(r -> r == reminder)) {
+				schedule(reminder, startOfToday);
+				changed = true;
+			}
+		}
+		if (changed) {
+			rearm();
+		}
+	}
+
+	private void add(Entry entry) {
+		pending.put(entry.reminder(), entry);
+		queue.add(entry);
+	}
+
+	private long epochMilli(LocalDateTime time) {
+		return time.atZone(clock.getZone()).toInstant().toEpochMilli();
+	}
+
+	// Points the timer at the earliest entry, or at the next clock check
+	private void rearm() {
+		if (timer.isShutdown()) {
+			return;
+		}
+		long now = clock.millis();
+		long next = now + MAX_SLEEP.toMillis();
+		if (!queue.isEmpty()) {
+			next = Math.min(next, queue.first().at());
+		}
+		if (wakeUp != null && !wakeUp.isDone()) {
+			if (wakeUpAt == next) {
+				return;
+			}
+			wakeUp.cancel(false);
+		}
+		wakeUpAt = next;
+		wakeUp = timer.schedule(this::fireDue, Math.max(0, next - now), TimeUnit.MILLISECONDS);
+	}
+
+	private void fireDue() {
+		List<TaskReminder> due = new ArrayList<>();
+		synchronized (this) {
+			long now = clock.millis();
+			while (!queue.isEmpty() && queue.first().at() <= now) {
+				Entry entry = queue.pollFirst();
+				pending.remove(entry.reminder());
+				if (entry.time() != null) {
+					fired.put(entry.reminder(), entry.time());
+				}
+				due.add(entry.reminder());
+			}
+			wakeUp = null;
+			rearm();
+		}
+		if (!due.isEmpty()) {
+			modelThread.execute(() -> {
+				onDue.accept(due);
+				// Series reminders are scheduled one occurrence at a time
+				requeueSeries(due);
+			});
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package com.todo.controller;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.todo.models.Task;
+import com.todo.models.TaskCategory;
+import com.todo.models.TaskPriority;
+import com.todo.models.TaskReminder;
+import com.todo.persistence.StoreData;
+
+/**
+ * Merges a save made by another instance into the store, as a three-way merge
+ * against the {@link Base} both sides started from: what only the other side
+ * added or removed is taken over, what only this side added or removed is kept.
+ * Tasks on both sides take the other side's fields unless they were edited here
+ * since the last save. Works on the store's lists directly; returns the events of
+ * what it changed.
+ */
+final class StoreMerge {
+
+	/** What the store on disk held at the last load, save or merge, by lower-case name. */
+	record Base(Set<String> tasks, Set<String> categories, Map<String, Integer> priorities, Set<String> reminders) {
+		static Base of(StoreData data) {
+			Set<String> tasks = new HashSet<>();
+			data.tasks().forEach(t -> tasks.add(key(t.getTitle())));
+			Set<String> categories = new HashSet<>();
+			data.categories().forEach(c -> categories.add(key(c.getName())));
+			Map<String, Integer> priorities = new HashMap<>();
+			data.priorities().forEach(p -> priorities.put(key(p.getName()), p.getRank()));
+			Set<String> reminders = new HashSet<>();
+			data.reminders().forEach(r -> reminders.add(key(r)));
+			return new Base(tasks, categories, priorities, reminders);
+		}
+	}
+
+	private StoreMerge() {
+	}
+
+	private static String key(String name) {
+		return name.toLowerCase();
+	}
+
+	// A reminder is known by its task and its settings
+	private static String key(TaskReminder r) {
+		return key(r.getTask().getTitle()) + "|" + r.getType() + "|" + r.getCustomReminderDate() + "|"
+				+ r.getCustomReminderTime() + "|" + r.getMinutesBefore();
+	}
+
+	/**
+	 * @param edited whether a task was added or changed here since the last save
+	 */
+	static List<TaskEvent> merge(TaskManager manager, StoreData theirs, Base base, Predicate<Task> edited) {
+		List<TaskEvent> added = new ArrayList<>();
+		List<TaskEvent> changed = new ArrayList<>();
+		List<TaskEvent> removed = new ArrayList<>();
+
+		// Categories and priorities they added
+		List<TaskCategory> categories = manager.getCategories();
+		Set<String> ourCategories = keys(categories, TaskCategory::getName);
+		for (TaskCategory category : theirs.categories()) {
+			if (!ourCategories.contains(key(category.getName())) && !base.categories().contains(key(category.getName()))) {
+				addCategory(categories, category.getName(), added);
+			}
+		}
+		List<TaskPriority> priorities = manager.getPriorities();
+		Map<String, TaskPriority> ourPriorities = new HashMap<>();
+		priorities.forEach(p -> ourPriorities.put(key(p.getName()), p));
+		for (TaskPriority priority : theirs.priorities()) {
+			String name = key(priority.getName());
+			TaskPriority ours = ourPriorities.get(name);
+			if (ours == null) {
+				if (!base.priorities().containsKey(name)) {
+					addPriority(priorities, priority.getName(), priority.getRank(), added);
+				}
+			} else if (priority.getRank() != null && !priority.getRank().equals(ours.getRank())
+					&& Objects.equals(ours.getRank(), base.priorities().get(name))) {
+				ours.setRank(priority.getRank());
+				changed.add(new TaskEvent.PriorityRanked(ours.getName(), ours.getRank()));
+			}
+		}
+
+		// Tasks on both sides, and those they removed
+		List<Task> tasks = manager.getTasks();
+		Map<String, Task> theirTasks = new HashMap<>();
+		theirs.tasks().forEach(t -> theirTasks.put(key(t.getTitle()), t));
+		Set<String> ourTitles = new HashSet<>();
+		Set<Task> gone = new HashSet<>();
+		for (Task task : tasks) {
+			String title = key(task.getTitle());
+			ourTitles.add(title);
+			Task their = theirTasks.get(title);
+			if (edited.test(task)) {
+				keepDescription(task);
+				continue;
+			}
+			if (their == null) {
+				if (base.tasks().contains(title)) {
+					gone.add(task);
+				}
+			} else {
+				TaskState before = TaskState.of(task);
+				copy(their, task);
+				Set<TaskEvent.Field> fields = before.changes(task);
+				if (!fields.isEmpty()) {
+					changed.add(new TaskEvent.TaskUpdated(task, fields));
+				}
+			}
+		}
+		List<TaskReminder> reminders = manager.getReminders();
+		if (!gone.isEmpty()) {
+			removeIf(reminders, r -> gone.contains(r.getTask()), TaskEvent.ReminderRemoved::new, changed);
+			removeIf(tasks, gone::contains, TaskEvent.TaskRemoved::new, changed);
+		}
+		// Tasks they added; a title known before was removed or renamed here
+		Map<String, Task> byTitle = new HashMap<>();
+		tasks.forEach(t -> byTitle.put(key(t.getTitle()), t));
+		for (Task task : theirs.tasks()) {
+			String title = key(task.getTitle());
+			if (!ourTitles.contains(title) && !base.tasks().contains(title) && !byTitle.containsKey(title)) {
+				tasks.add(task);
+				byTitle.put(title, task);
+				changed.add(new TaskEvent.TaskAdded(task));
+			}
+		}
+
+		// Reminders they removed, then those they added
+		Set<String> theirReminders = new HashSet<>();
+		theirs.reminders().forEach(r -> theirReminders.add(key(r)));
+		removeIf(reminders, r -> {
+			String key = key(r);
+			return base.reminders().contains(key) && !theirReminders.contains(key);
+		}, TaskEvent.ReminderRemoved::new, changed);
+		Set<String> ourReminders = new HashSet<>();
+		reminders.forEach(r -> ourReminders.add(key(r)));
+		for (TaskReminder reminder : theirs.reminders()) {
+			String key = key(reminder);
+			Task task = byTitle.get(key(reminder.getTask().getTitle()));
+			if (task != null && !base.reminders().contains(key) && ourReminders.add(key)) {
+				reminder.setTask(task);
+				reminders.add(reminder);
+				changed.add(new TaskEvent.ReminderAdded(reminder));
+			}
+		}
+
+		// Categories and priorities they removed, unless a task kept here still uses them
+		Set<String> usedCategories = new HashSet<>();
+		Set<String> usedPriorities = new HashSet<>();
+		for (Task task : tasks) {
+			usedCategories.add(key(task.getCategory()));
+			usedPriorities.add(key(task.getPriority()));
+		}
+		Set<String> theirCategories = keys(theirs.categories(), TaskCategory::getName);
+		removeIf(categories, c -> {
+			String name = key(c.getName());
+			return base.categories().contains(name) && !theirCategories.contains(name) && !usedCategories.contains(name);
+		}, c -> new TaskEvent.CategoryRemoved(c.getName()), removed);
+		Set<String> theirPriorities = keys(theirs.priorities(), TaskPriority::getName);
+		removeIf(priorities, p -> {
+			String name = key(p.getName());
+			return !p.getName().equals("Default") && base.priorities().containsKey(name)
+					&& !theirPriorities.contains(name) && !usedPriorities.contains(name);
+		}, p -> new TaskEvent.PriorityRemoved(p.getName()), removed);
+
+		// A task of theirs may use a category or priority removed here
+		ourCategories = keys(categories, TaskCategory::getName);
+		Set<String> ourPriorityNames = keys(priorities, TaskPriority::getName);
+		for (Task task : tasks) {
+			if (ourCategories.add(key(task.getCategory()))) {
+				addCategory(categories, task.getCategory(), added);
+			}
+			if (ourPriorityNames.add(key(task.getPriority()))) {
+				addPriority(priorities, task.getPriority(), null, added);
+			}
+		}
+
+		List<TaskEvent> events = new ArrayList<>(added);
+		events.addAll(changed);
+		events.addAll(removed);
+		return events;
+	}
+
+	// Takes over the fields of `from`; an unchanged description is read from their newer files from now on
+	private static void copy(Task from, Task to) {
+		Object handle = to.getDescriptionHandle();
+		String text = from.getDescription();
+		if (!Objects.equals(text, to.getDescription())) {
+			to.setDescription(text);
+		} else if (from.getDescriptionHandle() instanceof Task.DescriptionLoader loader) {
+			to.offloadDescription(handle, loader);
+		}
+		to.setTitle(from.getTitle());
+		to.setCategory(from.getCategory());
+		to.setPriority(from.getPriority());
+		to.setDeadline(from.getDeadline());
+		to.setStatus(from.getStatus());
+		to.setRecurrence(from.getRecurrence());
+	}
+
+	// Their next saves delete the files our offloaded descriptions are read from
+	private static void keepDescription(Task task) {
+		if (task.getDescriptionHandle() instanceof Task.DescriptionLoader loader) {
+			task.setDescription(loader.load());
+		}
+	}
+
+	private static void addCategory(List<TaskCategory> categories, String name, List<TaskEvent> events) {
+		categories.add(new TaskCategory(name));
+		events.add(new TaskEvent.CategoryAdded(name));
+	}
+
+	private static void addPriority(List<TaskPriority> priorities, String name, Integer rank, List<TaskEvent> events) {
+		int value = rank != null ? rank : TaskPriority.MIN_RANK;
+		priorities.add(new TaskPriority(name, value));
+		events.add(new TaskEvent.PriorityAdded(name, value));
+	}
+
+	private static <T> Set<String> keys(List<T> list, Function<T, String> name) {
+		Set<String> keys = new HashSet<>();
+		list.forEach(e -> keys.add(key(name.apply(e))));
+		return keys;
+	}
+
+	// Removes the matching elements in one pass, with an event for each
+	private static <T> void removeIf(List<T> list, Predicate<? super T> filter, Function<T, TaskEvent> event,
+			List<TaskEvent> events) {
+		int kept = 0;
+		for (int i = 0; i < list.size(); i++) {
+			T element = list.get(i);
+			if (filter.test(element)) {
+				events.add(event.apply(element));
+			} else {
+				list.set(kept++, element);
+			}
+		}
+		list.subList(kept, list.size()).clear();
+	}
+}
@@ -0,0 +1,162 @@
+package com.todo.controller;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import com.todo.persistence.StoreUpdate;
+
+/**
+ * Picks up what other instances save to the same store while this one runs.
+ * <p>
+ * A "store-watch" thread watches the store directory for new manifests with a
+ * {@link WatchService}, reads the new save off the model thread and then merges it
+ * on the model thread with {@link TaskManager#mergeExternalChanges(StoreUpdate)}, so
+ * views follow through the usual change events. Watch events can be lost (e.g. on
+ * network file systems), so the store is also checked every {@link #POLL_INTERVAL};
+ * a check that finds nothing new only lists the directory.
+ * </p>
+ */
+public class StoreSync {
+	public static final Duration POLL_INTERVAL = Duration.ofSeconds(30);
+	// A save writes several files; wait for the rest before reading
+	private static final long SETTLE_MILLIS = 100;
+
+	private final TaskManager taskManager;
+	private final Executor modelThread;
+	private final Path dir;
+	private final long pollMillis;
+	// Only used on the watch thread once started
+	private WatchService watcher;
+	private Thread thread;
+	private volatile boolean stopped;
+
+	public StoreSync(TaskManager taskManager, Executor modelThread) {
+		this(taskManager, modelThread, POLL_INTERVAL);
+	}
+
+	StoreSync(TaskManager taskManager, Executor modelThread, Duration pollInterval) {
+		this.taskManager = taskManager;
+		this.modelThread = modelThread;
+		this.dir = taskManager.getDataDir();
+		this.pollMillis = pollInterval.toMillis();
+	}
+
+	// Watching starts before this returns, so no later save is missed
+	public void start() {
+		if (thread != null) {
+			throw new IllegalStateException("Already started");
+		}
+		if (Files.isDirectory(dir)) {
+			watcher = watch();
+		}
+		thread = new Thread(this::run, "store-watch");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	// Stops watching; a merge already handed to the model thread still runs
+	public void stop() {
+		stopped = true;
+		if (thread == null) {
+			return;
+		}
+		thread.interrupt();
+		try {
+			thread.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void run() {
+		try {
+			while (!stopped) {
+				if (watcher == null && Files.isDirectory(dir)) {
+					watcher = watch();
+				}
+				if (watcher == null) {
+					Thread.sleep(pollMillis);
+				} else {
+					WatchKey key = watcher.poll(pollMillis, TimeUnit.MILLISECONDS);
+					if (key != null) {
+						boolean saved = isSave(key);
+						Thread.sleep(SETTLE_MILLIS);
+						for (WatchKey more = watcher.poll(); more != null; more = watcher.poll()) {
+							saved |= isSave(more);
+						}
+						if (!saved) {
+							continue;
+						}
+					}
+				}
+				check();
+			}
+		} catch (InterruptedException | ClosedWatchServiceException e) {
+			// stopped
+		} finally {
+			if (watcher != null) {
+				try {
+					watcher.close();
+				} catch (IOException e) {
+					// nothing to release
+				}
+			}
+		}
+	}
+
+	// Null if the file system cannot watch; the store is then only polled
+	private WatchService watch() {
+		try {
+			WatchService watcher = dir.getFileSystem().newWatchService();
+			dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+			return watcher;
+		} catch (IOException | UnsupportedOperationException e) {
+			System.out.println("Not watching " + dir + ", checking it every " + pollMillis + " ms: " + e.getMessage());
+			return null;
+		}
+	}
+
+	// Whether the events mean a new save: a manifest is written last. Re-arms the key
+	private static boolean isSave(WatchKey key) {
+		boolean saved = false;
+		for (WatchEvent<?> event : key.pollEvents()) {
+			if (event.kind() == StandardWatchEventKinds.OVERFLOW
+					|| event.context() instanceof Path name && name.toString().startsWith("manifest.")) {
+				saved = true;
+			}
+		}
+		key.reset();
+		return saved;
+	}
+
+	// Reads on this thread, merges on the model thread
+	void check() {
+		try {
+			Optional<StoreUpdate> update = taskManager.readExternalChanges();
+			update.ifPresent(u -> modelThread.execute(() -> {
+				if (stopped) {
+					return;
+				}
+				try {
+					taskManager.mergeExternalChanges(u);
+				} catch (RuntimeException e) {
+					System.out.println("Could not merge the store saved elsewhere: " + e.getMessage());
+				}
+			}));
+		} catch (IOException | RuntimeException e) {
+			if (!stopped) {
+				System.out.println("Could not read the store saved elsewhere: " + e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,220 @@
+package com.todo.controller;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.todo.models.Task;
+import com.todo.models.TaskCategory;
+import com.todo.models.TaskPriority;
+import com.todo.models.TaskStatus;
+import com.todo.query.ParallelScan;
+
+/**
+ * Statistics over the task store: tasks and completion rates per category and
+ * per priority, how long open tasks have been overdue, and how many open tasks
+ * are due in each week.
+ * <p>
+ * The counters are kept between reads and follow the store's change events:
+ * an added, removed or updated task moves only its own counters, and no read
+ * sorts or groups the whole store. The first read, and {@link #recompute()},
+ * count everything again, split across cores for a large store. Reads may come
+ * from any thread.
+ * </p>
+ */
+public class TaskAnalytics {
+	// Upper bounds, in days overdue, of all but the last aging bucket
+	private static final int[] AGING_BOUNDS = {7, 30, 90};
+	private static final int NONE = Integer.MIN_VALUE;
+
+	/** Tasks of one category or priority and how many of them are completed. */
+	public record GroupStats(String name, int tasks, int completed, double completionRate) {
+		static GroupStats of(String name, int[] counts) {
+			int tasks = counts == null ? 0 : counts[0];
+			int completed = counts == null ? 0 : counts[1];
+			return new GroupStats(name, tasks, completed, tasks == 0 ? 0 : (double) completed / tasks);
+		}
+	}
+
+	/** Open tasks overdue by {@code minDays} to {@code maxDays} days; {@code maxDays} is -1 for no limit. */
+	public record AgeBucket(int minDays, int maxDays, int tasks) {
+	}
+
+	/** Open tasks due in the week starting on {@code weekStart}, a Monday. */
+	public record WeekLoad(LocalDate weekStart, int tasks) {
+	}
+
+	private final TaskManager taskManager;
+	private Tally tally; // null until the first read
+
+	public TaskAnalytics(TaskManager taskManager) {
+		this.taskManager = taskManager;
+		taskManager.subscribe(this::apply);
+	}
+
+	/** Every category of the store, including those without tasks, by name. */
+	public synchronized List<GroupStats> getCategoryStats() {
+		refresh();
+		List<GroupStats> stats = new ArrayList<>();
+		for (TaskCategory category : taskManager.getCategories()) {
+			stats.add(GroupStats.of(category.getName(), tally.categories.get(key(category.getName()))));
+		}
+		stats.sort(Comparator.comparing(GroupStats::name, String.CASE_INSENSITIVE_ORDER));
+		return stats;
+	}
+
+	/** Every priority of the store, most important first. */
+	public synchronized List<GroupStats> getPriorityStats() {
+		refresh();
+		List<TaskPriority> priorities = new ArrayList<>(taskManager.getPriorities());
+		priorities.sort(Comparator.comparing(TaskPriority::getRank, Comparator.nullsLast(Comparator.reverseOrder())));
+		List<GroupStats> stats = new ArrayList<>();
+		for (TaskPriority priority : priorities) {
+			stats.add(GroupStats.of(priority.getName(), tally.priorities.get(key(priority.getName()))));
+		}
+		return stats;
+	}
+
+	/** Open tasks whose deadline is before {@code today}, by days overdue: 1-7, 8-30, 31-90 and more. */
+	public synchronized List<AgeBucket> getOverdueAging(LocalDate today) {
+		refresh();
+		int day = Math.toIntExact(today.toEpochDay());
+		int[] counts = new int[AGING_BOUNDS.length + 1];
+		for (Map.Entry<Integer, Integer> entry : tally.openByDeadline.headMap(day, false).entrySet()) {
+			int age = day - entry.getKey();
+			int bucket = 0;
+			while (bucket < AGING_BOUNDS.length && age > AGING_BOUNDS[bucket]) {
+				bucket++;
+			}
+			counts[bucket] += entry.getValue();
+		}
+		List<AgeBucket> buckets = new ArrayList<>();
+		for (int i = 0; i < counts.length; i++) {
+			buckets.add(new AgeBucket(i == 0 ? 1 : AGING_BOUNDS[i - 1] + 1, i < AGING_BOUNDS.length ? AGING_BOUNDS[i] : -1,
+					counts[i]));
+		}
+		return buckets;
+	}
+
+	/** Open tasks due in each of {@code weeks} weeks, starting with the week that contains {@code from}. */
+	public synchronized List<WeekLoad> getWeeklyLoad(LocalDate from, int weeks) {
+		if (weeks < 1) {
+			throw new IllegalArgumentException("Number of weeks must be positive.");
+		}
+		refresh();
+		List<WeekLoad> load = new ArrayList<>();
+		LocalDate monday = from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+		for (int i = 0; i < weeks; i++, monday = monday.plusWeeks(1)) {
+			int start = Math.toIntExact(monday.toEpochDay());
+			int tasks = 0;
+			for (int count : tally.openByDeadline.subMap(start, start + 7).values()) {
+				tasks += count;
+			}
+			load.add(new WeekLoad(monday, tasks));
+		}
+		return load;
+	}
+
+	/** Counts every task again instead of adjusting the counters; in parallel for a large store. */
+	public synchronized void recompute() {
+		tally = ParallelScan.collect(taskManager.getTasks(), Tally::new, Tally::add, Tally::merge);
+	}
+
+	private static String key(String name) {
+		return name.toLowerCase(Locale.ROOT);
+	}
+
+	private void refresh() {
+		if (tally == null) {
+			recompute();
+		}
+	}
+
+	// Until the first read there is nothing to adjust
+	private synchronized void apply(List<TaskEvent> events) {
+		if (tally == null) {
+			return;
+		}
+		for (TaskEvent event : events) {
+			switch (event) {
+				case TaskEvent.TaskAdded added -> tally.add(added.task());
+				case TaskEvent.TaskUpdated updated -> tally.add(updated.task());
+				case TaskEvent.TaskRemoved removed -> tally.remove(removed.task());
+				default -> {
+				}
+			}
+		}
+	}
+
+	// What one task adds to the counters; openDeadline is NONE once it is completed or has no deadline
+	private record Contribution(String category, String priority, boolean completed, int openDeadline) {
+		static Contribution of(Task task) {
+			boolean completed = task.getStatus() == TaskStatus.COMPLETED;
+			return new Contribution(task.getCategory(), task.getPriority(), completed,
+					completed || !task.hasDeadline() ? NONE : task.getDeadlineEpochDay());
+		}
+	}
+
+	private static final class Tally {
+		private final Map<Task, Contribution> contributions = new IdentityHashMap<>();
+		// {tasks, completed} by lowercased name
+		private final Map<String, int[]> categories = new HashMap<>();
+		private final Map<String, int[]> priorities = new HashMap<>();
+		// Open tasks by deadline epoch day
+		private final TreeMap<Integer, Integer> openByDeadline = new TreeMap<>();
+
+		// Also for a task counted before, which then moves from its old counters to the new ones
+		void add(Task task) {
+			Contribution contribution = Contribution.of(task);
+			Contribution previous = contributions.put(task, contribution);
+			if (previous != null) {
+				count(previous, -1);
+			}
+			count(contribution, 1);
+		}
+
+		void remove(Task task) {
+			Contribution previous = contributions.remove(task);
+			if (previous != null) {
+				count(previous, -1);
+			}
+		}
+
+		void merge(Tally other) {
+			contributions.putAll(other.contributions);
+			other.categories.forEach((name, counts) -> add(categories, name, counts[0], counts[1]));
+			other.priorities.forEach((name, counts) -> add(priorities, name, counts[0], counts[1]));
+			other.openByDeadline.forEach((day, count) -> openByDeadline.merge(day, count, Integer::sum));
+		}
+
+		private void count(Contribution contribution, int sign) {
+			int completed = contribution.completed() ? sign : 0;
+			if (contribution.category() != null) {
+				add(categories, key(contribution.category()), sign, completed);
+			}
+			if (contribution.priority() != null) {
+				add(priorities, key(contribution.priority()), sign, completed);
+			}
+			if (contribution.openDeadline() != NONE) {
+				openByDeadline.merge(contribution.openDeadline(), sign, (a, b) -> a + b == 0 ? null : a + b);
+			}
+		}
+
+		private static void add(Map<String, int[]> groups, String name, int tasks, int completed) {
+			int[] counts = groups.computeIfAbsent(name, k -> new int[2]);
+			counts[0] += tasks;
+			counts[1] += completed;
+			if (counts[0] == 0) {
+				groups.remove(name);
+			}
+		}
+	}
+}
@@ -0,0 +1,549 @@
+package com.todo.controller;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import com.todo.models.Recurrence;
+import com.todo.models.Task;
+import com.todo.models.TaskCategory;
+import com.todo.models.TaskPriority;
+import com.todo.models.TaskReminder;
+import com.todo.models.TaskStatus;
+
+/**
+ * A group of task/reminder mutations applied to a {@link TaskManager} as one unit.
+ * <p>
+ * Operations are only recorded until {@link #commit()}. Commit then:
+ * - validates every operation in order against lookups built once per batch
+ *   (category/priority name sets, and the live task set and title map when an
+ *   operation needs them) instead of the per-call list scans of the single-item methods
+ * - applies nothing if any operation is invalid (all-or-nothing)
+ * - otherwise applies them, removing tasks and reminders in one pass each
+ * - announces all of their events in one delivery, undone as one change, and persists once
+ * </p>
+ * The rules are the same as for the corresponding {@code TaskManager} methods.
+ */
+public class TaskBatch {
+	private final TaskManager manager;
+	private final List<Operation> operations = new ArrayList<>();
+	private boolean persist = true;
+	private boolean committed;
+
+	TaskBatch(TaskManager manager) {
+		this.manager = manager;
+	}
+
+	public TaskBatch addTask(Task task) {
+		return record(new AddTask(task));
+	}
+
+	public TaskBatch updateTask(Task task, String newTitle, String newDescription, String newCategory, String newPriority, LocalDate newDeadline) {
+		return record(new UpdateTask(task, newTitle, newDescription, newCategory, newPriority, newDeadline));
+	}
+
+	public TaskBatch updateTaskStatus(Task task, TaskStatus newStatus) {
+		return record(new UpdateStatus(task, newStatus));
+	}
+
+	public TaskBatch setTaskRecurrence(Task task, Recurrence recurrence) {
+		return record(new SetRecurrence(task, recurrence));
+	}
+
+	public TaskBatch removeTask(Task task) {
+		return record(new RemoveTask(task));
+	}
+
+	public TaskBatch addReminder(String taskTitle, TaskReminder.ReminderType type, LocalDate customDate) {
+		return addReminder(taskTitle, type, customDate, null, null);
+	}
+
+	public TaskBatch addReminder(String taskTitle, TaskReminder.ReminderType type, LocalDate customDate,
+			LocalTime customTime, Integer minutesBefore) {
+		return record(new AddReminder(taskTitle, type, customDate, customTime, minutesBefore));
+	}
+
+	// Skip the write to disk on commit, e.g. when the caller persists by other means
+	public TaskBatch withoutPersist() {
+		this.persist = false;
+		return this;
+	}
+
+	public int size() {
+		return operations.size();
+	}
+
+	/**
+	 * Validates and applies all recorded operations.
+	 *
+	 * @return the number of operations applied
+	 * @throws IllegalArgumentException if an operation is invalid; nothing is applied
+	 * @throws IllegalStateException if an operation conflicts with task state; nothing is applied
+	 */
+	public int commit() {
+		return commit(null);
+	}
+
+	/**
+	 * Applies the operations that pass validation and hands every rejected one to
+	 * {@code onRejected} (zero-based operation index and the validation error)
+	 * instead of failing the whole batch. Used by bulk imports that report per-row errors.
+	 *
+	 * @return the number of operations applied
+	 */
+	public int commitValid(BiConsumer<Integer, RuntimeException> onRejected) {
+		return commit(Objects.requireNonNull(onRejected));
+	}
+
+	private int commit(BiConsumer<Integer, RuntimeException> onRejected) {
+		if (committed) {
+			throw new IllegalStateException("Batch has already been committed.");
+		}
+		committed = true;
+		if (operations.isEmpty()) {
+			return 0;
+		}
+
+		// Validation throws before touching the staging state, so a rejected operation leaves no trace
+		Staging staging = new Staging(manager);
+		List<Operation> accepted = onRejected == null ? operations : new ArrayList<>(operations.size());
+		for (int i = 0; i < operations.size(); i++) {
+			Operation operation = operations.get(i);
+			try {
+				operation.validate(staging);
+				if (onRejected != null) {
+					accepted.add(operation);
+				}
+			} catch (IllegalStateException e) {
+				if (onRejected == null) {
+					throw new IllegalStateException("Batch rejected at operation " + (i + 1) + ": " + e.getMessage(), e);
+				}
+				onRejected.accept(i, e);
+			} catch (IllegalArgumentException e) {
+				if (onRejected == null) {
+					throw new IllegalArgumentException("Batch rejected at operation " + (i + 1) + ": " + e.getMessage(), e);
+				}
+				onRejected.accept(i, e);
+			}
+		}
+		if (accepted.isEmpty()) {
+			return 0;
+		}
+
+		Applier applier = new Applier(staging);
+		for (Operation operation : accepted) {
+			operation.apply(applier);
+		}
+		manager.publish(applier.finish(manager));
+		if (persist) {
+			manager.persistAll();
+		}
+		return accepted.size();
+	}
+
+	private TaskBatch record(Operation operation) {
+		if (committed) {
+			throw new IllegalStateException("Batch has already been committed.");
+		}
+		operations.add(operation);
+		return this;
+	}
+
+	// -----------------------------------------------------
+	// Validation state: what the store will look like after the operations seen so far.
+	// The task set and the title map cost O(tasks) to build, so they are only built
+	// once an operation needs them; a batch of plain inserts stays O(batch size).
+	// -----------------------------------------------------
+	private static class Staging {
+		final TaskManager manager;
+		final Set<String> categoryNames = new HashSet<>();
+		final Set<String> priorityNames = new HashSet<>();
+		final List<Task> added = new ArrayList<>();
+		final Set<Task> addedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+		final Set<Task> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+		final Map<Task, String> titles = new IdentityHashMap<>();
+		final Map<Task, LocalDate> deadlines = new IdentityHashMap<>();
+		final Map<Task, TaskStatus> statuses = new IdentityHashMap<>();
+		final Map<Task, Recurrence> recurrences = new IdentityHashMap<>();
+		final LocalDateTime now = LocalDateTime.now();
+		final LocalDate today = now.toLocalDate();
+		private Set<Task> live;
+		private Map<String, Task> byTitle;
+
+		Staging(TaskManager manager) {
+			this.manager = manager;
+			for (TaskCategory c : manager.getCategories()) {
+				categoryNames.add(key(c.getName()));
+			}
+			for (TaskPriority p : manager.getPriorities()) {
+				priorityNames.add(key(p.getName()));
+			}
+		}
+
+		void requireCategory(String name) {
+			if (name == null || !categoryNames.contains(key(name))) {
+				throw new IllegalArgumentException("Category does not exist: " + name);
+			}
+		}
+
+		void requirePriority(String name) {
+			if (name == null || !priorityNames.contains(key(name))) {
+				throw new IllegalArgumentException("Priority does not exist: " + name);
+			}
+		}
+
+		void requireLive(Task task) {
+			if (task == null) {
+				throw new IllegalArgumentException("Task cannot be null.");
+			}
+			if (!live().contains(task)) {
+				throw new IllegalArgumentException("Task does not exist: " + task.getTitle());
+			}
+		}
+
+		void add(Task task) {
+			added.add(task);
+			addedSet.add(task);
+			removed.remove(task);
+			if (live != null) {
+				live.add(task);
+			}
+			if (byTitle != null) {
+				byTitle.putIfAbsent(key(title(task)), task);
+			}
+		}
+
+		void rename(Task task, String newTitle) {
+			unlinkTitle(task);
+			titles.put(task, newTitle);
+			if (byTitle != null) {
+				byTitle.putIfAbsent(key(newTitle), task);
+			}
+		}
+
+		void remove(Task task) {
+			removed.add(task);
+			live().remove(task);
+			unlinkTitle(task);
+		}
+
+		Task taskByTitle(String title) {
+			if (byTitle == null) {
+				byTitle = new HashMap<>();
+				for (Task t : manager.getTasks()) {
+					if (!removed.contains(t)) {
+						byTitle.putIfAbsent(key(title(t)), t);
+					}
+				}
+				for (Task t : added) {
+					if (!removed.contains(t)) {
+						byTitle.putIfAbsent(key(title(t)), t);
+					}
+				}
+			}
+			return byTitle.get(key(title));
+		}
+
+		String title(Task task) {
+			return titles.getOrDefault(task, task.getTitle());
+		}
+
+		LocalDate deadline(Task task) {
+			return deadlines.containsKey(task) ? deadlines.get(task) : task.getDeadline();
+		}
+
+		Recurrence recurrence(Task task) {
+			return recurrences.containsKey(task) ? recurrences.get(task) : task.getRecurrence();
+		}
+
+		TaskStatus status(Task task) {
+			return statuses.getOrDefault(task, task.getStatus());
+		}
+
+		private Set<Task> live() {
+			if (live == null) {
+				live = Collections.newSetFromMap(new IdentityHashMap<>());
+				live.addAll(manager.getTasks());
+				live.addAll(added);
+				live.removeAll(removed);
+			}
+			return live;
+		}
+
+		private void unlinkTitle(Task task) {
+			String title = title(task);
+			if (byTitle != null && title != null && byTitle.get(key(title)) == task) {
+				byTitle.remove(key(title));
+			}
+		}
+
+		static String key(String name) {
+			return name == null ? null : name.toLowerCase(Locale.ROOT);
+		}
+	}
+
+	// -----------------------------------------------------
+	// Apply state: deferred bulk removals
+	// -----------------------------------------------------
+	private static class Applier {
+		final Staging staging;
+		final Set<Task> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+		// Tasks whose existing reminders must go (removed or completed at some point in the batch)
+		final Set<Task> purged = Collections.newSetFromMap(new IdentityHashMap<>());
+		final List<Task> added = new ArrayList<>();
+		final Map<Task, List<TaskReminder>> addedReminders = new LinkedHashMap<>();
+		// Fields of the updated tasks before their first update in the batch
+		final Map<Task, TaskState> updated = new LinkedHashMap<>();
+
+		Applier(Staging staging) {
+			this.staging = staging;
+		}
+
+		void purgeReminders(Task task) {
+			purged.add(task);
+			addedReminders.remove(task);
+		}
+
+		void beforeUpdate(Task task) {
+			updated.putIfAbsent(task, TaskState.of(task));
+		}
+
+		// Applies the deferred changes; returns the events of the whole batch and the steps that reverse it
+		Change finish(TaskManager manager) {
+			Change change = new Change();
+			List<Task> tasks = manager.getTasks();
+			Set<Task> addedSet = Collections.newSetFromMap(new IdentityHashMap<>());
+			addedSet.addAll(added);
+			if (!updated.isEmpty()) {
+				// Undo addresses tasks by position: one pass, before the removals below shift them
+				for (int i = 0; i < tasks.size(); i++) {
+					Task task = tasks.get(i);
+					TaskState before = updated.get(task);
+					// An added task is announced as added, whatever happened to it before
+					if (before == null || addedSet.contains(task)) {
+						continue;
+					}
+					Set<TaskEvent.Field> fields = before.changes(task);
+					if (removed.contains(task) && !fields.isEmpty()) {
+						// Announced as removed, but undoing must put back its fields too
+						change.undo.add(Edit.restoring(i, before, fields));
+					} else if (!removed.contains(task)) {
+						change.update(i, task, before);
+					}
+				}
+			}
+			// Reminders before their tasks, so that undoing puts the tasks back first
+			if (!purged.isEmpty()) {
+				change.removeIf(manager.getReminders(), r -> purged.contains(r.getTask()), TaskEvent.ReminderRemoved::new,
+						Edit.InsertReminder::of);
+			}
+			if (!removed.isEmpty()) {
+				change.removeIf(tasks, removed::contains, TaskEvent.TaskRemoved::new, Edit.InsertTask::new);
+			}
+			for (Task task : added) {
+				tasks.add(task);
+				change.add(new TaskEvent.TaskAdded(task), new Edit.DeleteTask(tasks.size() - 1));
+			}
+			List<TaskReminder> reminders = manager.getReminders();
+			for (List<TaskReminder> list : addedReminders.values()) {
+				for (TaskReminder reminder : list) {
+					reminders.add(reminder);
+					change.add(new TaskEvent.ReminderAdded(reminder), new Edit.DeleteReminder(reminders.size() - 1));
+				}
+			}
+			return change;
+		}
+	}
+
+	private interface Operation {
+		void validate(Staging staging);
+
+		void apply(Applier applier);
+	}
+
+	private record AddTask(Task task) implements Operation {
+		public void validate(Staging staging) {
+			if (task == null) {
+				throw new IllegalArgumentException("Task cannot be null.");
+			}
+			if (staging.addedSet.contains(task) && !staging.removed.contains(task)) {
+				throw new IllegalArgumentException("Task is already part of this batch: " + task.getTitle());
+			}
+			staging.requireCategory(task.getCategory());
+			staging.requirePriority(task.getPriority());
+			TaskManager.checkRecurrence(task.getDeadline(), task.getRecurrence());
+			staging.add(task);
+		}
+
+		public void apply(Applier applier) {
+			// Re-adding a task removed earlier in this batch just cancels the removal
+			if (!applier.removed.remove(task)) {
+				applier.added.add(task);
+			}
+			TaskManager.markDelayedIfOverdue(task, applier.staging.today);
+		}
+	}
+
+	private record UpdateTask(Task task, String newTitle, String newDescription, String newCategory,
+			String newPriority, LocalDate newDeadline) implements Operation {
+		public void validate(Staging staging) {
+			staging.requireLive(task);
+			if (isSet(newCategory)) {
+				staging.requireCategory(newCategory);
+			}
+			if (isSet(newPriority)) {
+				staging.requirePriority(newPriority);
+			}
+			if (newDeadline != null) {
+				if (newDeadline.isBefore(staging.today)) {
+					throw new IllegalArgumentException("Deadline cannot be in the past.");
+				}
+				LocalDate current = staging.deadline(task);
+				Recurrence recurrence = staging.recurrence(task);
+				if (recurrence != null && !newDeadline.equals(current)) {
+					// Throws if the series ends before it
+					staging.recurrences.put(task, recurrence.restartAt(newDeadline, current));
+				}
+				staging.deadlines.put(task, newDeadline);
+			}
+			if (isSet(newTitle)) {
+				staging.rename(task, newTitle);
+			}
+		}
+
+		public void apply(Applier applier) {
+			applier.beforeUpdate(task);
+			if (isSet(newTitle)) {
+				task.setTitle(newTitle);
+			}
+			if (isSet(newDescription)) {
+				task.setDescription(newDescription);
+			}
+			if (isSet(newCategory)) {
+				task.setCategory(newCategory);
+			}
+			if (isSet(newPriority)) {
+				task.setPriority(newPriority);
+			}
+			if (newDeadline != null) {
+				task.setRecurrence(TaskManager.restartedRecurrence(task, newDeadline));
+				task.setDeadline(newDeadline);
+			}
+			TaskManager.markDelayedIfOverdue(task, applier.staging.today);
+		}
+
+		private static boolean isSet(String value) {
+			return value != null && !value.trim().isEmpty();
+		}
+	}
+
+	private record UpdateStatus(Task task, TaskStatus newStatus) implements Operation {
+		public void validate(Staging staging) {
+			staging.requireLive(task);
+			if (newStatus == null) {
+				throw new IllegalArgumentException("Task status cannot be null.");
+			}
+			Recurrence recurrence = staging.recurrence(task);
+			LocalDate deadline = staging.deadline(task);
+			LocalDate next = newStatus == TaskStatus.COMPLETED && recurrence != null && deadline != null
+					? recurrence.after(deadline) : null;
+			if (next != null) {
+				staging.deadlines.put(task, next);
+				staging.statuses.put(task, TaskStatus.OPEN);
+			} else {
+				staging.statuses.put(task, newStatus);
+			}
+		}
+
+		public void apply(Applier applier) {
+			applier.beforeUpdate(task);
+			LocalDate next = newStatus == TaskStatus.COMPLETED ? TaskManager.nextOccurrence(task, task.getDeadline()) : null;
+			if (next != null) {
+				// Same as TaskManager.updateTaskStatus: the series moves on to its next occurrence
+				task.setDeadline(next);
+				task.setStatus(TaskStatus.OPEN);
+				TaskManager.markDelayedIfOverdue(task, applier.staging.today);
+				return;
+			}
+			task.setStatus(newStatus);
+			if (newStatus == TaskStatus.COMPLETED) {
+				applier.purgeReminders(task);
+			}
+		}
+	}
+
+	private record SetRecurrence(Task task, Recurrence recurrence) implements Operation {
+		public void validate(Staging staging) {
+			staging.requireLive(task);
+			// Against the deadline the earlier operations leave the task with
+			TaskManager.checkRecurrence(staging.deadline(task), recurrence);
+			staging.recurrences.put(task, recurrence);
+		}
+
+		public void apply(Applier applier) {
+			applier.beforeUpdate(task);
+			task.setRecurrence(recurrence);
+		}
+	}
+
+	private record RemoveTask(Task task) implements Operation {
+		public void validate(Staging staging) {
+			staging.requireLive(task);
+			staging.remove(task);
+		}
+
+		public void apply(Applier applier) {
+			if (!applier.added.remove(task)) {
+				applier.removed.add(task);
+			}
+			TaskManager.pinDescription(task);
+			applier.purgeReminders(task);
+		}
+	}
+
+	private static final class AddReminder implements Operation {
+		private final String taskTitle;
+		private final TaskReminder.ReminderType type;
+		private final LocalDate customDate;
+		private final LocalTime customTime;
+		private final Integer minutesBefore;
+		private Task task; // resolved during validation, while titles are as of this operation
+
+		AddReminder(String taskTitle, TaskReminder.ReminderType type, LocalDate customDate, LocalTime customTime,
+				Integer minutesBefore) {
+			this.taskTitle = taskTitle;
+			this.type = type;
+			this.customDate = customDate;
+			this.customTime = customTime;
+			this.minutesBefore = minutesBefore;
+		}
+
+		public void validate(Staging staging) {
+			task = staging.taskByTitle(taskTitle);
+			if (task == null) {
+				throw new IllegalArgumentException("Task does not exist: " + taskTitle);
+			}
+			if (staging.status(task) == TaskStatus.COMPLETED) {
+				throw new IllegalStateException("Cannot add a reminder for a completed task!");
+			}
+			TaskManager.checkReminder(staging.deadline(task), type, customDate, customTime, minutesBefore, staging.now);
+		}
+
+		public void apply(Applier applier) {
+			applier.addedReminders.computeIfAbsent(task, t -> new ArrayList<>())
+					.add(new TaskReminder(task, type, customDate, customTime, minutesBefore));
+		}
+	}
+}
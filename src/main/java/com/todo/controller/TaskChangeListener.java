@@ -0,0 +1,13 @@
+package com.todo.controller;
+
+import java.util.List;
+
+/**
+ * Receives the changes of the store, see {@link TaskManager#subscribe}. Each call
+ * carries the events of one operation or one committed batch; the list is never
+ * empty and cannot be modified.
+ */
+@FunctionalInterface
+public interface TaskChangeListener {
+	void changed(List<TaskEvent> events);
+}
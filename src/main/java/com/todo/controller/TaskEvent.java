@@ -0,0 +1,63 @@
+package com.todo.controller;
+
+import java.util.Set;
+
+import com.todo.models.Task;
+import com.todo.models.TaskReminder;
+
+/**
+ * One change to the store, as announced to a {@link TaskChangeListener}. The
+ * events of one operation or batch are delivered together, in the order they
+ * happened; a cascade (a removed category's tasks and their reminders, say) comes
+ * as events of its own in the same delivery.
+ */
+public sealed interface TaskEvent {
+
+	/** The task fields a {@link TaskUpdated} can report. */
+	enum Field {
+		TITLE, DESCRIPTION, CATEGORY, PRIORITY, DEADLINE, STATUS, RECURRENCE
+	}
+
+	record TaskAdded(Task task) implements TaskEvent {
+	}
+
+	/** {@code fields} are those whose value differs from before the change; never empty. */
+	record TaskUpdated(Task task, Set<Field> fields) implements TaskEvent {
+		public TaskUpdated {
+			fields = Set.copyOf(fields);
+		}
+	}
+
+	record TaskRemoved(Task task) implements TaskEvent {
+	}
+
+	record ReminderAdded(TaskReminder reminder) implements TaskEvent {
+	}
+
+	record ReminderUpdated(TaskReminder reminder) implements TaskEvent {
+	}
+
+	record ReminderRemoved(TaskReminder reminder) implements TaskEvent {
+	}
+
+	record CategoryAdded(String name) implements TaskEvent {
+	}
+
+	record CategoryRenamed(String oldName, String newName) implements TaskEvent {
+	}
+
+	record CategoryRemoved(String name) implements TaskEvent {
+	}
+
+	record PriorityAdded(String name, int rank) implements TaskEvent {
+	}
+
+	record PriorityRenamed(String oldName, String newName) implements TaskEvent {
+	}
+
+	record PriorityRanked(String name, int rank) implements TaskEvent {
+	}
+
+	record PriorityRemoved(String name) implements TaskEvent {
+	}
+}
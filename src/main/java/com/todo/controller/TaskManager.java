@@ -1,50 +1,105 @@
 package com.todo.controller;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.todo.models.Recurrence;
 import com.todo.models.Task;
 import com.todo.models.TaskCategory;
 import com.todo.models.TaskPriority;
+import com.todo.models.TaskOccurrence;
 import com.todo.models.TaskReminder;
 import com.todo.models.TaskStatus;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.todo.persistence.StoreConflictException;
+import com.todo.persistence.StoreData;
+import com.todo.persistence.StoreUpdate;
+import com.todo.persistence.TaskRepository;
+import com.todo.query.ParallelScan;
+import com.todo.query.QueryPlan;
+import com.todo.query.TaskIndex;
+import com.todo.query.TaskQuery;
 
 /**
  * Acts as a database layer.
  * TaskManager is responsible for:
- * - Loading and saving tasks, categories, priorities, and reminders from/to JSON files
+ * - Loading and saving tasks, categories, priorities, and reminders through a
+ *   {@link TaskRepository} (JSON snapshot files or an embedded H2 database)
  * - Holding the in-memory lists used by the application
  * - Managing CRUD operations on these entities
+ * - Announcing every change as typed {@link TaskEvent}s to subscribers
+ * - Keeping the {@link UndoHistory} of those changes
+ * - Merging what other instances saved to the same store (see {@link StoreSync})
  */
 
-public class TaskManager {
-	private List<Task> tasks;
-	private List<TaskCategory> categories;
-	private List<TaskPriority> priorities;
-	private List<TaskReminder> reminders;
+public final class TaskManager {
+	// Above this many tasks turning DELAYED at once, one pass over the list is cheaper than a lookup each
+	private static final int ROLLOVER_LOOKUPS = 16;
+
+	// Copy-on-write, so that snapshot() copies nothing
+	private final VersionedList<Task> tasks;
+	private final VersionedList<TaskCategory> categories;
+	private final VersionedList<TaskPriority> priorities;
+	private final VersionedList<TaskReminder> reminders;
+	private final TaskRepository repository;
+	private final List<Subscriber> subscribers = new ArrayList<>();
+	// Created once the lists are loaded, as they read them through this manager
+	private final TaskAnalytics analytics; // counts on first use
+	private final UndoHistory history;
+	// Bumped by every change; equal to savedVersion while the repository matches memory
+	private final AtomicLong changeVersion = new AtomicLong();
+	private volatile long savedVersion;
+	// Tasks added or changed here, by the change version they were last touched at
+	private final Map<Task, Long> editedTasks = new IdentityHashMap<>();
+	// The store on disk as of the last load, save or merge, to merge the next external save against
+	private volatile StoreMerge.Base base;
+	// Query lookups, built on the first query and then kept up to date by publish
+	private volatile TaskIndex taskIndex;
 
 	public TaskManager() {
-		tasks = new ArrayList<>();
-		categories = new ArrayList<>();
-		priorities = new ArrayList<>();
-		reminders = new ArrayList<>();
-
-		// On startup, load data from jsons in memory
-		loadData("tasks.json", tasks, new TypeReference<List<Task>>() {});
-		loadData("categories.json", categories, new TypeReference<List<TaskCategory>>() {});
-		loadData("priorities.json", priorities, new TypeReference<List<TaskPriority>>() {});
-		loadData("reminders.json", reminders, new TypeReference<List<TaskReminder>>() {});
-
-		// MAKE SURE DEFAULT PRIORITY EXISTS !
+		this(Paths.get("medialab"));
+	}
+
+	// Lets tests, tools and benchmarks point the store at a directory other than "medialab/"
+	public TaskManager(Path dataDir) {
+		this(TaskRepository.open(dataDir));
+	}
+
+	public TaskManager(TaskRepository repository) {
+		this.repository = repository;
+
+		// On startup, load data from the store in memory
+		StoreData data;
+		try {
+			data = repository.load();
+		} catch (IOException e) {
+			// Starting empty would let the next save wipe the store
+			throw new IllegalStateException("Could not load the task store: " + e.getMessage(), e);
+		}
+		base = StoreMerge.Base.of(data);
+		tasks = new VersionedList<>(data.tasks());
+		categories = new VersionedList<>(data.categories());
+		priorities = new VersionedList<>(data.priorities());
+		reminders = new VersionedList<>(data.reminders());
+		relinkReminders();
+
+		// MAKE SURE DEFAULT PRIORITY EXISTS ! (written with the next save)
 		boolean defaultExists = false;
 		for (TaskPriority p : priorities) {
 			if (p.getName().equals("Default")) {
@@ -54,66 +109,162 @@ public class TaskManager {
 		}
 
 		if (!defaultExists) {
-			priorities.add(new TaskPriority("Default"));
-			saveData("priorities.json", priorities);
+			priorities.add(new TaskPriority("Default", 0));
 		}
+		rankLegacyPriorities();
 
 		// If a task has a deadline in the past, mark it as Delayed automatically
 		markDelayedTasks();
+
+		analytics = new TaskAnalytics(this);
+		history = new UndoHistory(this);
 	}
 
-	private <T> void loadData(String filename, List<T> list, TypeReference<List<T>> typeReference) {
-		try {
-			File file = new File("medialab/" + filename);
-			if (file.exists()) {
-				// Register JavaTimeModule for LocalDate support
-				ObjectMapper objectMapper = new ObjectMapper()
-						.registerModule(new JavaTimeModule())
-						.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-
-				List<T> dataList = objectMapper.readValue(file, typeReference);
-				list.addAll(dataList);
-
-				// If loading reminders, re-establish links to actual Task objects
-				if (list instanceof List<?> && !list.isEmpty() && list.get(0) instanceof TaskReminder) {
-					List<TaskReminder> remindersList = (List<TaskReminder>) list;
-					for (TaskReminder reminder : remindersList) {
-						Task actualTask = getTaskByTitle(reminder.getTask().getTitle());
-						if (actualTask != null) {
-							reminder.setTask(actualTask); // Fix broken reference
-						}
-					}
-				}
+	// Priorities saved before ranks existed were ordered by position; keep that order, Default lowest
+	private void rankLegacyPriorities() {
+		for (int i = 0; i < priorities.size(); i++) {
+			TaskPriority p = priorities.get(i);
+			if (p.getRank() == null) {
+				p.setRank(p.getName().equals("Default") ? TaskPriority.MIN_RANK : Math.min(i, TaskPriority.MAX_RANK));
+			}
+		}
+	}
 
-				System.out.println("Loaded " + filename + " (" + dataList.size() + " records)");
-			} else {
-				System.out.println(filename + " not found, starting fresh.");
+	// Reminders are stored with a copy of their task; re-establish links to the actual Task objects
+	private void relinkReminders() {
+		Map<String, Task> byTitle = new HashMap<>();
+		for (Task t : tasks) {
+			byTitle.putIfAbsent(t.getTitle().toLowerCase(), t);
+		}
+		for (TaskReminder reminder : reminders) {
+			Task actualTask = byTitle.get(reminder.getTask().getTitle().toLowerCase());
+			if (actualTask != null) {
+				reminder.setTask(actualTask); // Fix broken reference
 			}
-		} catch (IOException e) {
-			System.out.println("Error loading " + filename + ": " + e.getMessage());
 		}
 	}
 
-	private void saveData(String filename, Object data) {
+	// -----------------------------------------------------
+	// SAVING: all four lists are handed to the repository together
+	// -----------------------------------------------------
+
+	/**
+	 * Persists tasks, categories, priorities and reminders. With the JSON store this
+	 * writes a new crash-safe snapshot generation; with the H2 store it commits the
+	 * changed rows in one transaction.
+	 *
+	 * If another instance saved the store since it was loaded here, its changes are
+	 * merged in first.
+	 *
+	 * @return the number of the save (snapshot generation)
+	 */
+	public long saveSnapshot() throws IOException {
 		try {
-			Files.createDirectories(Paths.get("medialab"));
-			ObjectMapper objectMapper = new ObjectMapper()
-					.registerModule(new JavaTimeModule())
-					.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+			return saveSnapshot(captureSnapshot());
+		} catch (StoreConflictException e) {
+			mergeExternalChanges();
+			return saveSnapshot(captureSnapshot());
+		}
+	}
 
-			objectMapper.writeValue(new File("medialab/" + filename), data);
-			System.out.println("Saved to " + filename);
-		} catch (IOException e) {
-			System.out.println("Error saving " + filename + ": " + e.getMessage());
+	// The four lists as they were at one moment, and the save they build on; written later (and possibly on another thread)
+	record Snapshot(StoreData data, long version, long basedOn) {
+	}
+
+	// Must run on the thread that mutates the lists, like snapshot()
+	Snapshot captureSnapshot() {
+		return new Snapshot(snapshot(), changeVersion.get(), repository.getGeneration());
+	}
+
+	/**
+	 * @throws StoreConflictException if another instance saved after the snapshot was
+	 *                                taken; merge its changes and take a new one
+	 */
+	long saveSnapshot(Snapshot snapshot) throws IOException {
+		long generation = repository.save(snapshot.data(), snapshot.basedOn());
+		savedVersion = Math.max(savedVersion, snapshot.version());
+		base = StoreMerge.Base.of(snapshot.data());
+		return generation;
+	}
+
+	/**
+	 * Reads what another instance saved to the store since it was last loaded, saved
+	 * or merged here. Does not touch the lists, so it may run on any thread.
+	 */
+	public Optional<StoreUpdate> readExternalChanges() throws IOException {
+		return repository.loadIfChanged();
+	}
+
+	/**
+	 * Merges a save read by {@link #readExternalChanges()} into the lists and
+	 * announces what changed. Tasks added or changed here since the last save keep
+	 * their fields; everything else follows the other instance, including removals.
+	 * Clears the undo history if anything changed. Run it on the thread that
+	 * mutates the lists.
+	 *
+	 * @return false if the update was stale or changed nothing
+	 */
+	public boolean mergeExternalChanges(StoreUpdate update) {
+		if (update.generation() <= repository.getGeneration()) {
+			return false;
+		}
+		boolean clean = savedVersion == changeVersion.get();
+		long saved = savedVersion;
+		List<TaskEvent> events = StoreMerge.merge(this, update.data(), base, task -> {
+			Long version = editedTasks.get(task);
+			return version != null && version > saved;
+		});
+		repository.accept(update.generation());
+		base = StoreMerge.Base.of(update.data());
+		if (!events.isEmpty()) {
+			// The steps recorded so far may no longer apply
+			history.clear();
+			publish(events);
+			if (clean) {
+				savedVersion = changeVersion.get(); // what is on disk now
+			}
 		}
+		System.out.println("Merged store generation " + update.generation() + " saved elsewhere ("
+				+ events.size() + " change(s))");
+		return !events.isEmpty();
+	}
+
+	// Reads and merges on the calling thread; false if there was nothing new
+	public boolean mergeExternalChanges() throws IOException {
+		Optional<StoreUpdate> update = readExternalChanges();
+		return update.isPresent() && mergeExternalChanges(update.get());
 	}
 
 	// public helper to persist all data
 	public void persistAll() {
-		saveData("tasks.json", tasks);
-		saveData("categories.json", categories);
-		saveData("priorities.json", priorities);
-		saveData("reminders.json", reminders);
+		try {
+			long generation = saveSnapshot();
+			System.out.println("Saved store generation " + generation + " to " + getDataDir());
+		} catch (IOException e) {
+			System.out.println("Error saving data: " + e.getMessage());
+		}
+	}
+
+	// Releases the store (e.g. the database connection); the manager must not be used afterwards
+	public void close() {
+		history.close();
+		try {
+			repository.close();
+		} catch (IOException e) {
+			System.out.println("Error closing the store: " + e.getMessage());
+		}
+	}
+
+	/**
+	 * The four lists as they are now, unchangeable and unaffected by later changes,
+	 * for reading (exporting, saving, paging) on any thread while the store moves on.
+	 * Nothing is copied: the lists share their contents with their snapshots and copy
+	 * only the parts they change afterwards. Take it on the thread that changes the
+	 * store, or while no change can run. The tasks in it are the store's own objects,
+	 * so later edits to their fields do show.
+	 */
+	public StoreData snapshot() {
+		return new StoreData(tasks.snapshot(), categories.snapshot(), priorities.snapshot(), reminders.snapshot());
 	}
 
 	// GETTERS FOR IN-MEMORY DATA
@@ -139,7 +290,127 @@ public class TaskManager {
 				.toList(); // Collect to a list
 	}
 
-	private Task getTaskByTitle(String title) {
+	// -----------------------------------------------------
+	// CHANGE Notification
+	// -----------------------------------------------------
+	// A listener and where it runs; null runs it on the mutating thread
+	private record Subscriber(TaskChangeListener listener, Executor executor) {
+	}
+
+	// Delivers the events of each change on the mutating thread, before the mutating call returns
+	public void subscribe(TaskChangeListener listener) {
+		subscribe(listener, null);
+	}
+
+	/**
+	 * Delivers the events of each change through {@code executor}, e.g.
+	 * {@code Platform::runLater}. Deliveries keep their order only if the executor
+	 * runs tasks one at a time in submission order.
+	 */
+	public void subscribe(TaskChangeListener listener, Executor executor) {
+		subscribers.add(new Subscriber(Objects.requireNonNull(listener), executor));
+	}
+
+	public void unsubscribe(TaskChangeListener listener) {
+		subscribers.removeIf(s -> s.listener() == listener);
+	}
+
+	// Tells background readers whether a snapshot of the lists is still current
+	long getChangeVersion() {
+		return changeVersion.get();
+	}
+
+	// Announces one change made of these events; nothing happens for none
+	private void publish(List<TaskEvent> events) {
+		if (events.isEmpty()) {
+			return;
+		}
+		changeVersion.incrementAndGet();
+		TaskIndex index = taskIndex;
+		if (index != null) {
+			updateIndex(index, events);
+		}
+		List<TaskEvent> delivery = List.copyOf(events);
+		for (Subscriber subscriber : List.copyOf(subscribers)) {
+			if (subscriber.executor() == null) {
+				subscriber.listener().changed(delivery);
+			} else {
+				subscriber.executor().execute(() -> subscriber.listener().changed(delivery));
+			}
+		}
+	}
+
+	// Records the change in the history, then announces it
+	void publish(Change change) {
+		history.record(change.undo);
+		publish(change.events);
+		markEdited(change.events);
+	}
+
+	// Remembers the tasks touched by a change made here, for merging external saves
+	private void markEdited(List<TaskEvent> events) {
+		long version = changeVersion.get();
+		for (TaskEvent event : events) {
+			if (event instanceof TaskEvent.TaskAdded added) {
+				editedTasks.put(added.task(), version);
+			} else if (event instanceof TaskEvent.TaskUpdated updated) {
+				editedTasks.put(updated.task(), version);
+			}
+		}
+		// Those saved since need no protecting
+		if (editedTasks.size() > 1024) {
+			long saved = savedVersion;
+			editedTasks.values().removeIf(v -> v <= saved);
+		}
+	}
+
+	// Applies the steps of an undo or redo, last to first, and announces them; returns their inverse
+	List<Edit> applyEdits(Edit[] steps) {
+		Change change = new Change();
+		try {
+			for (int i = steps.length - 1; i >= 0; i--) {
+				change.undo.add(steps[i].apply(this, change.events));
+			}
+		} catch (RuntimeException e) {
+			// Leave the store as it was rather than half undone
+			List<TaskEvent> ignored = new ArrayList<>();
+			for (int i = change.undo.size() - 1; i >= 0; i--) {
+				change.undo.get(i).apply(this, ignored);
+			}
+			taskIndex = null; // the lists changed unannounced
+			throw new IllegalStateException("The store no longer matches the undo history: " + e.getMessage(), e);
+		}
+		publish(change.events);
+		markEdited(change.events);
+		return change.undo;
+	}
+
+	// Removes the reminders of the matching tasks as part of `change`. Done before removing the
+	// tasks themselves, so that undoing puts the tasks back first
+	private void removeRemindersOf(Predicate<Task> task, Change change) {
+		change.removeIf(reminders, r -> task.test(r.getTask()), TaskEvent.ReminderRemoved::new, Edit.InsertReminder::of);
+	}
+
+	// Statistics over the store, shared by the UI and the API
+	public TaskAnalytics getAnalytics() {
+		return analytics;
+	}
+
+	// Undo and redo of the changes made through this manager
+	public UndoHistory getHistory() {
+		return history;
+	}
+
+	// Opens a batch: mutations are validated together, applied all-or-nothing and announced once
+	public TaskBatch batch() {
+		return new TaskBatch(this);
+	}
+
+	public Path getDataDir() {
+		return repository.getDirectory();
+	}
+
+	public Task getTaskByTitle(String title) {
 		return tasks.stream().filter(t -> t.getTitle().equalsIgnoreCase(title)).findFirst().orElse(null);
 	}
 
@@ -154,14 +425,14 @@ public class TaskManager {
 		if (!priorityExists(task.getPriority())) {
 			throw new IllegalArgumentException("Priority does not exist: " + task.getPriority());
 		}
+		checkRecurrence(task.getDeadline(), task.getRecurrence());
 
 		tasks.add(task);
 		// If the deadline is already overdue, set DELAYED (unless completed).
-		if (task.getDeadline() != null &&
-				task.getDeadline().isBefore(LocalDate.now()) &&
-				task.getStatus() != TaskStatus.COMPLETED) {
-				task.setStatus(TaskStatus.DELAYED);
-		}
+		markDelayedIfOverdue(task, LocalDate.now());
+		Change change = new Change();
+		change.add(new TaskEvent.TaskAdded(task), new Edit.DeleteTask(tasks.size() - 1));
+		publish(change);
 	}
 
 
@@ -169,19 +440,50 @@ public class TaskManager {
 		if (task == null) {
 			throw new IllegalArgumentException("Task cannot be null.");
 		}
-		if (!tasks.contains(task)) {
+		int index = tasks.indexOf(task);
+		if (index < 0) {
 			throw new IllegalArgumentException("Task does not exist: " + task.getTitle());
 		}
 
-		tasks.remove(task);
+		Change change = new Change();
 		// Also remove reminders for this task
-		reminders.removeIf(r -> r.getTask().getTitle().equals(task.getTitle()));
+		removeRemindersOf(t -> t.getTitle().equals(task.getTitle()), change);
+		tasks.remove(index);
+		pinDescription(task);
+		change.add(new TaskEvent.TaskRemoved(task), new Edit.InsertTask(index, task));
+		publish(change);
+	}
+
+	// A removed task is no longer rewritten by saves, so its description must not stay behind in the store's files
+	static void pinDescription(Task task) {
+		if (task.getDescriptionHandle() instanceof Task.DescriptionLoader) {
+			task.setDescription(task.getDescription());
+		}
 	}
 
 	public void updateTask(Task task, String newTitle, String newDescription, String newCategory, String newPriority, LocalDate newDeadline) {
-		if (!tasks.contains(task)) {
+		int index = tasks.indexOf(task);
+		if (index < 0) {
 			throw new IllegalArgumentException("Task not found: " + task.getTitle());
 		}
+		boolean category = newCategory != null && !newCategory.trim().isEmpty();
+		boolean priority = newPriority != null && !newPriority.trim().isEmpty();
+
+		// Everything is checked before the task changes: a rejected update leaves it as it was
+		if (category && !categoryExists(newCategory)) {
+			throw new IllegalArgumentException("Category does not exist: " + newCategory);
+		}
+		if (priority && !priorityExists(newPriority)) {
+			throw new IllegalArgumentException("Priority does not exist: " + newPriority);
+		}
+		Recurrence recurrence = task.getRecurrence();
+		if (newDeadline != null) {
+			if (newDeadline.isBefore(LocalDate.now())) {
+				throw new IllegalArgumentException("Deadline cannot be in the past.");
+			}
+			recurrence = restartedRecurrence(task, newDeadline); // throws if the series ends before it
+		}
+		TaskState before = TaskState.of(task);
 
 		// Update only non-null fields
 		if (newTitle != null && !newTitle.trim().isEmpty()) {
@@ -190,50 +492,123 @@ public class TaskManager {
 		if (newDescription != null && !newDescription.trim().isEmpty()) {
 			task.setDescription(newDescription);
 		}
-		if (newCategory != null && !newCategory.trim().isEmpty()) {
-			if (!categoryExists(newCategory)) {
-				throw new IllegalArgumentException("Category does not exist: " + newCategory);
-			}
+		if (category) {
 			task.setCategory(newCategory);
 		}
-		if (newPriority != null && !newPriority.trim().isEmpty()) {
-			if (!priorityExists(newPriority)) {
-				throw new IllegalArgumentException("Priority does not exist: " + newPriority);
-			}
+		if (priority) {
 			task.setPriority(newPriority);
 		}
 		if (newDeadline != null) {
-			if (newDeadline.isBefore(LocalDate.now())) {
-				throw new IllegalArgumentException("Deadline cannot be in the past.");
-			}
+			task.setRecurrence(recurrence);
 			task.setDeadline(newDeadline);
 		}
 
 		// Overdue => set DELAYED if not completed
-		if (task.getDeadline() != null &&
-				task.getDeadline().isBefore(LocalDate.now()) &&
-				task.getStatus() != TaskStatus.COMPLETED) {
-			task.setStatus(TaskStatus.DELAYED);
-		}
+		markDelayedIfOverdue(task, LocalDate.now());
+		Change change = new Change();
+		change.update(index, task, before);
+		publish(change);
 	}
 
 	public void updateTaskStatus(Task task, TaskStatus newStatus) {
 		if (task == null) {
 			throw new IllegalArgumentException("Task cannot be null.");
 		}
-		if (!tasks.contains(task)) {
+		int index = tasks.indexOf(task);
+		if (index < 0) {
 			throw new IllegalArgumentException("Task does not exist: " + task.getTitle());
 		}
 		if (newStatus == null) {
 			throw new IllegalArgumentException("Task status cannot be null.");
 		}
 
-		task.setStatus(newStatus);
-
+		TaskState before = TaskState.of(task);
+		Change change = new Change();
+		LocalDate next = newStatus == TaskStatus.COMPLETED ? nextOccurrence(task, task.getDeadline()) : null;
+		if (next != null) {
+			// Completing one occurrence of a series moves the task on to the next; its reminders follow
+			task.setDeadline(next);
+			task.setStatus(TaskStatus.OPEN);
+			markDelayedIfOverdue(task, LocalDate.now());
+		} else {
+			task.setStatus(newStatus);
+		}
+		change.update(index, task, before);
 		// If marking completed -> remove any reminders
-		if (newStatus == TaskStatus.COMPLETED) {
-			reminders.removeIf(r -> r.getTask().getTitle().equals(task.getTitle()));
+		if (next == null && newStatus == TaskStatus.COMPLETED) {
+			removeRemindersOf(t -> t.getTitle().equals(task.getTitle()), change);
+		}
+		publish(change);
+	}
+
+	// -----------------------------------------------------
+	// RECURRENCE
+	// -----------------------------------------------------
+	// A null recurrence makes the task a one-off again
+	public void setTaskRecurrence(Task task, Recurrence recurrence) {
+		int index = tasks.indexOf(task);
+		if (index < 0) {
+			throw new IllegalArgumentException("Task not found: " + task.getTitle());
 		}
+		checkRecurrence(task.getDeadline(), recurrence);
+		TaskState before = TaskState.of(task);
+		task.setRecurrence(recurrence);
+		Change change = new Change();
+		change.update(index, task, before);
+		publish(change);
+	}
+
+	/**
+	 * Occurrences of unfinished tasks due in {@code [from, to]}: the deadline of each
+	 * one-off task, and for each series up to {@code perSeries} occurrences from its
+	 * current deadline on. Only these are created; a series costs the same whatever
+	 * its length.
+	 */
+	public List<TaskOccurrence> getOccurrences(LocalDate from, LocalDate to, int perSeries) {
+		List<TaskOccurrence> occurrences = new ArrayList<>();
+		for (Task task : tasks) {
+			if (!task.hasDeadline() || task.getStatus() == TaskStatus.COMPLETED) {
+				continue;
+			}
+			LocalDate deadline = task.getDeadline();
+			if (!task.isRecurring()) {
+				if (!deadline.isBefore(from) && !deadline.isAfter(to)) {
+					occurrences.add(new TaskOccurrence(task, deadline));
+				}
+				continue;
+			}
+			LocalDate first = deadline.isAfter(from) ? deadline : from;
+			for (LocalDate date : task.getRecurrence().between(first, to, perSeries)) {
+				occurrences.add(new TaskOccurrence(task, date));
+			}
+		}
+		return occurrences;
+	}
+
+	static void checkRecurrence(LocalDate deadline, Recurrence recurrence) {
+		if (recurrence == null) {
+			return;
+		}
+		if (deadline == null) {
+			throw new IllegalArgumentException("A recurring task needs a deadline.");
+		}
+		if (!deadline.equals(recurrence.firstOnOrAfter(deadline))) {
+			throw new IllegalArgumentException("The deadline " + deadline + " is not an occurrence of " + recurrence + ".");
+		}
+	}
+
+	// The deadline a series moves on to when its current occurrence is completed; null for one-off tasks
+	static LocalDate nextOccurrence(Task task, LocalDate deadline) {
+		return task.isRecurring() && deadline != null ? task.getRecurrence().after(deadline) : null;
+	}
+
+	// Moving the current occurrence of a series restarts the series there
+	static Recurrence restartedRecurrence(Task task, LocalDate newDeadline) {
+		Recurrence recurrence = task.getRecurrence();
+		if (recurrence == null || newDeadline.equals(task.getDeadline())) {
+			return recurrence;
+		}
+		return recurrence.restartAt(newDeadline, task.getDeadline());
 	}
 
 	// -----------------------------------------------------
@@ -247,15 +622,31 @@ public class TaskManager {
 			throw new IllegalArgumentException("Category already exists: " + name);
 		}
 		categories.add(new TaskCategory(name));
+		Change change = new Change();
+		change.add(new TaskEvent.CategoryAdded(name), new Edit.DeleteCategory(categories.size() - 1));
+		publish(change);
 	}
 
-	public void removeCategory(TaskCategory category) {
-		if (!categories.contains(category)) {
+	// Removes the category with its tasks and their reminders: one pass over each list
+	public CascadeResult removeCategory(TaskCategory category) {
+		int index = categories.indexOf(category);
+		if (index < 0) {
 			throw new IllegalArgumentException("Category does not exist: " + category.getName());
 		}
-		categories.remove(category);
-		tasks.removeIf(task -> task.getCategory().equals(category.getName()));
-		reminders.removeIf(r -> !tasks.contains(r.getTask()));
+		String name = category.getName();
+		Change change = new Change();
+		int removedReminders = reminders.isEmpty() ? 0 : change.removeIf(reminders,
+				r -> r.getTask().getCategory().equals(name), TaskEvent.ReminderRemoved::new, Edit.InsertReminder::of);
+		// Each removed task's description is pinned as its undo step is made
+		int removedTasks = change.removeIf(tasks, task -> task.getCategory().equals(name),
+				TaskEvent.TaskRemoved::new, (at, task) -> {
+					pinDescription(task);
+					return new Edit.InsertTask(at, task);
+				});
+		categories.remove(index);
+		change.add(new TaskEvent.CategoryRemoved(name), new Edit.InsertCategory(index, category));
+		publish(change);
+		return new CascadeResult(removedTasks, removedReminders);
 	}
 
 	public void renameCategory(TaskCategory category, String newName) {
@@ -265,35 +656,103 @@ public class TaskManager {
 		if (categories.stream().anyMatch(c -> c.getName().equalsIgnoreCase(newName))) {
 			throw new IllegalArgumentException("Category with name " + newName + " already exists.");
 		}
+		int index = categories.indexOf(category);
+		if (index < 0) {
+			throw new IllegalArgumentException("Category does not exist: " + category.getName());
+		}
+		String oldName = category.getName();
 		category.setName(newName);
+		Change change = new Change();
+		change.add(new TaskEvent.CategoryRenamed(oldName, newName), new Edit.RenameCategory(index, oldName));
+		publish(change);
 	}
 
 	// -----------------------------------------------------
 	// PRIORITY Management
 	// -----------------------------------------------------
+	// Adds a priority ranked above every existing one
 	public void addPriority(String name) {
+		int highest = TaskPriority.MIN_RANK - 1;
+		for (TaskPriority p : priorities) {
+			highest = Math.max(highest, p.getRank());
+		}
+		addPriority(name, Math.min(highest + 1, TaskPriority.MAX_RANK));
+	}
+
+	/**
+	 * Adds a priority with the given rank; higher ranks are more important and
+	 * several priorities may share one.
+	 *
+	 * @throws IllegalArgumentException if the name is empty or taken, or the rank is out of range
+	 */
+	public void addPriority(String name, int rank) {
 		if (name == null || name.trim().isEmpty()) {
 			throw new IllegalArgumentException("Priority name cannot be empty.");
 		}
 		if (priorities.stream().anyMatch(p -> p.getName().equalsIgnoreCase(name))) {
 			throw new IllegalArgumentException("Priority already exists: " + name);
 		}
-		priorities.add(new TaskPriority(name));
+		checkRank(rank);
+		priorities.add(new TaskPriority(name, rank));
+		Change change = new Change();
+		change.add(new TaskEvent.PriorityAdded(name, rank), new Edit.DeletePriority(priorities.size() - 1));
+		publish(change);
+	}
+
+	public void setPriorityRank(TaskPriority priority, int rank) {
+		int index = priorities.indexOf(priority);
+		if (index < 0) {
+			throw new IllegalArgumentException("Priority does not exist: " + priority.getName());
+		}
+		checkRank(rank);
+		Change change = new Change();
+		change.add(new TaskEvent.PriorityRanked(priority.getName(), rank),
+				new Edit.RestorePriority(index, priority.getName(), priority.getRank()));
+		priority.setRank(rank);
+		publish(change);
 	}
 
-	public void removePriority(TaskPriority priority) {
-		if (!priorities.contains(priority)) {
+	// The rank of the named priority, ignoring case
+	public int getPriorityRank(String name) {
+		for (TaskPriority p : priorities) {
+			if (p.getName().equalsIgnoreCase(name)) {
+				return p.getRank();
+			}
+		}
+		throw new IllegalArgumentException("Priority does not exist: " + name);
+	}
+
+	private static void checkRank(int rank) {
+		if (rank < TaskPriority.MIN_RANK || rank > TaskPriority.MAX_RANK) {
+			throw new IllegalArgumentException("Priority rank must be between " + TaskPriority.MIN_RANK
+					+ " and " + TaskPriority.MAX_RANK + ": " + rank);
+		}
+	}
+
+	// Removes the priority and moves its tasks to "Default" in one pass
+	public CascadeResult removePriority(TaskPriority priority) {
+		int index = priorities.indexOf(priority);
+		if (index < 0) {
 			throw new IllegalArgumentException("Priority does not exist: " + priority.getName());
 		}
 		if (priority.getName().equalsIgnoreCase("Default")) {
 			throw new IllegalArgumentException("Cannot delete default priority.");
 		}
-		priorities.remove(priority);
-		tasks.forEach(task -> {
-			if (task.getPriority().equalsIgnoreCase(priority.getName())) {
+		String name = priority.getName();
+		Change change = new Change();
+		for (int i = 0; i < tasks.size(); i++) {
+			Task task = tasks.get(i);
+			if (task.getPriority().equalsIgnoreCase(name)) {
+				TaskState before = TaskState.of(task);
 				task.setPriority("Default"); // Assign "Default" priority to affected tasks
+				change.update(i, task, before);
 			}
-		});
+		}
+		int reassigned = change.events.size();
+		priorities.remove(index);
+		change.add(new TaskEvent.PriorityRemoved(name), new Edit.InsertPriority(index, priority));
+		publish(change);
+		return new CascadeResult(reassigned, 0);
 	}
 
 	public void renamePriority(TaskPriority priority, String newName) {
@@ -306,13 +765,27 @@ public class TaskManager {
 		if (priorities.stream().anyMatch(p -> p.getName().equalsIgnoreCase(newName))) {
 			throw new IllegalArgumentException("Priority with name " + newName + " already exists.");
 		}
+		int index = priorities.indexOf(priority);
+		if (index < 0) {
+			throw new IllegalArgumentException("Priority does not exist: " + priority.getName());
+		}
+		String oldName = priority.getName();
 		priority.setName(newName);
+		Change change = new Change();
+		change.add(new TaskEvent.PriorityRenamed(oldName, newName), new Edit.RestorePriority(index, oldName, priority.getRank()));
+		publish(change);
 	}
 
 	// -----------------------------------------------------
 	// REMINDER Management
 	// -----------------------------------------------------
 	public void addReminder(String taskTitle, TaskReminder.ReminderType type, LocalDate customDate) {
+		addReminder(taskTitle, type, customDate, null, null);
+	}
+
+	// customTime is an optional time of day for CUSTOM_DATE; minutesBefore is used by MINUTES_BEFORE
+	public void addReminder(String taskTitle, TaskReminder.ReminderType type, LocalDate customDate,
+			LocalTime customTime, Integer minutesBefore) {
 		Task task = getTaskByTitle(taskTitle);
 		if (task == null) {
 			throw new IllegalArgumentException("Task does not exist: " + taskTitle);
@@ -321,35 +794,27 @@ public class TaskManager {
 			throw new IllegalStateException("Cannot add a reminder for a completed task!");
 		}
 
-		LocalDate reminderDate = null;
-		switch (type) {
-			case ONE_DAY_BEFORE:
-				reminderDate = task.getDeadline().minusDays(1);
-				break;
-			case ONE_WEEK_BEFORE:
-				reminderDate = task.getDeadline().minusWeeks(1);
-				break;
-			case ONE_MONTH_BEFORE:
-				reminderDate = task.getDeadline().minusMonths(1);
-				break;
-			case CUSTOM_DATE:
-				reminderDate = customDate;
-				break;
-		}
-
-		// Validate that the reminder date makes sense
-		if (reminderDate != null && reminderDate.isBefore(LocalDate.now())) {
-			throw new IllegalArgumentException("Reminder date must be in the future.");
-		}
+		// Validate that the reminder time makes sense
+		checkReminder(task.getDeadline(), type, customDate, customTime, minutesBefore, LocalDateTime.now());
 
-		reminders.add(new TaskReminder(task, type, customDate));
+		TaskReminder reminder = new TaskReminder(task, type, customDate, customTime, minutesBefore);
+		reminders.add(reminder);
+		Change change = new Change();
+		change.add(new TaskEvent.ReminderAdded(reminder), new Edit.DeleteReminder(reminders.size() - 1));
+		publish(change);
 	}
 
 	public void updateReminder(TaskReminder oldReminder, TaskReminder.ReminderType newType, LocalDate newCustomDate) {
+		updateReminder(oldReminder, newType, newCustomDate, null, null);
+	}
+
+	public void updateReminder(TaskReminder oldReminder, TaskReminder.ReminderType newType, LocalDate newCustomDate,
+			LocalTime newCustomTime, Integer newMinutesBefore) {
 		if (oldReminder == null) {
 			throw new IllegalArgumentException("Reminder cannot be null.");
 		}
-		if (!reminders.contains(oldReminder)) {
+		int index = reminders.indexOf(oldReminder);
+		if (index < 0) {
 			throw new IllegalArgumentException("Reminder does not exist.");
 		}
 
@@ -358,52 +823,176 @@ public class TaskManager {
 			throw new IllegalStateException("Cannot modify a reminder for a completed task.");
 		}
 
-		LocalDate newReminderDate = null;
-		switch (newType) {
-			case ONE_DAY_BEFORE:
-				newReminderDate = task.getDeadline().minusDays(1);
-				break;
-			case ONE_WEEK_BEFORE:
-				newReminderDate = task.getDeadline().minusWeeks(1);
-				break;
-			case ONE_MONTH_BEFORE:
-				newReminderDate = task.getDeadline().minusMonths(1);
-				break;
-			case CUSTOM_DATE:
-				newReminderDate = newCustomDate;
-				break;
-		}
+		// Validate that the new reminder time makes sense
+		checkReminder(task.getDeadline(), newType, newCustomDate, newCustomTime, newMinutesBefore, LocalDateTime.now());
 
-		// Validate that the new reminder date makes sense
-		if (newReminderDate != null && newReminderDate.isBefore(LocalDate.now())) {
+		Change change = new Change();
+		change.add(new TaskEvent.ReminderUpdated(oldReminder), Edit.RestoreReminder.of(index, oldReminder));
+		oldReminder.setType(newType);
+		oldReminder.setCustomReminderDate(newCustomDate);
+		oldReminder.setCustomReminderTime(newCustomTime);
+		oldReminder.setMinutesBefore(newMinutesBefore);
+		publish(change);
+	}
+
+	static void checkReminder(LocalDate deadline, TaskReminder.ReminderType type, LocalDate customDate,
+			LocalTime customTime, Integer minutesBefore, LocalDateTime now) {
+		if (type == null) {
+			throw new IllegalArgumentException("Reminder type cannot be null.");
+		}
+		if (deadline == null && type != TaskReminder.ReminderType.CUSTOM_DATE) {
+			throw new IllegalArgumentException("Task has no deadline to schedule the reminder from.");
+		}
+		if (type == TaskReminder.ReminderType.MINUTES_BEFORE && (minutesBefore == null || minutesBefore <= 0)) {
+			throw new IllegalArgumentException("Minutes before the deadline must be a positive number.");
+		}
+		LocalDateTime reminderTime = TaskReminder.resolveTime(deadline, type, customDate, customTime, minutesBefore);
+		// Reminders without a time fire at the start of their day, so today still counts as the future for them
+		LocalDateTime earliest = TaskReminder.isTimed(type, customTime) ? now : now.toLocalDate().atStartOfDay();
+		if (reminderTime != null && reminderTime.isBefore(earliest)) {
 			throw new IllegalArgumentException("Reminder date must be in the future.");
 		}
+	}
 
-		oldReminder.setType(newType);
-		oldReminder.setCustomReminderDate(newCustomDate);
+	public void removeReminder(TaskReminder reminder) {
+		int index = reminders.indexOf(reminder);
+		if (index < 0) {
+			throw new IllegalArgumentException("Reminder does not exist.");
+		}
+		reminders.remove(index);
+		Change change = new Change();
+		change.add(new TaskEvent.ReminderRemoved(reminder), Edit.InsertReminder.of(index, reminder));
+		publish(change);
+	}
+
+	// Removes those of the given reminders still in the store in one pass, announced together
+	public int removeReminders(Collection<TaskReminder> toRemove) {
+		Set<TaskReminder> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+		removed.addAll(toRemove);
+		Change change = new Change();
+		int count = change.removeIf(reminders, removed::contains, TaskEvent.ReminderRemoved::new, Edit.InsertReminder::of);
+		publish(change);
+		return count;
 	}
 
 	// -----------------------------------------------------
 	// SEARCH Utilities
 	// -----------------------------------------------------
+	// Matches in store order, whether the repository's indexes or a scan found them
 	public List<Task> searchTasks(String title, String category, String priority) {
-		List<Task> results = new ArrayList<>();
-		for (Task t : tasks) {
-			boolean match = true;
-			if (title != null && !title.isEmpty() && !t.getTitle().toLowerCase().contains(title.toLowerCase())) {
-				match = false;
+		// The store's indexes are only usable while it holds exactly what is in memory
+		if (savedVersion == changeVersion.get()) {
+			try {
+				Optional<List<Task>> indexed = repository.findTasks(title, category, priority);
+				if (indexed.isPresent()) {
+					return indexed.get();
+				}
+			} catch (IOException e) {
+				System.out.println("Indexed search failed, scanning instead: " + e.getMessage());
 			}
-			if (category != null && !category.isEmpty() && !t.getCategory().equalsIgnoreCase(category)) {
-				match = false;
+		}
+
+		String titlePart = title == null ? "" : title.toLowerCase();
+		return ParallelScan.filter(tasks, t -> {
+			if (!titlePart.isEmpty() && !t.getTitle().toLowerCase().contains(titlePart)) {
+				return false;
 			}
-			if (priority != null && !priority.isEmpty() && !t.getPriority().equalsIgnoreCase(priority)) {
-				match = false;
+			if (category != null && !category.isEmpty() && !t.getCategory().equalsIgnoreCase(category)) {
+				return false;
 			}
-			if (match) {
-				results.add(t);
+			return priority == null || priority.isEmpty() || t.getPriority().equalsIgnoreCase(priority);
+		});
+	}
+
+	/**
+	 * Runs a query in the task query language, e.g.
+	 * {@code status:open (category:work OR priority:high) deadline:<today+7 sort:deadline limit:20}.
+	 * See {@link TaskQuery} for the syntax. Without a sort the results come in no
+	 * defined order.
+	 *
+	 * @throws IllegalArgumentException if the query is malformed
+	 */
+	public List<Task> query(String text) {
+		return planQuery(text).execute();
+	}
+
+	// How query(text) would be answered: the indexes considered, the one used and what is checked
+	public String explainQuery(String text) {
+		return planQuery(text).explain();
+	}
+
+	/**
+	 * One page of all tasks in the given order: "deadline", "priority" (by rank),
+	 * "status", "title" or "category", with a leading "-" for descending. The whole
+	 * store is never sorted: ordered indexes are walked only as far as the page, and
+	 * other orders keep a heap of {@code offset + limit} tasks.
+	 */
+	public List<Task> getTaskPage(String sort, int offset, int limit) {
+		return planQuery(new TaskQuery(null, TaskQuery.Sort.parse(sort), offset, limit)).execute();
+	}
+
+	// The first k tasks in the given order, as for getTaskPage
+	public List<Task> getTopTasks(String sort, int k) {
+		return getTaskPage(sort, 0, k);
+	}
+
+	private QueryPlan planQuery(String text) {
+		return planQuery(TaskQuery.parse(text, LocalDate.now()));
+	}
+
+	private QueryPlan planQuery(TaskQuery query) {
+		return QueryPlan.plan(query, index());
+	}
+
+	private TaskIndex index() {
+		TaskIndex index = taskIndex;
+		if (index == null) {
+			index = TaskIndex.build(tasks, reminders, priorities);
+			taskIndex = index;
+		}
+		return index;
+	}
+
+	// Files the tasks a change touched anew, instead of indexing the store again
+	private void updateIndex(TaskIndex index, List<TaskEvent> events) {
+		boolean ranks = false;
+		for (TaskEvent event : events) {
+			switch (event) {
+				case TaskEvent.TaskAdded e -> index.add(e.task());
+				case TaskEvent.TaskUpdated e -> index.update(e.task());
+				case TaskEvent.TaskRemoved e -> index.remove(e.task());
+				case TaskEvent.ReminderAdded e -> index.addReminder(e.reminder().getTask());
+				case TaskEvent.ReminderRemoved e -> index.removeReminder(e.reminder().getTask());
+				case TaskEvent.PriorityAdded e -> ranks = true;
+				case TaskEvent.PriorityRenamed e -> ranks = true;
+				case TaskEvent.PriorityRanked e -> ranks = true;
+				case TaskEvent.PriorityRemoved e -> ranks = true;
+				default -> {
+				}
 			}
 		}
-		return results;
+		if (ranks) {
+			index.rankPriorities(priorities);
+		}
+	}
+
+	// -----------------------------------------------------
+	// SUMMARY Counts
+	// -----------------------------------------------------
+	// Read off the maintained index, so a summary refresh on every change costs no scan
+	public int countTasksWithStatus(TaskStatus status) {
+		return index().countWithStatus(status);
+	}
+
+	// Tasks whose deadline falls within the next `days` days (today included)
+	public int countTasksDueWithin(int days) {
+		int today = (int) LocalDate.now().toEpochDay();
+		return index().countDueBetween(today, today + days);
+	}
+
+	// Number of tasks in each category, by category name as the tasks spell it
+	public Map<String, Integer> countTasksByCategory() {
+		return ParallelScan.countBy(tasks, Task::getCategory);
 	}
 
 	// -----------------------------------------------------
@@ -423,10 +1012,48 @@ public class TaskManager {
 	private void markDelayedTasks() {
 		LocalDate today = LocalDate.now();
 		for (Task t : tasks) {
-			if (t.getStatus() != TaskStatus.COMPLETED && t.getDeadline() != null && t.getDeadline().isBefore(today)) {
-				t.setStatus(TaskStatus.DELAYED);
+			markDelayedIfOverdue(t, today);
+		}
+	}
+
+	/**
+	 * Marks tasks that are overdue on {@code today} as DELAYED, for a day that began
+	 * while the store was open. Only the tasks whose deadline has passed and that are
+	 * still open are looked at, through the query index, which the store keeps up to
+	 * date. Announces one change if any task moved.
+	 *
+	 * @return the number of tasks that became DELAYED
+	 */
+	public int rollOverTo(LocalDate today) {
+		Map<Task, TaskState> moved = new IdentityHashMap<>();
+		for (Task t : index().openDueBefore(Math.toIntExact(today.toEpochDay()))) {
+			TaskState before = TaskState.of(t);
+			markDelayedIfOverdue(t, today);
+			moved.put(t, before);
+		}
+		if (moved.isEmpty()) {
+			return 0;
+		}
+		// Undo addresses tasks by position: a lookup each for a few tasks, else one pass in list order
+		Change change = new Change();
+		if (moved.size() <= ROLLOVER_LOOKUPS) {
+			moved.forEach((t, before) -> change.update(tasks.indexOf(t), t, before));
+		} else {
+			for (int i = 0; i < tasks.size(); i++) {
+				TaskState before = moved.get(tasks.get(i));
+				if (before != null) {
+					change.update(i, tasks.get(i), before);
+				}
 			}
 		}
+		publish(change);
+		return moved.size();
+	}
+
+	static void markDelayedIfOverdue(Task task, LocalDate today) {
+		if (task.getStatus() != TaskStatus.COMPLETED && task.hasDeadline() && task.getDeadlineEpochDay() < today.toEpochDay()) {
+			task.setStatus(TaskStatus.DELAYED);
+		}
 	}
 
 }
@@ -0,0 +1,68 @@
+package com.todo.controller;
+
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.Objects;
+import java.util.Set;
+
+import com.todo.models.Recurrence;
+import com.todo.models.Task;
+import com.todo.models.TaskStatus;
+
+// The fields of a task before a change, to tell which ones the change touched
+record TaskState(String title, Object description, String category, String priority, LocalDate deadline,
+		TaskStatus status, Recurrence recurrence) {
+
+	static TaskState of(Task task) {
+		return new TaskState(task.getTitle(), task.getDescriptionHandle(), task.getCategory(), task.getPriority(),
+				task.getDeadline(), task.getStatus(), task.getRecurrence());
+	}
+
+	// The same state with its description read into memory, for a state kept past the store's next save
+	TaskState withDescriptionText() {
+		if (description instanceof Task.DescriptionLoader loader) {
+			return new TaskState(title, loader.load(), category, priority, deadline, status, recurrence);
+		}
+		return this;
+	}
+
+	// Puts these fields back; a description still held by the store is left as it is
+	void restore(Task task) {
+		task.setTitle(title);
+		if (description instanceof String text && !text.equals(task.getDescriptionHandle())) {
+			task.setDescription(text);
+		}
+		task.setCategory(category);
+		task.setPriority(priority);
+		task.setDeadline(deadline);
+		task.setStatus(status);
+		task.setRecurrence(recurrence);
+	}
+
+	// A description moved to the store's files keeps its text, so only a newly set text counts
+	Set<TaskEvent.Field> changes(Task task) {
+		Set<TaskEvent.Field> fields = EnumSet.noneOf(TaskEvent.Field.class);
+		if (!Objects.equals(title, task.getTitle())) {
+			fields.add(TaskEvent.Field.TITLE);
+		}
+		if (task.getDescriptionHandle() instanceof String text && !text.equals(description)) {
+			fields.add(TaskEvent.Field.DESCRIPTION);
+		}
+		if (!Objects.equals(category, task.getCategory())) {
+			fields.add(TaskEvent.Field.CATEGORY);
+		}
+		if (!Objects.equals(priority, task.getPriority())) {
+			fields.add(TaskEvent.Field.PRIORITY);
+		}
+		if (!Objects.equals(deadline, task.getDeadline())) {
+			fields.add(TaskEvent.Field.DEADLINE);
+		}
+		if (status != task.getStatus()) {
+			fields.add(TaskEvent.Field.STATUS);
+		}
+		if (!Objects.equals(recurrence, task.getRecurrence())) {
+			fields.add(TaskEvent.Field.RECURRENCE);
+		}
+		return fields;
+	}
+}
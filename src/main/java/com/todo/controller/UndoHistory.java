@@ -0,0 +1,255 @@
+package com.todo.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Undo and redo for every change made through a {@link TaskManager}, including
+ * batches and cascades (a removed category comes back with its tasks and their
+ * reminders).
+ * <p>
+ * Each change is kept as the compact steps that reverse it, not as a copy of the
+ * store, so undoing or redoing costs as much as the change itself, however long
+ * the history. The history keeps at most {@link #DEFAULT_MAX_ENTRIES} changes and
+ * about {@link #DEFAULT_MAX_BYTES} of memory by default. Beyond that the oldest
+ * changes are forgotten, or, after {@link #spillTo}, written to a file and read
+ * back when undone. A new change clears what could be redone.
+ * </p>
+ * Like the manager's mutating methods, it must be used from one thread at a time.
+ */
+public class UndoHistory {
+	public static final int DEFAULT_MAX_ENTRIES = 1000;
+	public static final long DEFAULT_MAX_BYTES = 8L << 20;
+
+	// The steps of one change, in the order of the change
+	private record Entry(Edit[] steps, long bytes) {
+		static Entry of(List<Edit> steps) {
+			long bytes = 16;
+			for (Edit step : steps) {
+				bytes += step.weight();
+			}
+			return new Entry(steps.toArray(Edit[]::new), bytes);
+		}
+	}
+
+	private final TaskManager manager;
+	// Newest last
+	private final Deque<Entry> undo = new ArrayDeque<>();
+	private final Deque<Entry> redo = new ArrayDeque<>();
+	private long bytes;
+	private int maxEntries = DEFAULT_MAX_ENTRIES;
+	private long maxBytes = DEFAULT_MAX_BYTES;
+	// Changes older than those in `undo`, newest at the end of the file
+	private RandomAccessFile spill;
+	private Path spillFile;
+	private final Deque<Long> spilledOffsets = new ArrayDeque<>();
+
+	UndoHistory(TaskManager manager) {
+		this.manager = manager;
+	}
+
+	public boolean canUndo() {
+		return !undo.isEmpty() || !spilledOffsets.isEmpty();
+	}
+
+	public boolean canRedo() {
+		return !redo.isEmpty();
+	}
+
+	// Changes that can be undone, spilled ones included
+	public int size() {
+		return undo.size() + spilledOffsets.size();
+	}
+
+	/**
+	 * Reverses the latest change not yet undone and announces it like any other.
+	 *
+	 * @return false if there is nothing to undo
+	 */
+	public boolean undo() {
+		Entry entry;
+		if (!undo.isEmpty()) {
+			entry = undo.removeLast();
+			bytes -= entry.bytes();
+		} else if ((entry = readSpilled()) == null) {
+			return false;
+		}
+		redo.addLast(apply(entry));
+		trim();
+		return true;
+	}
+
+	/**
+	 * Makes the latest undone change again.
+	 *
+	 * @return false if there is nothing to redo
+	 */
+	public boolean redo() {
+		Entry entry = redo.pollLast();
+		if (entry == null) {
+			return false;
+		}
+		bytes -= entry.bytes();
+		undo.addLast(apply(entry));
+		trim();
+		return true;
+	}
+
+	public void clear() {
+		undo.clear();
+		redo.clear();
+		bytes = 0;
+		clearSpill();
+	}
+
+	/**
+	 * Caps the history at {@code maxEntries} changes and about {@code maxBytes} of
+	 * memory; older changes are forgotten or spilled.
+	 */
+	public void setLimits(int maxEntries, long maxBytes) {
+		if (maxEntries < 1 || maxBytes < 0) {
+			throw new IllegalArgumentException("History limits must be positive.");
+		}
+		this.maxEntries = maxEntries;
+		this.maxBytes = maxBytes;
+		trim();
+	}
+
+	/**
+	 * Writes changes that no longer fit in memory to {@code file} instead of
+	 * forgetting them. The file is replaced, and deleted on {@link #close()}.
+	 */
+	public void spillTo(Path file) throws IOException {
+		close();
+		spill = new RandomAccessFile(file.toFile(), "rw");
+		spill.setLength(0);
+		spillFile = file;
+	}
+
+	// Drops the spilled changes and deletes the spill file
+	public void close() {
+		if (spill == null) {
+			return;
+		}
+		spilledOffsets.clear();
+		try {
+			spill.close();
+			Files.deleteIfExists(spillFile);
+		} catch (IOException e) {
+			System.out.println("Error removing the undo file: " + e.getMessage());
+		}
+		spill = null;
+		spillFile = null;
+	}
+
+	// Applies the entry's steps; returns the entry that reverses them
+	private Entry apply(Entry entry) {
+		try {
+			Entry inverse = Entry.of(manager.applyEdits(entry.steps()));
+			bytes += inverse.bytes();
+			return inverse;
+		} catch (RuntimeException e) {
+			// The store no longer matches the history (changed around the manager); start over
+			clear();
+			throw e;
+		}
+	}
+
+	// Records a change just made; nothing for a change without steps
+	void record(List<Edit> steps) {
+		if (steps.isEmpty()) {
+			return;
+		}
+		bytes -= redo.stream().mapToLong(Entry::bytes).sum();
+		redo.clear();
+		Entry entry = Entry.of(steps);
+		undo.addLast(entry);
+		bytes += entry.bytes();
+		trim();
+	}
+
+	// Forgets or spills the oldest changes, then the furthest redo, until within the limits
+	private void trim() {
+		while (size() + redo.size() > maxEntries && canUndo()) {
+			if (!spilledOffsets.isEmpty()) {
+				spilledOffsets.removeFirst(); // its bytes stay in the file until the file empties
+			} else {
+				bytes -= undo.removeFirst().bytes();
+			}
+		}
+		while (bytes > maxBytes && undo.size() > 1) {
+			Entry oldest = undo.removeFirst();
+			bytes -= oldest.bytes();
+			if (spill != null) {
+				writeSpilled(oldest);
+			}
+		}
+		while ((bytes > maxBytes || undo.size() + redo.size() > maxEntries) && !redo.isEmpty()) {
+			bytes -= redo.removeFirst().bytes();
+		}
+	}
+
+	private void writeSpilled(Entry entry) {
+		try {
+			ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+			DataOutputStream out = new DataOutputStream(buffer);
+			out.writeInt(entry.steps().length);
+			for (Edit step : entry.steps()) {
+				step.write(out);
+			}
+			long offset = spill.length();
+			spill.seek(offset);
+			spill.writeInt(buffer.size());
+			spill.write(buffer.toByteArray());
+			spilledOffsets.addLast(offset);
+		} catch (IOException e) {
+			// Forgotten instead, and so is everything older: undo must not skip a change
+			System.out.println("Error writing the undo file: " + e.getMessage());
+			clearSpill();
+		}
+	}
+
+	private Entry readSpilled() {
+		Long offset = spilledOffsets.pollLast();
+		if (offset == null) {
+			return null;
+		}
+		try {
+			spill.seek(offset);
+			byte[] data = new byte[spill.readInt()];
+			spill.readFully(data);
+			spill.setLength(spilledOffsets.isEmpty() ? 0 : offset);
+			DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+			List<Edit> steps = new ArrayList<>();
+			for (int n = in.readInt(); n > 0; n--) {
+				steps.add(Edit.read(in));
+			}
+			return Entry.of(steps);
+		} catch (IOException e) {
+			System.out.println("Error reading the undo file: " + e.getMessage());
+			clearSpill();
+			return null;
+		}
+	}
+
+	private void clearSpill() {
+		spilledOffsets.clear();
+		if (spill != null) {
+			try {
+				spill.setLength(0);
+			} catch (IOException e) {
+				System.out.println("Error clearing the undo file: " + e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,179 @@
+package com.todo.controller;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A list whose {@link #snapshot()} is taken in constant time and never changes.
+ * <p>
+ * The elements are kept in fixed-size chunks. A snapshot shares the chunks with
+ * the list, and the list copies a chunk the first time it changes it after a
+ * snapshot: an append or a {@code set} copies one chunk, an insert or removal the
+ * chunks from its position to the end. Without snapshots it works in place like
+ * an {@code ArrayList}.
+ * </p>
+ * Changes must come from one thread at a time, and {@link #snapshot()} must not run
+ * alongside them; the snapshots themselves can be read on any thread.
+ */
+final class VersionedList<T> extends AbstractList<T> implements RandomAccess {
+	private static final int SHIFT = 6;
+	private static final int CHUNK = 1 << SHIFT;
+	private static final int MASK = CHUNK - 1;
+
+	private Object[][] chunks;
+	// The version in which each chunk, and the array of chunks, was last copied; only those of the current one are ours
+	private long[] chunkVersions;
+	private long spineVersion;
+	private long version;
+	private int size;
+	// The latest snapshot, handed out again until the list changes
+	private Snapshot<T> latest;
+
+	VersionedList(Collection<? extends T> elements) {
+		int capacity = Math.max(1, (elements.size() + MASK) >>> SHIFT);
+		chunks = new Object[capacity][];
+		chunkVersions = new long[capacity];
+		for (T element : elements) {
+			add(element);
+		}
+	}
+
+	/** The elements as they are now, unchangeable and unaffected by later changes to this list. */
+	synchronized List<T> snapshot() {
+		if (spineVersion == version) {
+			// Changed since the last snapshot: what the list holds now is shared from here on
+			latest = new Snapshot<>(chunks, size);
+			version++;
+		}
+		return latest;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public T get(int index) {
+		Objects.checkIndex(index, size);
+		return (T) chunks[index >>> SHIFT][index & MASK];
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public T set(int index, T element) {
+		T old = get(index);
+		writable(index >>> SHIFT)[index & MASK] = element;
+		return old;
+	}
+
+	@Override
+	public void add(int index, T element) {
+		Objects.checkIndex(index, size + 1);
+		if ((size & MASK) == 0) {
+			addChunk();
+		}
+		for (int i = size; i > index; i--) {
+			put(i, get(i - 1));
+		}
+		put(index, element);
+		size++;
+		modCount++;
+	}
+
+	@Override
+	public T remove(int index) {
+		T old = get(index);
+		removeRange(index, index + 1);
+		return old;
+	}
+
+	@Override
+	protected void removeRange(int fromIndex, int toIndex) {
+		Objects.checkFromToIndex(fromIndex, toIndex, size);
+		int removed = toIndex - fromIndex;
+		if (removed == 0) {
+			return;
+		}
+		for (int i = fromIndex; i + removed < size; i++) {
+			put(i, get(i + removed));
+		}
+		int newSize = size - removed;
+		// Let go of the elements past the end: the partial last chunk is cleared, whole chunks dropped
+		int keptChunks = (newSize + MASK) >>> SHIFT;
+		if ((newSize & MASK) != 0) {
+			Object[] last = writable(keptChunks - 1);
+			for (int i = newSize & MASK; i < CHUNK; i++) {
+				last[i] = null;
+			}
+		}
+		ownSpine();
+		for (int c = keptChunks; c < chunks.length && chunks[c] != null; c++) {
+			chunks[c] = null;
+		}
+		size = newSize;
+		modCount++;
+	}
+
+	// Stores an element at an index below the size, or at the size in its newly added chunk
+	private void put(int index, Object element) {
+		writable(index >>> SHIFT)[index & MASK] = element;
+	}
+
+	// The chunk at `c`, copied first if a snapshot may share it
+	private Object[] writable(int c) {
+		Object[] chunk = chunks[c];
+		if (chunkVersions[c] != version) {
+			ownSpine();
+			chunk = chunk.clone();
+			chunks[c] = chunk;
+			chunkVersions[c] = version;
+		}
+		return chunk;
+	}
+
+	private void ownSpine() {
+		if (spineVersion != version) {
+			chunks = chunks.clone();
+			spineVersion = version;
+		}
+	}
+
+	// A new empty chunk for index `size`, growing the array of chunks when full
+	private void addChunk() {
+		int c = size >>> SHIFT;
+		ownSpine();
+		if (c == chunks.length) {
+			chunks = Arrays.copyOf(chunks, c * 2);
+			chunkVersions = Arrays.copyOf(chunkVersions, c * 2);
+		}
+		chunks[c] = new Object[CHUNK];
+		chunkVersions[c] = version;
+	}
+
+	private static final class Snapshot<T> extends AbstractList<T> implements RandomAccess {
+		private final Object[][] chunks;
+		private final int size;
+
+		Snapshot(Object[][] chunks, int size) {
+			this.chunks = chunks;
+			this.size = size;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public T get(int index) {
+			Objects.checkIndex(index, size);
+			return (T) chunks[index >>> SHIFT][index & MASK];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+	}
+}
@@ -0,0 +1,119 @@
+package com.todo.controller;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * One named store with everything that works on it: its {@link TaskManager}
+ * (and so its own indexes, analytics and undo history) and the read/write lock
+ * that lets several threads share it. A workspace opened by {@link Workspaces}
+ * also runs its own autosave, day rollover and {@link StoreSync}, stopped when it
+ * is closed.
+ * <p>
+ * {@code TaskManager} is not thread-safe: reads go through {@link #read}, changes
+ * through {@link #write}.
+ * </p>
+ */
+public final class Workspace {
+	private final String name;
+	private final TaskManager taskManager;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final AutosaveService autosave;
+	private final DayRollover dayRollover;
+	private final StoreSync storeSync;
+
+	// Wraps a store opened elsewhere; its owner saves and closes it
+	public Workspace(String name, TaskManager taskManager) {
+		this(name, taskManager, false);
+	}
+
+	Workspace(String name, TaskManager taskManager, boolean background) {
+		this.name = name;
+		this.taskManager = taskManager;
+		if (background) {
+			// Copying the lists for a save is cheap, and merging another instance's save changes them
+			autosave = new AutosaveService(taskManager, writeLockedExecutor());
+			dayRollover = new DayRollover(taskManager, writeLockedExecutor(), moved -> {
+				if (moved > 0) {
+					System.out.println(moved + " task(s) are now delayed in workspace " + name + ".");
+				}
+			});
+			storeSync = new StoreSync(taskManager, writeLockedExecutor());
+			autosave.start();
+			dayRollover.start();
+			storeSync.start();
+		} else {
+			autosave = null;
+			dayRollover = null;
+			storeSync = null;
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public TaskManager getTaskManager() {
+		return taskManager;
+	}
+
+	public <T> T read(Supplier<T> action) {
+		lock.readLock().lock();
+		try {
+			return action.get();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	public <T> T write(Supplier<T> action) {
+		lock.writeLock().lock();
+		try {
+			return action.get();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public void write(Runnable action) {
+		write(() -> {
+			action.run();
+			return null;
+		});
+	}
+
+	/**
+	 * Runs commands while holding the read lock, so background jobs such as
+	 * {@link AutosaveService} see the store between changes.
+	 */
+	public Executor readLockedExecutor() {
+		return command -> read(() -> {
+			command.run();
+			return null;
+		});
+	}
+
+	/** Runs commands while holding the write lock, for background jobs that change the store. */
+	public Executor writeLockedExecutor() {
+		return this::write;
+	}
+
+	// Stops the background jobs, saves what they had not and releases the store; only for workspaces opened here
+	void close() {
+		if (autosave == null) {
+			return;
+		}
+		dayRollover.stop();
+		storeSync.stop();
+		// Not under the lock: a save in progress takes the read lock to finish
+		boolean dirty = autosave.stop();
+		write(() -> {
+			if (dirty) {
+				taskManager.persistAll();
+			}
+			taskManager.close();
+		});
+	}
+}
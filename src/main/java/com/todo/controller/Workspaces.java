@@ -0,0 +1,250 @@
+package com.todo.controller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Named workspaces under one root directory, each an isolated store with its
+ * own indexes, undo history, autosave and day rollover (see {@link Workspace}).
+ * <p>
+ * The {@value #DEFAULT} workspace is the root itself, so an existing "medialab/"
+ * store is the default workspace; the others live in {@code workspaces/<name>}
+ * below it and are created on first use. A workspace is only loaded when it is
+ * first {@link #acquire acquired}. Workspaces that nobody holds are closed (saved
+ * and dropped from memory) once more than {@code maxOpen} are open, least recently
+ * used first, or after {@code idleTimeout} without use.
+ * </p>
+ * Safe to use from any thread.
+ */
+public final class Workspaces {
+	public static final String DEFAULT = "default";
+	public static final int DEFAULT_MAX_OPEN = 8;
+	public static final Duration DEFAULT_IDLE_TIMEOUT = Duration.ofMinutes(15);
+	private static final Pattern NAME = Pattern.compile("[a-z0-9][a-z0-9_-]{0,63}");
+
+	// An opened or opening workspace and the callers holding it
+	private static final class Slot {
+		final CompletableFuture<Workspace> opened = new CompletableFuture<>();
+		int users;
+		long lastUsed;
+
+		// null while loading or if loading failed
+		Workspace workspace() {
+			return opened.isCompletedExceptionally() ? null : opened.getNow(null);
+		}
+	}
+
+	private final Path root;
+	private final int maxOpen;
+	private final long idleNanos;
+	private final ScheduledThreadPoolExecutor sweeper;
+	// guarded by this; least recently used first
+	private final LinkedHashMap<String, Slot> slots = new LinkedHashMap<>(16, 0.75f, true);
+	// Workspaces being closed; opened again only once written
+	private final Map<String, CompletableFuture<Void>> closing = new HashMap<>();
+	private boolean closed;
+
+	public Workspaces(Path root) {
+		this(root, DEFAULT_MAX_OPEN, DEFAULT_IDLE_TIMEOUT);
+	}
+
+	public Workspaces(Path root, int maxOpen, Duration idleTimeout) {
+		if (maxOpen < 1 || idleTimeout.isNegative()) {
+			throw new IllegalArgumentException("Workspace limits must be positive.");
+		}
+		this.root = root;
+		this.maxOpen = maxOpen;
+		this.idleNanos = idleTimeout.toNanos();
+		this.sweeper = new ScheduledThreadPoolExecutor(1, runnable -> {
+			Thread thread = new Thread(runnable, "workspace-sweeper");
+			thread.setDaemon(true);
+			return thread;
+		});
+		long period = Math.max(1000, idleTimeout.toMillis() / 2);
+		sweeper.scheduleAtFixedRate(this::evict, period, period, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * The directory of a workspace.
+	 *
+	 * @throws IllegalArgumentException if the name is not 1-64 letters, digits, '-' or '_'
+	 */
+	public static Path directory(Path root, String name) {
+		String key = key(name);
+		return key.equals(DEFAULT) ? root : root.resolve("workspaces").resolve(key);
+	}
+
+	// Names are case-insensitive, so that they map to one directory on every file system
+	private static String key(String name) {
+		String key = name == null ? "" : name.toLowerCase();
+		if (!NAME.matcher(key).matches()) {
+			throw new IllegalArgumentException("Invalid workspace name: " + name);
+		}
+		return key;
+	}
+
+	// The workspaces on disk and those open, by name
+	public List<String> names() {
+		TreeSet<String> names = new TreeSet<>();
+		names.add(DEFAULT);
+		Path dir = root.resolve("workspaces");
+		if (Files.isDirectory(dir)) {
+			try (Stream<Path> entries = Files.list(dir)) {
+				entries.filter(Files::isDirectory).map(p -> p.getFileName().toString())
+						.filter(n -> NAME.matcher(n).matches()).forEach(names::add);
+			} catch (IOException e) {
+				System.out.println("Error listing workspaces: " + e.getMessage());
+			}
+		}
+		synchronized (this) {
+			names.addAll(slots.keySet());
+		}
+		return new ArrayList<>(names);
+	}
+
+	public synchronized boolean isOpen(String name) {
+		return slots.containsKey(key(name));
+	}
+
+	/**
+	 * The named workspace, loaded first if it is not open. It stays open until
+	 * every caller that acquired it has {@link #release released} it.
+	 *
+	 * @throws IllegalArgumentException if the name is invalid
+	 * @throws IllegalStateException    if the store cannot be loaded, or after {@link #close()}
+	 */
+	public Workspace acquire(String name) {
+		String key = key(name);
+		Slot slot;
+		boolean opener = false;
+		CompletableFuture<Void> previous;
+		synchronized (this) {
+			if (closed) {
+				throw new IllegalStateException("Workspaces are closed.");
+			}
+			slot = slots.get(key);
+			if (slot == null) {
+				slot = new Slot();
+				slots.put(key, slot);
+				opener = true;
+			}
+			slot.users++;
+			previous = closing.get(key);
+		}
+		if (opener) {
+			// Loaded outside the lock, so that a large store does not hold up the others
+			try {
+				if (previous != null) {
+					previous.join();
+				}
+				slot.opened.complete(new Workspace(key, new TaskManager(directory(root, key)), true));
+				System.out.println("Opened workspace " + key);
+			} catch (RuntimeException e) {
+				slot.opened.completeExceptionally(e);
+				synchronized (this) {
+					slots.remove(key, slot);
+				}
+				throw e;
+			}
+			evict();
+		}
+		try {
+			return slot.opened.join();
+		} catch (CompletionException e) {
+			synchronized (this) {
+				slot.users--;
+			}
+			throw e.getCause() instanceof RuntimeException cause ? cause : e;
+		}
+	}
+
+	// Lets a workspace acquired before be closed once nobody else holds it
+	public void release(Workspace workspace) {
+		synchronized (this) {
+			Slot slot = slots.get(workspace.getName());
+			if (slot == null || slot.workspace() != workspace) {
+				return;
+			}
+			slot.users--;
+			slot.lastUsed = System.nanoTime();
+		}
+		evict();
+	}
+
+	// Closes the workspaces past the limit or idle for too long, if nobody holds them
+	void evict() {
+		Map<String, Workspace> victims = new LinkedHashMap<>();
+		synchronized (this) {
+			long now = System.nanoTime();
+			int open = slots.size();
+			for (Iterator<Map.Entry<String, Slot>> it = slots.entrySet().iterator(); it.hasNext(); ) {
+				Map.Entry<String, Slot> entry = it.next();
+				Slot slot = entry.getValue();
+				Workspace workspace = slot.workspace();
+				if (workspace == null || slot.users > 0) {
+					continue;
+				}
+				if (open > maxOpen || now - slot.lastUsed >= idleNanos) {
+					it.remove();
+					open--;
+					victims.put(entry.getKey(), workspace);
+					closing.put(entry.getKey(), new CompletableFuture<>());
+				}
+			}
+		}
+		victims.forEach(this::closeWorkspace);
+	}
+
+	private void closeWorkspace(String key, Workspace workspace) {
+		try {
+			workspace.close();
+			System.out.println("Closed workspace " + key);
+		} catch (RuntimeException e) {
+			System.out.println("Error closing workspace " + key + ": " + e.getMessage());
+		} finally {
+			CompletableFuture<Void> done;
+			synchronized (this) {
+				done = closing.remove(key);
+			}
+			if (done != null) {
+				done.complete(null);
+			}
+		}
+	}
+
+	// Saves and closes every workspace, held or not; nothing can be acquired afterwards
+	public void close() {
+		sweeper.shutdownNow();
+		Map<String, Slot> open;
+		List<CompletableFuture<Void>> pending;
+		synchronized (this) {
+			closed = true;
+			open = new LinkedHashMap<>(slots);
+			slots.clear();
+			pending = new ArrayList<>(closing.values());
+		}
+		open.forEach((key, slot) -> {
+			try {
+				closeWorkspace(key, slot.opened.join());
+			} catch (CompletionException e) {
+				// never opened
+			}
+		});
+		pending.forEach(CompletableFuture::join);
+	}
+}
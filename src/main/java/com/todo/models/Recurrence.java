@@ -0,0 +1,169 @@
+package com.todo.models;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * How a task repeats, stored as an RRULE-like string such as
+ * {@code FREQ=WEEKLY;INTERVAL=2;DTSTART=2026-10-19;COUNT=10}.
+ * <p>
+ * Occurrence {@code k} is {@code start} plus {@code k * interval} units, so any
+ * occurrence is found by arithmetic; none of them are stored. UNTIL (inclusive)
+ * and COUNT optionally end the series.
+ * </p>
+ */
+public record Recurrence(Frequency frequency, int interval, LocalDate start, LocalDate until, Integer count) {
+
+    public enum Frequency {
+        DAILY(ChronoUnit.DAYS),
+        WEEKLY(ChronoUnit.WEEKS),
+        MONTHLY(ChronoUnit.MONTHS),
+        YEARLY(ChronoUnit.YEARS);
+
+        private final ChronoUnit unit;
+
+        Frequency(ChronoUnit unit) {
+            this.unit = unit;
+        }
+    }
+
+    public Recurrence {
+        if (frequency == null || start == null) {
+            throw new IllegalArgumentException("A recurrence needs a frequency and a start date.");
+        }
+        if (interval < 1) {
+            throw new IllegalArgumentException("Recurrence interval must be at least 1.");
+        }
+        if (count != null && count < 1) {
+            throw new IllegalArgumentException("Recurrence count must be at least 1.");
+        }
+        if (until != null && until.isBefore(start)) {
+            throw new IllegalArgumentException("Recurrence ends before it starts.");
+        }
+    }
+
+    public Recurrence(Frequency frequency, int interval, LocalDate start) {
+        this(frequency, interval, start, null, null);
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static Recurrence parse(String rule) {
+        Frequency frequency = null;
+        int interval = 1;
+        LocalDate start = null;
+        LocalDate until = null;
+        Integer count = null;
+        try {
+            for (String part : rule.split(";")) {
+                String[] pair = part.split("=", 2);
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Invalid recurrence part: " + part);
+                }
+                String value = pair[1].trim();
+                switch (pair[0].trim().toUpperCase(Locale.ROOT)) {
+                    case "FREQ" -> frequency = Frequency.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "INTERVAL" -> interval = Integer.parseInt(value);
+                    case "DTSTART" -> start = LocalDate.parse(value);
+                    case "UNTIL" -> until = LocalDate.parse(value);
+                    case "COUNT" -> count = Integer.valueOf(value);
+                    default -> throw new IllegalArgumentException("Unknown recurrence part: " + part);
+                }
+            }
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date in recurrence: " + rule);
+        }
+        return new Recurrence(frequency, interval, start, until, count);
+    }
+
+    @JsonValue
+    public String toRule() {
+        StringBuilder rule = new StringBuilder("FREQ=").append(frequency);
+        if (interval != 1) {
+            rule.append(";INTERVAL=").append(interval);
+        }
+        rule.append(";DTSTART=").append(start);
+        if (until != null) {
+            rule.append(";UNTIL=").append(until);
+        }
+        if (count != null) {
+            rule.append(";COUNT=").append(count);
+        }
+        return rule.toString();
+    }
+
+    /** The k-th occurrence, counting the start as 0, whether or not the series still runs then. */
+    public LocalDate occurrence(long k) {
+        // Always counted from the start, so a series on the 31st stays on month ends
+        return start.plus(k * interval, frequency.unit);
+    }
+
+    private boolean inSeries(long k, LocalDate date) {
+        return (count == null || k < count) && (until == null || !date.isAfter(until));
+    }
+
+    // Index of the first occurrence on or after the date; arithmetic, then at most a step or two
+    private long firstIndexOnOrAfter(LocalDate date) {
+        if (!date.isAfter(start)) {
+            return 0;
+        }
+        long k = frequency.unit.between(start, date) / interval;
+        while (occurrence(k).isBefore(date)) {
+            k++;
+        }
+        return k;
+    }
+
+    /** The first occurrence on or after the date, or {@code null} once the series has ended. */
+    public LocalDate firstOnOrAfter(LocalDate date) {
+        long k = firstIndexOnOrAfter(date);
+        LocalDate occurrence = occurrence(k);
+        return inSeries(k, occurrence) ? occurrence : null;
+    }
+
+    /** The occurrence following the given one, or {@code null} once the series has ended. */
+    public LocalDate after(LocalDate date) {
+        return firstOnOrAfter(date.plusDays(1));
+    }
+
+    /** Up to {@code limit} occurrences in {@code [from, to]}; only those are created. */
+    public List<LocalDate> between(LocalDate from, LocalDate to, int limit) {
+        List<LocalDate> occurrences = new ArrayList<>();
+        for (long k = firstIndexOnOrAfter(from); occurrences.size() < limit; k++) {
+            LocalDate occurrence = occurrence(k);
+            if (occurrence.isAfter(to) || !inSeries(k, occurrence)) {
+                break;
+            }
+            occurrences.add(occurrence);
+        }
+        return occurrences;
+    }
+
+    /** The next {@code n} occurrences on or after {@code from}. */
+    public List<LocalDate> next(LocalDate from, int n) {
+        return between(from, LocalDate.MAX, n);
+    }
+
+    /**
+     * The same rule restarted at {@code newStart}, for a series whose current occurrence
+     * was {@code current}; a COUNT keeps only the occurrences that were still to come.
+     */
+    public Recurrence restartAt(LocalDate newStart, LocalDate current) {
+        if (until != null && until.isBefore(newStart)) {
+            throw new IllegalArgumentException("The series ends on " + until + ", before " + newStart + ".");
+        }
+        Integer remaining = count == null ? null : (int) Math.max(1, count - firstIndexOnOrAfter(current));
+        return new Recurrence(frequency, interval, newStart, until, remaining);
+    }
+
+    @Override
+    public String toString() {
+        return toRule();
+    }
+}
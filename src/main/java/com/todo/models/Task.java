@@ -1,14 +1,54 @@
 package com.todo.models;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.LocalDate;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+/**
+ * A task. Fields are stored compactly, since a store can hold millions of tasks:
+ * category and priority names are interned, the deadline is an epoch day, the
+ * status an ordinal byte, and long descriptions can live on disk. The getters and
+ * setters keep the object types. A recurring task is one row for the whole series
+ * (see {@link Recurrence}).
+ */
 public class Task {
+    /**
+     * Reads a description that the store keeps on disk instead of in memory
+     * (see {@link #offloadDescription}).
+     */
+    @FunctionalInterface
+    public interface DescriptionLoader {
+        String load();
+    }
+
+    private static final VarHandle DESCRIPTION;
+    static {
+        try {
+            DESCRIPTION = MethodHandles.lookup().findVarHandle(Task.class, "description", Object.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // Category and priority names repeat across many tasks; keep one copy of each
+    private static final Interner<String> NAMES = Interners.newWeakInterner();
+    private static final TaskStatus[] STATUSES = TaskStatus.values();
+    private static final int NO_DEADLINE = Integer.MIN_VALUE;
+    private static final byte NO_STATUS = -1;
+
     private String title;
-    private String description;
+    // Either the text or a DescriptionLoader for it; swapped by the store, possibly from its save thread
+    private volatile Object description;
     private String category;
     private String priority; // don't need to store the whole object, only its title as a key
-    private LocalDate deadline;
-    private TaskStatus status;
+    private int deadlineDay = NO_DEADLINE; // epoch day, instead of a LocalDate object per task
+    private byte statusOrdinal = NO_STATUS;
+    private Recurrence recurrence; // null for one-off tasks; the deadline is the current occurrence
 
     // default constructor
 	public Task() {
@@ -16,32 +56,89 @@ public class Task {
 	}
 
     public Task(String title, String description, String category, String priority, LocalDate deadline) {
+        // Fields are set directly: the setters can be overridden
         this.title = title;
-        this.description = description;
-        this.category = category;
-        this.priority = priority;
-        this.deadline = deadline;
-        this.status = TaskStatus.OPEN; // Default status
+        this.description = compact(description);
+        this.category = intern(category);
+        this.priority = intern(priority);
+        this.deadlineDay = epochDay(deadline);
+        this.statusOrdinal = ordinal(TaskStatus.OPEN); // Default status
+    }
+
+    // most tasks have no description; share one empty string
+    private static String compact(String description) {
+        return description != null && description.isEmpty() ? "" : description;
+    }
+
+    private static String intern(String name) {
+        return name == null ? null : NAMES.intern(name);
+    }
+
+    private static int epochDay(LocalDate deadline) {
+        return deadline == null ? NO_DEADLINE : Math.toIntExact(deadline.toEpochDay());
+    }
+
+    private static byte ordinal(TaskStatus status) {
+        return status == null ? NO_STATUS : (byte) status.ordinal();
     }
 
     // Getters and Setters
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
-    public String getDescription() { return description; }
-    public void setDescription(String description) { this.description = description; }
+    public String getDescription() {
+        Object current = description;
+        return current instanceof DescriptionLoader loader ? loader.load() : (String) current;
+    }
+    public void setDescription(String description) {
+        this.description = compact(description);
+    }
+
+    /** The description as held: its text, or the loader it is read through. */
+    @JsonIgnore
+    public Object getDescriptionHandle() { return description; }
+
+    /**
+     * Replaces the description with a loader once the store has written it, unless it
+     * has been changed since {@code expected} was read through {@link #getDescriptionHandle()}.
+     */
+    public boolean offloadDescription(Object expected, DescriptionLoader loader) {
+        return DESCRIPTION.compareAndSet(this, expected, loader);
+    }
 
     public String getCategory() { return category; }
-    public void setCategory(String category) { this.category = category; }
+    public void setCategory(String category) { this.category = intern(category); }
 
     public String getPriority() { return priority; }
-    public void setPriority(String priority) { this.priority = priority; }
+    public void setPriority(String priority) { this.priority = intern(priority); }
+
+    public LocalDate getDeadline() { return deadlineDay == NO_DEADLINE ? null : LocalDate.ofEpochDay(deadlineDay); }
+    public void setDeadline(LocalDate deadline) { this.deadlineDay = epochDay(deadline); }
+
+    @JsonIgnore
+    public boolean hasDeadline() { return deadlineDay != NO_DEADLINE; }
+
+    /** The deadline as an epoch day, for comparisons that should not create LocalDate objects. */
+    @JsonIgnore
+    public int getDeadlineEpochDay() {
+        if (deadlineDay == NO_DEADLINE) {
+            throw new IllegalStateException("Task has no deadline: " + title);
+        }
+        return deadlineDay;
+    }
+
+    // Raw deadline field, NO_DEADLINE included; reminders compare it to see whether their date is stale
+    int deadlineStamp() { return deadlineDay; }
+
+    public TaskStatus getStatus() { return statusOrdinal == NO_STATUS ? null : STATUSES[statusOrdinal]; }
+    public void setStatus(TaskStatus status) { this.statusOrdinal = ordinal(status); }
 
-    public LocalDate getDeadline() { return deadline; }
-    public void setDeadline(LocalDate deadline) { this.deadline = deadline; }
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public Recurrence getRecurrence() { return recurrence; }
+    public void setRecurrence(Recurrence recurrence) { this.recurrence = recurrence; }
 
-    public TaskStatus getStatus() { return status; }
-    public void setStatus(TaskStatus status) { this.status = status; }
+    @JsonIgnore
+    public boolean isRecurring() { return recurrence != null; }
 
     @Override
     public String toString() {
@@ -49,8 +146,8 @@ public class Task {
             "title='" + title + '\'' +
             ", category=" + category +
             ", priority=" + priority +
-            ", dueDate=" + deadline +
-            ", status=" + status +
+            ", dueDate=" + getDeadline() +
+            ", status=" + getStatus() +
             '}';
     }
 }
@@ -0,0 +1,7 @@
+package com.todo.models;
+
+import java.time.LocalDate;
+
+/** One occurrence of a task: the task itself, or one date of a recurring series. */
+public record TaskOccurrence(Task task, LocalDate deadline) {
+}
@@ -3,10 +3,9 @@ package com.todo.models;
 /**
  * Represents a named priority level for a {@code Task}.
  * <p>
- * A {@code TaskPriority} consists of a single field, {@code name},
- * which represents a textual label for the priority, e.g. "High," "Medium,"
- * "Low," or "Default." The name can be accessed or modified
- * via {@link #getName()} and {@link #setName(String)}.
+ * A {@code TaskPriority} consists of a {@code name}, a textual label for the
+ * priority, e.g. "High," "Medium," "Low," or "Default," and a {@code rank} that
+ * orders priorities: a higher rank is more important. Ranks may be shared.
  * </p>
  *
  * @author
@@ -14,7 +13,11 @@ package com.todo.models;
  */
 public class TaskPriority {
 
+    public static final int MIN_RANK = 0;
+    public static final int MAX_RANK = 999;
+
     private String name;
+    private Integer rank; // null only for priorities saved before ranks existed
 
     /**
      * Constructs a {@code TaskPriority} without assigning a name.
@@ -33,6 +36,17 @@ public class TaskPriority {
         this.name = name;
     }
 
+    /**
+     * Constructs a {@code TaskPriority} with the specified name and rank.
+     *
+     * @param name the textual label to represent this priority
+     * @param rank the rank, from {@link #MIN_RANK} to {@link #MAX_RANK}
+     */
+    public TaskPriority(String name, int rank) {
+        this.name = name;
+        this.rank = rank;
+    }
+
     /**
      * Returns the name of this priority.
      *
@@ -51,6 +65,24 @@ public class TaskPriority {
         this.name = name;
     }
 
+    /**
+     * Returns the rank of this priority; higher ranks are more important.
+     *
+     * @return the rank, or {@code null} if it was never set
+     */
+    public Integer getRank() {
+        return rank;
+    }
+
+    /**
+     * Sets the rank of this priority.
+     *
+     * @param rank the new rank
+     */
+    public void setRank(Integer rank) {
+        this.rank = rank;
+    }
+
     /**
      * Returns a string representation of this priority.
      * <p>
@@ -1,29 +1,51 @@
 package com.todo.models;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
+/**
+ * A reminder for a task. Reminders relative to the deadline by days, weeks or
+ * months fire at the start of their day; a custom date may carry a time of day;
+ * MINUTES_BEFORE counts back from the end of the deadline day. Reminders of a
+ * recurring task repeat for each occurrence (see {@link #nextReminderTime}).
+ */
 @JsonIgnoreProperties(ignoreUnknown = true)
 public class TaskReminder {
     public enum ReminderType {
         ONE_DAY_BEFORE,
         ONE_WEEK_BEFORE,
         ONE_MONTH_BEFORE,
-        CUSTOM_DATE
+        CUSTOM_DATE,
+        MINUTES_BEFORE
     }
 
     private Task task;
     private ReminderType type;
     private LocalDate customReminderDate; // Only used if type is CUSTOM_DATE
+    private LocalTime customReminderTime; // Optional time of day for CUSTOM_DATE
+    private Integer minutesBefore; // Only used if type is MINUTES_BEFORE
+    // Last computed fire time and the task deadline it was computed from
+    private transient FireTime fireTime;
 
+    private record FireTime(int deadline, LocalDateTime time) {
+    }
 
     public TaskReminder() { // default constructor
     }
 
     public TaskReminder(Task task, ReminderType type, LocalDate customReminderDate) {
+        this(task, type, customReminderDate, null, null);
+    }
+
+    public TaskReminder(Task task, ReminderType type, LocalDate customReminderDate, LocalTime customReminderTime,
+            Integer minutesBefore) {
         this.task = task;
         this.type = type;
         this.customReminderDate = customReminderDate;
+        this.customReminderTime = customReminderTime;
+        this.minutesBefore = minutesBefore;
     }
 
     public Task getTask() {
@@ -32,6 +54,7 @@ public class TaskReminder {
 
     public void setTask(Task task) {
         this.task = task;
+        this.fireTime = null;
     }
 
     public ReminderType getType() {
@@ -40,6 +63,7 @@ public class TaskReminder {
 
     public void setType(ReminderType type) {
         this.type = type;
+        this.fireTime = null;
     }
 
     public LocalDate getCustomReminderDate() {
@@ -48,20 +72,102 @@ public class TaskReminder {
 
     public void setCustomReminderDate(LocalDate customReminderDate) {
         this.customReminderDate = customReminderDate;
+        this.fireTime = null;
     }
 
-    public LocalDate computeReminderDate() {
-        if (task.getDeadline() == null)
+    public LocalTime getCustomReminderTime() {
+        return customReminderTime;
+    }
+
+    public void setCustomReminderTime(LocalTime customReminderTime) {
+        this.customReminderTime = customReminderTime;
+        this.fireTime = null;
+    }
+
+    public Integer getMinutesBefore() {
+        return minutesBefore;
+    }
+
+    public void setMinutesBefore(Integer minutesBefore) {
+        this.minutesBefore = minutesBefore;
+        this.fireTime = null;
+    }
+
+    /**
+     * The moment this reminder fires. It is computed once and reused until the
+     * reminder or its task's deadline changes.
+     */
+    public LocalDateTime computeReminderTime() {
+        int deadline = task.deadlineStamp();
+        FireTime cached = fireTime;
+        if (cached == null || cached.deadline() != deadline) {
+            LocalDateTime time = task.getDeadline() == null ? null
+                    : resolveTime(task.getDeadline(), type, customReminderDate, customReminderTime, minutesBefore);
+            cached = new FireTime(deadline, time);
+            fireTime = cached;
+        }
+        return cached.time();
+    }
+
+    /**
+     * The first time at or after {@code notBefore} this reminder fires, or {@code null}.
+     * For a recurring task, a reminder relative to the deadline fires again for every
+     * occurrence; the next one is worked out from the rule when asked for.
+     */
+    public LocalDateTime nextReminderTime(LocalDateTime notBefore) {
+        LocalDateTime time = computeReminderTime();
+        if (time != null && !time.isBefore(notBefore)) {
+            return time;
+        }
+        if (time == null || !task.isRecurring() || type == ReminderType.CUSTOM_DATE) {
             return null;
+        }
+        // Reminders come before their occurrence, so none before notBefore's day can qualify
+        Recurrence recurrence = task.getRecurrence();
+        LocalDate day = notBefore.toLocalDate();
+        LocalDate from = day.isAfter(task.getDeadline()) ? day : task.getDeadline();
+        for (LocalDate occurrence = recurrence.firstOnOrAfter(from); occurrence != null;
+                occurrence = recurrence.after(occurrence)) {
+            LocalDateTime candidate = resolveTime(occurrence, type, customReminderDate, customReminderTime, minutesBefore);
+            if (!candidate.isBefore(notBefore)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    /** The day this reminder fires on. */
+    public LocalDate computeReminderDate() {
+        LocalDateTime time = computeReminderTime();
+        return time == null ? null : time.toLocalDate();
+    }
+
+    /** Whether the reminder fires at a time of day rather than at the start of its day. */
+    public static boolean isTimed(ReminderType type, LocalTime customTime) {
+        return type == ReminderType.MINUTES_BEFORE || (type == ReminderType.CUSTOM_DATE && customTime != null);
+    }
+
+    /**
+     * When a reminder with these settings fires for a task due on {@code deadline};
+     * {@code null} if the settings are incomplete.
+     */
+    public static LocalDateTime resolveTime(LocalDate deadline, ReminderType type, LocalDate customDate,
+            LocalTime customTime, Integer minutesBefore) {
         switch (type) {
             case ONE_DAY_BEFORE:
-                return task.getDeadline().minusDays(1);
+                return deadline.minusDays(1).atStartOfDay();
             case ONE_WEEK_BEFORE:
-                return task.getDeadline().minusWeeks(1);
+                return deadline.minusWeeks(1).atStartOfDay();
             case ONE_MONTH_BEFORE:
-                return task.getDeadline().minusMonths(1);
+                return deadline.minusMonths(1).atStartOfDay();
             case CUSTOM_DATE:
-                return customReminderDate;
+                if (customDate == null)
+                    return null;
+                return customDate.atTime(customTime != null ? customTime : LocalTime.MIDNIGHT);
+            case MINUTES_BEFORE:
+                if (minutesBefore == null)
+                    return null;
+                return deadline.plusDays(1).atStartOfDay().minusMinutes(minutesBefore);
             default:
                 return null;
         }
@@ -69,7 +175,10 @@ public class TaskReminder {
 
     @Override
     public String toString() {
+        LocalDateTime time = computeReminderTime();
+        String when = time == null ? "null"
+                : isTimed(type, customReminderTime) ? time.toString() : time.toLocalDate().toString();
         return "Reminder for task: " + task.getTitle() +
-                " on " + computeReminderDate() + " (" + type + ")";
+                " on " + when + " (" + type + ")";
     }
 }
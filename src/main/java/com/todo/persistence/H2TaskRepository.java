@@ -0,0 +1,526 @@
+package com.todo.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.todo.models.Recurrence;
+import com.todo.models.Task;
+import com.todo.models.TaskCategory;
+import com.todo.models.TaskPriority;
+import com.todo.models.TaskReminder;
+import com.todo.models.TaskStatus;
+
+/**
+ * Keeps the store in an embedded, file-based H2 database ({@code store.mv.db}).
+ * <p>
+ * Tasks are rows with indexed (lower-cased) title, category and priority keys and
+ * indexed status and deadline columns. The repository remembers which row each
+ * loaded or saved {@code Task} object is, so a save only inserts, updates and
+ * deletes the tasks that changed since the previous one, in one transaction.
+ * Categories, priorities and reminders are small and rewritten on every save.
+ * Long descriptions are not loaded at startup and are dropped from memory once
+ * saved; tasks read them back by row id when they are shown.
+ * </p>
+ * <p>
+ * Searches run on a second connection and only see committed saves. The first
+ * time a directory is opened with this backend, an existing JSON store in it is
+ * imported.
+ * </p>
+ */
+public class H2TaskRepository implements TaskRepository {
+    public static final String DATABASE_FILE = "store.mv.db";
+    private static final int BATCH_SIZE = 10_000;
+
+    private static final String[] SCHEMA = {
+            "CREATE TABLE IF NOT EXISTS store_meta (id INT PRIMARY KEY, generation BIGINT NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS tasks ("
+                    + "id BIGINT PRIMARY KEY, "
+                    + "title VARCHAR NOT NULL, "
+                    + "title_key VARCHAR GENERATED ALWAYS AS (LOWER(title)), "
+                    + "description VARCHAR, "
+                    + "category VARCHAR, "
+                    + "category_key VARCHAR GENERATED ALWAYS AS (LOWER(category)), "
+                    + "priority VARCHAR, "
+                    + "priority_key VARCHAR GENERATED ALWAYS AS (LOWER(priority)), "
+                    + "deadline DATE, "
+                    + "status VARCHAR(16))",
+            "CREATE INDEX IF NOT EXISTS tasks_title ON tasks(title_key)",
+            "CREATE INDEX IF NOT EXISTS tasks_category ON tasks(category_key)",
+            "CREATE INDEX IF NOT EXISTS tasks_priority ON tasks(priority_key)",
+            "CREATE INDEX IF NOT EXISTS tasks_status ON tasks(status)",
+            "CREATE INDEX IF NOT EXISTS tasks_deadline ON tasks(deadline)",
+            "CREATE TABLE IF NOT EXISTS categories (ord INT PRIMARY KEY, name VARCHAR NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS priorities (ord INT PRIMARY KEY, name VARCHAR NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS reminders (ord INT PRIMARY KEY, task_title VARCHAR NOT NULL, "
+                    + "type VARCHAR(32) NOT NULL, custom_date DATE)",
+            // Time-of-day and minutes-before reminders; added after the first stores were created
+            "ALTER TABLE reminders ADD COLUMN IF NOT EXISTS custom_time TIME",
+            "ALTER TABLE reminders ADD COLUMN IF NOT EXISTS minutes_before INT",
+            "ALTER TABLE tasks ADD COLUMN IF NOT EXISTS recurrence VARCHAR",
+            "ALTER TABLE priorities ADD COLUMN IF NOT EXISTS ranking INT"
+    };
+
+    // The persisted column values of one task, compared to find changed rows; the
+    // description is its handle (text or loader), so unchanged offloaded text is never read
+    private record Row(String title, Object description, String category, String priority, LocalDate deadline,
+            TaskStatus status, Recurrence recurrence) {
+        static Row of(Task task) {
+            return new Row(task.getTitle(), task.getDescriptionHandle(), task.getCategory(), task.getPriority(),
+                    task.getDeadline(), task.getStatus(), task.getRecurrence());
+        }
+    }
+
+    /** A description left in the database, read by row id when needed. */
+    private record H2Description(H2TaskRepository repository, long id) implements Task.DescriptionLoader {
+        @Override
+        public String load() {
+            return repository.loadDescription(id);
+        }
+    }
+
+    private record SavedRow(long id, Row row) {
+    }
+
+    private final Path dir;
+    private Connection connection;
+    private Connection queryConnection;
+    private final Object queryLock = new Object();
+    // guarded by this: the row each known Task object was last loaded from or saved as
+    private final Map<Task, SavedRow> saved = new IdentityHashMap<>();
+    private long nextId = 1;
+    // read by searches on other threads
+    private final Map<Long, Task> byId = new ConcurrentHashMap<>();
+    // Where each task is in the list last loaded or saved, so that searches return the store order; replaced whole
+    private volatile Map<Task, Integer> positions = Map.of();
+
+    public H2TaskRepository(Path dir) {
+        this.dir = dir;
+    }
+
+    @Override
+    public Path getDirectory() {
+        return dir;
+    }
+
+    // -----------------------------------------------------
+    // Loading
+    // -----------------------------------------------------
+    @Override
+    public synchronized StoreData load() throws IOException {
+        try {
+            Connection c = connection();
+            if (generation(c) == 0) {
+                return importJsonStore();
+            }
+
+            saved.clear();
+            byId.clear();
+            List<Task> tasks = new ArrayList<>();
+            Map<Task, Integer> order = new IdentityHashMap<>();
+            try (Statement st = c.createStatement();
+                    // Long descriptions stay in the database until they are shown
+                    ResultSet rs = st.executeQuery("SELECT id, title, CASE WHEN LENGTH(description) <= "
+                            + INLINE_DESCRIPTION_LENGTH + " THEN description END, category, priority, deadline, status, "
+                            + "LENGTH(description), recurrence FROM tasks ORDER BY id")) {
+                while (rs.next()) {
+                    long id = rs.getLong(1);
+                    Task task = new Task(rs.getString(2), rs.getString(3), rs.getString(4), rs.getString(5),
+                            rs.getObject(6, LocalDate.class));
+                    String status = rs.getString(7);
+                    task.setStatus(status == null ? null : TaskStatus.valueOf(status));
+                    String recurrence = rs.getString(9);
+                    task.setRecurrence(recurrence == null ? null : Recurrence.parse(recurrence));
+                    if (rs.getInt(8) > INLINE_DESCRIPTION_LENGTH) {
+                        task.offloadDescription(task.getDescriptionHandle(), new H2Description(this, id));
+                    }
+                    remember(task, id, Row.of(task));
+                    order.put(task, tasks.size());
+                    tasks.add(task);
+                    nextId = Math.max(nextId, id + 1);
+                }
+            }
+            positions = order;
+
+            List<TaskCategory> categories = new ArrayList<>();
+            for (String name : names(c, "categories")) {
+                categories.add(new TaskCategory(name));
+            }
+            List<TaskPriority> priorities = new ArrayList<>();
+            try (Statement st = c.createStatement();
+                    ResultSet rs = st.executeQuery("SELECT name, ranking FROM priorities ORDER BY ord")) {
+                while (rs.next()) {
+                    TaskPriority priority = new TaskPriority(rs.getString(1));
+                    priority.setRank(rs.getObject(2, Integer.class));
+                    priorities.add(priority);
+                }
+            }
+
+            List<TaskReminder> reminders = new ArrayList<>();
+            try (Statement st = c.createStatement();
+                    ResultSet rs = st.executeQuery("SELECT task_title, type, custom_date, custom_time, minutes_before "
+                            + "FROM reminders ORDER BY ord")) {
+                while (rs.next()) {
+                    // Placeholder task; the caller re-links reminders by title
+                    Task placeholder = new Task(rs.getString(1), "", null, null, null);
+                    reminders.add(new TaskReminder(placeholder, TaskReminder.ReminderType.valueOf(rs.getString(2)),
+                            rs.getObject(3, LocalDate.class), rs.getObject(4, LocalTime.class),
+                            rs.getObject(5, Integer.class)));
+                }
+            }
+            System.out.println("Loaded H2 store generation " + generation(c) + " (" + tasks.size() + " tasks, "
+                    + reminders.size() + " reminders)");
+            return new StoreData(tasks, categories, priorities, reminders);
+        } catch (SQLException | IllegalArgumentException e) {
+            throw new IOException("Could not read the H2 store in " + dir + ": " + e.getMessage(), e);
+        }
+    }
+
+    // A new database takes over whatever JSON store the directory already holds
+    private StoreData importJsonStore() throws IOException {
+        StoreData data = new JsonTaskRepository(dir).load();
+        save(data);
+        System.out.println("Created H2 store in " + dir + " with " + data.tasks().size() + " tasks");
+        return data;
+    }
+
+    private static List<String> names(Connection c, String table) throws SQLException {
+        List<String> names = new ArrayList<>();
+        try (Statement st = c.createStatement();
+                ResultSet rs = st.executeQuery("SELECT name FROM " + table + " ORDER BY ord")) {
+            while (rs.next()) {
+                names.add(rs.getString(1));
+            }
+        }
+        return names;
+    }
+
+    // -----------------------------------------------------
+    // Saving
+    // -----------------------------------------------------
+    @Override
+    public synchronized long save(StoreData data) throws IOException {
+        Map<Task, SavedRow> changed = new IdentityHashMap<>();
+        Map<Task, Integer> present = new IdentityHashMap<>(data.tasks().size() * 2);
+        List<Task> deleted = new ArrayList<>();
+        try {
+            Connection c = connection();
+            long generation = generation(c) + 1;
+            long id = nextId;
+            try (PreparedStatement insert = c.prepareStatement("INSERT INTO tasks "
+                    + "(id, title, description, category, priority, deadline, status, recurrence) "
+                    + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)");
+                    PreparedStatement update = c.prepareStatement("UPDATE tasks SET title = ?, description = ?, "
+                            + "category = ?, priority = ?, deadline = ?, status = ?, recurrence = ? WHERE id = ?");
+                    PreparedStatement updateKeepingDescription = c.prepareStatement("UPDATE tasks SET title = ?, "
+                            + "category = ?, priority = ?, deadline = ?, status = ?, recurrence = ? WHERE id = ?");
+                    PreparedStatement delete = c.prepareStatement("DELETE FROM tasks WHERE id = ?")) {
+                int pending = 0;
+                for (Task task : data.tasks()) {
+                    present.put(task, present.size());
+                    Row row = Row.of(task);
+                    SavedRow previous = saved.get(task);
+                    if (previous == null) {
+                        insert.setLong(1, id);
+                        bindRow(insert, 2, row);
+                        insert.addBatch();
+                        changed.put(task, new SavedRow(id++, row));
+                    } else if (!previous.row().equals(row)) {
+                        if (row.description().equals(new H2Description(this, previous.id()))) {
+                            bindRowKeepingDescription(updateKeepingDescription, row);
+                            updateKeepingDescription.setLong(7, previous.id());
+                            updateKeepingDescription.addBatch();
+                        } else {
+                            bindRow(update, 1, row);
+                            update.setLong(8, previous.id());
+                            update.addBatch();
+                        }
+                        changed.put(task, new SavedRow(previous.id(), row));
+                    } else {
+                        continue;
+                    }
+                    if (++pending % BATCH_SIZE == 0) {
+                        insert.executeBatch();
+                        update.executeBatch();
+                        updateKeepingDescription.executeBatch();
+                    }
+                }
+                for (Map.Entry<Task, SavedRow> entry : saved.entrySet()) {
+                    if (!present.containsKey(entry.getKey())) {
+                        delete.setLong(1, entry.getValue().id());
+                        delete.addBatch();
+                        deleted.add(entry.getKey());
+                    }
+                }
+                insert.executeBatch();
+                update.executeBatch();
+                updateKeepingDescription.executeBatch();
+                delete.executeBatch();
+            }
+
+            replaceNames(c, "categories", data.categories().stream().map(TaskCategory::getName).toList());
+            replacePriorities(c, data.priorities());
+            replaceReminders(c, data.reminders());
+            try (PreparedStatement meta = c.prepareStatement("MERGE INTO store_meta (id, generation) VALUES (1, ?)")) {
+                meta.setLong(1, generation);
+                meta.executeUpdate();
+            }
+            c.commit();
+
+            // Only now does the store match these rows
+            nextId = id;
+            positions = present;
+            for (Task task : deleted) {
+                byId.remove(saved.remove(task).id());
+            }
+            for (Map.Entry<Task, SavedRow> entry : changed.entrySet()) {
+                Task task = entry.getKey();
+                SavedRow savedRow = entry.getValue();
+                Object description = savedRow.row().description();
+                // Long text is in the database now; drop it from memory unless it changed meanwhile
+                if (description instanceof String text && text.length() > INLINE_DESCRIPTION_LENGTH) {
+                    H2Description loader = new H2Description(this, savedRow.id());
+                    if (task.offloadDescription(text, loader)) {
+                        savedRow = new SavedRow(savedRow.id(), new Row(savedRow.row().title(), loader,
+                                savedRow.row().category(), savedRow.row().priority(), savedRow.row().deadline(),
+                                savedRow.row().status(), savedRow.row().recurrence()));
+                    }
+                }
+                remember(task, savedRow.id(), savedRow.row());
+            }
+            return generation;
+        } catch (SQLException e) {
+            rollback();
+            throw new IOException("Could not save the H2 store in " + dir + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void bindRow(PreparedStatement st, int first, Row row) throws SQLException {
+        st.setString(first, row.title());
+        st.setString(first + 1, row.description() instanceof Task.DescriptionLoader loader
+                ? loader.load() : (String) row.description());
+        st.setString(first + 2, row.category());
+        st.setString(first + 3, row.priority());
+        st.setObject(first + 4, row.deadline(), Types.DATE);
+        st.setString(first + 5, row.status() == null ? null : row.status().name());
+        st.setString(first + 6, row.recurrence() == null ? null : row.recurrence().toRule());
+    }
+
+    private static void bindRowKeepingDescription(PreparedStatement st, Row row) throws SQLException {
+        st.setString(1, row.title());
+        st.setString(2, row.category());
+        st.setString(3, row.priority());
+        st.setObject(4, row.deadline(), Types.DATE);
+        st.setString(5, row.status() == null ? null : row.status().name());
+        st.setString(6, row.recurrence() == null ? null : row.recurrence().toRule());
+    }
+
+    private static void replaceNames(Connection c, String table, List<String> names) throws SQLException {
+        try (Statement clear = c.createStatement();
+                PreparedStatement insert = c.prepareStatement("INSERT INTO " + table + " (ord, name) VALUES (?, ?)")) {
+            clear.executeUpdate("DELETE FROM " + table);
+            for (int i = 0; i < names.size(); i++) {
+                insert.setInt(1, i);
+                insert.setString(2, names.get(i));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void replacePriorities(Connection c, List<TaskPriority> priorities) throws SQLException {
+        try (Statement clear = c.createStatement();
+                PreparedStatement insert = c.prepareStatement(
+                        "INSERT INTO priorities (ord, name, ranking) VALUES (?, ?, ?)")) {
+            clear.executeUpdate("DELETE FROM priorities");
+            for (int i = 0; i < priorities.size(); i++) {
+                insert.setInt(1, i);
+                insert.setString(2, priorities.get(i).getName());
+                insert.setObject(3, priorities.get(i).getRank(), Types.INTEGER);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private static void replaceReminders(Connection c, List<TaskReminder> reminders) throws SQLException {
+        try (Statement clear = c.createStatement();
+                PreparedStatement insert = c.prepareStatement(
+                        "INSERT INTO reminders (ord, task_title, type, custom_date, custom_time, minutes_before) "
+                                + "VALUES (?, ?, ?, ?, ?, ?)")) {
+            clear.executeUpdate("DELETE FROM reminders");
+            for (int i = 0; i < reminders.size(); i++) {
+                TaskReminder reminder = reminders.get(i);
+                insert.setInt(1, i);
+                insert.setString(2, reminder.getTask().getTitle());
+                insert.setString(3, reminder.getType().name());
+                insert.setObject(4, reminder.getCustomReminderDate(), Types.DATE);
+                insert.setObject(5, reminder.getCustomReminderTime(), Types.TIME);
+                insert.setObject(6, reminder.getMinutesBefore(), Types.INTEGER);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+    }
+
+    private void remember(Task task, long id, Row row) {
+        saved.put(task, new SavedRow(id, row));
+        byId.put(id, task);
+    }
+
+    // -----------------------------------------------------
+    // Queries
+    // -----------------------------------------------------
+    @Override
+    public Optional<List<Task>> findTasks(String title, String category, String priority) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT id FROM tasks WHERE TRUE");
+        List<String> params = new ArrayList<>();
+        if (title != null && !title.isEmpty()) {
+            sql.append(" AND title_key LIKE ? ESCAPE '\\'");
+            params.add("%" + title.toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        if (category != null && !category.isEmpty()) {
+            sql.append(" AND category_key = ?");
+            params.add(category.toLowerCase());
+        }
+        if (priority != null && !priority.isEmpty()) {
+            sql.append(" AND priority_key = ?");
+            params.add(priority.toLowerCase());
+        }
+
+        Connection c = queryConnection();
+        synchronized (c) {
+            try (PreparedStatement st = c.prepareStatement(sql.toString())) {
+                for (int i = 0; i < params.size(); i++) {
+                    st.setString(i + 1, params.get(i));
+                }
+                List<Task> result = new ArrayList<>();
+                try (ResultSet rs = st.executeQuery()) {
+                    while (rs.next()) {
+                        Task task = byId.get(rs.getLong(1));
+                        if (task != null) {
+                            result.add(task);
+                        }
+                    }
+                }
+                // Rows come in no particular order; return the matches as the store lists them
+                Map<Task, Integer> order = positions;
+                result.sort(Comparator.comparingInt(t -> order.getOrDefault(t, Integer.MAX_VALUE)));
+                return Optional.of(result);
+            } catch (SQLException e) {
+                throw new IOException("Task query failed: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private String loadDescription(long id) {
+        Connection c;
+        try {
+            c = queryConnection();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        synchronized (c) {
+            try (PreparedStatement st = c.prepareStatement("SELECT description FROM tasks WHERE id = ?")) {
+                st.setLong(1, id);
+                try (ResultSet rs = st.executeQuery()) {
+                    return rs.next() ? rs.getString(1) : null;
+                }
+            } catch (SQLException e) {
+                throw new UncheckedIOException(new IOException("Could not read a task description: " + e.getMessage(), e));
+            }
+        }
+    }
+
+    // -----------------------------------------------------
+    // Connections
+    // -----------------------------------------------------
+    private synchronized Connection connection() throws SQLException, IOException {
+        if (connection == null) {
+            Files.createDirectories(dir);
+            connection = DriverManager.getConnection(url());
+            connection.setAutoCommit(false);
+            try (Statement st = connection.createStatement()) {
+                for (String ddl : SCHEMA) {
+                    st.execute(ddl);
+                }
+            }
+            connection.commit();
+        }
+        return connection;
+    }
+
+    // Not guarded by this, so searches do not wait for a save in progress
+    private Connection queryConnection() throws IOException {
+        synchronized (queryLock) {
+            try {
+                if (queryConnection == null) {
+                    queryConnection = DriverManager.getConnection(url());
+                    queryConnection.setReadOnly(true);
+                }
+                return queryConnection;
+            } catch (SQLException e) {
+                throw new IOException("Could not open the H2 store in " + dir + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    // Closed by close(), not by H2's own shutdown hook, so shutdown hooks can still save
+    private String url() {
+        String base = DATABASE_FILE.substring(0, DATABASE_FILE.length() - ".mv.db".length());
+        return "jdbc:h2:file:" + dir.toAbsolutePath().resolve(base) + ";DB_CLOSE_ON_EXIT=FALSE";
+    }
+
+    private static long generation(Connection c) throws SQLException {
+        try (Statement st = c.createStatement();
+                ResultSet rs = st.executeQuery("SELECT generation FROM store_meta WHERE id = 1")) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+
+    private void rollback() {
+        try {
+            if (connection != null) {
+                connection.rollback();
+            }
+        } catch (SQLException e) {
+            System.out.println("Rollback failed: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            synchronized (queryLock) {
+                if (queryConnection != null) {
+                    queryConnection.close();
+                    queryConnection = null;
+                }
+            }
+            if (connection != null) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            throw new IOException("Could not close the H2 store in " + dir + ": " + e.getMessage(), e);
+        } finally {
+            connection = null;
+        }
+    }
+}
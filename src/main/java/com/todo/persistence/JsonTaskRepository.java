@@ -0,0 +1,385 @@
+package com.todo.persistence;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.todo.models.Task;
+import com.todo.models.TaskCategory;
+import com.todo.models.TaskPriority;
+import com.todo.models.TaskReminder;
+
+/**
+ * Stores tasks, categories, priorities and reminders as four JSON files, committed
+ * together as crash-safe snapshot generations (see {@link SnapshotStore}). Stores in
+ * the older one-plain-file-per-list layout are still read.
+ * <p>
+ * Long task descriptions are not kept in memory: tasks remember where the text is
+ * in the current {@code tasks.<n>.json} and read it on demand. Each save copies
+ * them into the new file and points the tasks there before older files are deleted.
+ * </p>
+ * <p>
+ * The repository remembers the generation it last loaded, saved or accepted. A save
+ * fails with a {@link StoreConflictException} if another process has committed since,
+ * and {@link #loadIfChanged()} reads that process's generation for merging.
+ * </p>
+ */
+public class JsonTaskRepository implements TaskRepository {
+    private final Path dir;
+    private final SnapshotStore snapshotStore;
+    // Register JavaTimeModule for LocalDate support
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private final ObjectMapper taskFieldsMapper = mapper.copy().addMixIn(Task.class, WithoutDescription.class);
+    // The generation memory builds on
+    private volatile long generation;
+
+    public JsonTaskRepository(Path dir) {
+        this.dir = dir;
+        this.snapshotStore = new SnapshotStore(dir);
+    }
+
+    @Override
+    public Path getDirectory() {
+        return dir;
+    }
+
+    // -----------------------------------------------------
+    // LOADING: newest intact snapshot generation, else the legacy one-file-per-list layout
+    // -----------------------------------------------------
+    @Override
+    public synchronized StoreData load() throws IOException {
+        return snapshotStore.locked(() -> {
+            // The newest number even if that generation is damaged: the next save replaces it
+            long latest = snapshotStore.latestGenerationNumber();
+            StoreData data = loadLatest();
+            generation = latest;
+            return data;
+        });
+    }
+
+    @Override
+    public synchronized Optional<StoreUpdate> loadIfChanged() throws IOException {
+        return snapshotStore.locked(() -> {
+            long latest = snapshotStore.latestGenerationNumber();
+            return latest > generation ? Optional.of(new StoreUpdate(latest, loadLatest())) : Optional.empty();
+        });
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public synchronized void accept(long generation) {
+        this.generation = Math.max(this.generation, generation);
+    }
+
+    // Only a store that was never saved starts empty; a damaged one fails to load rather than being overwritten
+    private StoreData loadLatest() throws IOException {
+        IOException damaged = null;
+        for (SnapshotStore.Generation generation : snapshotStore.generations()) {
+            try {
+                StoreData data = new StoreData(
+                        readTasks(generation),
+                        readSnapshotFile(generation, "categories.json", new TypeReference<List<TaskCategory>>() {}),
+                        readSnapshotFile(generation, "priorities.json", new TypeReference<List<TaskPriority>>() {}),
+                        readSnapshotFile(generation, "reminders.json", new TypeReference<List<TaskReminder>>() {}));
+                System.out.println("Loaded snapshot generation " + generation.number() + " (" + data.tasks().size()
+                        + " tasks, " + data.reminders().size() + " reminders)");
+                return data;
+            } catch (IOException e) {
+                System.out.println("Snapshot generation " + generation.number() + " is damaged (" + e.getMessage()
+                        + "), trying the previous one.");
+                damaged = e;
+            }
+        }
+        long latest = snapshotStore.latestGenerationNumber();
+        if (latest > 0) {
+            throw new IOException("No intact snapshot generation in " + dir + " (newest is " + latest + ")", damaged);
+        }
+
+        return new StoreData(
+                loadData("tasks.json", new TypeReference<List<Task>>() {}),
+                loadData("categories.json", new TypeReference<List<TaskCategory>>() {}),
+                loadData("priorities.json", new TypeReference<List<TaskPriority>>() {}),
+                loadData("reminders.json", new TypeReference<List<TaskReminder>>() {}));
+    }
+
+    private <T> List<T> readSnapshotFile(SnapshotStore.Generation generation, String filename,
+            TypeReference<List<T>> typeReference) throws IOException {
+        // Closing the stream verifies the file against the manifest checksum
+        try (InputStream in = snapshotStore.open(generation, filename)) {
+            return mapper.readValue(in, typeReference);
+        }
+    }
+
+    /*
+     * Streams tasks.json without decoding long descriptions: only their byte range in
+     * the file is kept, and the text is read back when getDescription() is called.
+     */
+    private List<Task> readTasks(SnapshotStore.Generation generation) throws IOException {
+        Path file = snapshotStore.resolve(generation.number(), "tasks.json");
+        List<Task> tasks = new ArrayList<>();
+        try (InputStream in = snapshotStore.open(generation, "tasks.json");
+                JsonParser parser = mapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException(file.getFileName() + " does not hold a list of tasks");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                ObjectNode fields = mapper.createObjectNode();
+                Object description = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    JsonToken value = parser.nextToken();
+                    if (name.equals("description") && value == JsonToken.VALUE_STRING) {
+                        long start = parser.getTokenLocation().getByteOffset();
+                        parser.finishToken(); // decodes into the parser's buffer, no String is created
+                        int length = (int) (parser.getCurrentLocation().getByteOffset() - start);
+                        description = length <= INLINE_DESCRIPTION_LENGTH
+                                ? parser.getText()
+                                : new JsonDescription(file, start, length);
+                    } else {
+                        fields.set(name, mapper.readTree(parser));
+                    }
+                }
+                Task task = mapper.treeToValue(fields, Task.class);
+                if (description instanceof Task.DescriptionLoader loader) {
+                    task.offloadDescription(task.getDescriptionHandle(), loader);
+                } else {
+                    task.setDescription((String) description);
+                }
+                tasks.add(task);
+            }
+        }
+        return tasks;
+    }
+
+    // A missing file is an empty list; one that cannot be read fails the load
+    private <T> List<T> loadData(String filename, TypeReference<List<T>> typeReference) throws IOException {
+        List<T> list = new ArrayList<>();
+        File file = dir.resolve(filename).toFile();
+        if (file.exists()) {
+            List<T> dataList = mapper.readValue(file, typeReference);
+            list.addAll(dataList);
+            System.out.println("Loaded " + filename + " (" + dataList.size() + " records)");
+        } else {
+            System.out.println(filename + " not found, starting fresh.");
+        }
+        return list;
+    }
+
+    // -----------------------------------------------------
+    // SAVING: all four lists are committed together as one snapshot generation
+    // -----------------------------------------------------
+    @Override
+    public long save(StoreData data) throws IOException {
+        return save(data, generation);
+    }
+
+    @Override
+    public synchronized long save(StoreData data, long basedOn) throws IOException {
+        ObjectWriter writer = mapper.writerWithDefaultPrettyPrinter();
+        TasksFileWriter tasksWriter = new TasksFileWriter(data.tasks());
+        Map<String, SnapshotStore.ContentWriter> files = new LinkedHashMap<>();
+        files.put("tasks.json", tasksWriter::write);
+        files.put("categories.json", out -> writer.writeValue(out, data.categories()));
+        files.put("priorities.json", out -> writer.writeValue(out, data.priorities()));
+        files.put("reminders.json", out -> writer.writeValue(out, data.reminders()));
+        // Move descriptions to the new file before the previous generations are deleted
+        long committed = snapshotStore.commit(files, basedOn,
+                number -> tasksWriter.offloadDescriptions(snapshotStore.resolve(number, "tasks.json")));
+        generation = committed;
+        return committed;
+    }
+
+    // Serialized tasks end with their description, so its byte range in the file is known
+    @JsonIgnoreProperties("description")
+    private abstract static class WithoutDescription {
+    }
+
+    /*
+     * Writes tasks.json one task per line and records where each description ended
+     * up. Descriptions already on disk are copied as raw bytes from the previous file
+     * instead of being decoded and encoded again.
+     */
+    private final class TasksFileWriter {
+        private final List<Task> tasks;
+        private final Object[] handles;
+        private final long[] offsets;
+        private final int[] lengths;
+
+        TasksFileWriter(List<Task> tasks) {
+            this.tasks = tasks;
+            this.handles = new Object[tasks.size()];
+            this.offsets = new long[tasks.size()];
+            this.lengths = new int[tasks.size()];
+        }
+
+        void write(OutputStream target) throws IOException {
+            CountingOutputStream out = new CountingOutputStream(target);
+            ObjectWriter fieldsWriter = taskFieldsMapper.writerFor(Task.class);
+            byte[] descriptionField = "\"description\":".getBytes(StandardCharsets.UTF_8);
+            try (SegmentCopier copier = new SegmentCopier()) {
+                out.write('[');
+                for (int i = 0; i < tasks.size(); i++) {
+                    Task task = tasks.get(i);
+                    Object handle = task.getDescriptionHandle();
+                    handles[i] = handle;
+
+                    byte[] fields = fieldsWriter.writeValueAsBytes(task);
+                    if (i > 0) {
+                        out.write(',');
+                    }
+                    out.write('\n');
+                    out.write(fields, 0, fields.length - 1); // without the closing brace
+                    if (fields.length > 2) {
+                        out.write(',');
+                    }
+                    out.write(descriptionField);
+                    offsets[i] = out.count;
+                    if (handle instanceof JsonDescription stored) {
+                        copier.copy(stored, out);
+                        lengths[i] = stored.length();
+                    } else {
+                        String text = handle instanceof Task.DescriptionLoader loader ? loader.load() : (String) handle;
+                        byte[] encoded = mapper.writeValueAsBytes(text);
+                        out.write(encoded);
+                        lengths[i] = text == null ? 0 : encoded.length;
+                    }
+                    out.write('}');
+                }
+                out.write("\n]\n".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        // Runs once the file is committed: long descriptions are dropped from memory
+        void offloadDescriptions(Path file) {
+            for (int i = 0; i < handles.length; i++) {
+                if (lengths[i] > INLINE_DESCRIPTION_LENGTH) {
+                    tasks.get(i).offloadDescription(handles[i], new JsonDescription(file, offsets[i], lengths[i]));
+                }
+            }
+        }
+    }
+
+    /** A description kept on disk as a JSON string literal at a byte range of a tasks file. */
+    private record JsonDescription(Path file, long offset, int length) implements Task.DescriptionLoader {
+        private static final ObjectMapper DECODER = new ObjectMapper();
+
+        @Override
+        public String load() {
+            try {
+                return DECODER.readValue(readRaw(), String.class);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not read a task description from " + file, e);
+            }
+        }
+
+        byte[] readRaw() throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, offset + buffer.position()) < 0) {
+                        throw new EOFException(file + " is shorter than expected");
+                    }
+                }
+            }
+            return buffer.array();
+        }
+    }
+
+    // Copies description bytes from previous tasks files through a read-ahead window, since they are mostly in file order
+    private static final class SegmentCopier implements Closeable {
+        private final Map<Path, FileChannel> channels = new HashMap<>();
+        private final ByteBuffer window = ByteBuffer.allocate(256 * 1024);
+        private Path windowFile;
+        private long windowStart;
+
+        void copy(JsonDescription segment, OutputStream out) throws IOException {
+            if (segment.length() > window.capacity()) {
+                out.write(segment.readRaw());
+                return;
+            }
+            if (!segment.file().equals(windowFile) || segment.offset() < windowStart
+                    || segment.offset() + segment.length() > windowStart + window.limit()) {
+                fill(segment.file(), segment.offset());
+                if (segment.length() > window.limit()) {
+                    throw new EOFException(segment.file() + " is shorter than expected");
+                }
+            }
+            out.write(window.array(), (int) (segment.offset() - windowStart), segment.length());
+        }
+
+        private void fill(Path file, long offset) throws IOException {
+            FileChannel channel = channels.get(file);
+            if (channel == null) {
+                channel = FileChannel.open(file, StandardOpenOption.READ);
+                channels.put(file, channel);
+            }
+            window.clear();
+            while (window.hasRemaining()) {
+                if (channel.read(window, offset + window.position()) < 0) {
+                    break;
+                }
+            }
+            window.flip();
+            windowFile = file;
+            windowStart = offset;
+        }
+
+        @Override
+        public void close() throws IOException {
+            for (FileChannel channel : channels.values()) {
+                channel.close();
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
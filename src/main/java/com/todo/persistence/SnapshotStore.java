@@ -0,0 +1,431 @@
+package com.todo.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongConsumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/**
+ * Crash-safe, generation-numbered snapshots of a set of named files in one directory.
+ * <p>
+ * A commit writes every file of the snapshot as {@code <name>.<generation>.json},
+ * each one first to a temp file that is fsynced and then moved into place with
+ * {@code ATOMIC_MOVE}. Only after all of them are durable is the manifest
+ * {@code manifest.<generation>.json} written the same way; it lists the size and
+ * CRC-32 of every file and is the commit point. A crash at any moment therefore
+ * leaves either the new generation complete or no manifest for it at all, and the
+ * live files of the previous generation are never truncated.
+ * </p>
+ * <p>
+ * Readers walk {@link #generations()} newest first and open files through
+ * {@link #open}, whose stream verifies size and checksum when it is closed, so a
+ * damaged generation is detected and the previous one can be used instead. The
+ * last two generations are kept on disk; older ones are deleted after a commit.
+ * </p>
+ * <p>
+ * Several processes may share the directory: commits, and readers that go through
+ * {@link #locked}, hold an exclusive lock on {@code store.lock}, so generations are
+ * numbered without gaps or clashes and are never pruned under a reader.
+ * </p>
+ */
+public class SnapshotStore {
+    // At most 18 digits, so that every number fits a long
+    private static final Pattern MANIFEST = Pattern.compile("manifest\\.(\\d{1,18})\\.json");
+    private static final Pattern GENERATION_FILE = Pattern.compile("(.+)\\.(\\d{1,18})\\.json(\\.tmp)?");
+    private static final int GENERATIONS_KEPT = 2;
+    static final String LOCK_FILE = "store.lock";
+    // A file lock is held by the whole process, so instances in this JVM take turns on a lock of their own first
+    private static final Map<Path, ReentrantLock> LOCAL_LOCKS = new ConcurrentHashMap<>();
+
+    /** Size and checksum of one file of a generation, as recorded in its manifest. */
+    public record FileEntry(String file, long size, long crc32) {
+    }
+
+    /** A committed generation, as described by its manifest. */
+    public record Generation(long number, Instant createdAt, Map<String, FileEntry> files) {
+    }
+
+    /** Work done while holding the store's lock. */
+    @FunctionalInterface
+    public interface LockedAction<T> {
+        T run() throws IOException;
+    }
+
+    /** Writes the content of one snapshot file; the stream must not be closed by the writer. */
+    @FunctionalInterface
+    public interface ContentWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    private final Path dir;
+    private final ObjectMapper mapper = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    public SnapshotStore(Path dir) {
+        this.dir = dir;
+    }
+
+    public Path getDirectory() {
+        return dir;
+    }
+
+    /**
+     * Writes all files as a new generation and commits it.
+     *
+     * @param files logical file name (e.g. "tasks.json") to content writer, in write order
+     * @return the committed generation number
+     */
+    public synchronized long commit(Map<String, ContentWriter> files) throws IOException {
+        return commit(files, generation -> {
+        });
+    }
+
+    /**
+     * Like {@link #commit(Map)}, but runs {@code committed} once the new generation is
+     * durable and before older generations are deleted, so readers still holding
+     * offsets into the previous files can be moved to the new ones.
+     */
+    public synchronized long commit(Map<String, ContentWriter> files, LongConsumer committed) throws IOException {
+        return commit(files, -1, committed);
+    }
+
+    /**
+     * Like {@link #commit(Map, LongConsumer)}, but only if the newest generation on
+     * disk is still {@code expectedLatest}; a negative number skips the check.
+     *
+     * @throws StoreConflictException if another process has committed since
+     */
+    public synchronized long commit(Map<String, ContentWriter> files, long expectedLatest, LongConsumer committed)
+            throws IOException {
+        Files.createDirectories(dir);
+        return locked(() -> {
+            long latest = latestGenerationNumber();
+            if (expectedLatest >= 0 && latest != expectedLatest) {
+                throw new StoreConflictException("The store was saved elsewhere (generation " + latest
+                        + ", expected " + expectedLatest + ")");
+            }
+            long generation = latest + 1;
+
+            Map<String, FileEntry> entries = new LinkedHashMap<>();
+            for (Map.Entry<String, ContentWriter> file : files.entrySet()) {
+                String target = versionedName(file.getKey(), generation);
+                CRC32 crc = new CRC32();
+                long size = writeDurably(dir.resolve(target), out -> {
+                    CountingCrcOutputStream counting = new CountingCrcOutputStream(out, crc);
+                    file.getValue().writeTo(counting);
+                    counting.flush();
+                });
+                entries.put(file.getKey(), new FileEntry(target, size, crc.getValue()));
+            }
+
+            Generation manifest = new Generation(generation, Instant.now(), entries);
+            writeDurably(dir.resolve(manifestName(generation)), out -> mapper.writerWithDefaultPrettyPrinter().writeValue(out, manifest));
+            syncDirectory();
+            committed.accept(generation);
+
+            deleteGenerationsBefore(generation - GENERATIONS_KEPT + 1, files.keySet());
+            return generation;
+        });
+    }
+
+    /**
+     * Runs {@code action} while no other process or instance commits to the store.
+     * A directory that does not exist yet is not created; the action runs unlocked.
+     */
+    public <T> T locked(LockedAction<T> action) throws IOException {
+        if (!Files.isDirectory(dir)) {
+            return action.run();
+        }
+        ReentrantLock local = LOCAL_LOCKS.computeIfAbsent(dir.toAbsolutePath().normalize(), d -> new ReentrantLock());
+        local.lock();
+        try {
+            if (local.getHoldCount() > 1) {
+                return action.run(); // the file lock is already ours
+            }
+            try (FileChannel channel = FileChannel.open(dir.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE)) {
+                FileLock lock = channel.lock();
+                try {
+                    return action.run();
+                } finally {
+                    lock.release();
+                }
+            }
+        } finally {
+            local.unlock();
+        }
+    }
+
+    /**
+     * Returns the generations whose manifest can be read, newest first. Manifests
+     * that cannot be read (e.g. damaged on disk) are skipped.
+     */
+    public List<Generation> generations() {
+        List<Generation> result = new ArrayList<>();
+        for (long number : manifestNumbers()) {
+            try {
+                result.add(mapper.readValue(dir.resolve(manifestName(number)).toFile(), Generation.class));
+            } catch (IOException e) {
+                System.out.println("Ignoring unreadable manifest " + manifestName(number) + ": " + e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    public long latestGenerationNumber() {
+        List<Long> numbers = manifestNumbers();
+        return numbers.isEmpty() ? 0 : numbers.get(0);
+    }
+
+    /** Path of one file of a generation, e.g. {@code tasks.7.json} for "tasks.json". */
+    public Path resolve(long generation, String name) {
+        return dir.resolve(versionedName(name, generation));
+    }
+
+    /**
+     * Opens one file of a generation. The returned stream checks the recorded size
+     * and CRC-32 when it is closed (reading any remaining bytes first) and throws
+     * an {@link IOException} if the file does not match its manifest.
+     */
+    public InputStream open(Generation generation, String name) throws IOException {
+        FileEntry entry = generation.files().get(name);
+        if (entry == null) {
+            throw new IOException("Generation " + generation.number() + " has no " + name);
+        }
+        return new VerifyingInputStream(Files.newInputStream(dir.resolve(entry.file())), entry);
+    }
+
+    // -----------------------------------------------------
+    // Write helpers
+    // -----------------------------------------------------
+
+    // temp file -> write -> fsync -> atomic rename; returns the number of bytes written
+    private long writeDurably(Path target, ContentWriter writer) throws IOException {
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        long size;
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024);
+            writer.writeTo(new NonClosingOutputStream(out));
+            out.flush();
+            channel.force(true);
+            size = channel.size();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        return size;
+    }
+
+    // Makes the renames themselves durable; not supported on every platform
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // best effort (e.g. directories cannot be opened on Windows)
+        }
+    }
+
+    // Only the files a commit writes, so that other numbered files kept next to the store (exports, backups) survive
+    private void deleteGenerationsBefore(long oldestKept, Set<String> names) throws IOException {
+        Set<String> bases = new HashSet<>();
+        bases.add("manifest");
+        for (String name : names) {
+            bases.add(baseName(name));
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir)) {
+            for (Path path : entries) {
+                String name = path.getFileName().toString();
+                Matcher m = GENERATION_FILE.matcher(name);
+                if (m.matches() && bases.contains(m.group(1)) && Long.parseLong(m.group(2)) < oldestKept) {
+                    Files.deleteIfExists(path);
+                }
+            }
+        }
+    }
+
+    // -----------------------------------------------------
+    // Naming
+    // -----------------------------------------------------
+    private List<Long> manifestNumbers() {
+        List<Long> numbers = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return numbers;
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(dir, "manifest.*.json")) {
+            for (Path path : entries) {
+                Matcher m = MANIFEST.matcher(path.getFileName().toString());
+                if (m.matches()) {
+                    numbers.add(Long.parseLong(m.group(1)));
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Could not list snapshots in " + dir + ": " + e.getMessage());
+        }
+        numbers.sort(Comparator.reverseOrder());
+        return numbers;
+    }
+
+    private static String manifestName(long generation) {
+        return "manifest." + generation + ".json";
+    }
+
+    // "tasks.json" -> "tasks.7.json"
+    private static String versionedName(String name, long generation) {
+        return baseName(name) + "." + generation + ".json";
+    }
+
+    // "tasks.json" -> "tasks"
+    private static String baseName(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+
+    // -----------------------------------------------------
+    // Streams
+    // -----------------------------------------------------
+    private static class NonClosingOutputStream extends FilterOutputStream {
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush(); // the store closes the file itself once it is synced
+        }
+    }
+
+    private static class CountingCrcOutputStream extends FilterOutputStream {
+        private final CRC32 crc;
+
+        CountingCrcOutputStream(OutputStream out, CRC32 crc) {
+            super(out);
+            this.crc = crc;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            crc.update(b);
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            crc.update(b, off, len);
+            out.write(b, off, len);
+        }
+    }
+
+    private static class VerifyingInputStream extends FilterInputStream {
+        private final FileEntry entry;
+        private final CRC32 crc = new CRC32();
+        private long count;
+        private boolean closed;
+
+        VerifyingInputStream(InputStream in, FileEntry entry) {
+            super(in);
+            this.entry = entry;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) {
+                crc.update(b);
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = in.read(b, off, len);
+            if (n > 0) {
+                crc.update(b, off, n);
+                count += n;
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            // read instead of skipping so the skipped bytes are still checksummed
+            byte[] buffer = new byte[(int) Math.min(8192, Math.max(0, n))];
+            long skipped = 0;
+            while (skipped < n) {
+                int r = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (r < 0) {
+                    break;
+                }
+                skipped += r;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            try {
+                byte[] rest = new byte[8192];
+                while (read(rest, 0, rest.length) >= 0) {
+                    // drain so the checksum covers the whole file
+                }
+                if (count != entry.size() || crc.getValue() != entry.crc32()) {
+                    throw new IOException(entry.file() + " does not match its manifest (size " + count + "/"
+                            + entry.size() + ", crc " + Long.toHexString(crc.getValue()) + "/"
+                            + Long.toHexString(entry.crc32()) + ")");
+                }
+            } finally {
+                in.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.todo.persistence;
+
+import java.io.IOException;
+
+/**
+ * Thrown by a save when another process has saved the store since the generation
+ * the save builds on. Nothing is written; the caller merges the newer save into
+ * memory (see {@link TaskRepository#loadIfChanged()}) and saves again.
+ */
+public class StoreConflictException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public StoreConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,17 @@
+package com.todo.persistence;
+
+import java.util.List;
+
+import com.todo.models.Task;
+import com.todo.models.TaskCategory;
+import com.todo.models.TaskPriority;
+import com.todo.models.TaskReminder;
+
+/**
+ * The four lists that make up a task store, as loaded from or handed to a
+ * {@link TaskRepository}. Reminders may carry detached copies of their task; the
+ * caller re-links them to the loaded tasks by title.
+ */
+public record StoreData(List<Task> tasks, List<TaskCategory> categories, List<TaskPriority> priorities,
+        List<TaskReminder> reminders) {
+}
@@ -0,0 +1,5 @@
+package com.todo.persistence;
+
+/** A save of the store made by another process: its generation and what it holds. */
+public record StoreUpdate(long generation, StoreData data) {
+}
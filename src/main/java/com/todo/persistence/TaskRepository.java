@@ -0,0 +1,105 @@
+package com.todo.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import com.todo.models.Task;
+
+/**
+ * Storage backend of a {@code TaskManager}.
+ * <p>
+ * {@link JsonTaskRepository} keeps the store as JSON snapshot generations;
+ * {@link H2TaskRepository} keeps it in an embedded H2 database with indexed
+ * columns, saves only the rows that changed and answers searches with indexed
+ * queries. Both still load every task into the heap: the store is worked on in
+ * memory, and H2 only keeps long descriptions on disk. {@link #open(Path)} picks
+ * the backend for a directory.
+ * </p>
+ * <p>
+ * Several processes may open one JSON store. Each save then builds on the
+ * {@link #getGeneration() generation} the memory came from, and fails rather than
+ * overwrite a newer save by another process, which {@link #loadIfChanged()} reads
+ * for merging. H2 opens its database exclusively, so a second process cannot open
+ * the same store at all; the defaults below describe such a backend.
+ * </p>
+ */
+public interface TaskRepository extends AutoCloseable {
+
+    /**
+     * Descriptions up to this length (characters, or encoded bytes for JSON) stay in
+     * memory; longer ones are read from the store on demand, since a loader costs
+     * about as much heap as a short string.
+     */
+    int INLINE_DESCRIPTION_LENGTH = 64;
+
+    /** Reads the whole store; an empty store yields empty lists. */
+    StoreData load() throws IOException;
+
+    /**
+     * Persists the given state as the new content of the store.
+     *
+     * @return a number that grows with every save (e.g. the snapshot generation)
+     */
+    long save(StoreData data) throws IOException;
+
+    /**
+     * Like {@link #save(StoreData)}, but only if nobody else has saved since
+     * generation {@code basedOn}.
+     *
+     * @throws StoreConflictException if another process has saved since
+     */
+    default long save(StoreData data, long basedOn) throws IOException {
+        return save(data);
+    }
+
+    /** The generation the data in memory builds on: the last one loaded, saved or {@link #accept accepted}. */
+    default long getGeneration() {
+        return 0;
+    }
+
+    /** The store as another process saved it since {@link #getGeneration()}, if it did. */
+    default Optional<StoreUpdate> loadIfChanged() throws IOException {
+        return Optional.empty();
+    }
+
+    /** Records that the data in memory now includes {@code generation}, read by {@link #loadIfChanged()}. */
+    default void accept(long generation) {
+    }
+
+    /**
+     * Finds tasks by title substring and exact category/priority (all case-insensitive,
+     * empty or null criteria match everything) as of the last {@link #load} or
+     * {@link #save}, returning the same {@code Task} objects that were loaded or saved,
+     * in the order of that list. Backends without a query engine return an empty
+     * {@code Optional}.
+     */
+    default Optional<List<Task>> findTasks(String title, String category, String priority) throws IOException {
+        return Optional.empty();
+    }
+
+    Path getDirectory();
+
+    @Override
+    default void close() throws IOException {
+    }
+
+    /**
+     * Opens the store in {@code dir}. The backend is taken from the system property
+     * {@code medialab.store} ({@code json} or {@code h2}); without it, a directory
+     * that already holds an H2 database keeps using it and anything else uses JSON.
+     */
+    static TaskRepository open(Path dir) {
+        String backend = System.getProperty("medialab.store", "");
+        if (backend.equalsIgnoreCase("h2")
+                || (backend.isEmpty() && Files.exists(dir.resolve(H2TaskRepository.DATABASE_FILE)))) {
+            return new H2TaskRepository(dir);
+        }
+        if (!backend.isEmpty() && !backend.equalsIgnoreCase("json")) {
+            throw new IllegalArgumentException("Unknown store backend: " + backend);
+        }
+        return new JsonTaskRepository(dir);
+    }
+}
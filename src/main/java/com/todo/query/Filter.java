@@ -0,0 +1,198 @@
+package com.todo.query;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+import com.todo.models.Task;
+import com.todo.models.TaskStatus;
+
+/**
+ * A condition of a {@link TaskQuery}. Each one can test a single task; which of
+ * them an index can answer is up to the {@link QueryPlan}. {@code toString()}
+ * gives the condition back in query syntax.
+ */
+public sealed interface Filter {
+
+    boolean test(Task task, TaskIndex index);
+
+    /** Category name, ignoring case. */
+    record Category(String name) implements Filter {
+        public boolean test(Task task, TaskIndex index) {
+            return task.getCategory() != null && task.getCategory().equalsIgnoreCase(name);
+        }
+
+        public String toString() {
+            return "category:" + quote(name);
+        }
+    }
+
+    /** Priority name, ignoring case. */
+    record Priority(String name) implements Filter {
+        public boolean test(Task task, TaskIndex index) {
+            return task.getPriority() != null && task.getPriority().equalsIgnoreCase(name);
+        }
+
+        public String toString() {
+            return "priority:" + quote(name);
+        }
+    }
+
+    /**
+     * Priority rank between the ranks of two named priorities; a {@code null} name
+     * leaves that end open. Tasks whose priority has no rank never match.
+     */
+    record PriorityRank(String from, boolean fromIncluded, String to, boolean toIncluded) implements Filter {
+        public boolean test(Task task, TaskIndex index) {
+            int rank = index.priorityRank(task);
+            return rank != TaskIndex.UNRANKED && rank >= low(index) && rank <= high(index);
+        }
+
+        // The lowest and highest rank that match, both included
+        int low(TaskIndex index) {
+            return from == null ? Integer.MIN_VALUE : fromIncluded ? index.rankOf(from) : index.rankOf(from) + 1;
+        }
+
+        int high(TaskIndex index) {
+            return to == null ? TaskIndex.UNRANKED - 1 : toIncluded ? index.rankOf(to) : index.rankOf(to) - 1;
+        }
+
+        public String toString() {
+            if (from != null && to != null) {
+                return "priority:" + quote(from) + ".." + quote(to);
+            }
+            return from != null ? "priority:" + (fromIncluded ? ">=" : ">") + quote(from)
+                    : "priority:" + (toIncluded ? "<=" : "<") + quote(to);
+        }
+    }
+
+    record Status(TaskStatus status) implements Filter {
+        public boolean test(Task task, TaskIndex index) {
+            return task.getStatus() == status;
+        }
+
+        public String toString() {
+            return "status:" + status.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /** Deadline between two epoch days, both included; tasks without a deadline never match. */
+    record Deadline(int from, int to) implements Filter {
+        public boolean test(Task task, TaskIndex index) {
+            if (!task.hasDeadline()) {
+                return false;
+            }
+            int day = task.getDeadlineEpochDay();
+            return day >= from && day <= to;
+        }
+
+        public String toString() {
+            if (from == TaskIndex.MIN_DAY && to == TaskIndex.MAX_DAY) {
+                return "has:deadline";
+            }
+            return "deadline:" + (from == TaskIndex.MIN_DAY ? "" : LocalDate.ofEpochDay(from).toString()) + ".."
+                    + (to == TaskIndex.MAX_DAY ? "" : LocalDate.ofEpochDay(to).toString());
+        }
+    }
+
+    record NoDeadline() implements Filter {
+        public boolean test(Task task, TaskIndex index) {
+            return !task.hasDeadline();
+        }
+
+        public String toString() {
+            return "deadline:none";
+        }
+    }
+
+    record HasReminders() implements Filter {
+        public boolean test(Task task, TaskIndex index) {
+            return index.hasReminders(task);
+        }
+
+        public String toString() {
+            return "has:reminders";
+        }
+    }
+
+    record Recurring() implements Filter {
+        public boolean test(Task task, TaskIndex index) {
+            return task.isRecurring();
+        }
+
+        public String toString() {
+            return "has:recurrence";
+        }
+    }
+
+    /** Text contained in the title or the description, ignoring case. Never indexed. */
+    record Text(boolean description, String part) implements Filter {
+        public Text {
+            part = part.toLowerCase(Locale.ROOT);
+        }
+
+        public boolean test(Task task, TaskIndex index) {
+            String text = description ? task.getDescription() : task.getTitle();
+            if (text == null) {
+                return false;
+            }
+            for (int i = 0, last = text.length() - part.length(); i <= last; i++) {
+                if (text.regionMatches(true, i, part, 0, part.length())) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public String toString() {
+            return (description ? "description:" : "title:") + quote(part);
+        }
+    }
+
+    record And(List<Filter> filters) implements Filter {
+        public boolean test(Task task, TaskIndex index) {
+            for (Filter filter : filters) {
+                if (!filter.test(task, index)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public String toString() {
+            return filters.stream().map(f -> f instanceof Or ? "(" + f + ")" : f.toString())
+                    .collect(Collectors.joining(" AND "));
+        }
+    }
+
+    record Or(List<Filter> filters) implements Filter {
+        public boolean test(Task task, TaskIndex index) {
+            for (Filter filter : filters) {
+                if (filter.test(task, index)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public String toString() {
+            return filters.stream().map(Filter::toString).collect(Collectors.joining(" OR "));
+        }
+    }
+
+    record Not(Filter filter) implements Filter {
+        public boolean test(Task task, TaskIndex index) {
+            return !filter.test(task, index);
+        }
+
+        public String toString() {
+            return "NOT " + (filter instanceof And || filter instanceof Or ? "(" + filter + ")" : filter.toString());
+        }
+    }
+
+    private static String quote(String value) {
+        return value.chars().anyMatch(c -> Character.isWhitespace(c) || c == '(' || c == ')' || c == '"')
+                ? '"' + value.replace("\"", "") + '"' : value;
+    }
+}
@@ -0,0 +1,93 @@
+package com.todo.query;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import com.todo.models.Task;
+
+/**
+ * Scans over a list of tasks that run on the common fork-join pool once the list
+ * holds at least {@link #THRESHOLD} tasks, and in a plain loop below that, where
+ * splitting costs more than it saves. Both paths give the same result: matches
+ * keep the list order, and counts do not depend on it.
+ * <p>
+ * The list must be random access (an {@code ArrayList} or an index's copy), so it
+ * splits into even halves, and must not change during the scan. Predicates may
+ * run on several threads at once.
+ * </p>
+ */
+public final class ParallelScan {
+    public static final int THRESHOLD = 10_000;
+
+    private ParallelScan() {
+    }
+
+    static boolean isParallel(List<Task> tasks) {
+        return tasks.size() >= THRESHOLD;
+    }
+
+    /** The tasks that pass {@code test}, in list order. */
+    public static List<Task> filter(List<Task> tasks, Predicate<Task> test) {
+        if (isParallel(tasks)) {
+            return tasks.parallelStream().filter(test).collect(Collectors.toCollection(ArrayList::new));
+        }
+        List<Task> matches = new ArrayList<>();
+        for (Task task : tasks) {
+            if (test.test(task)) {
+                matches.add(task);
+            }
+        }
+        return matches;
+    }
+
+    public static int count(List<Task> tasks, Predicate<Task> test) {
+        if (isParallel(tasks)) {
+            return (int) tasks.parallelStream().filter(test).count();
+        }
+        int count = 0;
+        for (Task task : tasks) {
+            if (test.test(task)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Folds the tasks into a container: each thread fills its own from
+     * {@code supplier} and the containers are then merged in list order.
+     */
+    public static <R> R collect(List<Task> tasks, Supplier<R> supplier, BiConsumer<R, Task> add, BiConsumer<R, R> merge) {
+        if (isParallel(tasks)) {
+            return tasks.parallelStream().collect(supplier, add, merge);
+        }
+        R result = supplier.get();
+        for (Task task : tasks) {
+            add.accept(result, task);
+        }
+        return result;
+    }
+
+    /** The number of tasks for each key; tasks whose key is {@code null} are not counted. */
+    public static <K> Map<K, Integer> countBy(List<Task> tasks, Function<Task, K> key) {
+        if (isParallel(tasks)) {
+            return tasks.parallelStream().filter(t -> key.apply(t) != null)
+                    .collect(Collectors.groupingBy(key, HashMap::new, Collectors.summingInt(t -> 1)));
+        }
+        Map<K, Integer> counts = new HashMap<>();
+        for (Task task : tasks) {
+            K k = key.apply(task);
+            if (k != null) {
+                counts.merge(k, 1, Integer::sum);
+            }
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,296 @@
+package com.todo.query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+import com.todo.models.Task;
+
+/**
+ * How a {@link TaskQuery} is answered from a {@link TaskIndex}.
+ * <p>
+ * Every condition an index can answer (category, priority, priority rank range,
+ * status, deadline range, no deadline, has reminders, recurring) is looked up for
+ * its candidate count. Of the conditions that must all hold, the one with the
+ * fewest candidates is read from its index and the rest are checked on those
+ * candidates only; an OR is read from its indexes when all of its branches have
+ * one. Text and NOT conditions have no index; a query made only of those scans every task. So a
+ * selective query costs about as much as its candidate list, not the store.
+ * </p>
+ * <p>
+ * A sorted query with a limit never sorts every match. Deadlines, priorities and
+ * statuses are walked in order, one group of equal keys at a time, until
+ * {@code offset + limit} matches are found; that is chosen when it is expected to
+ * read fewer tasks than the candidate list. Otherwise the candidates pass through
+ * a heap holding the best {@code offset + limit}, O(m log k).
+ * </p>
+ * <p>
+ * Checking conditions on a large candidate list, a full scan included, is split
+ * across cores by {@link ParallelScan}.
+ * </p>
+ * <p>
+ * Without a sort the matches come in no defined order: that of the index lists
+ * read, which changes as tasks are edited. A sort is a total order (ties go by
+ * title), so sorted results do not depend on the plan.
+ * </p>
+ */
+public final class QueryPlan {
+    private static final Comparator<Task> BY_TITLE = Comparator.comparing(Task::getTitle, String.CASE_INSENSITIVE_ORDER);
+
+    private final TaskQuery query;
+    private final TaskIndex index;
+    private final Access access; // null: scan
+    private final Comparator<Task> order; // null without a sort
+    private final List<String> considered = new ArrayList<>();
+
+    // Candidates read from an index: how many, and whether they all match the condition as they are
+    private record Access(String description, long estimate, boolean exact, Supplier<List<Task>> fetch) {
+    }
+
+    private QueryPlan(TaskQuery query, TaskIndex index) {
+        this.query = query;
+        this.index = index;
+        this.access = query.filter() == null ? null : access(query.filter());
+        this.order = query.sort() == null ? null : comparator(query.sort(), index);
+    }
+
+    public static QueryPlan plan(TaskQuery query, TaskIndex index) {
+        return new QueryPlan(query, index);
+    }
+
+    public List<Task> execute() {
+        Filter filter = query.filter();
+        boolean verify = filter != null && (access == null || !access.exact());
+        int end = query.end();
+        List<Task> results;
+        if (query.sort() == null && query.limit() == TaskQuery.NO_LIMIT) {
+            // The index's own lists are never handed out
+            results = verify ? matches(candidates(), true) : new ArrayList<>(candidates());
+        } else if (query.sort() == null) {
+            // Without a sort, the first matches are the answer
+            results = new ArrayList<>();
+            for (Task task : candidates()) {
+                if (results.size() >= end) {
+                    break;
+                }
+                if (!verify || filter.test(task, index)) {
+                    results.add(task);
+                }
+            }
+        } else if (walksInOrder()) {
+            results = walk(end);
+        } else {
+            results = top(matches(candidates(), verify), order, end);
+        }
+        return query.offset() == 0 ? results
+                : new ArrayList<>(results.subList(Math.min(query.offset(), results.size()), results.size()));
+    }
+
+    private List<Task> candidates() {
+        return access != null ? access.fetch().get() : index.all();
+    }
+
+    private List<Task> matches(List<Task> tasks, boolean verify) {
+        if (!verify) {
+            return tasks;
+        }
+        Filter filter = query.filter();
+        return ParallelScan.filter(tasks, task -> filter.test(task, index));
+    }
+
+    // Reads groups of equal keys in order until `end` matches are found
+    private List<Task> walk(int end) {
+        List<Task> results = new ArrayList<>();
+        for (List<Task> group : index.groupsInOrder(query.sort().key(), query.sort().descending())) {
+            List<Task> matches = matches(group, query.filter() != null);
+            results.addAll(top(matches, BY_TITLE, end - results.size()));
+            if (results.size() >= end) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    /** The first {@code k} tasks in {@code order}, sorted; a heap of k tasks when that is fewer than all. */
+    private static List<Task> top(List<Task> tasks, Comparator<Task> order, int k) {
+        if (tasks.size() <= k) {
+            List<Task> sorted = new ArrayList<>(tasks);
+            sorted.sort(order);
+            return sorted;
+        }
+        // The worst of the best k is on top, ready to be replaced
+        PriorityQueue<Task> best = new PriorityQueue<>(k + 1, order.reversed());
+        for (Task task : tasks) {
+            if (best.size() < k) {
+                best.add(task);
+            } else if (order.compare(task, best.peek()) < 0) {
+                best.poll();
+                best.add(task);
+            }
+        }
+        List<Task> sorted = new ArrayList<>(best);
+        sorted.sort(order);
+        return sorted;
+    }
+
+    // Whether walking the sort key's index in order is expected to read fewer tasks than the candidates
+    private boolean walksInOrder() {
+        TaskQuery.SortKey key = query.sort().key();
+        if (key == TaskQuery.SortKey.TITLE || key == TaskQuery.SortKey.CATEGORY || query.limit() == TaskQuery.NO_LIMIT) {
+            return false;
+        }
+        long candidates = access != null ? access.estimate() : index.size();
+        // With matches spread evenly, `end` of them are found after end * size / candidates tasks
+        double read = (double) query.end() * index.size() / Math.max(1, candidates);
+        return read < candidates;
+    }
+
+    /** The full order of a sort: the key in its direction, tasks without a key last, then the title. */
+    private static Comparator<Task> comparator(TaskQuery.Sort sort, TaskIndex index) {
+        Comparator<Task> byKey = switch (sort.key()) {
+            case TITLE -> Comparator.comparing(Task::getTitle, String.CASE_INSENSITIVE_ORDER);
+            case CATEGORY -> Comparator.comparing(Task::getCategory, String.CASE_INSENSITIVE_ORDER);
+            case DEADLINE -> Comparator.comparingInt(Task::getDeadlineEpochDay);
+            case PRIORITY -> Comparator.comparingInt(index::priorityRank);
+            case STATUS -> Comparator.comparing(Task::getStatus);
+        };
+        Predicate<Task> hasKey = switch (sort.key()) {
+            case TITLE -> task -> true;
+            case CATEGORY -> task -> task.getCategory() != null;
+            case DEADLINE -> Task::hasDeadline;
+            case PRIORITY -> task -> index.priorityRank(task) != TaskIndex.UNRANKED;
+            case STATUS -> task -> task.getStatus() != null;
+        };
+        Comparator<Task> directed = sort.descending() ? byKey.reversed() : byKey;
+        Comparator<Task> order = (a, b) -> {
+            boolean aHas = hasKey.test(a);
+            boolean bHas = hasKey.test(b);
+            return aHas && bHas ? directed.compare(a, b) : Boolean.compare(bHas, aHas);
+        };
+        return sort.key() == TaskQuery.SortKey.TITLE ? order : order.thenComparing(BY_TITLE);
+    }
+
+    /** The plan in a few lines: the indexes looked at, the one used, and what is left to check. */
+    public String explain() {
+        StringBuilder text = new StringBuilder();
+        text.append("query: ").append(query.toString().isEmpty() ? "(all tasks)" : query).append('\n');
+        for (String line : considered) {
+            text.append("  index ").append(line).append('\n');
+        }
+        boolean walk = query.sort() != null && walksInOrder();
+        if (walk) {
+            text.append("read: ").append(query.sort().key().name().toLowerCase(Locale.ROOT))
+                    .append(" index in order, until ").append(query.end()).append(" matches\n");
+        } else if (access == null) {
+            text.append("read: scan all ").append(index.size()).append(" tasks")
+                    .append(ParallelScan.isParallel(index.all()) ? " in parallel\n" : "\n");
+        } else {
+            text.append("read: ").append(access.description()).append(", ").append(access.estimate())
+                    .append(" of ").append(index.size()).append(" tasks\n");
+        }
+        if (query.filter() != null && (walk || access == null || !access.exact())) {
+            text.append("check: ").append(query.filter()).append('\n');
+        }
+        if (query.sort() != null && !walk) {
+            text.append("sort: ").append(query.sort()).append(query.limit() == TaskQuery.NO_LIMIT ? ", all matches\n"
+                    : ", keeping the best " + query.end() + " in a heap\n");
+        }
+        if (query.offset() != 0) {
+            text.append("offset: ").append(query.offset()).append('\n');
+        }
+        if (query.limit() != TaskQuery.NO_LIMIT) {
+            text.append("limit: ").append(query.limit()).append('\n');
+        }
+        return text.toString();
+    }
+
+    // The cheapest index access for the filter, or null if it needs a scan
+    private Access access(Filter filter) {
+        Access access = switch (filter) {
+            case Filter.Category c -> list(c.toString(), index.withCategory(c.name()));
+            case Filter.Priority p -> list(p.toString(), index.withPriority(p.name()));
+            case Filter.Status s -> list(s.toString(), index.withStatus(s.status()));
+            case Filter.NoDeadline n -> list(n.toString(), index.withoutDeadline());
+            case Filter.HasReminders h -> list(h.toString(), index.withReminders());
+            case Filter.Recurring r -> list(r.toString(), index.recurring());
+            case Filter.PriorityRank r -> buckets(r.toString(), index.withPriorityRank(r.low(index), r.high(index)));
+            case Filter.Deadline d -> buckets(d.toString(), index.withDeadline(d.from(), d.to()));
+            case Filter.And and -> {
+                Access best = null;
+                for (Filter part : and.filters()) {
+                    Access candidate = access(part);
+                    if (candidate != null && (best == null || candidate.estimate() < best.estimate())) {
+                        best = candidate;
+                    }
+                }
+                // The other conditions still have to be checked
+                yield best == null ? null : new Access(best.description(), best.estimate(), false, best.fetch());
+            }
+            case Filter.Or or -> {
+                List<Access> parts = new ArrayList<>();
+                for (Filter part : or.filters()) {
+                    Access candidate = access(part);
+                    if (candidate == null) {
+                        yield null; // one branch needs a scan, so the whole OR does
+                    }
+                    parts.add(candidate);
+                }
+                yield union(parts);
+            }
+            case Filter.Text t -> null;
+            case Filter.Not n -> null;
+        };
+        if (access != null && !(filter instanceof Filter.And) && !(filter instanceof Filter.Or)) {
+            considered.add(access.description() + ": " + access.estimate());
+        }
+        return access;
+    }
+
+    private static Access list(String description, List<Task> tasks) {
+        return new Access(description, tasks.size(), true, () -> tasks);
+    }
+
+    // The tasks of a range of index buckets, bucket by bucket
+    private static Access buckets(String description, List<List<Task>> buckets) {
+        long count = 0;
+        for (List<Task> bucket : buckets) {
+            count += bucket.size();
+        }
+        return new Access(description, count, true, () -> {
+            List<Task> tasks = new ArrayList<>();
+            buckets.forEach(tasks::addAll);
+            return tasks;
+        });
+    }
+
+    private static Access union(List<Access> parts) {
+        long estimate = 0;
+        boolean exact = true;
+        List<String> descriptions = new ArrayList<>();
+        for (Access part : parts) {
+            estimate += part.estimate();
+            exact &= part.exact();
+            descriptions.add(part.description());
+        }
+        return new Access("union(" + String.join(", ", descriptions) + ")", estimate, exact, () -> {
+            // A task found by several branches is returned once
+            Set<Task> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+            List<Task> tasks = new ArrayList<>();
+            for (Access part : parts) {
+                for (Task task : part.fetch().get()) {
+                    if (seen.add(task)) {
+                        tasks.add(task);
+                    }
+                }
+            }
+            return tasks;
+        });
+    }
+}
@@ -0,0 +1,412 @@
+package com.todo.query;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.google.common.collect.Iterables;
+import com.todo.models.Task;
+import com.todo.models.TaskPriority;
+import com.todo.models.TaskReminder;
+import com.todo.models.TaskStatus;
+
+/**
+ * Lookups over the task store, for the {@link QueryPlan}: tasks by category,
+ * priority, status and deadline, plus the tasks without a deadline, with
+ * reminders, and recurring ones. Deadlines, priorities (by rank) and statuses can
+ * also be walked in order, one group of equal keys at a time.
+ * <p>
+ * It is built in one pass and then kept up to date by the store, task by task: a
+ * task added, removed or changed moves between a few lists in O(1) (O(log n) for
+ * deadlines), a reminder or priority change touches only its task or the ranks. A
+ * removed task is replaced by the last one of its list, so the lists are in no
+ * particular order, and neither are query results without a sort.
+ * </p>
+ * Not thread-safe: changed by the store's mutating thread, read like the store.
+ */
+public final class TaskIndex {
+    // Deadline bounds of an open range; NO_DEADLINE in Task is Integer.MIN_VALUE
+    static final int MIN_DAY = Integer.MIN_VALUE + 1;
+    static final int MAX_DAY = Integer.MAX_VALUE;
+    static final int UNRANKED = Integer.MAX_VALUE;
+
+    // The lists a task is in, one each: where it sits in each is kept in its Entry
+    private static final int CATEGORY = 0;
+    private static final int PRIORITY = 1;
+    private static final int STATUS = 2;
+    private static final int DEADLINE = 3;
+    private static final int REMINDED = 4;
+    private static final int RECURRING = 5;
+
+    // Tasks in no particular order; O(1) to add to and, through the Entry, to remove from
+    private static final class Bucket {
+        final int kind;
+        final List<Task> tasks = new ArrayList<>();
+        final List<Task> view = Collections.unmodifiableList(tasks);
+
+        Bucket(int kind) {
+            this.kind = kind;
+        }
+    }
+
+    // The keys a task is filed under, to find its lists again after its fields change
+    private static final class Entry {
+        String category;
+        String priority;
+        TaskStatus status;
+        boolean dated;
+        int deadline;
+        boolean recurring;
+        int reminders;
+        final int[] at = new int[RECURRING + 1];
+    }
+
+    private final List<Task> tasks;
+    private final Map<Task, Entry> entries = new IdentityHashMap<>();
+    private final Map<String, Bucket> byCategory = new HashMap<>();
+    private final Map<String, Bucket> byPriority = new HashMap<>();
+    private final Map<TaskStatus, Bucket> byStatus = new EnumMap<>(TaskStatus.class);
+    private final TreeMap<Integer, Bucket> byDeadline = new TreeMap<>();
+    private final Bucket withoutPriority = new Bucket(PRIORITY);
+    private final Bucket withoutStatus = new Bucket(STATUS);
+    private final Bucket withoutDeadline = new Bucket(DEADLINE);
+    private final Bucket withReminders = new Bucket(REMINDED);
+    private final Bucket recurring = new Bucket(RECURRING);
+    // Ranks by lowercased priority name, and the names by rank
+    private final Map<String, Integer> priorityRanks = new HashMap<>();
+    private final TreeMap<Integer, TreeSet<String>> namesByRank = new TreeMap<>();
+
+    private TaskIndex(List<Task> tasks) {
+        this.tasks = Collections.unmodifiableList(tasks);
+    }
+
+    /**
+     * Indexes the tasks; a priority without a rank leaves its tasks unranked. The
+     * index reads {@code tasks} for scans, so it must be the store's own list.
+     */
+    public static TaskIndex build(List<Task> tasks, List<TaskReminder> reminders, List<TaskPriority> priorities) {
+        TaskIndex index = new TaskIndex(tasks);
+        index.rankPriorities(priorities);
+        for (Task task : tasks) {
+            index.add(task);
+        }
+        for (TaskReminder reminder : reminders) {
+            index.addReminder(reminder.getTask());
+        }
+        return index;
+    }
+
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+
+    private static String nameKey(String name) {
+        return name == null ? null : key(name);
+    }
+
+    // -----------------------------------------------------
+    // Keeping up with the store
+    // -----------------------------------------------------
+
+    public void add(Task task) {
+        if (entries.containsKey(task)) {
+            return;
+        }
+        Entry entry = new Entry();
+        entries.put(task, entry);
+        file(task, entry);
+    }
+
+    public void remove(Task task) {
+        Entry entry = entries.get(task);
+        if (entry != null) {
+            unfile(task, entry);
+            if (entry.reminders > 0) {
+                take(withReminders, task, entry);
+            }
+            entries.remove(task);
+        }
+    }
+
+    // Refiles a task whose category, priority, status, deadline or recurrence may have changed
+    public void update(Task task) {
+        Entry entry = entries.get(task);
+        if (entry != null && !filedAsIs(task, entry)) {
+            unfile(task, entry);
+            file(task, entry);
+        }
+    }
+
+    // A reminder of the task was added
+    public void addReminder(Task task) {
+        Entry entry = entries.get(task);
+        if (entry != null && entry.reminders++ == 0) {
+            put(withReminders, task, entry);
+        }
+    }
+
+    // A reminder of the task was removed
+    public void removeReminder(Task task) {
+        Entry entry = entries.get(task);
+        if (entry != null && entry.reminders > 0 && --entry.reminders == 0) {
+            take(withReminders, task, entry);
+        }
+    }
+
+    /** Takes the ranks of the store's priorities; tasks stay where they are, filed by priority name. */
+    public void rankPriorities(List<TaskPriority> priorities) {
+        priorityRanks.clear();
+        namesByRank.clear();
+        for (TaskPriority priority : priorities) {
+            String name = key(priority.getName());
+            if (priority.getRank() != null && priorityRanks.putIfAbsent(name, priority.getRank()) == null) {
+                namesByRank.computeIfAbsent(priority.getRank(), r -> new TreeSet<>()).add(name);
+            }
+        }
+    }
+
+    private boolean filedAsIs(Task task, Entry entry) {
+        return Objects.equals(entry.category, nameKey(task.getCategory()))
+                && Objects.equals(entry.priority, nameKey(task.getPriority()))
+                && entry.status == task.getStatus() && entry.dated == task.hasDeadline()
+                && (!entry.dated || entry.deadline == task.getDeadlineEpochDay()) && entry.recurring == task.isRecurring();
+    }
+
+    private void file(Task task, Entry entry) {
+        entry.category = nameKey(task.getCategory());
+        entry.priority = nameKey(task.getPriority());
+        entry.status = task.getStatus();
+        entry.dated = task.hasDeadline();
+        entry.deadline = entry.dated ? task.getDeadlineEpochDay() : 0;
+        entry.recurring = task.isRecurring();
+        if (entry.category != null) {
+            put(byCategory.computeIfAbsent(entry.category, k -> new Bucket(CATEGORY)), task, entry);
+        }
+        put(entry.priority == null ? withoutPriority : byPriority.computeIfAbsent(entry.priority, k -> new Bucket(PRIORITY)),
+                task, entry);
+        put(entry.status == null ? withoutStatus : byStatus.computeIfAbsent(entry.status, k -> new Bucket(STATUS)),
+                task, entry);
+        put(entry.dated ? byDeadline.computeIfAbsent(entry.deadline, k -> new Bucket(DEADLINE)) : withoutDeadline,
+                task, entry);
+        if (entry.recurring) {
+            put(recurring, task, entry);
+        }
+    }
+
+    // Takes the task out of the lists of its filed keys; empty lists are dropped
+    private void unfile(Task task, Entry entry) {
+        if (entry.category != null) {
+            takeFrom(byCategory, entry.category, task, entry);
+        }
+        if (entry.priority == null) {
+            take(withoutPriority, task, entry);
+        } else {
+            takeFrom(byPriority, entry.priority, task, entry);
+        }
+        if (entry.status == null) {
+            take(withoutStatus, task, entry);
+        } else {
+            takeFrom(byStatus, entry.status, task, entry);
+        }
+        if (entry.dated) {
+            takeFrom(byDeadline, entry.deadline, task, entry);
+        } else {
+            take(withoutDeadline, task, entry);
+        }
+        if (entry.recurring) {
+            take(recurring, task, entry);
+        }
+    }
+
+    private void put(Bucket bucket, Task task, Entry entry) {
+        entry.at[bucket.kind] = bucket.tasks.size();
+        bucket.tasks.add(task);
+    }
+
+    // The last task of the list takes the place of the removed one
+    private void take(Bucket bucket, Task task, Entry entry) {
+        int at = entry.at[bucket.kind];
+        Task last = bucket.tasks.remove(bucket.tasks.size() - 1);
+        if (last != task) {
+            bucket.tasks.set(at, last);
+            entries.get(last).at[bucket.kind] = at;
+        }
+    }
+
+    private <K> void takeFrom(Map<K, Bucket> buckets, K key, Task task, Entry entry) {
+        Bucket bucket = buckets.get(key);
+        take(bucket, task, entry);
+        if (bucket.tasks.isEmpty()) {
+            buckets.remove(key);
+        }
+    }
+
+    // -----------------------------------------------------
+    // Lookups
+    // -----------------------------------------------------
+
+    /** The rank of the task's priority, higher being more important; {@link #UNRANKED} if it has none. */
+    int priorityRank(Task task) {
+        Integer rank = task.getPriority() == null ? null : priorityRanks.get(key(task.getPriority()));
+        return rank == null ? UNRANKED : rank;
+    }
+
+    /** The rank of the named priority, ignoring case. */
+    int rankOf(String priority) {
+        Integer rank = priorityRanks.get(key(priority));
+        if (rank == null) {
+            throw new IllegalArgumentException("Unknown priority in query: " + priority);
+        }
+        return rank;
+    }
+
+    /**
+     * The tasks in groups of equal {@code key}, groups in key order and the tasks
+     * without a value last. Only for deadline, priority and status.
+     */
+    Iterable<List<Task>> groupsInOrder(TaskQuery.SortKey key, boolean descending) {
+        switch (key) {
+            case DEADLINE:
+                Collection<Bucket> days = descending ? byDeadline.descendingMap().values() : byDeadline.values();
+                return Iterables.concat(Iterables.transform(days, b -> b.view), List.of(withoutDeadline.view));
+            case PRIORITY:
+                NavigableMap<Integer, TreeSet<String>> ranks = descending ? namesByRank.descendingMap() : namesByRank;
+                return Iterables.concat(Iterables.transform(ranks.values(), this::withPriorities), List.of(unranked()));
+            case STATUS:
+                List<List<Task>> groups = new ArrayList<>();
+                for (TaskStatus status : TaskStatus.values()) {
+                    groups.add(withStatus(status));
+                }
+                if (descending) {
+                    Collections.reverse(groups);
+                }
+                groups.add(withoutStatus.view);
+                return groups;
+            default:
+                throw new IllegalArgumentException("No ordered index for " + key);
+        }
+    }
+
+    // The tasks of priorities of one rank, as one group
+    private List<Task> withPriorities(Collection<String> names) {
+        if (names.size() == 1) {
+            return withPriority(names.iterator().next());
+        }
+        List<Task> group = new ArrayList<>();
+        for (String name : names) {
+            group.addAll(withPriority(name));
+        }
+        return group;
+    }
+
+    // Tasks without a priority or whose priority has no rank
+    private List<Task> unranked() {
+        List<Task> group = new ArrayList<>(withoutPriority.tasks);
+        byPriority.forEach((name, bucket) -> {
+            if (!priorityRanks.containsKey(name)) {
+                group.addAll(bucket.tasks);
+            }
+        });
+        return group;
+    }
+
+    public int size() {
+        return tasks.size();
+    }
+
+    public int countWithStatus(TaskStatus status) {
+        Bucket bucket = byStatus.get(status);
+        return bucket == null ? 0 : bucket.tasks.size();
+    }
+
+    // Tasks due in [from, to), as epoch days: one bucket size per day rather than a scan
+    public int countDueBetween(int from, int to) {
+        int count = 0;
+        if (from < to) {
+            for (Bucket bucket : byDeadline.subMap(from, true, to, false).values()) {
+                count += bucket.tasks.size();
+            }
+        }
+        return count;
+    }
+
+    List<Task> all() {
+        return tasks;
+    }
+
+    boolean hasReminders(Task task) {
+        Entry entry = entries.get(task);
+        return entry != null && entry.reminders > 0;
+    }
+
+    List<Task> withCategory(String name) {
+        Bucket bucket = byCategory.get(key(name));
+        return bucket == null ? List.of() : bucket.view;
+    }
+
+    List<Task> withPriority(String name) {
+        Bucket bucket = byPriority.get(key(name));
+        return bucket == null ? List.of() : bucket.view;
+    }
+
+    List<Task> withStatus(TaskStatus status) {
+        Bucket bucket = byStatus.get(status);
+        return bucket == null ? List.of() : bucket.view;
+    }
+
+    // Deadline lists in the range, in deadline order
+    List<List<Task>> withDeadline(int from, int to) {
+        List<List<Task>> lists = new ArrayList<>();
+        byDeadline.subMap(from, true, to, true).values().forEach(b -> lists.add(b.view));
+        return lists;
+    }
+
+    // Priority lists of the ranks in the range, both ends included, in rank order
+    List<List<Task>> withPriorityRank(int from, int to) {
+        List<List<Task>> lists = new ArrayList<>();
+        if (from <= to) {
+            for (TreeSet<String> names : namesByRank.subMap(from, true, to, true).values()) {
+                names.forEach(name -> lists.add(withPriority(name)));
+            }
+        }
+        return lists;
+    }
+
+    List<Task> withoutDeadline() {
+        return withoutDeadline.view;
+    }
+
+    List<Task> withReminders() {
+        return withReminders.view;
+    }
+
+    List<Task> recurring() {
+        return recurring.view;
+    }
+
+    /**
+     * The tasks due before {@code day} (an epoch day) that are neither completed nor
+     * delayed yet: those a day rollover makes DELAYED. Reads only the passed deadlines.
+     */
+    public List<Task> openDueBefore(int day) {
+        List<Task> due = new ArrayList<>();
+        for (Bucket bucket : byDeadline.headMap(day, false).values()) {
+            for (Task task : bucket.tasks) {
+                if (task.getStatus() != TaskStatus.COMPLETED && task.getStatus() != TaskStatus.DELAYED) {
+                    due.add(task);
+                }
+            }
+        }
+        return due;
+    }
+}
@@ -0,0 +1,338 @@
+package com.todo.query;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.todo.models.TaskStatus;
+
+/**
+ * A parsed task query: a filter, an optional sort and an optional window.
+ * <p>
+ * Terms are {@code field:value}; terms next to each other must all match, and
+ * {@code OR}, {@code NOT} and parentheses combine them. A bare word matches titles.
+ * Values with spaces go in double quotes.
+ * </p>
+ * <pre>
+ * title:report  description:"budget review"  category:work  priority:high
+ * priority:&gt;=medium  priority:&lt;high  priority:low..medium   (by rank)
+ * status:open   status:in_progress
+ * deadline:2026-10-01..2026-10-31  deadline:&lt;today  deadline:&gt;=today+7  deadline:none
+ * has:reminders  has:deadline  has:recurrence
+ * sort:deadline  sort:-priority  offset:40  limit:20
+ * </pre>
+ * See {@link Sort} for the sort keys.
+ */
+public record TaskQuery(Filter filter, Sort sort, int offset, int limit) {
+    public static final int NO_LIMIT = Integer.MAX_VALUE;
+
+    public TaskQuery {
+        if (offset < 0 || limit < 1) {
+            throw new IllegalArgumentException("Offset must not be negative and limit must be positive.");
+        }
+    }
+
+    public enum SortKey {
+        TITLE, DEADLINE, CATEGORY, PRIORITY, STATUS
+    }
+
+    /**
+     * A sort order. Priorities sort by their rank in the store, statuses in their
+     * declared order. Tasks without a value for the key come last in either
+     * direction, and ties are broken by title, so pages of one order never overlap.
+     */
+    public record Sort(SortKey key, boolean descending) {
+        /** Parses a key name such as {@code deadline}; a leading {@code -} sorts descending. */
+        public static Sort parse(String text) {
+            boolean descending = text.startsWith("-");
+            String name = (descending ? text.substring(1) : text).toUpperCase(Locale.ROOT);
+            try {
+                return new Sort(SortKey.valueOf(name), descending);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Cannot sort by " + text);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return (descending ? "-" : "") + key.name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    /** Parses a query, resolving {@code today} in deadlines to the given day. */
+    public static TaskQuery parse(String text, LocalDate today) {
+        return new Parser(text, today).parse();
+    }
+
+    // The number of results needed before the offset is dropped
+    int end() {
+        return limit == NO_LIMIT ? NO_LIMIT : (int) Math.min(NO_LIMIT, (long) offset + limit);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(filter == null ? "" : filter.toString());
+        if (sort != null) {
+            text.append(text.isEmpty() ? "" : " ").append("sort:").append(sort);
+        }
+        if (offset != 0) {
+            text.append(text.isEmpty() ? "" : " ").append("offset:").append(offset);
+        }
+        if (limit != NO_LIMIT) {
+            text.append(text.isEmpty() ? "" : " ").append("limit:").append(limit);
+        }
+        return text.toString();
+    }
+
+    private static final class Parser {
+        private final List<String> tokens = new ArrayList<>();
+        private final LocalDate today;
+        private int position;
+        private Sort sort;
+        private int offset;
+        private int limit = NO_LIMIT;
+
+        Parser(String text, LocalDate today) {
+            this.today = today;
+            tokenize(text == null ? "" : text);
+        }
+
+        // Words (a quoted part may follow "field:"), quoted strings and parentheses
+        private void tokenize(String text) {
+            int i = 0;
+            while (i < text.length()) {
+                char c = text.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '(' || c == ')') {
+                    tokens.add(String.valueOf(c));
+                    i++;
+                } else {
+                    StringBuilder word = new StringBuilder();
+                    while (i < text.length() && !Character.isWhitespace(text.charAt(i))
+                            && text.charAt(i) != '(' && text.charAt(i) != ')') {
+                        if (text.charAt(i) == '"') {
+                            int end = text.indexOf('"', i + 1);
+                            if (end < 0) {
+                                throw new IllegalArgumentException("Unclosed quote in query: " + text);
+                            }
+                            word.append(text, i + 1, end);
+                            i = end + 1;
+                        } else {
+                            word.append(text.charAt(i++));
+                        }
+                    }
+                    tokens.add(word.toString());
+                }
+            }
+        }
+
+        TaskQuery parse() {
+            Filter filter = position < tokens.size() ? or() : null;
+            if (position < tokens.size()) {
+                throw new IllegalArgumentException("Unexpected '" + tokens.get(position) + "' in query.");
+            }
+            return new TaskQuery(filter, sort, offset, limit);
+        }
+
+        private boolean isKeyword(String keyword) {
+            return position < tokens.size() && tokens.get(position).equals(keyword);
+        }
+
+        private Filter or() {
+            List<Filter> any = new ArrayList<>();
+            any.add(and());
+            while (isKeyword("OR")) {
+                position++;
+                any.add(and());
+            }
+            any.removeIf(f -> f == null);
+            return any.isEmpty() ? null : any.size() == 1 ? any.get(0) : new Filter.Or(any);
+        }
+
+        private Filter and() {
+            List<Filter> all = new ArrayList<>();
+            while (position < tokens.size() && !isKeyword("OR") && !isKeyword(")")) {
+                if (isKeyword("AND")) {
+                    position++;
+                    continue;
+                }
+                Filter filter = unary();
+                if (filter != null) {
+                    all.add(filter);
+                }
+            }
+            return all.isEmpty() ? null : all.size() == 1 ? all.get(0) : new Filter.And(all);
+        }
+
+        private Filter unary() {
+            if (isKeyword("NOT")) {
+                position++;
+                Filter negated = unary();
+                if (negated == null) {
+                    throw new IllegalArgumentException("NOT needs a condition.");
+                }
+                return new Filter.Not(negated);
+            }
+            if (isKeyword("(")) {
+                position++;
+                Filter inner = or();
+                if (!isKeyword(")")) {
+                    throw new IllegalArgumentException("Missing ')' in query.");
+                }
+                position++;
+                return inner;
+            }
+            if (position >= tokens.size()) {
+                throw new IllegalArgumentException("Query ends too early.");
+            }
+            return term(tokens.get(position++));
+        }
+
+        // A condition, or null for the sort and limit options
+        private Filter term(String token) {
+            int colon = token.indexOf(':');
+            if (colon < 0) {
+                return new Filter.Text(false, token);
+            }
+            String field = token.substring(0, colon).toLowerCase(Locale.ROOT);
+            String value = token.substring(colon + 1);
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("No value for " + field + " in query.");
+            }
+            switch (field) {
+                case "title":
+                    return new Filter.Text(false, value);
+                case "description":
+                    return new Filter.Text(true, value);
+                case "category":
+                    return new Filter.Category(value);
+                case "priority":
+                    return priority(value);
+                case "status":
+                    try {
+                        return new Filter.Status(TaskStatus.valueOf(value.toUpperCase(Locale.ROOT).replace('-', '_')));
+                    } catch (IllegalArgumentException e) {
+                        throw new IllegalArgumentException("Unknown status: " + value);
+                    }
+                case "deadline":
+                    return deadline(value);
+                case "has":
+                    switch (value.toLowerCase(Locale.ROOT)) {
+                        case "reminders":
+                        case "reminder":
+                            return new Filter.HasReminders();
+                        case "deadline":
+                            return new Filter.Deadline(TaskIndex.MIN_DAY, TaskIndex.MAX_DAY);
+                        case "recurrence":
+                            return new Filter.Recurring();
+                        default:
+                            throw new IllegalArgumentException("Unknown has: value: " + value);
+                    }
+                case "sort":
+                    sort = Sort.parse(value);
+                    return null;
+                case "offset":
+                    offset = number(value);
+                    return null;
+                case "limit":
+                    limit = number(value);
+                    if (limit < 1) {
+                        throw new IllegalArgumentException("Limit must be a positive number: " + value);
+                    }
+                    return null;
+                default:
+                    throw new IllegalArgumentException("Unknown query field: " + field);
+            }
+        }
+
+        // A priority name, or a range of ranks between named priorities
+        private Filter priority(String value) {
+            int range = value.indexOf("..");
+            if (range >= 0) {
+                String from = value.substring(0, range);
+                String to = value.substring(range + 2);
+                if (from.isEmpty() && to.isEmpty()) {
+                    throw new IllegalArgumentException("Empty priority range in query.");
+                }
+                return new Filter.PriorityRank(from.isEmpty() ? null : from, true, to.isEmpty() ? null : to, true);
+            }
+            if (value.startsWith("<=")) {
+                return new Filter.PriorityRank(null, false, name(value.substring(2)), true);
+            }
+            if (value.startsWith(">=")) {
+                return new Filter.PriorityRank(name(value.substring(2)), true, null, false);
+            }
+            if (value.startsWith("<")) {
+                return new Filter.PriorityRank(null, false, name(value.substring(1)), false);
+            }
+            if (value.startsWith(">")) {
+                return new Filter.PriorityRank(name(value.substring(1)), false, null, false);
+            }
+            return new Filter.Priority(value);
+        }
+
+        private static String name(String value) {
+            if (value.isEmpty()) {
+                throw new IllegalArgumentException("No priority to compare with in query.");
+            }
+            return value;
+        }
+
+        private Filter deadline(String value) {
+            if (value.equalsIgnoreCase("none")) {
+                return new Filter.NoDeadline();
+            }
+            int range = value.indexOf("..");
+            if (range >= 0) {
+                String from = value.substring(0, range);
+                String to = value.substring(range + 2);
+                return new Filter.Deadline(from.isEmpty() ? TaskIndex.MIN_DAY : day(from),
+                        to.isEmpty() ? TaskIndex.MAX_DAY : day(to));
+            }
+            if (value.startsWith("<=")) {
+                return new Filter.Deadline(TaskIndex.MIN_DAY, day(value.substring(2)));
+            }
+            if (value.startsWith(">=")) {
+                return new Filter.Deadline(day(value.substring(2)), TaskIndex.MAX_DAY);
+            }
+            if (value.startsWith("<")) {
+                return new Filter.Deadline(TaskIndex.MIN_DAY, day(value.substring(1)) - 1);
+            }
+            if (value.startsWith(">")) {
+                return new Filter.Deadline(day(value.substring(1)) + 1, TaskIndex.MAX_DAY);
+            }
+            int day = day(value);
+            return new Filter.Deadline(day, day);
+        }
+
+        // A date, or today with an optional offset in days (today+7, today-1)
+        private int day(String value) {
+            try {
+                String lower = value.toLowerCase(Locale.ROOT);
+                if (lower.startsWith("today")) {
+                    String offset = lower.substring(5);
+                    long days = offset.isEmpty() ? 0 : Long.parseLong(offset.startsWith("+") ? offset.substring(1) : offset);
+                    return Math.toIntExact(today.plusDays(days).toEpochDay());
+                }
+                return Math.toIntExact(LocalDate.parse(value).toEpochDay());
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid date in query: " + value);
+            }
+        }
+
+        private int number(String value) {
+            try {
+                int number = Integer.parseInt(value);
+                if (number >= 0) {
+                    return number;
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+            throw new IllegalArgumentException("Not a valid number: " + value);
+        }
+    }
+}
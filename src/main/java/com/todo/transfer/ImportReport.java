@@ -0,0 +1,72 @@
+package com.todo.transfer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of an import: how many rows were read, imported and rejected, plus the
+ * per-row errors. Only the first {@link #MAX_RECORDED_ERRORS} errors are kept so
+ * a badly broken file cannot exhaust memory; the rejected count is always exact.
+ */
+public class ImportReport {
+    public static final int MAX_RECORDED_ERRORS = 1000;
+
+    public record RowError(int line, String message) {
+        @Override
+        public String toString() {
+            return "line " + line + ": " + message;
+        }
+    }
+
+    private final RecordKind kind;
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private final List<RowError> errors = new ArrayList<>();
+
+    public ImportReport(RecordKind kind) {
+        this.kind = kind;
+    }
+
+    void rowRead() {
+        rowsRead++;
+    }
+
+    void imported(long count) {
+        imported += count;
+    }
+
+    void reject(int line, String message) {
+        rejected++;
+        if (errors.size() < MAX_RECORDED_ERRORS) {
+            errors.add(new RowError(line, message));
+        }
+    }
+
+    public RecordKind getKind() {
+        return kind;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public List<RowError> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    @Override
+    public String toString() {
+        return "Imported " + imported + " of " + rowsRead + " " + kind.name().toLowerCase()
+                + " rows (" + rejected + " rejected)";
+    }
+}
@@ -0,0 +1,34 @@
+package com.todo.transfer;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The entity types that can be imported and exported, with the column names used
+ * for CSV headers and JSON-lines fields.
+ */
+public enum RecordKind {
+    TASKS(List.of("title", "description", "category", "priority", "deadline", "status", "recurrence")),
+    CATEGORIES(List.of("name")),
+    PRIORITIES(List.of("name", "rank")),
+    REMINDERS(List.of("taskTitle", "type", "customDate", "customTime", "minutesBefore"));
+
+    private final List<String> columns;
+
+    RecordKind(List<String> columns) {
+        this.columns = columns;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public static RecordKind fromName(String name) {
+        try {
+            return valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown record type: " + name
+                    + " (expected tasks, categories, priorities or reminders)");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.todo.transfer;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.controller.TaskManager;
+import com.todo.models.Task;
+import com.todo.models.TaskReminder;
+import com.todo.persistence.StoreData;
+
+/**
+ * Writes tasks, categories, priorities or reminders of a {@link TaskManager} to a
+ * CSV or JSON-lines file, one record at a time. The output uses the same columns
+ * that {@link TaskImporter} reads, so an export can be imported into another
+ * instance unchanged.
+ * <p>
+ * Each export reads a {@link TaskManager#snapshot()}, so it writes one consistent
+ * version of the store even while the store keeps changing.
+ * </p>
+ */
+public class TaskExporter {
+    private final Supplier<StoreData> source;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // Exports the store as it is when each export starts; start them on the thread that changes it
+    public TaskExporter(TaskManager taskManager) {
+        this.source = taskManager::snapshot;
+    }
+
+    // Exports a snapshot taken earlier, e.g. on a background thread while the store is edited
+    public TaskExporter(StoreData snapshot) {
+        this.source = () -> snapshot;
+    }
+
+    // Returns the number of records written
+    public long exportFile(RecordKind kind, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            return exportTo(kind, TransferFormat.fromPath(file), writer);
+        }
+    }
+
+    public long exportTo(RecordKind kind, TransferFormat format, Writer writer) throws IOException {
+        StoreData data = source.get();
+        return switch (kind) {
+            case TASKS -> write(kind, format, writer, data.tasks(), TaskExporter::taskValues);
+            case CATEGORIES -> write(kind, format, writer, data.categories(), c -> Arrays.asList(c.getName()));
+            case PRIORITIES -> write(kind, format, writer, data.priorities(),
+                    p -> Arrays.asList(p.getName(), p.getRank() != null ? p.getRank().toString() : null));
+            case REMINDERS -> write(kind, format, writer, data.reminders(), TaskExporter::reminderValues);
+        };
+    }
+
+    private <T> long write(RecordKind kind, TransferFormat format, Writer writer, List<T> source,
+            Function<T, List<String>> values) throws IOException {
+        List<String> columns = kind.getColumns();
+        long count = 0;
+        if (format == TransferFormat.CSV) {
+            CsvWriter csv = new CsvWriter(writer);
+            csv.writeRecord(columns);
+            for (T item : source) {
+                csv.writeRecord(values.apply(item));
+                count++;
+            }
+        } else {
+            // One generator for the whole file; each record is a root-level object on its own line
+            JsonGenerator gen = mapper.getFactory().createGenerator(writer);
+            gen.setRootValueSeparator(null);
+            for (T item : source) {
+                List<String> row = values.apply(item);
+                gen.writeStartObject();
+                for (int i = 0; i < columns.size(); i++) {
+                    gen.writeStringField(columns.get(i), row.get(i));
+                }
+                gen.writeEndObject();
+                gen.writeRaw('\n');
+                count++;
+            }
+            gen.flush();
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static List<String> taskValues(Task task) {
+        List<String> row = new ArrayList<>(7);
+        row.add(task.getTitle());
+        row.add(task.getDescription());
+        row.add(task.getCategory());
+        row.add(task.getPriority());
+        row.add(task.getDeadline() != null ? task.getDeadline().toString() : null);
+        row.add(task.getStatus() != null ? task.getStatus().name() : null);
+        row.add(task.getRecurrence() != null ? task.getRecurrence().toRule() : null);
+        return row;
+    }
+
+    private static List<String> reminderValues(TaskReminder reminder) {
+        return Arrays.asList(reminder.getTask().getTitle(), reminder.getType().name(),
+                reminder.getCustomReminderDate() != null ? reminder.getCustomReminderDate().toString() : null,
+                reminder.getCustomReminderTime() != null ? reminder.getCustomReminderTime().toString() : null,
+                reminder.getMinutesBefore() != null ? reminder.getMinutesBefore().toString() : null);
+    }
+}
@@ -0,0 +1,356 @@
+package com.todo.transfer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.controller.TaskBatch;
+import com.todo.controller.TaskManager;
+import com.todo.models.Recurrence;
+import com.todo.models.Task;
+import com.todo.models.TaskReminder;
+import com.todo.models.TaskStatus;
+
+/**
+ * Streams tasks, categories, priorities or reminders from a CSV or JSON-lines file
+ * into a {@link TaskManager}.
+ * <p>
+ * The import is a two-stage pipeline: a reader thread parses the file into chunks
+ * of {@link #CHUNK_SIZE} rows and hands them over a small bounded queue, while the
+ * calling thread turns each chunk into one {@link TaskBatch} and commits it. Memory
+ * use is therefore bounded by a few chunks regardless of the file size, and parsing
+ * overlaps with validation/insertion. Rows that fail to parse or validate are
+ * skipped and reported in the {@link ImportReport}; the store is persisted once at
+ * the end.
+ * </p>
+ * CSV files must start with a header row naming the columns of the {@link RecordKind};
+ * JSON-lines files hold one object per line with the same field names.
+ */
+public class TaskImporter {
+    public static final int CHUNK_SIZE = 10_000;
+    private static final int QUEUE_CHUNKS = 4;
+    private static final List<Row> END = List.of();
+
+    private final TaskManager taskManager;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    // A parsed input row: either its named fields or the reason it could not be parsed
+    private record Row(int line, Map<String, String> fields, String parseError) {
+    }
+
+    public TaskImporter(TaskManager taskManager) {
+        this.taskManager = taskManager;
+    }
+
+    public ImportReport importFile(RecordKind kind, Path file) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            return importFrom(kind, TransferFormat.fromPath(file), reader);
+        }
+    }
+
+    public ImportReport importFrom(RecordKind kind, TransferFormat format, Reader reader) throws IOException {
+        BlockingQueue<List<Row>> queue = new ArrayBlockingQueue<>(QUEUE_CHUNKS);
+        AtomicReference<Exception> readFailure = new AtomicReference<>();
+        Thread producer = new Thread(() -> {
+            try {
+                if (format == TransferFormat.CSV) {
+                    readCsv(reader, queue);
+                } else {
+                    readJsonLines(reader, queue);
+                }
+            } catch (InterruptedException e) {
+                return; // consumer gave up
+            } catch (Exception e) {
+                readFailure.set(e);
+            }
+            try {
+                queue.put(END);
+            } catch (InterruptedException ignored) {
+                // consumer gave up
+            }
+        }, "import-reader");
+        producer.setDaemon(true);
+        producer.start();
+
+        ImportReport report = new ImportReport(kind);
+        try {
+            while (true) {
+                List<Row> chunk = queue.take();
+                if (chunk == END) {
+                    break;
+                }
+                insertChunk(kind, chunk, report);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } finally {
+            producer.interrupt();
+        }
+
+        Exception failure = readFailure.get();
+        if (failure instanceof IOException io) {
+            throw io;
+        } else if (failure != null) {
+            throw new IOException("Import failed: " + failure.getMessage(), failure);
+        }
+
+        if (report.getImported() > 0) {
+            taskManager.persistAll();
+        }
+        return report;
+    }
+
+    // -----------------------------------------------------
+    // Stage 1: parsing (reader thread)
+    // -----------------------------------------------------
+    private void readCsv(Reader reader, BlockingQueue<List<Row>> queue) throws IOException, InterruptedException {
+        CsvReader csv = new CsvReader(reader);
+        List<String> header = csv.readRecord();
+        if (header == null) {
+            return;
+        }
+        if (!header.isEmpty() && header.get(0).startsWith("\uFEFF")) {
+            header.set(0, header.get(0).substring(1)); // byte order mark
+        }
+
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        List<String> record;
+        while (true) {
+            try {
+                record = csv.readRecord();
+            } catch (IllegalArgumentException e) {
+                chunk.add(new Row(csv.getRecordLine(), null, e.getMessage()));
+                break; // nothing after an unterminated quote can be trusted
+            }
+            if (record == null) {
+                break;
+            }
+            if (record.size() == 1 && record.get(0).isEmpty()) {
+                continue; // blank line
+            }
+            if (record.size() != header.size()) {
+                chunk.add(new Row(csv.getRecordLine(), null,
+                        "Expected " + header.size() + " columns but found " + record.size()));
+            } else {
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < header.size(); i++) {
+                    fields.put(header.get(i).trim(), record.get(i));
+                }
+                chunk.add(new Row(csv.getRecordLine(), fields, null));
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                queue.put(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            queue.put(chunk);
+        }
+    }
+
+    private void readJsonLines(Reader reader, BlockingQueue<List<Row>> queue) throws IOException, InterruptedException {
+        BufferedReader lines = reader instanceof BufferedReader br ? br : new BufferedReader(reader);
+        List<Row> chunk = new ArrayList<>(CHUNK_SIZE);
+        String line;
+        int lineNumber = 0;
+        while ((line = lines.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            try {
+                JsonNode node = mapper.readTree(line);
+                if (!node.isObject()) {
+                    chunk.add(new Row(lineNumber, null, "Expected a JSON object"));
+                } else {
+                    Map<String, String> fields = new HashMap<>();
+                    node.fields().forEachRemaining(e ->
+                            fields.put(e.getKey(), e.getValue().isNull() ? null : e.getValue().asText()));
+                    chunk.add(new Row(lineNumber, fields, null));
+                }
+            } catch (JsonProcessingException e) {
+                chunk.add(new Row(lineNumber, null, "Malformed JSON: " + e.getOriginalMessage()));
+            }
+            if (chunk.size() == CHUNK_SIZE) {
+                queue.put(chunk);
+                chunk = new ArrayList<>(CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            queue.put(chunk);
+        }
+    }
+
+    // -----------------------------------------------------
+    // Stage 2: validation and insertion (calling thread)
+    // -----------------------------------------------------
+    private void insertChunk(RecordKind kind, List<Row> chunk, ImportReport report) {
+        switch (kind) {
+            case TASKS, REMINDERS -> insertViaBatch(kind, chunk, report);
+            case CATEGORIES -> insertEach(chunk, report, fields -> taskManager.addCategory(required(fields, "name")));
+            case PRIORITIES -> insertEach(chunk, report, fields -> {
+                // Files written before ranks existed rank each new priority above the others
+                String rank = optional(fields, "rank");
+                if (rank == null) {
+                    taskManager.addPriority(required(fields, "name"));
+                } else {
+                    taskManager.addPriority(required(fields, "name"), parseRank(rank));
+                }
+            });
+        }
+    }
+
+    private void insertViaBatch(RecordKind kind, List<Row> chunk, ImportReport report) {
+        TaskBatch batch = taskManager.batch().withoutPersist();
+        List<Integer> lines = new ArrayList<>(chunk.size()); // operation index -> input line
+        List<ImportReport.RowError> errors = new ArrayList<>();
+        for (Row row : chunk) {
+            report.rowRead();
+            if (row.parseError() != null) {
+                errors.add(new ImportReport.RowError(row.line(), row.parseError()));
+                continue;
+            }
+            try {
+                if (kind == RecordKind.TASKS) {
+                    batch.addTask(toTask(row.fields()));
+                } else {
+                    batch.addReminder(required(row.fields(), "taskTitle"),
+                            parseEnum(TaskReminder.ReminderType.class, required(row.fields(), "type")),
+                            parseDate(optional(row.fields(), "customDate")),
+                            parseTime(optional(row.fields(), "customTime")),
+                            parseMinutes(optional(row.fields(), "minutesBefore")));
+                }
+                lines.add(row.line());
+            } catch (IllegalArgumentException e) {
+                errors.add(new ImportReport.RowError(row.line(), e.getMessage()));
+            }
+        }
+        int applied = batch.commitValid((index, error) ->
+                errors.add(new ImportReport.RowError(lines.get(index), error.getMessage())));
+        report.imported(applied);
+
+        // Parse errors and batch rejections are found in separate passes; report them in file order
+        errors.sort(Comparator.comparingInt(ImportReport.RowError::line));
+        for (ImportReport.RowError error : errors) {
+            report.reject(error.line(), error.message());
+        }
+    }
+
+    private void insertEach(List<Row> chunk, ImportReport report, Consumer<Map<String, String>> insert) {
+        for (Row row : chunk) {
+            report.rowRead();
+            if (row.parseError() != null) {
+                report.reject(row.line(), row.parseError());
+                continue;
+            }
+            try {
+                insert.accept(row.fields());
+                report.imported(1);
+            } catch (IllegalArgumentException e) {
+                report.reject(row.line(), e.getMessage());
+            }
+        }
+    }
+
+    private static Task toTask(Map<String, String> fields) {
+        String description = optional(fields, "description");
+        String priority = optional(fields, "priority");
+        Task task = new Task(required(fields, "title"), description != null ? description : "",
+                required(fields, "category"), priority != null ? priority : "Default",
+                parseDate(optional(fields, "deadline")));
+        String status = optional(fields, "status");
+        if (status != null) {
+            task.setStatus(parseEnum(TaskStatus.class, status));
+        }
+        String recurrence = optional(fields, "recurrence");
+        if (recurrence != null) {
+            task.setRecurrence(Recurrence.parse(recurrence));
+        }
+        return task;
+    }
+
+    // -----------------------------------------------------
+    // Field parsing helpers
+    // -----------------------------------------------------
+    private static String optional(Map<String, String> fields, String name) {
+        String value = fields.get(name);
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    private static String required(Map<String, String> fields, String name) {
+        String value = optional(fields, name);
+        if (value == null || value.isBlank()) {
+            throw new IllegalArgumentException("Missing required field '" + name + "'");
+        }
+        return value;
+    }
+
+    private static LocalDate parseDate(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid date (expected yyyy-MM-dd): " + value);
+        }
+    }
+
+    private static LocalTime parseTime(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalTime.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid time (expected HH:mm): " + value);
+        }
+    }
+
+    private static Integer parseMinutes(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid number of minutes: " + value);
+        }
+    }
+
+    private static int parseRank(String value) {
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid priority rank: " + value);
+        }
+    }
+
+    private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid " + type.getSimpleName() + ": " + value);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.todo.transfer;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import com.todo.controller.TaskManager;
+
+/**
+ * Command line entry point for bulk transfers against the "medialab/" store:
+ * <pre>
+ * import &lt;tasks|categories|priorities|reminders&gt; &lt;file.csv|file.jsonl&gt;
+ * export &lt;tasks|categories|priorities|reminders&gt; &lt;file.csv|file.jsonl&gt;
+ * </pre>
+ * Categories and priorities must be imported before the tasks that use them, and
+ * tasks before their reminders.
+ */
+public class TransferCommand {
+
+    public static boolean handles(String[] args) {
+        return args.length > 0 && (args[0].equals("import") || args[0].equals("export"));
+    }
+
+    public static int run(String[] args) throws Exception {
+        if (args.length != 3) {
+            System.out.println("Usage: " + args[0] + " <tasks|categories|priorities|reminders> <file.csv|file.jsonl>");
+            return 2;
+        }
+        RecordKind kind = RecordKind.fromName(args[1]);
+        Path file = Paths.get(args[2]);
+        TaskManager taskManager = new TaskManager();
+
+        try {
+            long start = System.nanoTime();
+            if (args[0].equals("export")) {
+                long count = new TaskExporter(taskManager).exportFile(kind, file);
+                System.out.printf("Exported %d %s to %s in %d ms%n", count, args[1], file, elapsedMillis(start));
+                return 0;
+            }
+
+            ImportReport report = new TaskImporter(taskManager).importFile(kind, file);
+            System.out.printf("%s in %d ms%n", report, elapsedMillis(start));
+            for (ImportReport.RowError error : report.getErrors()) {
+                System.out.println("  " + error);
+            }
+            if (report.getRejected() > report.getErrors().size()) {
+                System.out.println("  ... " + (report.getRejected() - report.getErrors().size()) + " more errors not shown");
+            }
+            return report.getRejected() == 0 ? 0 : 1;
+        } finally {
+            taskManager.close();
+        }
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
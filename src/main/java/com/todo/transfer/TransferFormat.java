@@ -0,0 +1,23 @@
+package com.todo.transfer;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * File formats supported by the import/export pipeline, picked from the file extension.
+ */
+public enum TransferFormat {
+    CSV,
+    JSON_LINES;
+
+    public static TransferFormat fromPath(Path path) {
+        String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".csv")) {
+            return CSV;
+        }
+        if (name.endsWith(".jsonl") || name.endsWith(".ndjson")) {
+            return JSON_LINES;
+        }
+        throw new IllegalArgumentException("Unsupported file type (expected .csv, .jsonl or .ndjson): " + path);
+    }
+}
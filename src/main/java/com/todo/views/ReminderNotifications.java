@@ -0,0 +1,161 @@
+package com.todo.views;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.todo.controller.ReminderScheduler;
+import com.todo.controller.TaskManager;
+import com.todo.models.TaskReminder;
+import javafx.animation.Animation;
+import javafx.animation.PauseTransition;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
+import javafx.geometry.Insets;
+import javafx.geometry.Pos;
+import javafx.scene.Scene;
+import javafx.scene.control.Button;
+import javafx.scene.control.Label;
+import javafx.scene.control.ListCell;
+import javafx.scene.control.ListView;
+import javafx.scene.layout.BorderPane;
+import javafx.scene.layout.HBox;
+import javafx.scene.layout.Priority;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+
+/**
+ * One non-modal window listing the reminders that came due, in place of a modal
+ * alert per reminder.
+ * <p>
+ * Reminders handed to {@link #add} are queued and shown together; the window is
+ * updated at most once per {@link #MIN_INTERVAL}, so a burst of reminders becomes
+ * one notification. Each row can be snoozed or dismissed, as can the whole list.
+ * Nothing here waits on the user, so the FX thread stays free.
+ * </p>
+ */
+class ReminderNotifications {
+    static final javafx.util.Duration MIN_INTERVAL = javafx.util.Duration.seconds(1);
+    private static final Duration SNOOZE = Duration.ofMinutes(5);
+
+    private final TaskManager taskManager;
+    private final ReminderScheduler scheduler;
+    private final Stage stage = new Stage();
+    private final Label header = new Label();
+    private final ObservableList<TaskReminder> shown = FXCollections.observableArrayList();
+    private final Set<TaskReminder> incoming = new LinkedHashSet<>(); // TaskReminder keeps identity equality
+    private final PauseTransition throttle = new PauseTransition(MIN_INTERVAL);
+    private long lastUpdate = Long.MIN_VALUE;
+
+    ReminderNotifications(Window owner, TaskManager taskManager, ReminderScheduler scheduler) {
+        this.taskManager = taskManager;
+        this.scheduler = scheduler;
+        throttle.setOnFinished(e -> update());
+
+        ListView<TaskReminder> list = new ListView<>(shown);
+        list.setCellFactory(view -> new ReminderCell());
+
+        Button snoozeAll = new Button("Snooze All");
+        snoozeAll.setOnAction(e -> snooze(List.copyOf(shown)));
+        Button dismissAll = new Button("Dismiss All");
+        dismissAll.setOnAction(e -> dismiss(List.copyOf(shown)));
+        HBox buttons = new HBox(10, snoozeAll, dismissAll);
+        buttons.setAlignment(Pos.CENTER_RIGHT);
+
+        BorderPane root = new BorderPane(list, header, null, buttons, null);
+        root.setPadding(new Insets(10));
+        BorderPane.setMargin(header, new Insets(0, 0, 10, 0));
+        BorderPane.setMargin(buttons, new Insets(10, 0, 0, 0));
+
+        stage.initOwner(owner);
+        stage.setTitle("Reminders");
+        stage.setScene(new Scene(root, 420, 300));
+    }
+
+    // Called on the FX thread with the reminders that just came due
+    void add(List<TaskReminder> due) {
+        incoming.addAll(due);
+        if (throttle.getStatus() == Animation.Status.RUNNING) {
+            return; // picked up by the pending update
+        }
+        double sinceLast = (System.nanoTime() - lastUpdate) / 1_000_000.0;
+        if (lastUpdate == Long.MIN_VALUE || sinceLast >= MIN_INTERVAL.toMillis()) {
+            update();
+        } else {
+            throttle.setDuration(MIN_INTERVAL.subtract(javafx.util.Duration.millis(sinceLast)));
+            throttle.playFromStart();
+        }
+    }
+
+    private void update() {
+        lastUpdate = System.nanoTime();
+        // Reminders removed since they fired (e.g. their task was completed) are not shown
+        Set<TaskReminder> live = Collections.newSetFromMap(new IdentityHashMap<>());
+        live.addAll(taskManager.getReminders());
+        List<TaskReminder> added = new ArrayList<>();
+        for (TaskReminder reminder : incoming) {
+            if (live.contains(reminder) && !shown.contains(reminder)) {
+                added.add(reminder);
+            }
+        }
+        incoming.clear();
+        shown.removeIf(r -> !live.contains(r));
+        shown.addAll(added);
+        refresh();
+    }
+
+    private void refresh() {
+        if (shown.isEmpty()) {
+            stage.hide();
+            return;
+        }
+        header.setText(shown.size() == 1 ? "1 reminder is due." : shown.size() + " reminders are due.");
+        if (!stage.isShowing()) {
+            stage.show();
+        }
+    }
+
+    private void snooze(List<TaskReminder> reminders) {
+        for (TaskReminder reminder : reminders) {
+            scheduler.snooze(reminder, SNOOZE);
+        }
+        shown.removeAll(reminders);
+        refresh();
+    }
+
+    private void dismiss(List<TaskReminder> reminders) {
+        shown.removeAll(reminders);
+        taskManager.removeReminders(reminders);
+        refresh();
+    }
+
+    private class ReminderCell extends ListCell<TaskReminder> {
+        private final Label label = new Label();
+        private final Button snooze = new Button("Snooze");
+        private final Button dismiss = new Button("Dismiss");
+        private final HBox row = new HBox(10, label, snooze, dismiss);
+
+        ReminderCell() {
+            row.setAlignment(Pos.CENTER_LEFT);
+            label.setMaxWidth(Double.MAX_VALUE);
+            HBox.setHgrow(label, Priority.ALWAYS);
+            snooze.setOnAction(e -> snooze(List.of(getItem())));
+            dismiss.setOnAction(e -> dismiss(List.of(getItem())));
+        }
+
+        @Override
+        protected void updateItem(TaskReminder reminder, boolean empty) {
+            super.updateItem(reminder, empty);
+            if (empty || reminder == null) {
+                setGraphic(null);
+            } else {
+                label.setText(reminder.getTask().getTitle() + " - " + TaskManagerUI.formatReminderTime(reminder));
+                setGraphic(row);
+            }
+        }
+    }
+}
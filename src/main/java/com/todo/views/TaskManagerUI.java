@@ -1,6 +1,16 @@
 package com.todo.views;
 
+import com.todo.controller.AutosaveService;
+import com.todo.controller.CascadeResult;
+import com.todo.controller.DayRollover;
+import com.todo.controller.LiveSearch;
+import com.todo.controller.ReminderScheduler;
+import com.todo.controller.StoreSync;
+import com.todo.controller.TaskAnalytics;
+import com.todo.controller.TaskBatch;
+import com.todo.controller.TaskEvent;
 import com.todo.controller.TaskManager;
+import com.todo.controller.Workspaces;
 import com.todo.models.*;
 import javafx.application.Application;
 import javafx.application.Platform;
@@ -10,28 +20,25 @@ import javafx.geometry.*;
 import javafx.scene.*;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.scene.input.KeyCombination;
 import javafx.scene.layout.*;
 import javafx.stage.*;
 import javafx.util.StringConverter;
 
-import java.io.File;
 import java.io.IOException;
-import java.nio.file.*;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.TimeUnit;
-
-// Import Jackson datatypes for time
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import java.util.Objects;
 
 public class TaskManagerUI extends Application {
+    private final String workspace;
     private TaskManager taskManager;
     private Label totalTasksLabel;
     private Label completedTasksLabel;
@@ -43,13 +50,30 @@ public class TaskManagerUI extends Application {
     private ListView<TaskPriority> prioritiesList;
     private TableView<TaskReminder> remindersTable;
     private TableView<Task> searchResultsTable;
+    private TableView<TaskAnalytics.GroupStats> categoryStatsTable;
+    private TableView<TaskAnalytics.GroupStats> priorityStatsTable;
+    private Label overdueAgingLabel;
+    private Label weeklyLoadLabel;
+    private Button undoButton;
+    private Button redoButton;
+
+    private static final DateTimeFormatter REMINDER_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private ReminderScheduler reminderScheduler;
+    private ReminderNotifications reminderNotifications;
+    private LiveSearch liveSearch;
+    private DayRollover dayRollover;
+    private AutosaveService autosave;
+    private StoreSync storeSync;
+
+    public TaskManagerUI() {
+        this(Workspaces.DEFAULT);
+    }
 
-    private final String dataDir = "medialab";
-    private ScheduledExecutorService reminderScheduler;
-    private final Set<TaskReminder> shownReminders = new HashSet<>();
-
-    // Register the JavaTimeModule so it can handle LocalDate properly
-    private final ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    // The window works on one workspace of the "medialab" folder
+    public TaskManagerUI(String workspace) {
+        this.workspace = workspace;
+    }
 
     public static void main(String[] args) {
         launch(args);
@@ -58,8 +82,28 @@ public class TaskManagerUI extends Application {
     @Override
     public void start(Stage primaryStage) {
         // Initialize backend
-        taskManager = new TaskManager();
-        startReminderChecker();
+        taskManager = new TaskManager(Workspaces.directory(Paths.get("medialab"), workspace));
+        // Undo history that no longer fits in memory goes to a temporary file, removed on close
+        try {
+            taskManager.getHistory().spillTo(Files.createTempFile("medialab-undo", ".bin"));
+        } catch (IOException e) {
+            System.out.println("Undo history limited to memory: " + e.getMessage());
+        }
+        reminderScheduler = new ReminderScheduler(taskManager, Platform::runLater, this::showDueReminders);
+        // Due reminders are gathered in one window instead of a dialog each
+        reminderNotifications = new ReminderNotifications(primaryStage, taskManager, reminderScheduler);
+        reminderScheduler.start();
+
+        // Save in the background shortly after edits; the lists are copied on the FX thread
+        autosave = new AutosaveService(taskManager, Platform::runLater);
+        autosave.start();
+
+        // Tasks that become overdue at midnight turn DELAYED without a restart
+        dayRollover = new DayRollover(taskManager, Platform::runLater,
+                moved -> System.out.println(moved + " task(s) became delayed at midnight."));
+
+        // Another instance on the same store: merge what it saves instead of overwriting it
+        storeSync = new StoreSync(taskManager, Platform::runLater);
 
         // Build the root layout
         BorderPane root = new BorderPane();
@@ -76,9 +120,13 @@ public class TaskManagerUI extends Application {
                 createCategoriesTab(),
                 createPrioritiesTab(),
                 createRemindersTab(),
-                createSearchTab());
+                createSearchTab(),
+                createStatisticsTab());
         root.setCenter(tabPane);
 
+        // Views follow the store's events, whichever thread made the change
+        taskManager.subscribe(this::onStoreChanged, Platform::runLater);
+
         // If there are any delayed tasks, show a popup alert
         int delayedCount = (int) taskManager.getTasks().stream()
                 .filter(t -> t.getStatus() == TaskStatus.DELAYED)
@@ -93,20 +141,30 @@ public class TaskManagerUI extends Application {
 
         // Set scene and show stage
         Scene scene = new Scene(root, 1000, 600);
-        primaryStage.setTitle("MediaLab Assistant");
+        scene.getAccelerators().put(KeyCombination.keyCombination("Shortcut+Z"), () -> undoOrRedo(true));
+        scene.getAccelerators().put(KeyCombination.keyCombination("Shortcut+Y"), () -> undoOrRedo(false));
+        scene.getAccelerators().put(KeyCombination.keyCombination("Shortcut+Shift+Z"), () -> undoOrRedo(false));
+        primaryStage.setTitle(workspace.equalsIgnoreCase(Workspaces.DEFAULT)
+                ? "MediaLab Assistant" : "MediaLab Assistant - " + workspace);
         primaryStage.setScene(scene);
 
 
         updateSummary();
         refreshAllViews();
+        dayRollover.start();
+        storeSync.start();
 
-        // On close, persist data to JSON files
+        // On close, persist whatever the autosave has not written yet
         primaryStage.setOnCloseRequest(e -> {
-            persistData();
-
-            if (reminderScheduler != null && !reminderScheduler.isShutdown()) {
-                reminderScheduler.shutdownNow();
+            storeSync.stop();
+            if (autosave.stop()) {
+                persistData();
             }
+            taskManager.close();
+
+            reminderScheduler.stop();
+            dayRollover.stop();
+            liveSearch.stop();
 
             Platform.exit();
         });
@@ -119,7 +177,15 @@ public class TaskManagerUI extends Application {
         delayedTasksLabel = new Label("Delayed: 0");
         upcomingTasksLabel = new Label("Due in 7 Days: 0");
 
-        HBox hbox = new HBox(20, totalTasksLabel, completedTasksLabel, delayedTasksLabel, upcomingTasksLabel);
+        // Every change, a removed category with its tasks included, can be undone
+        undoButton = new Button("Undo");
+        undoButton.setOnAction(e -> undoOrRedo(true));
+        redoButton = new Button("Redo");
+        redoButton.setOnAction(e -> undoOrRedo(false));
+        updateHistoryButtons();
+
+        HBox hbox = new HBox(20, totalTasksLabel, completedTasksLabel, delayedTasksLabel, upcomingTasksLabel,
+                undoButton, redoButton);
         hbox.setPadding(new Insets(10));
         hbox.setAlignment(Pos.CENTER);
         return hbox;
@@ -138,6 +204,8 @@ public class TaskManagerUI extends Application {
         categoryCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getCategory()));
         TableColumn<Task, String> priorityCol = new TableColumn<>("Priority");
         priorityCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getPriority()));
+        // Ranked like the store's index when sorted together with other columns
+        priorityCol.setComparator(Comparator.comparingInt(taskManager::getPriorityRank));
         TableColumn<Task, String> deadlineCol = new TableColumn<>("Deadline");
         deadlineCol.setCellValueFactory(data -> new SimpleStringProperty(
                 data.getValue().getDeadline() != null ? data.getValue().getDeadline().toString() : ""));
@@ -161,7 +229,18 @@ public class TaskManagerUI extends Application {
             }
         });
 
-        tasksTable.getColumns().addAll(titleCol, categoryCol, priorityCol, deadlineCol, statusCol, remindersSetCol);
+        TableColumn<Task, String> repeatsCol = new TableColumn<>("Repeats");
+        repeatsCol.setCellValueFactory(data -> new SimpleStringProperty(formatRecurrence(data.getValue().getRecurrence())));
+
+        tasksTable.getColumns().addAll(titleCol, categoryCol, priorityCol, deadlineCol, statusCol, remindersSetCol,
+                repeatsCol);
+        // These columns sort through the store's ordered indexes, a page at a time
+        priorityCol.setUserData("priority");
+        deadlineCol.setUserData("deadline");
+        statusCol.setUserData("status");
+        // Rows are read from the store on demand, so sorting must not reorder the store itself
+        tasksTable.setSortPolicy(table -> table.getItems() instanceof TaskTableItems items
+                && items.sortBy(table.getComparator(), pagedSort(table)));
 
         Button addButton = new Button("Add Task");
         addButton.setOnAction(e -> showAddTaskDialog());
@@ -206,15 +285,24 @@ public class TaskManagerUI extends Application {
         vbox.setPadding(new Insets(10));
 
         prioritiesList = new ListView<>();
+        prioritiesList.setCellFactory(list -> new ListCell<>() {
+            @Override
+            protected void updateItem(TaskPriority item, boolean empty) {
+                super.updateItem(item, empty);
+                setText(empty || item == null ? "" : item.getName() + "  (rank " + item.getRank() + ")");
+            }
+        });
 
         Button addButton = new Button("Add Priority");
         addButton.setOnAction(e -> showAddPriorityDialog());
         Button editButton = new Button("Edit Priority");
         editButton.setOnAction(e -> showEditPriorityDialog());
+        Button rankButton = new Button("Set Rank");
+        rankButton.setOnAction(e -> showPriorityRankDialog());
         Button deleteButton = new Button("Delete Priority");
         deleteButton.setOnAction(e -> deleteSelectedPriority());
 
-        HBox buttons = new HBox(10, addButton, editButton, deleteButton);
+        HBox buttons = new HBox(10, addButton, editButton, rankButton, deleteButton);
         buttons.setAlignment(Pos.CENTER);
 
         vbox.getChildren().addAll(prioritiesList, buttons);
@@ -234,10 +322,7 @@ public class TaskManagerUI extends Application {
         taskTitleCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().getTask().getTitle()));
 
         TableColumn<TaskReminder, String> reminderDateCol = new TableColumn<>("Reminder Date");
-        reminderDateCol.setCellValueFactory(data -> {
-            LocalDate date = data.getValue().computeReminderDate();
-            return new SimpleStringProperty(date != null ? date.toString() : "N/A");
-        });
+        reminderDateCol.setCellValueFactory(data -> new SimpleStringProperty(formatReminderTime(data.getValue())));
 
         remindersTable.getColumns().addAll(taskTitleCol, reminderDateCol);
 
@@ -256,6 +341,58 @@ public class TaskManagerUI extends Application {
         return tab;
     }
 
+    private Tab createStatisticsTab() {
+        Tab tab = new Tab("Statistics");
+        VBox vbox = new VBox(10);
+        vbox.setPadding(new Insets(10));
+
+        categoryStatsTable = createStatsTable("Category");
+        priorityStatsTable = createStatsTable("Priority");
+        overdueAgingLabel = new Label();
+        weeklyLoadLabel = new Label();
+
+        HBox tables = new HBox(10, categoryStatsTable, priorityStatsTable);
+        HBox.setHgrow(categoryStatsTable, Priority.ALWAYS);
+        HBox.setHgrow(priorityStatsTable, Priority.ALWAYS);
+        vbox.getChildren().addAll(tables, overdueAgingLabel, weeklyLoadLabel);
+        tab.setContent(vbox);
+        return tab;
+    }
+
+    private static TableView<TaskAnalytics.GroupStats> createStatsTable(String groupName) {
+        TableView<TaskAnalytics.GroupStats> table = new TableView<>();
+        TableColumn<TaskAnalytics.GroupStats, String> nameCol = new TableColumn<>(groupName);
+        nameCol.setCellValueFactory(data -> new SimpleStringProperty(data.getValue().name()));
+        TableColumn<TaskAnalytics.GroupStats, String> tasksCol = new TableColumn<>("Tasks");
+        tasksCol.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().tasks())));
+        TableColumn<TaskAnalytics.GroupStats, String> completedCol = new TableColumn<>("Completed");
+        completedCol.setCellValueFactory(data -> new SimpleStringProperty(String.valueOf(data.getValue().completed())));
+        TableColumn<TaskAnalytics.GroupStats, String> rateCol = new TableColumn<>("Completion");
+        rateCol.setCellValueFactory(data -> new SimpleStringProperty(
+                Math.round(data.getValue().completionRate() * 100) + "%"));
+        table.getColumns().addAll(List.of(nameCol, tasksCol, completedCol, rateCol));
+        return table;
+    }
+
+    private void updateStatistics() {
+        TaskAnalytics analytics = taskManager.getAnalytics();
+        LocalDate today = LocalDate.now();
+        categoryStatsTable.setItems(FXCollections.observableArrayList(analytics.getCategoryStats()));
+        priorityStatsTable.setItems(FXCollections.observableArrayList(analytics.getPriorityStats()));
+
+        StringBuilder aging = new StringBuilder("Overdue:");
+        for (TaskAnalytics.AgeBucket bucket : analytics.getOverdueAging(today)) {
+            aging.append("  ").append(bucket.minDays())
+                    .append(bucket.maxDays() < 0 ? "+" : "-" + bucket.maxDays()).append(" days: ").append(bucket.tasks());
+        }
+        overdueAgingLabel.setText(aging.toString());
+        StringBuilder load = new StringBuilder("Due per week:");
+        for (TaskAnalytics.WeekLoad week : analytics.getWeeklyLoad(today, 8)) {
+            load.append("  ").append(week.weekStart()).append(": ").append(week.tasks());
+        }
+        weeklyLoadLabel.setText(load.toString());
+    }
+
     private Tab createSearchTab() {
         Tab tab = new Tab("Search");
         VBox vbox = new VBox(10);
@@ -267,11 +404,12 @@ public class TaskManagerUI extends Application {
         categoryBox.setPromptText("Category");
         ComboBox<String> priorityBox = new ComboBox<>();
         priorityBox.setPromptText("Priority");
-        Button searchButton = new Button("Search");
+        Button clearButton = new Button("Clear");
+        Label resultCount = new Label();
 
         HBox searchFields = new HBox(10, new Label("Title:"), titleField,
                 new Label("Category:"), categoryBox,
-                new Label("Priority:"), priorityBox, searchButton);
+                new Label("Priority:"), priorityBox, clearButton, resultCount);
         searchFields.setAlignment(Pos.CENTER);
 
         searchResultsTable = new TableView<>();
@@ -286,12 +424,19 @@ public class TaskManagerUI extends Application {
                 data.getValue().getDeadline() != null ? data.getValue().getDeadline().toString() : ""));
         searchResultsTable.getColumns().addAll(titleCol, catCol, priCol, deadlineCol);
 
-        searchButton.setOnAction(e -> {
-            String titleQuery = titleField.getText();
-            String categoryQuery = categoryBox.getValue();
-            String priorityQuery = priorityBox.getValue();
-            searchResultsTable.setItems(FXCollections.observableArrayList(
-                    taskManager.searchTasks(titleQuery, categoryQuery, priorityQuery)));
+        // Results follow the fields as they change; the search runs in the background
+        liveSearch = new LiveSearch(taskManager, Platform::runLater, results -> {
+            searchResultsTable.setItems(FXCollections.observableArrayList(results));
+            resultCount.setText(results.size() + " found");
+        });
+        Runnable search = () -> liveSearch.search(titleField.getText(), categoryBox.getValue(), priorityBox.getValue());
+        titleField.textProperty().addListener((obs, oldText, newText) -> search.run());
+        categoryBox.valueProperty().addListener((obs, oldValue, newValue) -> search.run());
+        priorityBox.valueProperty().addListener((obs, oldValue, newValue) -> search.run());
+        clearButton.setOnAction(e -> {
+            titleField.clear();
+            categoryBox.setValue(null);
+            priorityBox.setValue(null);
         });
 
         // Populate ComboBoxes from current categories and priorities
@@ -307,12 +452,9 @@ public class TaskManagerUI extends Application {
 
     private void updateSummary() {
         int total = taskManager.getTasks().size();
-        int completed = (int) taskManager.getTasks().stream().filter(t -> t.getStatus() == TaskStatus.COMPLETED)
-                .count();
-        int delayed = (int) taskManager.getTasks().stream().filter(t -> t.getStatus() == TaskStatus.DELAYED).count();
-        int upcoming = (int) taskManager.getTasks().stream().filter(t -> t.getDeadline() != null &&
-                !t.getDeadline().isBefore(LocalDate.now()) && t.getDeadline().isBefore(LocalDate.now().plusDays(7)))
-                .count();
+        int completed = taskManager.countTasksWithStatus(TaskStatus.COMPLETED);
+        int delayed = taskManager.countTasksWithStatus(TaskStatus.DELAYED);
+        int upcoming = taskManager.countTasksDueWithin(7);
 
         totalTasksLabel.setText("Total Tasks: " + total);
         completedTasksLabel.setText("Completed: " + completed);
@@ -321,12 +463,101 @@ public class TaskManagerUI extends Application {
     }
 
     private void refreshAllViews() {
-        tasksTable.setItems(FXCollections.observableArrayList(taskManager.getTasks()));
+        refreshTasks();
+        refreshCategories();
+        refreshPriorities();
+        refreshReminders();
+    }
+
+    // Only the views an event can affect are rebuilt
+    private void onStoreChanged(List<TaskEvent> events) {
+        boolean tasks = false, categories = false, priorities = false, reminders = false;
+        for (TaskEvent event : events) {
+            switch (event) {
+                case TaskEvent.TaskAdded e -> tasks = true;
+                case TaskEvent.TaskUpdated e -> {
+                    tasks = true;
+                    reminders = true; // the table shows the task's title
+                }
+                case TaskEvent.TaskRemoved e -> tasks = true;
+                case TaskEvent.ReminderAdded e -> reminders = true;
+                case TaskEvent.ReminderUpdated e -> reminders = true;
+                case TaskEvent.ReminderRemoved e -> reminders = true;
+                case TaskEvent.CategoryAdded e -> categories = true;
+                case TaskEvent.CategoryRenamed e -> categories = true;
+                case TaskEvent.CategoryRemoved e -> categories = true;
+                case TaskEvent.PriorityAdded e -> priorities = true;
+                case TaskEvent.PriorityRenamed e -> priorities = true;
+                case TaskEvent.PriorityRanked e -> {
+                    priorities = true;
+                    tasks = true; // the priority column sorts by rank
+                }
+                case TaskEvent.PriorityRemoved e -> priorities = true;
+            }
+        }
+        if (tasks) {
+            refreshTasks();
+        }
+        if (categories) {
+            refreshCategories();
+        }
+        if (priorities) {
+            refreshPriorities();
+        }
+        if (reminders) {
+            refreshReminders();
+        }
+        updateHistoryButtons();
+    }
+
+    private void undoOrRedo(boolean undo) {
+        try {
+            if (undo) {
+                taskManager.getHistory().undo();
+            } else {
+                taskManager.getHistory().redo();
+            }
+        } catch (IllegalStateException ex) {
+            showError(undo ? "Cannot Undo" : "Cannot Redo", ex.getMessage());
+        }
+        updateHistoryButtons();
+    }
+
+    private void updateHistoryButtons() {
+        undoButton.setDisable(!taskManager.getHistory().canUndo());
+        redoButton.setDisable(!taskManager.getHistory().canRedo());
+    }
+
+    private void refreshTasks() {
+        tasksTable.setItems(new TaskTableItems(taskManager.snapshot().tasks(), taskManager::getTaskPage,
+                tasksTable.getComparator(), pagedSort(tasksTable)));
         tasksTable.refresh();
+        updateSummary();
+        updateStatistics();
+    }
+
+    private void refreshCategories() {
         categoriesList.setItems(FXCollections.observableArrayList(taskManager.getCategories()));
-        prioritiesList.setItems(FXCollections.observableArrayList(taskManager.getPriorities()));
+        updateStatistics();
+    }
+
+    private void refreshPriorities() {
+        // Most important first
+        prioritiesList.setItems(FXCollections.observableArrayList(taskManager.getPriorities().stream()
+                .sorted(Comparator.comparing(TaskPriority::getRank).reversed()).toList()));
+        updateStatistics();
+    }
+
+    private void refreshReminders() {
         remindersTable.setItems(FXCollections.observableArrayList(taskManager.getReminders()));
-        updateSummary();
+    }
+
+    // The store sort key of the table's order, when it is sorted by one column that has one
+    private static String pagedSort(TableView<Task> table) {
+        if (table.getSortOrder().size() != 1 || !(table.getSortOrder().get(0).getUserData() instanceof String key)) {
+            return null;
+        }
+        return table.getSortOrder().get(0).getSortType() == TableColumn.SortType.DESCENDING ? "-" + key : key;
     }
 
     private void showAddTaskDialog() {
@@ -356,6 +587,8 @@ public class TaskManagerUI extends Application {
                 priority_list.stream().map(TaskPriority::getName).toList()));
         
         DatePicker deadlinePicker = new DatePicker();
+        ComboBox<String> repeatBox = createRepeatBox(null);
+        TextField repeatEveryField = new TextField("1");
 
         GridPane grid = new GridPane();
         grid.setHgap(10);
@@ -372,6 +605,8 @@ public class TaskManagerUI extends Application {
         grid.add(priorityBox, 1, 3);
         grid.add(new Label("Deadline:"), 0, 4);
         grid.add(deadlinePicker, 1, 4);
+        grid.add(new Label("Repeat:"), 0, 5);
+        grid.add(new HBox(5, repeatBox, new Label("every"), repeatEveryField), 1, 5);
 
         dialog.getDialogPane().setContent(grid);
         ButtonType addButtonType = new ButtonType("Add", ButtonBar.ButtonData.OK_DONE);
@@ -387,8 +622,8 @@ public class TaskManagerUI extends Application {
 
         dialog.showAndWait().ifPresent(task -> {
             try {
+                task.setRecurrence(parseRecurrence(repeatBox, repeatEveryField, task.getDeadline(), null));
                 taskManager.addTask(task);
-                refreshAllViews();
             } catch (IllegalArgumentException ex) {
                 showError("Error Adding Task!", ex.getMessage());
             }
@@ -419,6 +654,9 @@ public class TaskManagerUI extends Application {
         ComboBox<TaskStatus> statusBox = new ComboBox<>();
         statusBox.setItems(FXCollections.observableArrayList(TaskStatus.IN_PROGRESS, TaskStatus.POSTPONED, TaskStatus.COMPLETED));
         statusBox.setValue(selected.getStatus());
+        ComboBox<String> repeatBox = createRepeatBox(selected.getRecurrence());
+        TextField repeatEveryField = new TextField(
+                String.valueOf(selected.isRecurring() ? selected.getRecurrence().interval() : 1));
 
         GridPane grid = new GridPane();
         grid.setHgap(10);
@@ -437,6 +675,8 @@ public class TaskManagerUI extends Application {
         grid.add(deadlinePicker, 1, 4);
         grid.add(new Label("Status:"), 0, 5);
         grid.add(statusBox, 1, 5);
+        grid.add(new Label("Repeat:"), 0, 6);
+        grid.add(new HBox(5, repeatBox, new Label("every"), repeatEveryField), 1, 6);
 
         dialog.getDialogPane().setContent(grid);
         ButtonType updateButtonType = new ButtonType("Update", ButtonBar.ButtonData.OK_DONE);
@@ -452,16 +692,66 @@ public class TaskManagerUI extends Application {
 
         dialog.showAndWait().ifPresent(updatedTask -> {
             try {
-                taskManager.updateTask(selected, updatedTask.getTitle(), updatedTask.getDescription(), updatedTask.getCategory(), updatedTask.getPriority(), updatedTask.getDeadline());
-                taskManager.updateTaskStatus(selected, statusBox.getValue());
-            
-                refreshAllViews();
-            } catch (IllegalArgumentException ex) {
+                // One change, so one undo reverts the whole dialog; the autosave writes it
+                LocalDate deadline = updatedTask.getDeadline() != null ? updatedTask.getDeadline() : selected.getDeadline();
+                Recurrence recurrence = parseRecurrence(repeatBox, repeatEveryField, deadline, selected.getRecurrence());
+                TaskBatch batch = taskManager.batch().withoutPersist()
+                        .updateTask(selected, updatedTask.getTitle(), updatedTask.getDescription(), updatedTask.getCategory(), updatedTask.getPriority(), updatedTask.getDeadline());
+                if (!Objects.equals(recurrence, selected.getRecurrence())) {
+                    batch.setTaskRecurrence(selected, recurrence);
+                }
+                batch.updateTaskStatus(selected, statusBox.getValue()).commit();
+            } catch (IllegalArgumentException | IllegalStateException ex) {
                 showError("Error Updating Task", ex.getMessage());
             }
         });
     }
 
+    private static ComboBox<String> createRepeatBox(Recurrence current) {
+        ComboBox<String> repeatBox = new ComboBox<>();
+        repeatBox.getItems().add("Never");
+        for (Recurrence.Frequency frequency : Recurrence.Frequency.values()) {
+            repeatBox.getItems().add(frequency.name());
+        }
+        repeatBox.setValue(current == null ? "Never" : current.frequency().name());
+        return repeatBox;
+    }
+
+    // Keeps the current rule (and so its start and end) when frequency and interval are unchanged
+    private static Recurrence parseRecurrence(ComboBox<String> repeatBox, TextField everyField, LocalDate deadline,
+            Recurrence current) {
+        if (repeatBox.getValue() == null || repeatBox.getValue().equals("Never")) {
+            return null;
+        }
+        int interval;
+        try {
+            interval = Integer.parseInt(everyField.getText().trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Repeat interval must be a whole number.");
+        }
+        Recurrence.Frequency frequency = Recurrence.Frequency.valueOf(repeatBox.getValue());
+        if (current != null && current.frequency() == frequency && current.interval() == interval) {
+            return current;
+        }
+        if (deadline == null) {
+            throw new IllegalArgumentException("A recurring task needs a deadline.");
+        }
+        return new Recurrence(frequency, interval, deadline);
+    }
+
+    private static String formatRecurrence(Recurrence recurrence) {
+        if (recurrence == null) {
+            return "";
+        }
+        String unit = switch (recurrence.frequency()) {
+            case DAILY -> "day";
+            case WEEKLY -> "week";
+            case MONTHLY -> "month";
+            case YEARLY -> "year";
+        };
+        return recurrence.interval() == 1 ? "Every " + unit : "Every " + recurrence.interval() + " " + unit + "s";
+    }
+
     private void deleteSelectedTask() {
         Task selected = tasksTable.getSelectionModel().getSelectedItem();
         if (selected == null) {
@@ -470,7 +760,6 @@ public class TaskManagerUI extends Application {
         }
         try {
             taskManager.removeTask(selected);
-            refreshAllViews();
         } catch (IllegalArgumentException ex) {
             showError("Error Deleting Task", ex.getMessage());
         }
@@ -483,7 +772,6 @@ public class TaskManagerUI extends Application {
         dialog.showAndWait().ifPresent(name -> {
             try {
                 taskManager.addCategory(name);
-                refreshAllViews();
             } catch (IllegalArgumentException ex) {
                 showError("Error Adding Category", ex.getMessage());
             }
@@ -502,7 +790,6 @@ public class TaskManagerUI extends Application {
         dialog.showAndWait().ifPresent(newName -> {
             try {
                 taskManager.renameCategory(selected, newName);
-                refreshAllViews();
             } catch (IllegalArgumentException ex) {
                 showError("Error Renaming Category", ex.getMessage());
             }
@@ -516,8 +803,11 @@ public class TaskManagerUI extends Application {
             return;
         }
         try {
-            taskManager.removeCategory(selected);
-            refreshAllViews();
+            CascadeResult result = taskManager.removeCategory(selected);
+            if (result.tasks() > 0) {
+                showInfo("Category Deleted", "Deleted \"" + selected.getName() + "\" with " + result.tasks()
+                        + " task(s) and " + result.reminders() + " reminder(s).");
+            }
         } catch (IllegalArgumentException ex) {
             showError("Error Deleting Category", ex.getMessage());
         }
@@ -530,7 +820,6 @@ public class TaskManagerUI extends Application {
         dialog.showAndWait().ifPresent(name -> {
             try {
                 taskManager.addPriority(name);
-                refreshAllViews();
             } catch (IllegalArgumentException ex) {
                 showError("Error Adding Priority", ex.getMessage());
             }
@@ -549,13 +838,33 @@ public class TaskManagerUI extends Application {
         dialog.showAndWait().ifPresent(newName -> {
             try {
                 taskManager.renamePriority(selected, newName);
-                refreshAllViews();
             } catch (IllegalArgumentException ex) {
                 showError("Error Renaming Priority", ex.getMessage());
             }
         });
     }
 
+    private void showPriorityRankDialog() {
+        TaskPriority selected = prioritiesList.getSelectionModel().getSelectedItem();
+        if (selected == null) {
+            showError("No Selection", "Please select a priority to rank.");
+            return;
+        }
+        TextInputDialog dialog = new TextInputDialog(String.valueOf(selected.getRank()));
+        dialog.setTitle("Set Priority Rank");
+        dialog.setHeaderText("Rank of " + selected.getName() + " (" + TaskPriority.MIN_RANK + "-"
+                + TaskPriority.MAX_RANK + ", higher is more important):");
+        dialog.showAndWait().ifPresent(text -> {
+            try {
+                taskManager.setPriorityRank(selected, Integer.parseInt(text.trim()));
+            } catch (NumberFormatException ex) {
+                showError("Error Ranking Priority", "Not a number: " + text);
+            } catch (IllegalArgumentException ex) {
+                showError("Error Ranking Priority", ex.getMessage());
+            }
+        });
+    }
+
     private void deleteSelectedPriority() {
         TaskPriority selected = prioritiesList.getSelectionModel().getSelectedItem();
         if (selected == null) {
@@ -563,8 +872,10 @@ public class TaskManagerUI extends Application {
             return;
         }
         try {
-            taskManager.removePriority(selected);
-            refreshAllViews();
+            CascadeResult result = taskManager.removePriority(selected);
+            if (result.tasks() > 0) {
+                showInfo("Priority Deleted", result.tasks() + " task(s) moved to the Default priority.");
+            }
         } catch (IllegalArgumentException ex) {
             showError("Error Deleting Priority", ex.getMessage());
         }
@@ -583,10 +894,15 @@ public class TaskManagerUI extends Application {
         typeBox.setValue(TaskReminder.ReminderType.ONE_DAY_BEFORE); // Default
 
         DatePicker customDatePicker = new DatePicker();
-        customDatePicker.setDisable(true);
+        TextField customTimeField = new TextField();
+        customTimeField.setPromptText("HH:mm");
+        TextField offsetField = new TextField();
+        ComboBox<String> offsetUnitBox = new ComboBox<>(FXCollections.observableArrayList("Minutes", "Hours"));
+        offsetUnitBox.setValue("Hours");
+        updateReminderFields(typeBox.getValue(), customDatePicker, customTimeField, offsetField, offsetUnitBox);
 
         typeBox.setOnAction(e -> {
-            customDatePicker.setDisable(typeBox.getValue() != TaskReminder.ReminderType.CUSTOM_DATE);
+            updateReminderFields(typeBox.getValue(), customDatePicker, customTimeField, offsetField, offsetUnitBox);
         });
 
         GridPane grid = new GridPane();
@@ -600,6 +916,10 @@ public class TaskManagerUI extends Application {
         grid.add(typeBox, 1, 1);
         grid.add(new Label("Custom Date (if applicable):"), 0, 2);
         grid.add(customDatePicker, 1, 2);
+        grid.add(new Label("Custom Time (optional):"), 0, 3);
+        grid.add(customTimeField, 1, 3);
+        grid.add(new Label("Before Deadline:"), 0, 4);
+        grid.add(new HBox(5, offsetField, offsetUnitBox), 1, 4);
 
         dialog.getDialogPane().setContent(grid);
         ButtonType addButtonType = new ButtonType("Add", ButtonBar.ButtonData.OK_DONE);
@@ -620,9 +940,8 @@ public class TaskManagerUI extends Application {
         dialog.showAndWait().ifPresent(reminder -> {
             try {
                 taskManager.addReminder(reminder.getTask().getTitle(), reminder.getType(),
-                        reminder.getCustomReminderDate());
-                refreshAllViews(); // Ensure UI updates
-                remindersTable.refresh(); // Force refresh of the table
+                        reminder.getCustomReminderDate(), parseReminderTime(customTimeField),
+                        parseMinutesBefore(offsetField, offsetUnitBox));
             } catch (Exception ex) {
                 showError("Error Adding Reminder", ex.getMessage());
             }
@@ -648,10 +967,19 @@ public class TaskManagerUI extends Application {
         typeBox.setValue(selected.getType());
 
         DatePicker customDatePicker = new DatePicker(selected.getCustomReminderDate());
-        customDatePicker.setDisable(selected.getType() != TaskReminder.ReminderType.CUSTOM_DATE);
+        TextField customTimeField = new TextField(
+                selected.getCustomReminderTime() != null ? selected.getCustomReminderTime().toString() : "");
+        customTimeField.setPromptText("HH:mm");
+        Integer minutesBefore = selected.getMinutesBefore();
+        boolean wholeHours = minutesBefore == null || minutesBefore % 60 == 0;
+        TextField offsetField = new TextField(minutesBefore == null ? ""
+                : String.valueOf(wholeHours ? minutesBefore / 60 : minutesBefore));
+        ComboBox<String> offsetUnitBox = new ComboBox<>(FXCollections.observableArrayList("Minutes", "Hours"));
+        offsetUnitBox.setValue(wholeHours ? "Hours" : "Minutes");
+        updateReminderFields(typeBox.getValue(), customDatePicker, customTimeField, offsetField, offsetUnitBox);
 
         typeBox.setOnAction(e -> {
-            customDatePicker.setDisable(typeBox.getValue() != TaskReminder.ReminderType.CUSTOM_DATE);
+            updateReminderFields(typeBox.getValue(), customDatePicker, customTimeField, offsetField, offsetUnitBox);
         });
 
         GridPane grid = new GridPane();
@@ -665,6 +993,10 @@ public class TaskManagerUI extends Application {
         grid.add(typeBox, 1, 1);
         grid.add(new Label("Custom Date (if applicable):"), 0, 2);
         grid.add(customDatePicker, 1, 2);
+        grid.add(new Label("Custom Time (optional):"), 0, 3);
+        grid.add(customTimeField, 1, 3);
+        grid.add(new Label("Before Deadline:"), 0, 4);
+        grid.add(new HBox(5, offsetField, offsetUnitBox), 1, 4);
 
         dialog.getDialogPane().setContent(grid);
         ButtonType updateButtonType = new ButtonType("Update", ButtonBar.ButtonData.OK_DONE);
@@ -680,9 +1012,8 @@ public class TaskManagerUI extends Application {
         dialog.showAndWait().ifPresent(updatedReminder -> {
             try {
                 taskManager.updateReminder(selected, updatedReminder.getType(),
-                        updatedReminder.getCustomReminderDate());
-                refreshAllViews(); // Ensure UI updates
-                remindersTable.refresh(); // Force refresh of the table
+                        updatedReminder.getCustomReminderDate(), parseReminderTime(customTimeField),
+                        parseMinutesBefore(offsetField, offsetUnitBox));
             } catch (Exception ex) {
                 showError("Error Updating Reminder", ex.getMessage());
             }
@@ -690,6 +1021,42 @@ public class TaskManagerUI extends Application {
 
     }
 
+    private static void updateReminderFields(TaskReminder.ReminderType type, DatePicker customDatePicker,
+            TextField customTimeField, TextField offsetField, ComboBox<String> offsetUnitBox) {
+        boolean custom = type == TaskReminder.ReminderType.CUSTOM_DATE;
+        boolean offset = type == TaskReminder.ReminderType.MINUTES_BEFORE;
+        customDatePicker.setDisable(!custom);
+        customTimeField.setDisable(!custom);
+        offsetField.setDisable(!offset);
+        offsetUnitBox.setDisable(!offset);
+    }
+
+    // Fields disabled for the chosen reminder type are ignored
+    private static LocalTime parseReminderTime(TextField field) {
+        String text = field.getText();
+        if (field.isDisabled() || text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            return LocalTime.parse(text.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Custom time must be given as HH:mm.");
+        }
+    }
+
+    private static Integer parseMinutesBefore(TextField field, ComboBox<String> unitBox) {
+        String text = field.getText();
+        if (field.isDisabled() || text == null || text.isBlank()) {
+            return null;
+        }
+        try {
+            int amount = Integer.parseInt(text.trim());
+            return unitBox.getValue().equals("Hours") ? Math.multiplyExact(amount, 60) : amount;
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw new IllegalArgumentException("Time before the deadline must be a whole number.");
+        }
+    }
+
     private void deleteSelectedReminder() {
         TaskReminder selected = remindersTable.getSelectionModel().getSelectedItem();
         if (selected == null) {
@@ -697,106 +1064,51 @@ public class TaskManagerUI extends Application {
             return;
         }
         try {
-            taskManager.getReminders().remove(selected);
-            refreshAllViews();
+            taskManager.removeReminder(selected);
         } catch (Exception ex) {
             showError("Error Deleting Reminder", ex.getMessage());
         }
     }
 
-    private void showError(String title, String message) {
-        Alert alert = new Alert(Alert.AlertType.ERROR);
+    private void showInfo(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.INFORMATION);
         alert.setTitle(title);
         alert.setHeaderText(null);
         alert.setContentText(message);
         alert.showAndWait();
     }
 
-    /**
-     * Reminder snooze functionality
-     */
-    private void snoozeReminder(TaskReminder reminder) {
-        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-        scheduler.schedule(() -> {
-            Platform.runLater(() -> {
-                shownReminders.remove(reminder);
-                showReminderAlert(reminder);
-                shownReminders.add(reminder);
-                scheduler.shutdown(); // Shut down after this one snooze job
-            });
-        }, 5, TimeUnit.MINUTES);
-    }
-
-    /**
-     * Method to show reminder alert
-     * @param reminder The reminder to snooze
-     */
-    private void showReminderAlert(TaskReminder reminder) {
-        Alert alert = new Alert(Alert.AlertType.INFORMATION);
-        alert.setTitle("Reminder Alert");
-        alert.setHeaderText("Reminder for Task: " + reminder.getTask().getTitle());
-        alert.setContentText("Due today: " + reminder.computeReminderDate());
-
-        ButtonType snoozeButton = new ButtonType("Snooze", ButtonBar.ButtonData.OK_DONE);
-        ButtonType dismissButton = new ButtonType("Dismiss", ButtonBar.ButtonData.CANCEL_CLOSE);
-
-        alert.getButtonTypes().setAll(snoozeButton, dismissButton);
-
-        alert.showAndWait().ifPresent(response -> {
-            if (response == snoozeButton) {
-                snoozeReminder(reminder);
-            } else if (response == dismissButton) {
-                taskManager.getReminders().remove(reminder); // Remove reminder permanently
-                shownReminders.remove(reminder);
-                refreshAllViews();
-            }
-        });
+    private void showError(String title, String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle(title);
+        alert.setHeaderText(null);
+        alert.setContentText(message);
+        alert.showAndWait();
     }
 
-    /**
-     * Reminder checkers
-     */
-
-    private void checkReminders() {
-        LocalDate today = LocalDate.now();
-
-        List<TaskReminder> dueReminders = taskManager.getReminders().stream()
-                .filter(r -> r.computeReminderDate().equals(today))
-                .filter(r -> !shownReminders.contains(r))
-                .toList();
-
-        for (TaskReminder reminder : dueReminders) {
-            shownReminders.add(reminder); // mark reminder as shown
-            showReminderAlert(reminder);
+    static String formatReminderTime(TaskReminder reminder) {
+        LocalDateTime time = reminder.computeReminderTime();
+        if (time == null) {
+            return "N/A";
         }
+        return TaskReminder.isTimed(reminder.getType(), reminder.getCustomReminderTime())
+                ? time.format(REMINDER_TIME_FORMAT) : time.toLocalDate().toString();
     }
 
-    private void startReminderChecker() {
-        reminderScheduler = Executors.newSingleThreadScheduledExecutor();
-        reminderScheduler.scheduleAtFixedRate(() -> {
-            Platform.runLater(() -> checkReminders());
-        }, 0, 1, TimeUnit.MINUTES); // Runs every minute
+    // Called by the scheduler on the FX thread with the reminders that just came due
+    private void showDueReminders(List<TaskReminder> due) {
+        reminderNotifications.add(due);
     }
 
     /**
-     * Persists the current state of the TaskManager to JSON files in the "medialab"
-     * folder.
+     * Persists the current state of the TaskManager as a new snapshot generation
+     * in the workspace's folder.
      */
     private void persistData() {
         try {
-            Files.createDirectories(Paths.get(dataDir));
-            // We'll be using our 'mapper' that has the JavaTimeModule registered
-            mapper.writerWithDefaultPrettyPrinter().writeValue(new File(dataDir + "/tasks.json"),
-                    taskManager.getTasks());
-            mapper.writerWithDefaultPrettyPrinter().writeValue(new File(dataDir + "/categories.json"),
-                    taskManager.getCategories());
-            mapper.writerWithDefaultPrettyPrinter().writeValue(new File(dataDir + "/priorities.json"),
-                    taskManager.getPriorities());
-            mapper.writerWithDefaultPrettyPrinter().writeValue(new File(dataDir + "/reminders.json"),
-                    taskManager.getReminders());
+            taskManager.saveSnapshot();
         } catch (IOException e) {
             showError("Persistence Error", "Failed to save data: " + e.getMessage());
         }
     }
 }
-
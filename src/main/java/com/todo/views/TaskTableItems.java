@@ -0,0 +1,106 @@
+package com.todo.views;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.todo.models.Task;
+import javafx.collections.ObservableListBase;
+
+/**
+ * Read-only rows of the tasks table, taken straight from a snapshot of the task store.
+ * <p>
+ * The table only asks for the rows it shows, so nothing is copied while it is
+ * unsorted. Sorting by deadline, priority or status reads the rows a page at a
+ * time from the store's ordered indexes (see {@link PageSource}), so only the
+ * pages scrolled to are ever ordered. Sorting by any other column builds one
+ * array of the sorted tasks. The store's own order is never changed. A new
+ * instance is created whenever the store changes.
+ * </p>
+ */
+class TaskTableItems extends ObservableListBase<Task> {
+    static final int PAGE_SIZE = 200;
+    private static final int CACHED_PAGES = 32;
+
+    /** One page of the store in a sort order, e.g. {@code TaskManager::getTaskPage}. */
+    @FunctionalInterface
+    interface PageSource {
+        List<Task> page(String sort, int offset, int limit);
+    }
+
+    private final List<Task> source;
+    private final PageSource pages;
+    private List<Task> rows;
+
+    /**
+     * @param pagedSort the store sort key of the table's order, or {@code null} to
+     *                  use {@code comparator} (itself {@code null} for store order)
+     */
+    TaskTableItems(List<Task> source, PageSource pages, Comparator<Task> comparator, String pagedSort) {
+        this.source = source;
+        this.pages = pages;
+        this.rows = rows(comparator, pagedSort);
+    }
+
+    /** Sort policy of the tasks table; both {@code null} restores the store order. */
+    boolean sortBy(Comparator<Task> comparator, String pagedSort) {
+        List<Task> before = rows;
+        rows = rows(comparator, pagedSort);
+        beginChange();
+        nextReplace(0, size(), before);
+        endChange();
+        return true;
+    }
+
+    private List<Task> rows(Comparator<Task> comparator, String pagedSort) {
+        if (pagedSort != null) {
+            return new PagedRows(pagedSort);
+        }
+        if (comparator == null) {
+            return source;
+        }
+        Task[] copy = source.toArray(new Task[0]);
+        Arrays.sort(copy, comparator);
+        return Arrays.asList(copy);
+    }
+
+    @Override
+    public Task get(int index) {
+        return rows.get(index);
+    }
+
+    @Override
+    public int size() {
+        return rows.size();
+    }
+
+    // Rows in a store sort order, loaded a page at a time and the recent pages kept
+    private class PagedRows extends AbstractList<Task> {
+        private final String sort;
+        private final Map<Integer, List<Task>> loaded = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Task>> eldest) {
+                return size() > CACHED_PAGES;
+            }
+        };
+
+        PagedRows(String sort) {
+            this.sort = sort;
+        }
+
+        @Override
+        public Task get(int index) {
+            List<Task> page = loaded.computeIfAbsent(index / PAGE_SIZE,
+                    p -> pages.page(sort, p * PAGE_SIZE, PAGE_SIZE));
+            return page.get(index % PAGE_SIZE);
+        }
+
+        @Override
+        public int size() {
+            return source.size();
+        }
+    }
+}
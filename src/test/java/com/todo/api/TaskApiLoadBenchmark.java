@@ -0,0 +1,133 @@
+package com.todo.api;
+
+import com.todo.controller.TaskManager;
+import com.todo.models.Task;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Load benchmark for {@link TaskApiServer}: seeds a throw-away store, starts the
+ * server on an ephemeral localhost port and drives it with concurrent clients
+ * running a read-heavy mix (paged listing, search, single lookups, summary and
+ * a small share of inserts). Prints throughput and latency percentiles.
+ * <p>
+ * Run with {@code ./gradlew apiBenchmark -Pargs="clients tasks requestsPerClient"}.
+ * </p>
+ */
+public class TaskApiLoadBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+        int seedTasks = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int requestsPerClient = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        Path dataDir = Files.createTempDirectory("medialab-bench");
+        TaskManager taskManager = new TaskManager(dataDir);
+        taskManager.addCategory("Work");
+        taskManager.addCategory("Personal");
+        taskManager.addPriority("High");
+        LocalDate deadline = LocalDate.now().plusDays(30);
+        for (int i = 0; i < seedTasks; i++) {
+            taskManager.addTask(new Task("Task " + i, "Seeded task " + i, i % 2 == 0 ? "Work" : "Personal",
+                    i % 3 == 0 ? "High" : "Default", deadline));
+        }
+
+        TaskApiServer server = new TaskApiServer(taskManager, 0);
+        server.start();
+        String base = "http://localhost:" + server.getPort();
+        HttpClient client = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        System.out.printf("Seeded %d tasks, %d clients x %d requests%n", seedTasks, clients, requestsPerClient);
+        try (ExecutorService pool = Executors.newVirtualThreadPerTaskExecutor()) {
+            // Warm-up pass so the JIT has compiled the hot paths before measuring
+            runClients(pool, client, base, clients, Math.max(1, requestsPerClient / 10), seedTasks);
+
+            long start = System.nanoTime();
+            long[] latencies = runClients(pool, client, base, clients, requestsPerClient, seedTasks);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Arrays.sort(latencies);
+            System.out.printf("Requests: %d in %.2fs -> %.0f req/s%n", latencies.length, seconds, latencies.length / seconds);
+            System.out.printf("Latency ms: p50=%.2f p90=%.2f p99=%.2f max=%.2f%n",
+                    percentile(latencies, 0.50), percentile(latencies, 0.90),
+                    percentile(latencies, 0.99), latencies[latencies.length - 1] / 1e6);
+        } finally {
+            server.stop();
+        }
+    }
+
+    private static long[] runClients(ExecutorService pool, HttpClient client, String base,
+            int clients, int requestsPerClient, int seedTasks) throws Exception {
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int clientId = c;
+            futures.add(pool.submit(() -> {
+                long[] samples = new long[requestsPerClient];
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int i = 0; i < requestsPerClient; i++) {
+                    HttpRequest request = nextRequest(base, random, seedTasks, clientId, i);
+                    long t0 = System.nanoTime();
+                    HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                    samples[i] = System.nanoTime() - t0;
+                    if (response.statusCode() >= 400) {
+                        throw new IllegalStateException(request.uri() + " -> " + response.statusCode());
+                    }
+                }
+                return samples;
+            }));
+        }
+        long[] all = new long[clients * requestsPerClient];
+        int pos = 0;
+        for (Future<long[]> future : futures) {
+            long[] samples = future.get();
+            System.arraycopy(samples, 0, all, pos, samples.length);
+            pos += samples.length;
+        }
+        return all;
+    }
+
+    private static HttpRequest nextRequest(String base, ThreadLocalRandom random, int seedTasks, int clientId, int i) {
+        int roll = random.nextInt(100);
+        if (roll < 40) {
+            return get(base + "/api/tasks?offset=" + random.nextInt(Math.max(1, seedTasks)) + "&limit=100");
+        } else if (roll < 60) {
+            return get(base + "/api/tasks/Task%20" + random.nextInt(Math.max(1, seedTasks)));
+        } else if (roll < 75) {
+            return get(base + "/api/tasks/search?title=task%20" + random.nextInt(1000) + "&category=Work&limit=50");
+        } else if (roll < 95) {
+            return get(base + "/api/summary");
+        }
+        String body = "{\"title\":\"Bench " + clientId + "-" + i + "-" + random.nextInt() + "\",\"description\":\"\","
+                + "\"category\":\"Work\",\"priority\":\"Default\",\"deadline\":\"" + LocalDate.now().plusDays(5) + "\"}";
+        return HttpRequest.newBuilder(URI.create(base + "/api/tasks"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static HttpRequest get(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).GET().build();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        int index = (int) Math.min(sorted.length - 1, Math.round(p * (sorted.length - 1)));
+        return sorted[index] / 1e6;
+    }
+}
@@ -0,0 +1,149 @@
+package com.todo.api;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.todo.controller.TaskManager;
+import com.todo.controller.Workspaces;
+import com.todo.models.Task;
+import com.todo.models.TaskStatus;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+public class TaskApiServerTest {
+
+    @TempDir
+    Path dataDir;
+
+    private TaskManager taskManager;
+    private TaskApiServer server;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        taskManager = new TaskManager(dataDir);
+        taskManager.addCategory("Work");
+        taskManager.addPriority("High");
+        server = new TaskApiServer(taskManager, 0);
+        server.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        server.stop();
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws Exception {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + server.getPort() + path));
+        builder.method(method, body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        return client.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testCrudOverHttp() throws Exception {
+        String deadline = LocalDate.now().plusDays(3).toString();
+        HttpResponse<String> created = send("POST", "/api/tasks",
+                "{\"title\":\"Write report\",\"description\":\"Q3\",\"category\":\"Work\",\"priority\":\"High\",\"deadline\":\"" + deadline + "\"}");
+        assertEquals(201, created.statusCode());
+        assertEquals(1, taskManager.getTasks().size());
+        assertEquals(TaskStatus.OPEN, taskManager.getTasks().get(0).getStatus());
+
+        HttpResponse<String> fetched = send("GET", "/api/tasks/Write%20report", null);
+        assertEquals(200, fetched.statusCode());
+        assertEquals("Q3", mapper.readTree(fetched.body()).get("description").asText());
+
+        HttpResponse<String> updated = send("PUT", "/api/tasks/Write%20report", "{\"status\":\"IN_PROGRESS\"}");
+        assertEquals(200, updated.statusCode());
+        assertEquals(TaskStatus.IN_PROGRESS, taskManager.getTasks().get(0).getStatus());
+
+        assertEquals(204, send("DELETE", "/api/tasks/Write%20report", null).statusCode());
+        assertTrue(taskManager.getTasks().isEmpty());
+        assertEquals(404, send("GET", "/api/tasks/Write%20report", null).statusCode());
+    }
+
+    @Test
+    public void testRequestsPickTheirWorkspace() throws Exception {
+        Workspaces workspaces = new Workspaces(dataDir.resolve("boards"));
+        TaskApiServer boards = new TaskApiServer(workspaces, 0);
+        boards.start();
+        try {
+            String base = "http://localhost:" + boards.getPort();
+            HttpRequest post = HttpRequest.newBuilder(URI.create(base + "/api/categories"))
+                    .header("X-Workspace", "team-a")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"name\":\"Design\"}")).build();
+            assertEquals(201, client.send(post, HttpResponse.BodyHandlers.ofString()).statusCode());
+
+            HttpRequest teamA = HttpRequest.newBuilder(URI.create(base + "/api/categories?workspace=team-a")).build();
+            assertEquals("[\"Design\"]", client.send(teamA, HttpResponse.BodyHandlers.ofString()).body());
+            HttpRequest other = HttpRequest.newBuilder(URI.create(base + "/api/categories")).build();
+            assertEquals("[]", client.send(other, HttpResponse.BodyHandlers.ofString()).body());
+
+            HttpRequest list = HttpRequest.newBuilder(URI.create(base + "/api/workspaces")).build();
+            JsonNode names = mapper.readTree(client.send(list, HttpResponse.BodyHandlers.ofString()).body());
+            assertEquals("default", names.get(0).get("name").asText());
+            assertEquals("team-a", names.get(1).get("name").asText());
+
+            HttpRequest invalid = HttpRequest.newBuilder(URI.create(base + "/api/summary?workspace=..")).build();
+            assertEquals(400, client.send(invalid, HttpResponse.BodyHandlers.ofString()).statusCode());
+        } finally {
+            boards.stop();
+            workspaces.close();
+        }
+    }
+
+    @Test
+    public void testValidationErrorsMapToBadRequest() throws Exception {
+        HttpResponse<String> response = send("POST", "/api/tasks",
+                "{\"title\":\"Bad\",\"category\":\"Missing\",\"priority\":\"High\"}");
+        assertEquals(400, response.statusCode());
+        assertTrue(mapper.readTree(response.body()).get("error").asText().contains("Category does not exist"));
+    }
+
+    @Test
+    public void testAnUpdateIsAppliedWhole() throws Exception {
+        taskManager.addTask(new Task("Report", "", "Work", "High", LocalDate.now().plusDays(3)));
+        Task task = taskManager.getTaskByTitle("Report");
+
+        assertEquals(400, send("PUT", "/api/tasks/Report", "{\"title\":\"Renamed\",\"status\":\"NOT_A_STATUS\"}").statusCode());
+        assertEquals("Report", task.getTitle(), "Nothing is applied when a field does not parse");
+
+        String deadline = LocalDate.now().plusDays(5).toString();
+        HttpResponse<String> updated = send("PUT", "/api/tasks/Report",
+                "{\"title\":\"Renamed\",\"deadline\":\"" + deadline + "\",\"status\":\"IN_PROGRESS\"}");
+        assertEquals(200, updated.statusCode());
+        assertEquals(TaskStatus.IN_PROGRESS, task.getStatus());
+
+        taskManager.getHistory().undo();
+        assertEquals("Report", task.getTitle(), "One undo reverts the whole update");
+        assertEquals(TaskStatus.OPEN, task.getStatus());
+    }
+
+    @Test
+    public void testPagedListing() throws Exception {
+        for (int i = 0; i < 25; i++) {
+            taskManager.addTask(new Task("Task " + i, "", "Work", "High", LocalDate.now().plusDays(1)));
+        }
+
+        JsonNode page = mapper.readTree(send("GET", "/api/tasks?offset=20&limit=10", null).body());
+        assertEquals(25, page.get("total").asInt());
+        assertEquals(5, page.get("items").size());
+        assertEquals("Task 20", page.get("items").get(0).get("title").asText());
+
+        JsonNode search = mapper.readTree(send("GET", "/api/tasks/search?title=task%201&limit=3", null).body());
+        assertEquals(11, search.get("total").asInt()); // "Task 1" and "Task 10".."Task 19"
+        assertEquals(3, search.get("items").size());
+
+        JsonNode summary = mapper.readTree(send("GET", "/api/summary", null).body());
+        assertEquals(25, summary.get("total").asInt());
+        assertEquals(25, summary.get("dueInSevenDays").asInt());
+    }
+}
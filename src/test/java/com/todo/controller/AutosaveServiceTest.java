@@ -0,0 +1,105 @@
+package com.todo.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.models.Task;
+import com.todo.persistence.SnapshotStore;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class AutosaveServiceTest {
+
+	@TempDir
+	Path dataDir;
+
+	private TaskManager taskManager;
+	// Stands in for the FX thread: all mutations and snapshot copies happen here
+	private final ExecutorService modelThread = Executors.newSingleThreadExecutor();
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		taskManager = onModelThread(() -> {
+			TaskManager manager = new TaskManager(dataDir);
+			manager.addCategory("Work");
+			return manager;
+		});
+	}
+
+	@AfterEach
+	public void tearDown() {
+		modelThread.shutdownNow();
+	}
+
+	private <T> T onModelThread(Callable<T> action) throws Exception {
+		return modelThread.submit(action).get();
+	}
+
+	private void addTasks(int from, int to) throws Exception {
+		onModelThread(() -> {
+			for (int i = from; i < to; i++) {
+				taskManager.addTask(new Task("Task " + i, "", "Work", "Default", LocalDate.now().plusDays(1)));
+			}
+			return null;
+		});
+	}
+
+	private static void awaitClean(AutosaveService autosave) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (autosave.isDirty() && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertFalse(autosave.isDirty(), "Autosave should have caught up");
+	}
+
+	@Test
+	public void testBurstIsCoalescedIntoOneSave() throws Exception {
+		AutosaveService autosave = new AutosaveService(taskManager, modelThread, Duration.ofMillis(100), Duration.ofSeconds(5));
+		autosave.start();
+		addTasks(0, 500);
+
+		awaitClean(autosave);
+		Thread.sleep(300);
+		assertEquals(1, autosave.getSaveCount(), "A burst of changes should be written once and a clean store not at all");
+		assertEquals(1, new SnapshotStore(dataDir).latestGenerationNumber());
+		assertEquals(500, new TaskManager(dataDir).getTasks().size());
+		assertFalse(autosave.stop());
+	}
+
+	@Test
+	public void testContinuousEditsAreSavedWithinMaxDelay() throws Exception {
+		AutosaveService autosave = new AutosaveService(taskManager, modelThread, Duration.ofMillis(200), Duration.ofMillis(400));
+		autosave.start();
+
+		// Never quiet for the whole quiet period, so only the max delay triggers saves
+		for (int i = 0; i < 75; i++) {
+			addTasks(i, i + 1);
+			Thread.sleep(20);
+		}
+		assertTrue(autosave.getSaveCount() >= 2, "Saves should not wait for the edits to stop");
+
+		awaitClean(autosave);
+		assertEquals(75, new TaskManager(dataDir).getTasks().size());
+		autosave.stop();
+	}
+
+	@Test
+	public void testStopReportsUnsavedChanges() throws Exception {
+		AutosaveService autosave = new AutosaveService(taskManager, modelThread, Duration.ofSeconds(30), Duration.ofSeconds(60));
+		autosave.start();
+		addTasks(0, 3);
+
+		assertTrue(onModelThread(autosave::stop), "Changes inside the quiet period are left to the caller's final save");
+		assertEquals(0, new SnapshotStore(dataDir).latestGenerationNumber());
+		addTasks(3, 4);
+		assertEquals(0, autosave.getSaveCount(), "A stopped service no longer saves");
+	}
+}
@@ -0,0 +1,95 @@
+package com.todo.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.models.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class LiveSearchTest {
+
+	@TempDir
+	Path dataDir;
+
+	private TaskManager taskManager;
+	private final ExecutorService modelThread = Executors.newSingleThreadExecutor();
+	private final BlockingQueue<List<Task>> delivered = new LinkedBlockingQueue<>();
+	private LiveSearch search;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		taskManager = onModelThread(() -> {
+			TaskManager manager = new TaskManager(dataDir);
+			manager.addCategory("Work");
+			manager.addCategory("Home");
+			TaskBatch batch = manager.batch().withoutPersist();
+			for (int i = 0; i < 10_000; i++) {
+				batch.addTask(new Task("Task " + i, "", i % 2 == 0 ? "Work" : "Home", "Default", LocalDate.now().plusDays(3)));
+			}
+			batch.commit();
+			return manager;
+		});
+		search = new LiveSearch(taskManager, modelThread, delivered::add, Duration.ofMillis(50));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		search.stop();
+		modelThread.shutdownNow();
+	}
+
+	private <T> T onModelThread(Callable<T> action) throws Exception {
+		return modelThread.submit(action).get();
+	}
+
+	private List<Task> searchFor(String title, String category) throws Exception {
+		onModelThread(() -> {
+			search.search(title, category, null);
+			return null;
+		});
+		List<Task> results = delivered.poll(5, TimeUnit.SECONDS);
+		assertNotNull(results, "No results for " + title);
+		return results;
+	}
+
+	@Test
+	public void testOnlyTheLatestQueryIsAnswered() throws Exception {
+		onModelThread(() -> {
+			for (String typed : List.of("t", "ta", "tas", "task 99")) {
+				search.search(typed, null, null);
+			}
+			return null;
+		});
+		List<Task> results = delivered.poll(5, TimeUnit.SECONDS);
+		assertEquals(111, results.size()); // 99, 990-999 and 9900-9999
+		assertNull(delivered.poll(200, TimeUnit.MILLISECONDS), "Earlier queries must not be delivered");
+	}
+
+	@Test
+	public void testNarrowedQueriesMatchAFullScan() throws Exception {
+		assertEquals(1111, searchFor("Task 1", null).size());
+		assertEquals(111, searchFor("TASK 12", null).size());
+		assertEquals(taskManager.searchTasks("task 12", "work", null), searchFor("task 12", "work"));
+
+		// A change to the store drops the cached results
+		onModelThread(() -> {
+			taskManager.addTask(new Task("Task 12 again", "", "Work", "Default", LocalDate.now().plusDays(3)));
+			return null;
+		});
+		assertEquals(112, searchFor("Task 12", null).size());
+		assertEquals(10_001, searchFor("", null).size());
+	}
+}
@@ -0,0 +1,167 @@
+package com.todo.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.models.Task;
+import com.todo.models.TaskReminder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class ReminderSchedulerTest {
+
+	@TempDir
+	Path dataDir;
+
+	private TaskManager taskManager;
+	private final ExecutorService modelThread = Executors.newSingleThreadExecutor();
+	private final BlockingQueue<TaskReminder> fired = new LinkedBlockingQueue<>();
+	private ReminderScheduler scheduler;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		taskManager = onModelThread(() -> {
+			TaskManager manager = new TaskManager(dataDir);
+			manager.addCategory("Work");
+			manager.addTask(new Task("Report", "", "Work", "Default", LocalDate.now().plusDays(3)));
+			return manager;
+		});
+		scheduler = new ReminderScheduler(taskManager, modelThread, fired::addAll);
+		onModelThread(() -> {
+			scheduler.start();
+			return null;
+		});
+	}
+
+	@AfterEach
+	public void tearDown() {
+		scheduler.stop();
+		modelThread.shutdownNow();
+	}
+
+	private <T> T onModelThread(Callable<T> action) throws Exception {
+		return modelThread.submit(action).get();
+	}
+
+	// A CUSTOM_DATE reminder at the given moment
+	private void remindAt(String title, LocalDateTime at) throws Exception {
+		onModelThread(() -> {
+			taskManager.addReminder(title, TaskReminder.ReminderType.CUSTOM_DATE, at.toLocalDate(), at.toLocalTime(), null);
+			return null;
+		});
+	}
+
+	@Test
+	public void testFiresAtItsTime() throws Exception {
+		LocalDateTime at = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(300));
+		remindAt("Report", at);
+		assertEquals(1, scheduler.getPendingCount());
+
+		TaskReminder reminder = fired.poll(5, TimeUnit.SECONDS);
+		long late = Duration.between(at, LocalDateTime.now()).toMillis();
+		assertNotNull(reminder, "Reminder should have fired");
+		assertTrue(late < 200, "Fired " + late + " ms late");
+		assertEquals(0, scheduler.getPendingCount());
+
+		// Later changes do not fire it again
+		onModelThread(() -> {
+			taskManager.addCategory("Home");
+			return null;
+		});
+		assertNull(fired.poll(300, TimeUnit.MILLISECONDS));
+	}
+
+	@Test
+	public void testPendingSetFollowsTheStore() throws Exception {
+		LocalDateTime later = LocalDateTime.now().plusHours(1);
+		onModelThread(() -> {
+			TaskBatch batch = taskManager.batch().withoutPersist();
+			for (int i = 0; i < 1000; i++) {
+				batch.addTask(new Task("Task " + i, "", "Work", "Default", LocalDate.now().plusDays(3)));
+				LocalDateTime at = later.plusSeconds(i);
+				batch.addReminder("Task " + i, TaskReminder.ReminderType.CUSTOM_DATE, at.toLocalDate(), at.toLocalTime(), null);
+			}
+			batch.commit();
+			return null;
+		});
+		assertEquals(1000, scheduler.getPendingCount());
+
+		onModelThread(() -> {
+			taskManager.removeTask(taskManager.getTaskByTitle("Task 5"));
+			TaskReminder moved = taskManager.getReminders().get(0);
+			taskManager.updateReminder(moved, TaskReminder.ReminderType.MINUTES_BEFORE, null, null, 60);
+			return null;
+		});
+		assertEquals(999, scheduler.getPendingCount());
+		assertTrue(fired.isEmpty());
+	}
+
+	@Test
+	public void testTaskChangesRequeueOnlyTheirReminders() throws Exception {
+		remindAt("Report", LocalDateTime.now().plusHours(1));
+		onModelThread(() -> {
+			taskManager.addTask(new Task("Other", "", "Work", "Default", LocalDate.now().plusDays(3)));
+			taskManager.addReminder("Other", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+			return null;
+		});
+		assertEquals(2, scheduler.getPendingCount());
+
+		onModelThread(() -> {
+			Task other = taskManager.getTaskByTitle("Other");
+			// The day before a deadline of today has passed: nothing left to fire
+			taskManager.updateTask(other, "Other", "", "Work", "Default", LocalDate.now());
+			return null;
+		});
+		assertEquals(1, scheduler.getPendingCount());
+
+		onModelThread(() -> {
+			taskManager.removeTask(taskManager.getTaskByTitle("Report"));
+			return null;
+		});
+		assertEquals(0, scheduler.getPendingCount());
+		onModelThread(() -> taskManager.getHistory().undo());
+		assertEquals(1, scheduler.getPendingCount(), "Undo puts the reminder back in the queue");
+		assertTrue(fired.isEmpty());
+	}
+
+	@Test
+	public void testQueuedTimeFollowsTheDeadline() throws Exception {
+		LocalDate deadline = LocalDate.now().plusDays(10);
+		TaskReminder reminder = onModelThread(() -> {
+			taskManager.addTask(new Task("Plan", "", "Work", "Default", deadline));
+			taskManager.addReminder("Plan", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+			return taskManager.getRemindersForTask(taskManager.getTaskByTitle("Plan")).get(0);
+		});
+		assertEquals(deadline.minusDays(1), scheduler.getQueuedTime(reminder).toLocalDate());
+
+		onModelThread(() -> {
+			taskManager.updateTask(taskManager.getTaskByTitle("Plan"), null, null, null, null, deadline.plusDays(5));
+			return null;
+		});
+		assertEquals(deadline.plusDays(4), scheduler.getQueuedTime(reminder).toLocalDate());
+	}
+
+	@Test
+	public void testSnoozeFiresAgain() throws Exception {
+		remindAt("Report", LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(100)));
+		TaskReminder reminder = fired.poll(5, TimeUnit.SECONDS);
+		assertNotNull(reminder);
+
+		scheduler.snooze(reminder, Duration.ofMillis(100));
+		assertSame(reminder, fired.poll(5, TimeUnit.SECONDS));
+		assertEquals(List.of(), List.copyOf(fired));
+	}
+}
@@ -0,0 +1,133 @@
+package com.todo.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.models.Task;
+import com.todo.persistence.StoreConflictException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Two managers on one directory stand in for two running instances of the app
+public class StoreSyncTest {
+
+	@TempDir
+	Path dataDir;
+
+	private TaskManager first;
+	private TaskManager second;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		first = new TaskManager(dataDir);
+		first.addCategory("Work");
+		first.addTask(task("Shared"));
+		first.addTask(task("Kept"));
+		first.saveSnapshot();
+		second = new TaskManager(dataDir);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		first.close();
+		second.close();
+	}
+
+	private static Task task(String title) {
+		return new Task(title, "", "Work", "Default", LocalDate.now().plusDays(3));
+	}
+
+	private static List<String> titles(TaskManager manager) {
+		return manager.getTasks().stream().map(Task::getTitle).sorted().toList();
+	}
+
+	@Test
+	public void testASaveOnTopOfAnotherInstanceMergesInsteadOfOverwriting() throws IOException {
+		LocalDate moved = LocalDate.now().plusDays(10);
+		Task shared = first.getTaskByTitle("Shared");
+		first.updateTask(shared, "Shared", "", "Work", "Default", moved);
+		first.addTask(task("From first"));
+		first.saveSnapshot();
+
+		second.addCategory("Home");
+		second.addTask(task("From second"));
+		second.saveSnapshot();
+
+		List<String> expected = List.of("From first", "From second", "Kept", "Shared");
+		assertEquals(expected, titles(second));
+		assertEquals(moved, second.getTaskByTitle("Shared").getDeadline(), "Their edit to a task untouched here");
+		TaskManager reloaded = new TaskManager(dataDir);
+		assertEquals(expected, titles(reloaded));
+		assertTrue(reloaded.getCategories().stream().anyMatch(c -> c.getName().equals("Home")));
+		reloaded.close();
+
+		// The first one is now behind; its own save must not overwrite either
+		first.addTask(task("Late"));
+		assertTrue(first.mergeExternalChanges());
+		assertEquals(List.of("From first", "From second", "Kept", "Late", "Shared"), titles(first));
+		first.saveSnapshot();
+	}
+
+	@Test
+	public void testRemovalsElsewhereAreMergedButLocalEditsKept() throws IOException {
+		first.removeTask(first.getTaskByTitle("Shared"));
+		first.removeTask(first.getTaskByTitle("Kept"));
+		first.saveSnapshot();
+
+		Task kept = second.getTaskByTitle("Kept");
+		second.updateTask(kept, "Kept", "edited here", "Work", "Default", kept.getDeadline());
+		assertTrue(second.getHistory().canUndo());
+		Task shared = second.getTaskByTitle("Shared");
+		List<TaskEvent> events = new ArrayList<>();
+		second.subscribe(events::addAll);
+
+		assertTrue(second.mergeExternalChanges());
+		assertEquals(List.of("Kept"), titles(second));
+		assertEquals(List.of(new TaskEvent.TaskRemoved(shared)), events, "Only what changed is announced");
+		assertFalse(second.getHistory().canUndo(), "The history no longer matches the store");
+		assertFalse(second.mergeExternalChanges(), "Nothing new");
+
+		second.saveSnapshot();
+		assertEquals(List.of("Kept"), titles(new TaskManager(dataDir)));
+	}
+
+	@Test
+	public void testAStaleSnapshotIsRefused() throws IOException {
+		TaskManager.Snapshot stale = second.captureSnapshot();
+		first.addTask(task("New"));
+		first.saveSnapshot();
+		assertThrows(StoreConflictException.class, () -> second.saveSnapshot(stale));
+	}
+
+	@Test
+	public void testWatcherPicksUpSavesFromAnotherInstance() throws Exception {
+		ExecutorService modelThread = Executors.newSingleThreadExecutor();
+		StoreSync sync = new StoreSync(second, modelThread, Duration.ofSeconds(5));
+		sync.start();
+		try {
+			first.addTask(task("Seen"));
+			first.saveSnapshot();
+
+			long deadline = System.currentTimeMillis() + 10_000;
+			boolean seen = false;
+			while (!seen && System.currentTimeMillis() < deadline) {
+				Thread.sleep(20);
+				seen = modelThread.submit(() -> second.getTaskByTitle("Seen") != null).get();
+			}
+			assertTrue(seen, "The save should have been merged");
+		} finally {
+			sync.stop();
+			modelThread.shutdownNow();
+		}
+	}
+}
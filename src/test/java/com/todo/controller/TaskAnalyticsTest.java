@@ -0,0 +1,104 @@
+package com.todo.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.models.Task;
+import com.todo.models.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+public class TaskAnalyticsTest {
+
+	@TempDir
+	Path dataDir;
+
+	private TaskManager taskManager;
+	private final LocalDate today = LocalDate.now();
+
+	@BeforeEach
+	public void setUp() {
+		taskManager = new TaskManager(dataDir);
+		taskManager.addCategory("Work");
+		taskManager.addCategory("Home");
+		taskManager.addCategory("Empty");
+		taskManager.addPriority("High");
+		TaskBatch batch = taskManager.batch().withoutPersist();
+		for (int i = 0; i < 300; i++) {
+			batch.addTask(new Task("Task " + i, "", i % 3 == 0 ? "Home" : "Work", i % 10 == 0 ? "High" : "Default",
+					i % 6 == 0 ? null : today.plusDays(i % 60)));
+		}
+		batch.commit();
+	}
+
+	private static TaskAnalytics.GroupStats stats(List<TaskAnalytics.GroupStats> groups, String name) {
+		return groups.stream().filter(g -> g.name().equals(name)).findFirst().orElseThrow();
+	}
+
+	// A fresh count of the store, to compare the adjusted counters against
+	private void assertMatchesRecount(TaskAnalytics analytics) {
+		TaskAnalytics fresh = new TaskAnalytics(taskManager);
+		LocalDate later = today.plusDays(100);
+		assertEquals(fresh.getCategoryStats(), analytics.getCategoryStats());
+		assertEquals(fresh.getPriorityStats(), analytics.getPriorityStats());
+		assertEquals(fresh.getOverdueAging(later), analytics.getOverdueAging(later));
+		assertEquals(fresh.getWeeklyLoad(today, 10), analytics.getWeeklyLoad(today, 10));
+	}
+
+	@Test
+	public void testCountsPerGroup() {
+		TaskAnalytics analytics = taskManager.getAnalytics();
+		assertEquals(List.of("Empty", "Home", "Work"), analytics.getCategoryStats().stream().map(g -> g.name()).toList());
+		assertEquals(new TaskAnalytics.GroupStats("Home", 100, 0, 0), stats(analytics.getCategoryStats(), "Home"));
+		assertEquals(0, stats(analytics.getCategoryStats(), "Empty").tasks());
+		assertEquals("High", analytics.getPriorityStats().get(0).name(), "Most important first");
+
+		taskManager.updateTaskStatus(taskManager.getTaskByTitle("Task 3"), TaskStatus.COMPLETED);
+		taskManager.updateTaskStatus(taskManager.getTaskByTitle("Task 6"), TaskStatus.COMPLETED);
+		assertEquals(0.02, stats(analytics.getCategoryStats(), "Home").completionRate(), 1e-9);
+	}
+
+	@Test
+	public void testAgingAndWeeklyLoad() {
+		TaskAnalytics analytics = taskManager.getAnalytics();
+		int open = (int) taskManager.getTasks().stream().filter(Task::hasDeadline).count();
+		assertEquals(open, analytics.getWeeklyLoad(today, 10).stream().mapToInt(TaskAnalytics.WeekLoad::tasks).sum());
+		assertEquals(today.getDayOfWeek().getValue() - 1,
+				today.toEpochDay() - analytics.getWeeklyLoad(today, 1).get(0).weekStart().toEpochDay());
+
+		// Seen from 40 days on, deadlines 1-59 days from now are 0-39 days overdue
+		List<TaskAnalytics.AgeBucket> aging = analytics.getOverdueAging(today.plusDays(40));
+		assertEquals(4, aging.size());
+		assertEquals(new TaskAnalytics.AgeBucket(91, -1, 0), aging.get(3));
+		int overdue = (int) taskManager.getTasks().stream()
+				.filter(t -> t.hasDeadline() && t.getDeadline().isBefore(today.plusDays(40))).count();
+		assertEquals(overdue, aging.stream().mapToInt(TaskAnalytics.AgeBucket::tasks).sum());
+		assertTrue(analytics.getOverdueAging(today).stream().allMatch(b -> b.tasks() == 0));
+		assertThrows(IllegalArgumentException.class, () -> analytics.getWeeklyLoad(today, 0));
+	}
+
+	@Test
+	public void testChangesAdjustTheCounters() {
+		TaskAnalytics analytics = taskManager.getAnalytics();
+		assertMatchesRecount(analytics);
+
+		Task moved = taskManager.getTaskByTitle("Task 1");
+		taskManager.updateTask(moved, "Task 1", "", "Home", "High", today.plusDays(90));
+		taskManager.updateTaskStatus(taskManager.getTaskByTitle("Task 2"), TaskStatus.COMPLETED);
+		taskManager.removeTask(taskManager.getTaskByTitle("Task 4"));
+		taskManager.addTask(new Task("New", "", "Work", "Default", today.plusDays(5)));
+		assertMatchesRecount(analytics);
+
+		taskManager.removeCategory(taskManager.getCategories().stream()
+				.filter(c -> c.getName().equals("Home")).findFirst().orElseThrow());
+		assertMatchesRecount(analytics);
+		assertEquals(2, analytics.getCategoryStats().size());
+
+		analytics.recompute();
+		assertMatchesRecount(analytics);
+	}
+}
@@ -0,0 +1,153 @@
+package com.todo.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.models.Recurrence;
+import com.todo.models.Task;
+import com.todo.models.TaskReminder;
+import com.todo.models.TaskStatus;
+import com.todo.persistence.SnapshotStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TaskBatchTest {
+
+	@TempDir
+	Path dataDir;
+
+	private TaskManager taskManager;
+	private final AtomicInteger notifications = new AtomicInteger();
+
+	@BeforeEach
+	public void setUp() {
+		taskManager = new TaskManager(dataDir);
+		taskManager.addCategory("Work");
+		taskManager.addPriority("High");
+		taskManager.subscribe(events -> notifications.incrementAndGet());
+	}
+
+	@Test
+	public void testCommitAppliesAllNotifiesOnceAndPersists() {
+		TaskBatch batch = taskManager.batch();
+		for (int i = 0; i < 1000; i++) {
+			batch.addTask(new Task("Task " + i, "", "Work", "High", LocalDate.now().plusDays(10)));
+		}
+		batch.addReminder("task 5", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+
+		assertEquals(1001, batch.commit());
+		assertEquals(1000, taskManager.getTasks().size());
+		assertEquals(1, taskManager.getReminders().size());
+		assertEquals(1, notifications.get(), "A batch should notify listeners exactly once");
+		assertEquals(1, new SnapshotStore(dataDir).latestGenerationNumber(), "Commit should persist the store");
+	}
+
+	@Test
+	public void testFailedBatchAppliesNothing() {
+		Task existing = new Task("Existing", "", "Work", "High", LocalDate.now().plusDays(3));
+		taskManager.addTask(existing);
+		notifications.set(0);
+
+		TaskBatch batch = taskManager.batch()
+				.addTask(new Task("Good", "", "Work", "High", LocalDate.now().plusDays(1)))
+				.updateTaskStatus(existing, TaskStatus.IN_PROGRESS)
+				.addTask(new Task("Bad", "", "Missing", "High", LocalDate.now().plusDays(1)));
+
+		Exception e = assertThrows(IllegalArgumentException.class, batch::commit);
+		assertTrue(e.getMessage().contains("operation 3"));
+		assertEquals(1, taskManager.getTasks().size());
+		assertEquals(TaskStatus.OPEN, existing.getStatus());
+		assertEquals(0, notifications.get());
+	}
+
+	@Test
+	public void testOperationsSeeEarlierOperationsInTheSameBatch() {
+		Task task = new Task("Report", "", "Work", "High", LocalDate.now().plusDays(5));
+		taskManager.batch()
+				.addTask(task)
+				.addReminder("Report", TaskReminder.ReminderType.ONE_DAY_BEFORE, null)
+				.withoutPersist()
+				.commit();
+		assertEquals(1, taskManager.getReminders().size());
+
+		// Completing the task later in the same batch removes its reminders, like updateTaskStatus does
+		assertThrows(IllegalStateException.class, () -> taskManager.batch()
+				.updateTaskStatus(task, TaskStatus.COMPLETED)
+				.addReminder("Report", TaskReminder.ReminderType.ONE_DAY_BEFORE, null)
+				.withoutPersist()
+				.commit());
+		assertEquals(1, taskManager.getReminders().size());
+
+		taskManager.batch()
+				.updateTaskStatus(task, TaskStatus.COMPLETED)
+				.removeTask(task)
+				.withoutPersist()
+				.commit();
+		assertTrue(taskManager.getTasks().isEmpty());
+		assertTrue(taskManager.getReminders().isEmpty());
+	}
+
+	@Test
+	public void testCommitDeliversTheBatchEvents() {
+		Task moved = new Task("Moved", "", "Work", "High", LocalDate.now().plusDays(5));
+		Task removed = new Task("Removed", "", "Work", "High", LocalDate.now().plusDays(5));
+		taskManager.addTask(moved);
+		taskManager.addTask(removed);
+		taskManager.addReminder("Removed", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+		List<List<TaskEvent>> deliveries = new ArrayList<>();
+		taskManager.subscribe(deliveries::add);
+
+		Task added = new Task("Added", "", "Work", "High", LocalDate.now().plusDays(5));
+		taskManager.batch()
+				.addTask(added)
+				.updateTask(moved, "Moved", "", "Work", "High", LocalDate.now().plusDays(8))
+				.updateTaskStatus(moved, TaskStatus.IN_PROGRESS)
+				.removeTask(removed)
+				.withoutPersist()
+				.commit();
+
+		assertEquals(1, deliveries.size());
+		List<TaskEvent> events = deliveries.get(0);
+		assertEquals(List.of(TaskEvent.TaskUpdated.class, TaskEvent.ReminderRemoved.class, TaskEvent.TaskRemoved.class,
+				TaskEvent.TaskAdded.class), events.stream().map(Object::getClass).toList());
+		assertEquals(new TaskEvent.TaskUpdated(moved, Set.of(TaskEvent.Field.DEADLINE, TaskEvent.Field.STATUS)), events.get(0));
+		assertSame(added, ((TaskEvent.TaskAdded) events.get(3)).task());
+		assertThrows(UnsupportedOperationException.class, () -> events.add(new TaskEvent.TaskAdded(added)));
+	}
+
+	@Test
+	public void testRecurrenceFollowsTheStagedDeadline() {
+		LocalDate deadline = LocalDate.now().plusDays(3);
+		Task task = new Task("Chore", "", "Work", "High", deadline);
+		taskManager.addTask(task);
+		notifications.set(0);
+
+		// The rule must start on the deadline the task has after the update, not before it
+		Recurrence weekly = new Recurrence(Recurrence.Frequency.WEEKLY, 1, deadline.plusDays(2));
+		assertThrows(IllegalArgumentException.class, () -> taskManager.batch()
+				.setTaskRecurrence(task, weekly)
+				.withoutPersist()
+				.commit());
+		taskManager.batch()
+				.updateTask(task, "Weekly chore", "", "Work", "High", deadline.plusDays(2))
+				.setTaskRecurrence(task, weekly)
+				.updateTaskStatus(task, TaskStatus.COMPLETED)
+				.withoutPersist()
+				.commit();
+		assertEquals(deadline.plusDays(9), task.getDeadline(), "Completing moves the new series on");
+		assertEquals(TaskStatus.OPEN, task.getStatus());
+		assertEquals(1, notifications.get());
+
+		taskManager.getHistory().undo();
+		assertEquals("Chore", task.getTitle(), "One undo reverts the whole batch");
+		assertEquals(deadline, task.getDeadline());
+		assertNull(task.getRecurrence());
+	}
+}
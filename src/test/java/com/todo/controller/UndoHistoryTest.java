@@ -0,0 +1,160 @@
+package com.todo.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.models.Task;
+import com.todo.models.TaskCategory;
+import com.todo.models.TaskPriority;
+import com.todo.models.TaskReminder;
+import com.todo.models.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class UndoHistoryTest {
+
+	@TempDir
+	Path dataDir;
+
+	private TaskManager taskManager;
+	private UndoHistory history;
+
+	@BeforeEach
+	public void setUp() {
+		taskManager = new TaskManager(dataDir);
+		taskManager.addCategory("Work");
+		taskManager.addCategory("Home");
+		taskManager.addPriority("High");
+		for (int i = 0; i < 6; i++) {
+			taskManager.addTask(new Task("Task " + i, "Notes " + i, i % 2 == 0 ? "Work" : "Home", "High",
+					LocalDate.now().plusDays(10 + i)));
+			taskManager.addReminder("Task " + i, TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+		}
+		history = taskManager.getHistory();
+		history.clear();
+	}
+
+	// The whole store as text, in list order
+	private String describe() {
+		List<String> lines = new ArrayList<>();
+		for (Task t : taskManager.getTasks()) {
+			lines.add(t.getTitle() + "|" + t.getDescription() + "|" + t.getCategory() + "|" + t.getPriority() + "|"
+					+ t.getDeadline() + "|" + t.getStatus() + "|" + t.getRecurrence());
+		}
+		for (TaskReminder r : taskManager.getReminders()) {
+			lines.add(r.getTask().getTitle() + "|" + r.getType() + "|" + r.getCustomReminderDate());
+		}
+		taskManager.getCategories().forEach(c -> lines.add(c.getName()));
+		taskManager.getPriorities().forEach(p -> lines.add(p.getName() + ":" + p.getRank()));
+		return String.join("\n", lines);
+	}
+
+	private TaskCategory category(String name) {
+		return taskManager.getCategories().stream().filter(c -> c.getName().equals(name)).findFirst().orElseThrow();
+	}
+
+	private void makeChanges() {
+		taskManager.updateTask(taskManager.getTaskByTitle("Task 1"), "Renamed", "New notes", "Work", null,
+				LocalDate.now().plusDays(30));
+		taskManager.updateTaskStatus(taskManager.getTaskByTitle("Task 2"), TaskStatus.COMPLETED);
+		taskManager.removeReminder(taskManager.getReminders().get(0));
+		taskManager.renameCategory(category("Home"), "House");
+		TaskPriority high = taskManager.getPriorities().stream().filter(p -> p.getName().equals("High")).findFirst().orElseThrow();
+		taskManager.setPriorityRank(high, 500);
+		taskManager.removeTask(taskManager.getTaskByTitle("Task 4"));
+		taskManager.removeCategory(category("House"));
+		taskManager.batch()
+				.addTask(new Task("Batched", "", "Work", "High", LocalDate.now().plusDays(3)))
+				.updateTaskStatus(taskManager.getTaskByTitle("Task 0"), TaskStatus.IN_PROGRESS)
+				.removeTask(taskManager.getTaskByTitle("Renamed"))
+				.addReminder("Batched", TaskReminder.ReminderType.ONE_DAY_BEFORE, null)
+				.withoutPersist()
+				.commit();
+		taskManager.removePriority(high);
+	}
+
+	@Test
+	public void testUndoRestoresEveryChangeAndRedoRepeatsThem() {
+		String initial = describe();
+		Task removed = taskManager.getTaskByTitle("Task 3");
+		makeChanges();
+		String changed = describe();
+		assertEquals(9, history.size());
+
+		while (history.undo()) {
+			// all the way back
+		}
+		assertEquals(initial, describe());
+		assertSame(removed, taskManager.getTaskByTitle("Task 3"), "Removed tasks come back as themselves");
+		assertSame(removed, taskManager.getReminders().get(3).getTask());
+		assertFalse(history.canUndo());
+
+		while (history.redo()) {
+			// and forward again
+		}
+		assertEquals(changed, describe());
+	}
+
+	@Test
+	public void testOneUndoPerOperationOrBatch() {
+		String initial = describe();
+		int[] deliveries = {0};
+		taskManager.subscribe(events -> deliveries[0]++);
+		CascadeResult result = taskManager.removeCategory(category("Home"));
+		assertEquals(new CascadeResult(3, 3), result);
+
+		assertTrue(history.undo());
+		assertEquals(initial, describe());
+		assertEquals(2, deliveries[0], "An undo is announced like any change");
+
+		taskManager.addCategory("Errands");
+		assertFalse(history.canRedo(), "A new change clears the redo");
+		assertTrue(history.undo());
+		assertEquals(initial, describe());
+	}
+
+	@Test
+	public void testLimitsForgetTheOldestChanges() {
+		history.setLimits(3, UndoHistory.DEFAULT_MAX_BYTES);
+		for (int i = 0; i < 5; i++) {
+			taskManager.addCategory("Extra " + i);
+		}
+		assertEquals(3, history.size());
+		while (history.undo()) {
+			// only the last three
+		}
+		assertEquals(4, taskManager.getCategories().size());
+
+		history.setLimits(100, 0);
+		taskManager.addCategory("Kept");
+		taskManager.addCategory("Forgotten?");
+		assertEquals(1, history.size(), "The newest change is kept whatever its size");
+	}
+
+	@Test
+	public void testSpilledChangesAreReadBack() throws Exception {
+		Path spill = dataDir.resolve("undo.bin");
+		history.spillTo(spill);
+		history.setLimits(100, 0); // everything but the newest change goes to the file
+		String initial = describe();
+		makeChanges();
+		assertEquals(9, history.size());
+		assertTrue(Files.size(spill) > 0);
+
+		while (history.undo()) {
+			// back through the file
+		}
+		assertEquals(initial, describe());
+		assertEquals(0, Files.size(spill));
+		assertFalse(history.canRedo(), "Nothing to redo fits in no memory");
+
+		taskManager.close();
+		assertFalse(Files.exists(spill));
+	}
+}
@@ -0,0 +1,63 @@
+package com.todo.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class VersionedListTest {
+
+	@Test
+	public void testBehavesLikeAnArrayListAndSnapshotsNeverChange() {
+		Random random = new Random(42);
+		VersionedList<Integer> list = new VersionedList<>(List.of());
+		List<Integer> expected = new ArrayList<>();
+		List<List<Integer>> snapshots = new ArrayList<>();
+		List<List<Integer>> snapshotContents = new ArrayList<>();
+
+		for (int step = 0; step < 20_000; step++) {
+			int op = random.nextInt(10);
+			if (op < 4 || expected.isEmpty()) {
+				int index = random.nextInt(expected.size() + 1);
+				list.add(index, step);
+				expected.add(index, step);
+			} else if (op < 6) {
+				int index = random.nextInt(expected.size());
+				assertEquals(expected.set(index, -step), list.set(index, -step));
+			} else if (op < 8) {
+				int index = random.nextInt(expected.size());
+				assertEquals(expected.remove(index), list.remove(index));
+			} else if (op < 9) {
+				int from = random.nextInt(expected.size());
+				int to = Math.min(expected.size(), from + random.nextInt(100));
+				list.subList(from, to).clear();
+				expected.subList(from, to).clear();
+			} else {
+				snapshots.add(list.snapshot());
+				snapshotContents.add(new ArrayList<>(expected));
+			}
+		}
+		assertEquals(expected, list);
+		for (int i = 0; i < snapshots.size(); i++) {
+			assertEquals(snapshotContents.get(i), snapshots.get(i), "Snapshot " + i + " changed");
+		}
+	}
+
+	@Test
+	public void testSnapshotsAreSharedUntilTheListChanges() {
+		VersionedList<String> list = new VersionedList<>(List.of("a", "b", "c"));
+		List<String> first = list.snapshot();
+		assertSame(first, list.snapshot(), "Nothing changed, nothing new");
+		assertThrows(UnsupportedOperationException.class, () -> first.add("d"));
+
+		list.add("d");
+		list.clear();
+		assertEquals(List.of("a", "b", "c"), first);
+		assertEquals(List.of(), list.snapshot());
+		list.add("e");
+		assertEquals(List.of("e"), list);
+	}
+}
@@ -0,0 +1,102 @@
+package com.todo.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.models.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+public class WorkspacesTest {
+
+	@TempDir
+	Path root;
+
+	private Workspaces workspaces;
+
+	@AfterEach
+	public void tearDown() {
+		workspaces.close();
+	}
+
+	private void addTask(String workspaceName, String title) {
+		Workspace workspace = workspaces.acquire(workspaceName);
+		try {
+			workspace.write(() -> {
+				TaskManager taskManager = workspace.getTaskManager();
+				if (taskManager.getCategories().isEmpty()) {
+					taskManager.addCategory("Work");
+				}
+				taskManager.addTask(new Task(title, "", "Work", "Default", LocalDate.now().plusDays(3)));
+			});
+		} finally {
+			workspaces.release(workspace);
+		}
+	}
+
+	@Test
+	public void testWorkspacesAreIsolatedAndTheLeastRecentlyUsedIsUnloaded() {
+		workspaces = new Workspaces(root, 2, Duration.ofHours(1));
+		assertFalse(workspaces.isOpen("alpha"), "Nothing is loaded up front");
+
+		addTask("alpha", "A1");
+		addTask("Beta", "B1");
+		addTask("default", "D1");
+		assertFalse(workspaces.isOpen("alpha"), "The least recently used one makes room");
+		assertTrue(workspaces.isOpen("beta"));
+		assertTrue(workspaces.isOpen("default"));
+		assertTrue(Files.isDirectory(root.resolve("workspaces").resolve("alpha")));
+		assertEquals(List.of("alpha", "beta", "default"), workspaces.names());
+
+		// Saved when unloaded, and loaded again on the next use
+		Workspace alpha = workspaces.acquire("ALPHA");
+		try {
+			assertEquals(List.of("A1"), alpha.getTaskManager().getTasks().stream().map(Task::getTitle).toList());
+		} finally {
+			workspaces.release(alpha);
+		}
+		Workspace beta = workspaces.acquire("beta");
+		try {
+			assertEquals(List.of("B1"), beta.getTaskManager().getTasks().stream().map(Task::getTitle).toList());
+			assertNotSame(alpha.getTaskManager(), beta.getTaskManager());
+		} finally {
+			workspaces.release(beta);
+		}
+		assertFalse(workspaces.isOpen("default"));
+		TaskManager rootStore = new TaskManager(root);
+		assertEquals(1, rootStore.getTasks().size(), "The default workspace is the root store");
+		rootStore.close();
+	}
+
+	@Test
+	public void testIdleWorkspacesAreUnloadedUnlessHeld() {
+		workspaces = new Workspaces(root, 8, Duration.ZERO);
+		Workspace held = workspaces.acquire("held");
+		addTask("passing", "P1");
+		assertFalse(workspaces.isOpen("passing"));
+		assertTrue(workspaces.isOpen("held"));
+
+		Workspace again = workspaces.acquire("held");
+		assertSame(held, again);
+		workspaces.release(again);
+		assertTrue(workspaces.isOpen("held"), "Still held by the first caller");
+		workspaces.release(held);
+		assertFalse(workspaces.isOpen("held"));
+	}
+
+	@Test
+	public void testInvalidNamesAreRejected() {
+		workspaces = new Workspaces(root);
+		assertThrows(IllegalArgumentException.class, () -> workspaces.acquire("../escape"));
+		assertThrows(IllegalArgumentException.class, () -> workspaces.acquire(""));
+		assertThrows(IllegalArgumentException.class, () -> Workspaces.directory(root, "a b"));
+		workspaces.close();
+		assertThrows(IllegalStateException.class, () -> workspaces.acquire("late"));
+	}
+}
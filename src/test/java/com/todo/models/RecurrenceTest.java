@@ -0,0 +1,70 @@
+package com.todo.models;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.controller.TaskManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+public class RecurrenceTest {
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    public void testOccurrencesAreComputed() {
+        Recurrence monthly = Recurrence.parse("FREQ=MONTHLY;DTSTART=2026-01-31;COUNT=4");
+        assertEquals(List.of(LocalDate.of(2026, 1, 31), LocalDate.of(2026, 2, 28), LocalDate.of(2026, 3, 31),
+                LocalDate.of(2026, 4, 30)), monthly.next(LocalDate.of(2000, 1, 1), 10));
+        assertNull(monthly.after(LocalDate.of(2026, 4, 30)), "COUNT ends the series");
+
+        Recurrence everyOtherWeek = new Recurrence(Recurrence.Frequency.WEEKLY, 2, LocalDate.of(2026, 10, 19));
+        // Far in the future, found by arithmetic rather than by stepping through the series
+        LocalDate far = everyOtherWeek.firstOnOrAfter(LocalDate.of(2126, 10, 20));
+        assertEquals(0, ChronoUnit.DAYS.between(everyOtherWeek.start(), far) % 14);
+        assertTrue(!far.isBefore(LocalDate.of(2126, 10, 20)) && far.minusWeeks(2).isBefore(LocalDate.of(2126, 10, 20)));
+        assertEquals(3, everyOtherWeek.between(LocalDate.of(2026, 10, 20), LocalDate.of(2026, 12, 1), 100).size());
+
+        assertEquals("FREQ=WEEKLY;INTERVAL=2;DTSTART=2026-10-19", everyOtherWeek.toRule());
+        assertEquals(everyOtherWeek, Recurrence.parse(everyOtherWeek.toRule()));
+        assertThrows(IllegalArgumentException.class, () -> Recurrence.parse("FREQ=HOURLY;DTSTART=2026-10-19"));
+    }
+
+    @Test
+    public void testSeriesIsOneStoredTask() throws Exception {
+        LocalDate start = LocalDate.now().plusDays(1);
+        TaskManager taskManager = new TaskManager(dataDir);
+        taskManager.addCategory("Home");
+        Task chore = new Task("Water plants", "", "Home", "Default", start);
+        chore.setRecurrence(new Recurrence(Recurrence.Frequency.WEEKLY, 1, start));
+        taskManager.addTask(chore);
+        taskManager.addReminder("Water plants", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+
+        // Only the requested window is expanded
+        assertEquals(5, taskManager.getOccurrences(start, start.plusWeeks(4), 100).size());
+        assertEquals(2, taskManager.getOccurrences(start, start.plusYears(50), 2).size());
+
+        // The reminder repeats for later occurrences without being stored again
+        TaskReminder reminder = taskManager.getReminders().get(0);
+        assertEquals(start.plusWeeks(1).minusDays(1).atStartOfDay(),
+                reminder.nextReminderTime(start.atStartOfDay().plusSeconds(1)));
+
+        // Completing an occurrence moves the series on and keeps its reminders
+        taskManager.updateTaskStatus(chore, TaskStatus.COMPLETED);
+        assertEquals(start.plusWeeks(1), chore.getDeadline());
+        assertEquals(TaskStatus.OPEN, chore.getStatus());
+        assertEquals(1, taskManager.getReminders().size());
+        taskManager.saveSnapshot();
+
+        TaskManager reloaded = new TaskManager(dataDir);
+        Task loaded = reloaded.getTaskByTitle("Water plants");
+        assertEquals(chore.getRecurrence(), loaded.getRecurrence());
+        assertEquals(start.plusWeeks(1), loaded.getDeadline());
+        assertEquals(1, reloaded.getTasks().size());
+    }
+}
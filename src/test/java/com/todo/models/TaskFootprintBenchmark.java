@@ -0,0 +1,79 @@
+package com.todo.models;
+
+import com.todo.controller.TaskBatch;
+import com.todo.controller.TaskManager;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Heap footprint benchmark for {@link Task}: writes a throw-away JSON store with
+ * realistic field values (few categories and priorities, mostly empty or short
+ * descriptions, deadlines over two years), loads it into a fresh
+ * {@link TaskManager} and prints the retained heap per task after a full GC.
+ * <p>
+ * Run with {@code ./gradlew footprintBenchmark -Pargs="tasks"} (default 1,000,000).
+ * </p>
+ */
+public class TaskFootprintBenchmark {
+
+    private static final String[] CATEGORIES = { "Work", "Home", "Errands", "Health", "Finance", "Garden",
+            "Travel", "Reading", "Family", "Admin" };
+    private static final String[] PRIORITIES = { "High", "Medium", "Low" };
+    private static final TaskStatus[] STATUSES = { TaskStatus.OPEN, TaskStatus.OPEN, TaskStatus.IN_PROGRESS,
+            TaskStatus.POSTPONED, TaskStatus.COMPLETED };
+
+    public static void main(String[] args) throws Exception {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path dataDir = Files.createTempDirectory("medialab-footprint");
+
+        seed(dataDir, count);
+
+        long before = usedHeapAfterGc();
+        long start = System.nanoTime();
+        TaskManager loaded = new TaskManager(dataDir);
+        long loadMillis = (System.nanoTime() - start) / 1_000_000;
+        long after = usedHeapAfterGc();
+
+        System.out.printf("Loaded %,d tasks in %,d ms%n", loaded.getTasks().size(), loadMillis);
+        System.out.printf("Retained heap: %,d MB (%,d bytes per task)%n", (after - before) / (1024 * 1024),
+                (after - before) / count);
+        Reference.reachabilityFence(loaded);
+    }
+
+    private static void seed(Path dataDir, int count) throws Exception {
+        TaskManager taskManager = new TaskManager(dataDir);
+        for (String category : CATEGORIES) {
+            taskManager.addCategory(category);
+        }
+        for (String priority : PRIORITIES) {
+            taskManager.addPriority(priority);
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LocalDate today = LocalDate.now();
+        TaskBatch batch = taskManager.batch().withoutPersist();
+        for (int i = 0; i < count; i++) {
+            String description = random.nextInt(10) < 7 ? "" : "Follow up on item " + i;
+            Task task = new Task("Task " + i, description, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    PRIORITIES[random.nextInt(PRIORITIES.length)], today.plusDays(1 + random.nextInt(730)));
+            task.setStatus(STATUSES[random.nextInt(STATUSES.length)]);
+            batch.addTask(task);
+        }
+        batch.commit();
+        taskManager.saveSnapshot();
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
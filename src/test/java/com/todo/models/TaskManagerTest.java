@@ -4,9 +4,14 @@ import static org.junit.jupiter.api.Assertions.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import com.todo.controller.CascadeResult;
+import com.todo.controller.TaskEvent;
 import com.todo.controller.TaskManager;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 
 public class TaskManagerTest {
 
@@ -84,6 +89,24 @@ public class TaskManagerTest {
 				"Removing the task should also remove its reminders");
 	}
 
+	@Test
+	public void testRemoveRemindersAnnouncesOnce() {
+		taskManager.addTask(new Task("Task6", "", "Work", "High", LocalDate.now().plusDays(10)));
+		taskManager.addReminder("Task6", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+		taskManager.addReminder("Task6", TaskReminder.ReminderType.ONE_WEEK_BEFORE, null);
+		List<TaskReminder> due = List.copyOf(taskManager.getReminders());
+		taskManager.removeReminder(due.get(0));
+		int[] changes = {0};
+		taskManager.subscribe(events -> changes[0]++);
+
+		// One was already dismissed elsewhere; only the other is removed
+		assertEquals(1, taskManager.removeReminders(due));
+		assertTrue(taskManager.getReminders().isEmpty());
+		assertEquals(1, changes[0]);
+		assertEquals(0, taskManager.removeReminders(due));
+		assertEquals(1, changes[0]);
+	}
+
 	// Test: Updating a task's fields.
 	@Test
 	public void testUpdateTask() {
@@ -97,6 +120,22 @@ public class TaskManagerTest {
 		assertEquals(LocalDate.now().plusDays(2), task.getDeadline());
 	}
 
+	@Test
+	public void testRejectedUpdateLeavesTheTaskAsItWas() {
+		Task task = new Task("Task5", "Description5", "Work", "High", LocalDate.now().plusDays(1));
+		taskManager.addTask(task);
+		assertEquals(List.of(task), taskManager.query("category:work"));
+
+		assertThrows(IllegalArgumentException.class, () -> taskManager.updateTask(task, "Renamed", "Changed", "Personal",
+				"Missing", null));
+		assertThrows(IllegalArgumentException.class, () -> taskManager.updateTask(task, "Renamed", null, "Personal",
+				null, LocalDate.now().minusDays(1)));
+		assertEquals("Task5", task.getTitle());
+		assertEquals("Description5", task.getDescription());
+		assertEquals("Work", task.getCategory());
+		assertEquals(List.of(task), taskManager.query("category:work"));
+	}
+
 	// Test: Marking a task as COMPLETED removes its reminders.
 	@Test
 	public void testUpdateTaskStatusRemovesReminders() {
@@ -171,7 +210,140 @@ public class TaskManagerTest {
 		assertFalse(taskManager.getTasks().stream().anyMatch(t -> t.getCategory().equals("Personal")));
 	}
 
+	// Test: Deleting a category or priority reports what it cascaded to.
+	@Test
+	public void testCascadeCounts() {
+		for (int i = 0; i < 5; i++) {
+			taskManager.addTask(new Task("Work " + i, "", "Work", i < 2 ? "High" : "Default", LocalDate.now().plusDays(3)));
+			taskManager.addTask(new Task("Home " + i, "", "Personal", "High", LocalDate.now().plusDays(3)));
+		}
+		taskManager.addReminder("Work 1", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+		taskManager.addReminder("Home 1", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+
+		TaskCategory work = taskManager.getCategories().get(0);
+		CascadeResult removed = taskManager.removeCategory(work);
+		assertEquals(new CascadeResult(5, 1), removed);
+		assertEquals(5, taskManager.getTasks().size());
+		assertEquals("Home 1", taskManager.getReminders().get(0).getTask().getTitle());
+
+		TaskPriority high = taskManager.getPriorities().get(0);
+		assertEquals(new CascadeResult(5, 0), taskManager.removePriority(high));
+		assertTrue(taskManager.getTasks().stream().allMatch(t -> t.getPriority().equals("Default")));
+		assertEquals(1, taskManager.getReminders().size());
+	}
+
+	@Test
+	public void testCascadeIsAnnouncedInOneDelivery() {
+		taskManager.addTask(new Task("Work 1", "", "Work", "High", LocalDate.now().plusDays(3)));
+		taskManager.addTask(new Task("Home 1", "", "Personal", "High", LocalDate.now().plusDays(3)));
+		taskManager.addReminder("Work 1", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+		List<Runnable> queued = new ArrayList<>();
+		List<List<TaskEvent>> deliveries = new ArrayList<>();
+		taskManager.subscribe(deliveries::add, queued::add);
+
+		taskManager.removeCategory(taskManager.getCategories().get(0));
+		assertTrue(deliveries.isEmpty(), "Delivered on the listener's executor");
+		queued.forEach(Runnable::run);
+		assertEquals(1, deliveries.size());
+		assertEquals(List.of(TaskEvent.ReminderRemoved.class, TaskEvent.TaskRemoved.class, TaskEvent.CategoryRemoved.class),
+				deliveries.get(0).stream().map(Object::getClass).toList());
+
+		taskManager.removePriority(taskManager.getPriorities().get(0));
+		queued.get(1).run();
+		TaskEvent.TaskUpdated reassigned = (TaskEvent.TaskUpdated) deliveries.get(1).get(0);
+		assertEquals("Home 1", reassigned.task().getTitle());
+		assertEquals(Set.of(TaskEvent.Field.PRIORITY), reassigned.fields());
+		assertEquals(new TaskEvent.PriorityRemoved("High"), deliveries.get(1).get(1));
+	}
+
+	// Test: Reminder dates follow deadline changes and are looked up by day.
+	@Test
+	public void testReminderDatesFollowDeadline() {
+		LocalDate deadline = LocalDate.now().plusDays(10);
+		Task task = new Task("Report", "", "Work", "High", deadline);
+		taskManager.addTask(task);
+		taskManager.addReminder("Report", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+		TaskReminder reminder = taskManager.getReminders().get(0);
+		assertEquals(deadline.minusDays(1), reminder.computeReminderDate());
+
+		taskManager.updateTask(task, null, null, null, null, deadline.plusDays(5));
+		assertEquals(deadline.plusDays(4), reminder.computeReminderDate());
+
+		reminder.setType(TaskReminder.ReminderType.ONE_WEEK_BEFORE);
+		assertEquals(deadline.minusDays(2), reminder.computeReminderDate());
+	}
+
+	@Test
+	public void testDayRolloverMarksOnlyPassedDeadlines() {
+		LocalDate today = LocalDate.now();
+		Task dueToday = new Task("Today", "", "Work", "High", today);
+		Task dueTomorrow = new Task("Tomorrow", "", "Work", "High", today.plusDays(1));
+		Task done = new Task("Done", "", "Work", "High", today);
+		taskManager.addTask(dueToday);
+		taskManager.addTask(dueTomorrow);
+		taskManager.addTask(done);
+		taskManager.updateTaskStatus(done, TaskStatus.COMPLETED);
+		int[] changes = {0};
+		taskManager.subscribe(events -> changes[0]++);
+
+		assertEquals(0, taskManager.rollOverTo(today));
+		assertEquals(0, changes[0], "Nothing moved, nothing announced");
+
+		assertEquals(1, taskManager.rollOverTo(today.plusDays(1)));
+		assertEquals(TaskStatus.DELAYED, dueToday.getStatus());
+		assertEquals(TaskStatus.OPEN, dueTomorrow.getStatus());
+		assertEquals(TaskStatus.COMPLETED, done.getStatus());
+		assertEquals(1, changes[0]);
+
+		assertEquals(1, taskManager.rollOverTo(today.plusDays(2)));
+		assertEquals(TaskStatus.DELAYED, dueTomorrow.getStatus());
+		assertEquals(2, taskManager.countTasksWithStatus(TaskStatus.DELAYED));
+	}
+
+	@Test
+	public void testDayRolloverAfterEditsCanBeUndone() {
+		LocalDate today = LocalDate.now();
+		for (int i = 0; i < 40; i++) {
+			taskManager.addTask(new Task("Task " + i, "", "Work", "High", today.plusDays(i % 2)));
+		}
+		// Edited since the last rollover: moved out of the passed days, or completed
+		Task moved = taskManager.getTaskByTitle("Task 0");
+		taskManager.updateTask(moved, null, null, null, null, today.plusDays(5));
+		taskManager.updateTaskStatus(taskManager.getTaskByTitle("Task 2"), TaskStatus.COMPLETED);
+
+		assertEquals(18, taskManager.rollOverTo(today.plusDays(1)));
+		assertEquals(TaskStatus.OPEN, moved.getStatus());
+		assertEquals(18, taskManager.countTasksWithStatus(TaskStatus.DELAYED));
+
+		taskManager.getHistory().undo();
+		assertEquals(0, taskManager.countTasksWithStatus(TaskStatus.DELAYED));
+		assertEquals(18, taskManager.rollOverTo(today.plusDays(1)), "The same tasks move again");
+	}
+
 	// Test: Priority management (add, rename, remove).
+	@Test
+	public void testSummaryCountsFollowChanges() {
+		LocalDate today = LocalDate.now();
+		for (int i = 0; i < 10; i++) {
+			taskManager.addTask(new Task("Task " + i, "", "Work", "High", i == 9 ? null : today.plusDays(i)));
+		}
+		assertEquals(7, taskManager.countTasksDueWithin(7));
+		assertEquals(10, taskManager.countTasksWithStatus(TaskStatus.OPEN));
+
+		Task task = taskManager.getTaskByTitle("Task 1");
+		taskManager.updateTaskStatus(task, TaskStatus.COMPLETED);
+		taskManager.updateTask(taskManager.getTaskByTitle("Task 8"), null, null, null, null, today.plusDays(2));
+		taskManager.removeTask(taskManager.getTaskByTitle("Task 0"));
+		assertEquals(1, taskManager.countTasksWithStatus(TaskStatus.COMPLETED));
+		assertEquals(8, taskManager.countTasksWithStatus(TaskStatus.OPEN));
+		assertEquals(7, taskManager.countTasksDueWithin(7), "Completed tasks still count as due");
+
+		taskManager.getHistory().undo();
+		taskManager.getHistory().undo();
+		assertEquals(7, taskManager.countTasksDueWithin(7));
+		assertEquals(1, taskManager.countTasksWithStatus(TaskStatus.COMPLETED));
+	}
+
 	@Test
 	public void testPriorityManagement() {
 		// Add a new priority.
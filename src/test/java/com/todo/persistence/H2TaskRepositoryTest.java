@@ -0,0 +1,148 @@
+package com.todo.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.controller.TaskManager;
+import com.todo.models.Task;
+import com.todo.models.TaskReminder;
+import com.todo.models.TaskStatus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+public class H2TaskRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private static Task task(String title, String category) {
+        return new Task(title, "About " + title, category, "Default", LocalDate.now().plusDays(4));
+    }
+
+    @Test
+    public void testIncrementalSavesRoundTrip() throws IOException {
+        TaskManager first = new TaskManager(new H2TaskRepository(dir));
+        first.addCategory("Work");
+        first.addCategory("Home");
+        for (int i = 0; i < 50; i++) {
+            first.addTask(task("Task " + i, i % 2 == 0 ? "Work" : "Home"));
+        }
+        first.addReminder("Task 3", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+        first.addPriority("Urgent", 50);
+        // Generation 1 is the empty store created when the directory was first opened
+        assertEquals(2, first.saveSnapshot());
+
+        // Only these rows change in the second save
+        Task renamed = first.getTaskByTitle("Task 1");
+        first.updateTask(renamed, "Renamed", "New text", "Work", "Default", renamed.getDeadline());
+        first.updateTaskStatus(first.getTaskByTitle("Task 2"), TaskStatus.IN_PROGRESS);
+        first.removeTask(first.getTaskByTitle("Task 4"));
+        first.addTask(task("Late addition", "Home"));
+        assertEquals(3, first.saveSnapshot());
+        first.close();
+
+        TaskManager second = new TaskManager(dir);
+        assertEquals(50, second.getTasks().size());
+        assertEquals("Renamed", second.getTasks().get(1).getTitle(), "Rows keep their order");
+        assertEquals("New text", second.getTaskByTitle("renamed").getDescription());
+        assertEquals(TaskStatus.IN_PROGRESS, second.getTaskByTitle("Task 2").getStatus());
+        assertNull(second.getTaskByTitle("Task 4"));
+        assertEquals("Late addition", second.getTasks().get(49).getTitle());
+        assertSame(second.getTaskByTitle("Task 3"), second.getReminders().get(0).getTask());
+        assertEquals(List.of("Work", "Home"), second.getCategories().stream().map(c -> c.getName()).toList());
+        assertEquals(50, second.getPriorityRank("Urgent"));
+        second.close();
+    }
+
+    @Test
+    public void testLongDescriptionsStayInTheDatabase() throws IOException {
+        String longText = "A long description that is only read when the edit dialog asks for it. ".repeat(3);
+        TaskManager first = new TaskManager(new H2TaskRepository(dir));
+        first.addCategory("Work");
+        first.addTask(new Task("Long", longText, "Work", "Default", LocalDate.now().plusDays(2)));
+        first.saveSnapshot();
+        Task task = first.getTaskByTitle("Long");
+        assertInstanceOf(Task.DescriptionLoader.class, task.getDescriptionHandle());
+
+        // Changing other columns keeps the stored text without reading it
+        first.updateTaskStatus(task, TaskStatus.IN_PROGRESS);
+        first.saveSnapshot();
+        first.close();
+
+        TaskManager second = new TaskManager(dir);
+        Task loaded = second.getTaskByTitle("Long");
+        assertInstanceOf(Task.DescriptionLoader.class, loaded.getDescriptionHandle());
+        assertEquals(longText, loaded.getDescription());
+        assertEquals(TaskStatus.IN_PROGRESS, loaded.getStatus());
+        second.close();
+    }
+
+    @Test
+    public void testSearchUsesIndexWhileClean() throws IOException {
+        H2TaskRepository repository = new H2TaskRepository(dir);
+        TaskManager taskManager = new TaskManager(repository);
+        taskManager.addCategory("Work");
+        taskManager.addCategory("Home");
+        taskManager.addTask(task("Write 100% report", "Work"));
+        taskManager.addTask(task("Write letter", "Home"));
+        taskManager.addTask(task("Read", "Work"));
+
+        // Unsaved changes: answered from memory
+        assertEquals(2, taskManager.searchTasks("write", null, null).size());
+        assertTrue(repository.findTasks(null, null, null).get().isEmpty());
+
+        taskManager.saveSnapshot();
+        List<Task> work = repository.findTasks("WRITE", "work", "").get();
+        assertEquals(1, work.size());
+        assertSame(taskManager.getTaskByTitle("Write 100% report"), work.get(0));
+        assertEquals(1, repository.findTasks("100%", null, null).get().size(), "LIKE wildcards are matched literally");
+        assertEquals(work, taskManager.searchTasks("WRITE", "work", ""));
+        taskManager.close();
+    }
+
+    @Test
+    public void testIndexedSearchKeepsTheStoreOrder() throws IOException {
+        H2TaskRepository repository = new H2TaskRepository(dir);
+        TaskManager taskManager = new TaskManager(repository);
+        taskManager.addCategory("Work");
+        taskManager.addTask(task("Plan A", "Work"));
+        taskManager.addTask(task("Plan B", "Work"));
+        taskManager.addTask(task("Plan C", "Work"));
+        taskManager.saveSnapshot();
+        // Put back at the front under a new row id
+        taskManager.removeTask(taskManager.getTaskByTitle("Plan A"));
+        taskManager.saveSnapshot();
+        taskManager.getHistory().undo();
+        List<Task> scanned = taskManager.searchTasks("plan", null, null);
+        assertEquals("Plan A", scanned.get(0).getTitle());
+
+        taskManager.saveSnapshot();
+        assertEquals(scanned, repository.findTasks("plan", null, null).get());
+        assertEquals(scanned, taskManager.searchTasks("plan", null, null));
+        taskManager.close();
+    }
+
+    @Test
+    public void testExistingJsonStoreIsImported() throws IOException {
+        TaskManager json = new TaskManager(new JsonTaskRepository(dir));
+        json.addCategory("Work");
+        json.addTask(task("From JSON", "Work"));
+        json.saveSnapshot();
+
+        TaskManager h2 = new TaskManager(new H2TaskRepository(dir));
+        assertEquals("From JSON", h2.getTasks().get(0).getTitle());
+        h2.close();
+        assertTrue(Files.exists(dir.resolve(H2TaskRepository.DATABASE_FILE)));
+
+        // Once the database exists, the directory opens with it by default
+        TaskManager reopened = new TaskManager(dir);
+        assertEquals(1, reopened.getTasks().size());
+        assertEquals(1, reopened.searchTasks("json", "", "").size());
+        reopened.close();
+    }
+}
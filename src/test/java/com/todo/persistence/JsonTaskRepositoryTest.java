@@ -0,0 +1,105 @@
+package com.todo.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.controller.TaskManager;
+import com.todo.models.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+public class JsonTaskRepositoryTest {
+
+    @TempDir
+    Path dir;
+
+    private static final String LONG_TEXT = "Ünïcode, \"quotes\", back\\slash and a\nline break. ".repeat(5);
+
+    @Test
+    public void testLongDescriptionsAreReadOnDemandAcrossSaves() throws IOException {
+        TaskManager first = new TaskManager(dir);
+        first.addCategory("Work");
+        first.addTask(new Task("Long", LONG_TEXT, "Work", "Default", LocalDate.now().plusDays(2)));
+        first.addTask(new Task("Short", "tiny", "Work", "Default", LocalDate.now().plusDays(2)));
+        first.saveSnapshot();
+
+        Task stored = first.getTaskByTitle("Long");
+        assertInstanceOf(Task.DescriptionLoader.class, stored.getDescriptionHandle(), "Saved long text leaves the heap");
+        assertEquals("tiny", first.getTaskByTitle("Short").getDescriptionHandle());
+        assertEquals(LONG_TEXT, stored.getDescription());
+
+        // More saves than generations kept: the text moves along with each new file
+        for (int i = 0; i < 3; i++) {
+            first.updateTaskStatus(first.getTaskByTitle("Short"), com.todo.models.TaskStatus.IN_PROGRESS);
+            first.saveSnapshot();
+        }
+        assertFalse(Files.exists(dir.resolve("tasks.1.json")));
+        assertEquals(LONG_TEXT, stored.getDescription());
+
+        TaskManager second = new TaskManager(dir);
+        Task loaded = second.getTaskByTitle("Long");
+        assertInstanceOf(Task.DescriptionLoader.class, loaded.getDescriptionHandle(), "Loading does not decode long text");
+        assertEquals(LONG_TEXT, loaded.getDescription());
+        assertEquals("tiny", second.getTaskByTitle("Short").getDescription());
+    }
+
+    @Test
+    public void testEditedAndRemovedTasksKeepTheirText() throws IOException {
+        TaskManager taskManager = new TaskManager(dir);
+        taskManager.addCategory("Work");
+        taskManager.addTask(new Task("Edited", LONG_TEXT, "Work", "Default", LocalDate.now().plusDays(2)));
+        taskManager.addTask(new Task("Removed", LONG_TEXT, "Work", "Default", LocalDate.now().plusDays(2)));
+        taskManager.saveSnapshot();
+
+        Task edited = taskManager.getTaskByTitle("Edited");
+        taskManager.updateTask(edited, "Edited", "New " + LONG_TEXT, "Work", "Default", edited.getDeadline());
+        Task removed = taskManager.getTaskByTitle("Removed");
+        taskManager.removeTask(removed);
+        assertEquals(LONG_TEXT, removed.getDescriptionHandle(), "A removed task no longer depends on the store files");
+
+        taskManager.saveSnapshot();
+        taskManager.saveSnapshot();
+        assertEquals(LONG_TEXT, removed.getDescription());
+        assertEquals("New " + LONG_TEXT, new TaskManager(dir).getTaskByTitle("Edited").getDescription());
+    }
+
+    @Test
+    public void testPrioritiesWithoutRanksKeepTheirOrder() throws IOException {
+        Files.writeString(dir.resolve("priorities.json"), "[{\"name\":\"Low\"},{\"name\":\"Default\"},{\"name\":\"High\"}]");
+        TaskManager legacy = new TaskManager(dir);
+        assertEquals(0, legacy.getPriorityRank("Default"));
+        assertTrue(legacy.getPriorityRank("Low") < legacy.getPriorityRank("High"));
+
+        legacy.addPriority("Urgent", 40);
+        legacy.saveSnapshot();
+        assertEquals(40, new TaskManager(dir).getPriorityRank("urgent"));
+        assertThrows(IllegalArgumentException.class, () -> legacy.addPriority("Too high", 1000));
+    }
+
+    @Test
+    public void testAStoreWithNoIntactGenerationFailsToLoad() throws IOException {
+        TaskManager first = new TaskManager(dir);
+        first.addCategory("Work");
+        first.addTask(new Task("Keep me", "", "Work", "Default", LocalDate.now().plusDays(2)));
+        first.saveSnapshot();
+        first.saveSnapshot();
+        try (var files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().startsWith("tasks.")).toList()) {
+                Files.writeString(file, "[damaged");
+            }
+        }
+
+        assertThrows(IOException.class, () -> new JsonTaskRepository(dir).load());
+        assertThrows(IllegalStateException.class, () -> new TaskManager(dir), "Not loaded as an empty store");
+    }
+
+    @Test
+    public void testAnUnreadableLegacyFileFailsToLoad() throws IOException {
+        Files.writeString(dir.resolve("tasks.json"), "{not a list");
+        assertThrows(IOException.class, () -> new JsonTaskRepository(dir).load());
+    }
+}
@@ -0,0 +1,120 @@
+package com.todo.persistence;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.controller.TaskManager;
+import com.todo.models.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static Map<String, SnapshotStore.ContentWriter> files(String content) {
+        Map<String, SnapshotStore.ContentWriter> files = new LinkedHashMap<>();
+        files.put("a.json", out -> out.write(content.getBytes(StandardCharsets.UTF_8)));
+        files.put("b.json", out -> out.write(("[" + content + "]").getBytes(StandardCharsets.UTF_8)));
+        return files;
+    }
+
+    private static String read(SnapshotStore store, SnapshotStore.Generation generation, String name) throws IOException {
+        try (InputStream in = store.open(generation, name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void testCommitKeepsTwoGenerationsNewestFirst() throws IOException {
+        SnapshotStore store = new SnapshotStore(dir);
+        Files.writeString(dir.resolve("export.1.json"), "[]");
+        Files.writeString(dir.resolve("backup.99999999999999999999.json"), "[]");
+        assertEquals(1, store.commit(files("one")));
+        assertEquals(2, store.commit(files("two")));
+        assertEquals(3, store.commit(files("three")));
+
+        assertEquals(2, store.generations().size());
+        assertEquals(3, store.generations().get(0).number());
+        assertEquals("[three]", read(store, store.generations().get(0), "b.json"));
+        assertFalse(Files.exists(dir.resolve("a.1.json")), "Generations older than the previous one are pruned");
+        assertTrue(Files.exists(dir.resolve("export.1.json")), "Files the store did not write are left alone");
+        assertTrue(Files.exists(dir.resolve("backup.99999999999999999999.json")));
+        try (var entries = Files.list(dir)) {
+            assertTrue(entries.noneMatch(p -> p.toString().endsWith(".tmp")));
+        }
+    }
+
+    @Test
+    public void testCorruptFileIsDetectedOnClose() throws IOException {
+        SnapshotStore store = new SnapshotStore(dir);
+        store.commit(files("intact"));
+        Files.writeString(dir.resolve("a.1.json"), "intacT");
+
+        SnapshotStore.Generation generation = store.generations().get(0);
+        IOException e = assertThrows(IOException.class, () -> read(store, generation, "a.json"));
+        assertTrue(e.getMessage().contains("does not match its manifest"));
+    }
+
+    @Test
+    public void testTaskManagerRecoversLastCompleteGeneration() throws IOException {
+        TaskManager first = new TaskManager(dir);
+        first.addCategory("Work");
+        first.addTask(new Task("Kept", "", "Work", "Default", LocalDate.now().plusDays(1)));
+        first.saveSnapshot();
+        first.addTask(new Task("Lost", "", "Work", "Default", LocalDate.now().plusDays(1)));
+        first.saveSnapshot();
+
+        // Simulate a torn write of the newest generation's task file
+        Path newest = dir.resolve("tasks.2.json");
+        Files.write(newest, Arrays.copyOf(Files.readAllBytes(newest), 10));
+
+        TaskManager recovered = new TaskManager(dir);
+        assertEquals(1, recovered.getTasks().size());
+        assertEquals("Kept", recovered.getTasks().get(0).getTitle());
+        assertEquals("Work", recovered.getCategories().get(0).getName());
+    }
+
+    @Test
+    public void testCrashBeforeManifestLeavesPreviousGenerationLive() throws IOException {
+        TaskManager first = new TaskManager(dir);
+        first.addCategory("Work");
+        first.saveSnapshot();
+
+        // Data files of generation 2 were written but the manifest (the commit point) never was
+        Files.writeString(dir.resolve("tasks.2.json"), "[{\"title\":\"Half written\"");
+        Files.writeString(dir.resolve("categories.2.json.tmp"), "[");
+
+        TaskManager recovered = new TaskManager(dir);
+        assertTrue(recovered.getTasks().isEmpty());
+        assertEquals(1, recovered.getCategories().size());
+
+        // The next save reuses generation 2 and replaces the leftovers
+        assertEquals(2, recovered.saveSnapshot());
+        assertFalse(Files.exists(dir.resolve("categories.2.json.tmp")));
+    }
+
+    @Test
+    public void testCommitOnAStaleGenerationIsRefused() throws IOException {
+        SnapshotStore store = new SnapshotStore(dir);
+        SnapshotStore other = new SnapshotStore(dir);
+        assertEquals(1, store.commit(files("mine"), 0, g -> {
+        }));
+        assertThrows(StoreConflictException.class, () -> other.commit(files("theirs"), 0, g -> {
+        }));
+        assertEquals(2, other.commit(files("theirs"), 1, g -> {
+        }));
+        assertEquals("mine", read(store, store.generations().get(1), "a.json"));
+        assertTrue(Files.exists(dir.resolve(SnapshotStore.LOCK_FILE)));
+    }
+}
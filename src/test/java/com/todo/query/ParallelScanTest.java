@@ -0,0 +1,70 @@
+package com.todo.query;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.controller.TaskBatch;
+import com.todo.controller.TaskManager;
+import com.todo.models.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+public class ParallelScanTest {
+
+    @TempDir
+    Path dataDir;
+
+    private static List<Task> tasks(int count) {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Task("Task " + i, i % 9 == 0 ? "needle" : "", "C" + (i % 13), "Default",
+                    i % 5 == 0 ? null : LocalDate.now().plusDays(i % 40)));
+        }
+        return tasks;
+    }
+
+    @Test
+    public void testParallelScansMatchTheSequentialOnes() {
+        List<Task> large = tasks(ParallelScan.THRESHOLD * 3 + 17);
+        assertTrue(ParallelScan.isParallel(large));
+        Predicate<Task> test = t -> t.getDescription().contains("needle") && t.hasDeadline();
+
+        List<Task> expected = large.stream().filter(test).toList();
+        assertEquals(expected, ParallelScan.filter(large, test), "Matches keep the list order");
+        assertEquals(expected.size(), ParallelScan.count(large, test));
+        Map<String, Integer> byCategory = large.stream()
+                .collect(Collectors.groupingBy(Task::getCategory, Collectors.summingInt(t -> 1)));
+        assertEquals(byCategory, ParallelScan.countBy(large, Task::getCategory));
+
+        List<Task> small = large.subList(0, 100);
+        assertFalse(ParallelScan.isParallel(small));
+        assertEquals(small.stream().filter(test).toList(), ParallelScan.filter(small, test));
+    }
+
+    @Test
+    public void testLargeStoreScansAgreeWithTheIndexes() {
+        TaskManager taskManager = new TaskManager(dataDir);
+        for (int i = 0; i < 13; i++) {
+            taskManager.addCategory("C" + i);
+        }
+        TaskBatch batch = taskManager.batch().withoutPersist();
+        tasks(ParallelScan.THRESHOLD * 2).forEach(batch::addTask);
+        batch.commit();
+
+        assertTrue(taskManager.explainQuery("description:needle").contains("in parallel"));
+        List<Task> scanned = taskManager.query("description:needle");
+        assertEquals(taskManager.getTasks().stream().filter(t -> t.getDescription().equals("needle")).toList(), scanned);
+        assertEquals(taskManager.query("category:c3 description:needle"),
+                taskManager.query("description:needle category:c3"));
+        assertEquals(taskManager.getTasks().stream().filter(t -> t.getTitle().contains("99")).toList(),
+                taskManager.searchTasks("99", null, null));
+        assertEquals(20_000 / 13 + 1, taskManager.countTasksByCategory().get("C0"));
+    }
+}
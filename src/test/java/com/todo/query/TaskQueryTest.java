@@ -0,0 +1,170 @@
+package com.todo.query;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.controller.TaskBatch;
+import com.todo.controller.TaskManager;
+import com.todo.models.Task;
+import com.todo.models.TaskPriority;
+import com.todo.models.TaskReminder;
+import com.todo.models.TaskStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Predicate;
+
+public class TaskQueryTest {
+
+    @TempDir
+    Path dataDir;
+
+    private TaskManager taskManager;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    public void setUp() {
+        taskManager = new TaskManager(dataDir);
+        taskManager.addCategory("Work");
+        taskManager.addCategory("Home");
+        taskManager.addPriority("High");
+        TaskBatch batch = taskManager.batch().withoutPersist();
+        for (int i = 0; i < 2000; i++) {
+            Task task = new Task("Task " + i, i % 10 == 0 ? "budget review" : "", i % 4 == 0 ? "Home" : "Work",
+                    i % 50 == 0 ? "High" : "Default", i % 7 == 0 ? null : today.plusDays(i % 30));
+            batch.addTask(task);
+            if (i % 3 == 0) {
+                batch.updateTaskStatus(task, TaskStatus.IN_PROGRESS);
+            }
+        }
+        batch.commit();
+        taskManager.addReminder("Task 1", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+        taskManager.addReminder("Task 2", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+    }
+
+    // The query's answer must be what checking every task gives
+    private void assertMatchesScan(String query, Predicate<Task> expected) {
+        List<Task> scanned = taskManager.getTasks().stream().filter(expected).toList();
+        assertEquals(scanned, taskManager.query(query).stream()
+                .sorted((a, b) -> taskManager.getTasks().indexOf(a) - taskManager.getTasks().indexOf(b)).toList(), query);
+    }
+
+    @Test
+    public void testQueriesMatchAFullScan() {
+        assertMatchesScan("category:home status:in_progress",
+                t -> t.getCategory().equals("Home") && t.getStatus() == TaskStatus.IN_PROGRESS);
+        assertMatchesScan("priority:high OR deadline:none",
+                t -> t.getPriority().equals("High") || !t.hasDeadline());
+        assertMatchesScan("deadline:today..today+2 NOT category:work",
+                t -> t.hasDeadline() && !t.getDeadline().isAfter(today.plusDays(2)) && t.getCategory().equals("Home"));
+        assertMatchesScan("description:\"BUDGET review\" (has:reminders OR title:\"task 1\")",
+                t -> t.getDescription().equals("budget review") && t.getTitle().startsWith("Task 1"));
+        assertMatchesScan("has:reminders", t -> t.getTitle().equals("Task 1") || t.getTitle().equals("Task 2"));
+        assertEquals(2000, taskManager.query("").size());
+    }
+
+    // The index is kept up to date by the changes rather than built again
+    @Test
+    public void testQueriesFollowEdits() {
+        assertMatchesScan("category:home", t -> t.getCategory().equals("Home"));
+        Task moved = taskManager.getTaskByTitle("Task 4");
+        taskManager.updateTask(moved, "Task 4", "", "Work", "High", null);
+        taskManager.updateTaskStatus(taskManager.getTaskByTitle("Task 8"), TaskStatus.COMPLETED);
+        taskManager.removeTask(taskManager.getTaskByTitle("Task 1"));
+        taskManager.removeTask(taskManager.getTaskByTitle("Task 12"));
+        taskManager.addReminder("Task 3", TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+        taskManager.setPriorityRank(taskManager.getPriorities().stream()
+                .filter(p -> p.getName().equals("Default")).findFirst().orElseThrow(), TaskPriority.MAX_RANK);
+
+        assertMatchesScan("category:home", t -> t.getCategory().equals("Home"));
+        assertMatchesScan("priority:high deadline:none", t -> t.getPriority().equals("High") && !t.hasDeadline());
+        assertMatchesScan("status:completed OR has:reminders",
+                t -> t.getStatus() == TaskStatus.COMPLETED || t.getTitle().equals("Task 2") || t.getTitle().equals("Task 3"));
+        assertMatchesScan("priority:<default", t -> t.getPriority().equals("High"));
+        assertEquals("Default", taskManager.getTopTasks("-priority", 1).get(0).getPriority());
+
+        taskManager.getHistory().undo();
+        taskManager.getHistory().undo();
+        assertMatchesScan("has:reminders", t -> t.getTitle().equals("Task 2"));
+        assertMatchesScan("deadline:today+12", t -> t.hasDeadline() && t.getDeadline().equals(today.plusDays(12)));
+        assertEquals(1998, taskManager.query("").size());
+    }
+
+    @Test
+    public void testSortAndLimit() {
+        List<Task> soonest = taskManager.query("category:work sort:deadline limit:5");
+        assertEquals(5, soonest.size());
+        assertTrue(soonest.stream().allMatch(t -> t.getDeadline().equals(today)));
+
+        List<Task> latest = taskManager.query("sort:-deadline limit:1");
+        assertEquals(today.plusDays(29), latest.get(0).getDeadline());
+        List<Task> byTitle = taskManager.query("status:open sort:title");
+        assertEquals("Task 1", byTitle.get(0).getTitle());
+    }
+
+    @Test
+    public void testPagesFollowOneOrder() {
+        taskManager.addPriority("Low");
+        for (String sort : List.of("deadline", "-deadline", "priority", "-priority", "status", "-status", "title", "-category")) {
+            List<Task> all = taskManager.getTaskPage(sort, 0, 5000);
+            assertEquals(2000, all.size(), sort);
+            for (int offset = 0; offset < 2000; offset += 300) {
+                assertEquals(all.subList(offset, Math.min(2000, offset + 300)), taskManager.getTaskPage(sort, offset, 300), sort);
+            }
+            // Walking an index and keeping a heap must agree
+            assertEquals(all.subList(0, 50), taskManager.query("sort:" + sort).subList(0, 50), sort);
+        }
+
+        // Priorities sort by rank: Default, High, Low; no deadline goes last either way
+        List<Task> byPriority = taskManager.getTaskPage("-priority", 0, 2000);
+        assertEquals("High", byPriority.get(0).getPriority());
+        assertEquals("Default", byPriority.get(1999).getPriority());
+        assertFalse(taskManager.getTopTasks("-deadline", 2000).get(1999).hasDeadline());
+        assertTrue(taskManager.explainQuery("sort:deadline limit:10").contains("read: deadline index in order"));
+        assertTrue(taskManager.explainQuery("priority:high sort:deadline limit:10").contains("in a heap"));
+    }
+
+    @Test
+    public void testPriorityRankRanges() {
+        TaskPriority high = taskManager.getPriorities().stream().filter(p -> p.getName().equals("High")).findFirst().get();
+        taskManager.setPriorityRank(high, 10);
+        taskManager.addPriority("Medium", 5);
+        taskManager.addPriority("Low", 1);
+
+        assertMatchesScan("priority:>=medium", t -> t.getPriority().equals("High"));
+        assertMatchesScan("priority:<MEDIUM", t -> t.getPriority().equals("Default"));
+        assertMatchesScan("priority:default..medium category:home",
+                t -> t.getPriority().equals("Default") && t.getCategory().equals("Home"));
+        assertTrue(taskManager.query("priority:>high").isEmpty());
+        String plan = taskManager.explainQuery("priority:>=medium");
+        assertTrue(plan.contains("read: priority:>=medium, 40 of 2000 tasks"), plan);
+        assertFalse(plan.contains("check:"), plan);
+        assertThrows(IllegalArgumentException.class, () -> taskManager.query("priority:>=urgent"));
+
+        // Changing a rank reorders the index
+        TaskPriority standard = taskManager.getPriorities().stream().filter(p -> p.getName().equals("Default")).findFirst().get();
+        taskManager.setPriorityRank(standard, 20);
+        assertEquals("Default", taskManager.getTopTasks("-priority", 1).get(0).getPriority());
+    }
+
+    @Test
+    public void testPlannerUsesTheMostSelectiveIndex() {
+        String plan = taskManager.explainQuery("status:open category:work priority:high title:1");
+        assertTrue(plan.contains("read: priority:high, 40 of 2000 tasks"), plan);
+        assertTrue(plan.contains("check: "), plan);
+
+        assertTrue(taskManager.explainQuery("NOT title:x").contains("read: scan all 2000 tasks"));
+        assertFalse(taskManager.explainQuery("category:home OR has:reminders").contains("check:"));
+    }
+
+    @Test
+    public void testMalformedQueries() {
+        for (String bad : List.of("status:done", "deadline:soon", "(category:work", "limit:0", "sort:colour", "priority:..",
+                "colour:red", "title:\"open")) {
+            assertThrows(IllegalArgumentException.class, () -> taskManager.query(bad), bad);
+        }
+    }
+}
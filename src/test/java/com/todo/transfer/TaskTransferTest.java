@@ -0,0 +1,140 @@
+package com.todo.transfer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.todo.controller.TaskManager;
+import com.todo.models.Task;
+import com.todo.models.TaskStatus;
+import com.todo.persistence.SnapshotStore;
+import com.todo.persistence.StoreData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+public class TaskTransferTest {
+
+    @TempDir
+    Path dir;
+
+    private TaskManager taskManager;
+
+    @BeforeEach
+    public void setUp() {
+        taskManager = new TaskManager(dir.resolve("store"));
+        taskManager.addCategory("Work");
+        taskManager.addPriority("High");
+    }
+
+    @Test
+    public void testCsvImportReportsPerRowErrors() throws Exception {
+        String deadline = LocalDate.now().plusDays(2).toString();
+        String csv = "title,description,category,priority,deadline,status\n"
+                + "Plain,,Work,High," + deadline + ",\n"
+                + "\"Quoted, with comma\",\"multi\nline \"\"text\"\"\",Work,,"  + deadline + ",IN_PROGRESS\n"
+                + "Unknown category,,Home,High," + deadline + ",\n"
+                + "Bad date,,Work,High,tomorrow,\n"
+                + "Too,few,columns\n";
+
+        ImportReport report = new TaskImporter(taskManager)
+                .importFrom(RecordKind.TASKS, TransferFormat.CSV, new StringReader(csv));
+
+        assertEquals(5, report.getRowsRead());
+        assertEquals(2, report.getImported());
+        assertEquals(3, report.getRejected());
+        assertEquals(5, report.getErrors().get(0).line(), "Line numbers account for the quoted line break");
+        assertTrue(report.getErrors().get(0).message().contains("Category does not exist"));
+        assertTrue(report.getErrors().get(1).message().contains("Invalid date"));
+        assertTrue(report.getErrors().get(2).message().contains("columns"));
+
+        Task quoted = taskManager.getTaskByTitle("Quoted, with comma");
+        assertEquals("multi\nline \"text\"", quoted.getDescription());
+        assertEquals("Default", quoted.getPriority());
+        assertEquals(TaskStatus.IN_PROGRESS, quoted.getStatus());
+        assertEquals(1, new SnapshotStore(dir.resolve("store")).latestGenerationNumber(),
+                "Import should persist once at the end");
+    }
+
+    @Test
+    public void testJsonLinesRoundTripAcrossInstances() throws Exception {
+        for (int i = 0; i < 25_000; i++) {
+            taskManager.addTask(new Task("Task " + i, "Note, \"" + i + "\"", "Work", "High", LocalDate.now().plusDays(3)));
+        }
+        taskManager.addReminder("Task 7", com.todo.models.TaskReminder.ReminderType.ONE_DAY_BEFORE, null);
+
+        Path tasksFile = dir.resolve("tasks.jsonl");
+        Path remindersFile = dir.resolve("reminders.csv");
+        TaskExporter exporter = new TaskExporter(taskManager);
+        assertEquals(25_000, exporter.exportFile(RecordKind.TASKS, tasksFile));
+        assertEquals(1, exporter.exportFile(RecordKind.REMINDERS, remindersFile));
+
+        TaskManager target = new TaskManager(dir.resolve("other"));
+        target.addCategory("Work");
+        target.addPriority("High");
+        TaskImporter importer = new TaskImporter(target);
+        assertEquals(25_000, importer.importFile(RecordKind.TASKS, tasksFile).getImported());
+        assertEquals(1, importer.importFile(RecordKind.REMINDERS, remindersFile).getImported());
+
+        assertEquals("Note, \"42\"", target.getTaskByTitle("Task 42").getDescription());
+        assertSame(target.getTaskByTitle("Task 7"), target.getReminders().get(0).getTask());
+
+        StringWriter again = new StringWriter();
+        new TaskExporter(target).exportTo(RecordKind.TASKS, TransferFormat.JSON_LINES, again);
+        assertEquals(Files.readString(tasksFile), again.toString());
+    }
+
+    @Test
+    public void testExportOfASnapshotIgnoresLaterEdits() throws Exception {
+        for (int i = 0; i < 5_000; i++) {
+            taskManager.addTask(new Task("Task " + i, "", "Work", "High", LocalDate.now().plusDays(3)));
+        }
+        StringWriter expected = new StringWriter();
+        new TaskExporter(taskManager).exportTo(RecordKind.TASKS, TransferFormat.CSV, expected);
+
+        StoreData snapshot = taskManager.snapshot();
+        StringWriter exported = new StringWriter();
+        Thread exportThread = new Thread(() -> {
+            try {
+                new TaskExporter(snapshot).exportTo(RecordKind.TASKS, TransferFormat.CSV, exported);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        exportThread.start();
+        // Edits go on meanwhile, on this thread
+        for (int i = 0; i < 1_000; i++) {
+            taskManager.removeTask(taskManager.getTasks().get(0));
+            taskManager.addTask(new Task("New " + i, "", "Work", "High", LocalDate.now().plusDays(4)));
+        }
+        exportThread.join();
+
+        assertEquals(expected.toString(), exported.toString());
+        assertEquals(5_000, snapshot.tasks().size());
+        assertEquals("Task 1", snapshot.tasks().get(1).getTitle());
+        assertEquals("Task 1001", taskManager.getTasks().get(1).getTitle());
+    }
+
+    @Test
+    public void testJsonLinesMalformedLinesAreSkipped() throws Exception {
+        String lines = "{\"name\":\"Home\"}\n"
+                + "not json\n"
+                + "\n"
+                + "{\"name\":\"work\"}\n"
+                + "{\"name\":\"Garden\"}\n";
+        ImportReport report = new TaskImporter(taskManager)
+                .importFrom(RecordKind.CATEGORIES, TransferFormat.JSON_LINES, new StringReader(lines));
+
+        assertEquals(2, report.getImported());
+        assertEquals(2, report.getRejected());
+        assertEquals(2, report.getErrors().get(0).line());
+        assertEquals(4, report.getErrors().get(1).line());
+        assertTrue(report.getErrors().get(1).message().contains("already exists"));
+    }
+}